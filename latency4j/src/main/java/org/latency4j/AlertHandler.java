@@ -104,6 +104,147 @@ public interface AlertHandler {
 	 */
 	void latencyExceededCap(CappedLatencyRequirement requirement, WorkDuration duration);
 
+	/**
+	 * <p>
+	 * Invoked when the error rate of a {@link LatencyRequirement#getWorkCategory()
+	 * category} over the current window has exceeded either the
+	 * {@link ErrorRateLatencyRequirement#getMaxErrorRate() maximum error rate}
+	 * or the {@link ErrorRateLatencyRequirement#getToleranceLevel() tolerance}
+	 * relative to the baseline error rate. This is only applicable to
+	 * {@link ErrorRateLatencyRequirement error-rate requirements}, and is
+	 * invoked at most once per window.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link ErrorRateLatencyRequirement requirement} which has
+	 *            been breached.
+	 * @param duration
+	 *            The {@link WorkDuration duration} of the call with which the
+	 *            breach was detected.
+	 * @param errorRate
+	 *            The error rate of the current window, as a fraction between
+	 *            <code>0</code> and <code>1</code>.
+	 * @param baselineErrorRate
+	 *            The baseline error rate of preceding windows, or
+	 *            {@link Double#NaN} if no baseline has been established yet.
+	 * 
+	 * @see ErrorRateLatencyRequirement
+	 */
+	void errorRateExceeded(ErrorRateLatencyRequirement requirement, WorkDuration duration, double errorRate,
+			double baselineErrorRate);
+
+	/**
+	 * <p>
+	 * Invoked when the rate at which the {@link LatencyRequirement#getWorkCategory()
+	 * operations} of a {@link ThroughputLatencyRequirement throughput
+	 * requirement} complete has fallen below the
+	 * {@link ThroughputLatencyRequirement#getMinCallsPerSecond() minimum}. It
+	 * is not invoked again until the rate has recovered.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link ThroughputLatencyRequirement requirement} which has
+	 *            been breached.
+	 * @param callsPerSecond
+	 *            The completion rate over the last
+	 *            {@link ThroughputLatencyRequirement#getEvaluationInterval()
+	 *            evaluation interval}.
+	 * 
+	 * @see ThroughputLatencyRequirement
+	 */
+	void callRateBelowMinimum(ThroughputLatencyRequirement requirement, double callsPerSecond);
+
+	/**
+	 * <p>
+	 * Invoked when the number of {@link LatencyRequirement#getWorkCategory()
+	 * operations} of a {@link ThroughputLatencyRequirement throughput
+	 * requirement} in progress at once has exceeded the
+	 * {@link ThroughputLatencyRequirement#getMaxConcurrency() maximum}. It is
+	 * not invoked again until concurrency has dropped back.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link ThroughputLatencyRequirement requirement} which has
+	 *            been breached.
+	 * @param concurrency
+	 *            The peak number of operations in progress during the last
+	 *            {@link ThroughputLatencyRequirement#getEvaluationInterval()
+	 *            evaluation interval}.
+	 * 
+	 * @see ThroughputLatencyRequirement
+	 */
+	void concurrencyExceededMaximum(ThroughputLatencyRequirement requirement, long concurrency);
+
+	/**
+	 * <p>
+	 * Called by a {@link LatencyMonitor monitor} to indicate that the
+	 * execution of a {@link LatencyRequirement#getWorkCategory() task} exceeded
+	 * the {@link CappedLatencyRequirement#getWarningLatency() warning latency}
+	 * of its {@link CappedLatencyRequirement requirement}, but not the
+	 * {@link CappedLatencyRequirement#getExpectedLatency() expected latency}.
+	 * Only invoked on the requirement's
+	 * {@link CappedLatencyRequirement#getWarningAlertHandlers() warning
+	 * handlers}.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link CappedLatencyRequirement requirement} whose warning
+	 *            tier was breached.
+	 * @param duration
+	 *            The {@link WorkDuration duration} of the execution.
+	 * 
+	 * @see CappedLatencyRequirement#getWarningLatency()
+	 */
+	void latencyExceededWarningThreshold(CappedLatencyRequirement requirement, WorkDuration duration);
+
+	/**
+	 * <p>
+	 * Invoked when the {@link SloLatencyRequirement SLO requirement} of a
+	 * {@link LatencyRequirement#getWorkCategory() category} is consuming its
+	 * error budget at or above the
+	 * {@link SloLatencyRequirement#getBurnRateThreshold() threshold rate} over
+	 * every {@link SloLatencyRequirement#getBurnRateWindows() window}. It is not
+	 * invoked again until the burn rate over at least one window has dropped
+	 * below the threshold.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link SloLatencyRequirement requirement} whose budget is
+	 *            being consumed.
+	 * @param burnRate
+	 *            The lowest burn rate across the windows, where
+	 *            <code>1</code> would exhaust the budget exactly at the end of
+	 *            the {@link SloLatencyRequirement#getCompliancePeriod()
+	 *            compliance period}.
+	 * 
+	 * @see SloLatencyRequirement
+	 */
+	void errorBudgetBurnRateExceeded(SloLatencyRequirement requirement, double burnRate);
+
+	/**
+	 * <p>
+	 * Invoked when {@link StatisticalLatencyRequirement#getDetectionMode()
+	 * change-point detection} finds that the latency of a
+	 * {@link LatencyRequirement#getWorkCategory() category}'s root calls has
+	 * shifted to a new level, up or down, and stayed there. The new level
+	 * becomes the reference for further detection, so a lasting shift is only
+	 * reported once.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link StatisticalLatencyRequirement requirement} whose
+	 *            category has shifted.
+	 * @param previousLatency
+	 *            The average latency, in milliseconds, before the shift.
+	 * @param shiftedLatency
+	 *            The average latency, in milliseconds, of the calls which
+	 *            revealed the shift.
+	 * 
+	 * @see StatisticalLatencyRequirement#getChangePointThreshold()
+	 */
+	void latencyLevelShiftDetected(StatisticalLatencyRequirement requirement, double previousLatency,
+			double shiftedLatency);
+
 	/**
 	 * <p>
 	 * Called by a {@link LatencyMonitor monitor} to indicate that a task failed
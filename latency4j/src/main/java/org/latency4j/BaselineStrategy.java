@@ -0,0 +1,40 @@
+package org.latency4j;
+
+/**
+ * <p>
+ * Determines how a {@link StatisticalLatencyRequirement statistical
+ * requirement} derives the baseline latency, against which the
+ * {@link StatisticalLatencyRequirement#getToleranceLevel() tolerance level}
+ * is applied, from the latencies observed to date.
+ * </p>
+ */
+public enum BaselineStrategy {
+	/**
+	 * <p>
+	 * The arithmetic mean of all observations. Cheap and exact, but a handful
+	 * of extreme outliers, such as calls stalled by a garbage collection pause
+	 * or a timeout, can inflate it for a long time.
+	 * </p>
+	 */
+	MEAN,
+
+	/**
+	 * <p>
+	 * The median of all observations, taken from the latency histogram, and
+	 * therefore accurate to within its bucket width. Unaffected by outliers
+	 * unless they make up half of the observations.
+	 * </p>
+	 */
+	MEDIAN,
+
+	/**
+	 * <p>
+	 * The mean of the observations which remain once the
+	 * {@link StatisticalLatencyRequirement#getBaselineTrim() trim fraction}
+	 * has been discarded from each end of the latency histogram. A compromise
+	 * between the sensitivity of the {@link #MEAN mean} and the robustness of
+	 * the {@link #MEDIAN median}.
+	 * </p>
+	 */
+	TRIMMED_MEAN
+}// end class def
@@ -1,5 +1,11 @@
 package org.latency4j;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * <p>
  * Representation of a capped {@link LatencyRequirement latency requirement}.
@@ -9,6 +15,22 @@ package org.latency4j;
  * bound is specified for {@link LatencyRequirement#getWorkCategory() task}
  * latency.
  * </p>
+ * <p>
+ * The {@link #getExpectedLatency() expected latency} is the critical tier,
+ * alerted to the requirement's {@link #getAlertHandlers() alert handlers}. An
+ * optional, lower {@link #getWarningLatency() warning latency} adds a warning
+ * tier with {@link #getWarningAlertHandlers() handlers of its own}, so that
+ * early warnings and critical alerts can be routed differently without
+ * duplicating the category. Each duration is only counted and alerted in the
+ * highest tier it breaches.
+ * </p>
+ * <p>
+ * By default only root calls are checked. {@link #setMethodLatency(String, long)
+ * Per-method caps} override the expected latency for individual
+ * {@link WorkDuration#getMethodName() methods}, and apply to nested calls as
+ * well, so that methods with very different expectations can share a
+ * category.
+ * </p>
  */
 public class CappedLatencyRequirement extends LatencyRequirement {
 	@SuppressWarnings("unused")
@@ -27,7 +49,42 @@ public class CappedLatencyRequirement extends LatencyRequirement {
 	 * monitored {@link #getWorkCategory() category of work}.
 	 * </p>
 	 */
-	private Long expectedLatency;
+	private volatile Long expectedLatency;
+
+	/**
+	 * <p>
+	 * When set, {@link #getExpectedLatency() the cap} is checked on the
+	 * calling thread, and only breaching or errored {@link WorkDuration
+	 * durations} are passed on for asynchronous processing and persistence.
+	 * </p>
+	 */
+	private volatile boolean callerThreadEvaluation;
+
+	/**
+	 * <p>
+	 * The latency above which work is reported to the
+	 * {@link #warningAlertHandlers warning handlers}; <code>0</code> disables
+	 * the warning tier.
+	 * </p>
+	 */
+	private volatile long warningLatency;
+
+	/**
+	 * <p>
+	 * The handlers notified of durations which breach the warning tier but
+	 * not the expected latency.
+	 * </p>
+	 */
+	private List<AlertHandler> warningAlertHandlers;
+
+	/**
+	 * <p>
+	 * The per-method caps, keyed by {@link WorkDuration#getMethodName() method
+	 * name}. The table is never modified once published, but replaced on
+	 * every change, so that lookups need no synchronisation.
+	 * </p>
+	 */
+	private volatile Map<String, Long> methodLatencies;
 
 	/**
 	 * <p>
@@ -37,6 +94,8 @@ public class CappedLatencyRequirement extends LatencyRequirement {
 	public CappedLatencyRequirement() {
 		super();
 		expectedLatency = DEFAULT_EXPECTED_LATENCY;
+		warningAlertHandlers = new ArrayList<AlertHandler>();
+		methodLatencies = Collections.emptyMap();
 	}
 
 	/**
@@ -87,10 +146,235 @@ public class CappedLatencyRequirement extends LatencyRequirement {
 		this.expectedLatency = Math.abs(expectedLatency);
 	}
 
+	/**
+	 * <p>
+	 * Indicates if {@link #getExpectedLatency() the cap} is checked on the
+	 * calling thread.
+	 * </p>
+	 * 
+	 * @return <code>True</code> if only breaching or errored
+	 *         {@link WorkDuration durations} are processed asynchronously, and
+	 *         <code>False</code> (the default) if all durations are.
+	 * 
+	 * @see #setCallerThreadEvaluation(boolean)
+	 */
+	public boolean isCallerThreadEvaluation() {
+		return callerThreadEvaluation;
+	}
+
+	/**
+	 * <p>
+	 * Specifies if {@link #getExpectedLatency() the cap} should be checked on
+	 * the calling thread. When enabled, {@link WorkDuration durations} which
+	 * are neither errored nor breach the cap at the root of the call stack are
+	 * only counted, and are neither queued, added to statistics nor
+	 * persisted. This removes nearly all processing overhead for requirements
+	 * whose durations need not be persisted.
+	 * </p>
+	 * 
+	 * @param callerThreadEvaluation
+	 *            <code>True</code> to enable caller thread evaluation.
+	 */
+	public void setCallerThreadEvaluation(final boolean callerThreadEvaluation) {
+		this.callerThreadEvaluation = callerThreadEvaluation;
+	}
+
+	/**
+	 * <p>
+	 * Returns the latency (in milliseconds) above which work is reported to
+	 * the {@link #getWarningAlertHandlers() warning handlers}, provided it
+	 * does not also exceed the {@link #getExpectedLatency() expected latency}.
+	 * </p>
+	 * 
+	 * @return The warning latency, or <code>0</code> (the default) if there is
+	 *         no warning tier.
+	 * 
+	 * @see AlertHandler#latencyExceededWarningThreshold(CappedLatencyRequirement,
+	 *      WorkDuration)
+	 */
+	public long getWarningLatency() {
+		return warningLatency;
+	}
+
+	/**
+	 * <p>
+	 * Sets the {@link #getWarningLatency() warning latency}.
+	 * </p>
+	 * 
+	 * @param warningLatency
+	 *            The warning latency in milliseconds, which must be below the
+	 *            {@link #getExpectedLatency() expected latency}, or
+	 *            <code>0</code> to disable the warning tier.
+	 */
+	public void setWarningLatency(final long warningLatency) {
+		this.warningLatency = warningLatency;
+	}
+
+	/**
+	 * <p>
+	 * Provides access to the {@link List list} of {@link AlertHandler alert
+	 * handlers} notified of breaches of the {@link #getWarningLatency()
+	 * warning tier}. These are separate from the
+	 * {@link #getAlertHandlers() handlers} notified of breaches of the
+	 * expected latency.
+	 * </p>
+	 * 
+	 * @return The warning tier's alert handlers.
+	 */
+	public List<AlertHandler> getWarningAlertHandlers() {
+		return warningAlertHandlers;
+	}
+
+	/**
+	 * <p>
+	 * Associates a {@link List list} of {@link AlertHandler alert handlers}
+	 * with the {@link #getWarningLatency() warning tier}.
+	 * </p>
+	 * 
+	 * @param warningAlertHandlers
+	 *            The warning tier's alert handlers.
+	 */
+	public void setWarningAlertHandlers(final List<AlertHandler> warningAlertHandlers) {
+		this.warningAlertHandlers = warningAlertHandlers;
+	}
+
+	/**
+	 * <p>
+	 * Returns the cap of the given {@link WorkDuration#getMethodName() method},
+	 * if it {@link #setMethodLatency(String, long) overrides} the expected
+	 * latency.
+	 * </p>
+	 * 
+	 * @param methodName
+	 *            The method name.
+	 * @return The method's cap in milliseconds, or <code>null</code> if the
+	 *         method has no cap of its own.
+	 */
+	public Long getMethodLatency(final String methodName) {
+		return methodLatencies.get(methodName);
+	}
+
+	/**
+	 * <p>
+	 * Returns the cap which applies to the given {@link WorkDuration#getMethodName()
+	 * method}: its {@link #getMethodLatency(String) own cap} if it has one,
+	 * and the {@link #getExpectedLatency() expected latency} otherwise.
+	 * </p>
+	 * 
+	 * @param methodName
+	 *            The method name.
+	 * @return The applicable cap in milliseconds.
+	 */
+	public long getExpectedLatency(final String methodName) {
+		Long result = methodLatencies.get(methodName);
+		return result != null ? result : expectedLatency;
+	}
+
+	/**
+	 * <p>
+	 * Overrides the {@link #getExpectedLatency() expected latency} for a
+	 * {@link WorkDuration#getMethodName() method}. Calls of the method are
+	 * checked against the override whether or not they are the root of the
+	 * call stack, and the {@link #getWarningLatency() warning tier} does not
+	 * apply to them.
+	 * </p>
+	 * 
+	 * @param methodName
+	 *            The method name.
+	 * @param methodLatency
+	 *            The method's cap in milliseconds; must be greater than
+	 *            <code>0</code>.
+	 */
+	public synchronized void setMethodLatency(final String methodName, final long methodLatency) {
+		if (methodLatency <= 0) throw new Latency4JException(
+				"Latency of method '" + methodName + "' for requirement '" + getWorkCategory()
+						+ "' must be greater than 0.");
+		Map<String, Long> table = new HashMap<String, Long>(methodLatencies);
+		table.put(methodName, methodLatency);
+		methodLatencies = Collections.unmodifiableMap(table);
+	}
+
+	/**
+	 * @return An unmodifiable view of the {@link #setMethodLatency(String, long)
+	 *         per-method caps}, keyed by method name.
+	 */
+	public Map<String, Long> getMethodLatencies() {
+		return methodLatencies;
+	}
+
+	/**
+	 * <p>
+	 * Replaces all {@link #setMethodLatency(String, long) per-method caps}.
+	 * </p>
+	 * 
+	 * @param methodLatencies
+	 *            The caps in milliseconds, keyed by method name.
+	 */
+	public synchronized void setMethodLatencies(final Map<String, Long> methodLatencies) {
+		this.methodLatencies = Collections.emptyMap();
+		for (Map.Entry<String, Long> entry : methodLatencies.entrySet())
+			setMethodLatency(entry.getKey(), entry.getValue());
+	}
+
+	/**
+	 * <p>
+	 * Returns the lowest latency at which the given {@link WorkDuration
+	 * duration} breaches any tier: its method's
+	 * {@link #getMethodLatency(String) own cap} if it has one, and the
+	 * {@link #getLowestTierLatency() lowest tier latency} for root calls
+	 * otherwise.
+	 * </p>
+	 * 
+	 * @param duration
+	 *            A {@link WorkDuration#markFinished() finished} duration.
+	 * @return The lowest latency in milliseconds, or {@link Long#MAX_VALUE}
+	 *         for nested calls of methods without a cap of their own, which
+	 *         are not checked.
+	 */
+	public long getLowestTierLatency(final WorkDuration duration) {
+		long result;
+		Long methodLatency = methodLatencies.get(duration.getMethodName());
+		if (methodLatency != null) result = methodLatency;
+		else if (duration.isRoot()) result = getLowestTierLatency();
+		else result = Long.MAX_VALUE;
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Returns the lowest latency at which any tier is breached: the lower of
+	 * the {@link #getWarningLatency() warning latency}, if set, and the
+	 * {@link #getExpectedLatency() expected latency}, either of which may be
+	 * changed at runtime. Durations at or below it need no further
+	 * evaluation.
+	 * </p>
+	 * 
+	 * @return The lowest tier latency in milliseconds.
+	 */
+	public long getLowestTierLatency() {
+		long warning = warningLatency;
+		long expected = expectedLatency;
+		return warning > 0 ? Math.min(warning, expected) : expected;
+	}
+
+	@Override
+	protected void copySettingsTo(final LatencyRequirement target) {
+		super.copySettingsTo(target);
+		CappedLatencyRequirement cappedTarget = (CappedLatencyRequirement) target;
+		cappedTarget.setExpectedLatency(expectedLatency);
+		cappedTarget.setCallerThreadEvaluation(callerThreadEvaluation);
+		cappedTarget.setWarningLatency(warningLatency);
+		cappedTarget.setWarningAlertHandlers(new ArrayList<AlertHandler>(warningAlertHandlers));
+		cappedTarget.setMethodLatencies(methodLatencies);
+	}
+
 	@Override
 	protected void assertCompulsoryFieldsSpecified() {
 		super.assertCompulsoryFieldsSpecified();
 		validateExpectedLatency(expectedLatency);
+		if (warningLatency < 0 || (warningLatency > 0 && warningLatency >= expectedLatency))
+			throw new Latency4JException("Warning latency for requirement '" + getWorkCategory()
+					+ "' must be greater than 0 and less than the expected latency.");
 	}
 
 	/**
@@ -0,0 +1,38 @@
+package org.latency4j;
+
+/**
+ * <p>
+ * Determines how a {@link StatisticalLatencyRequirement statistical
+ * requirement} judges the {@link WorkDuration latency} of its
+ * {@link LatencyRequirement#getWorkCategory() category}.
+ * </p>
+ */
+public enum DetectionMode {
+	/**
+	 * <p>
+	 * Each call is judged on its own, and alerted if it deviates from the
+	 * running average by more than the
+	 * {@link StatisticalLatencyRequirement#getToleranceLevel() tolerance
+	 * level}.
+	 * </p>
+	 */
+	DEVIATION,
+
+	/**
+	 * <p>
+	 * Root calls are fed to a change-point detector, which alerts when the
+	 * latency of the category shifts to a new level and stays there, rather
+	 * than on individual slow calls.
+	 * </p>
+	 * 
+	 * @see StatisticalLatencyRequirement#getChangePointThreshold()
+	 */
+	CHANGE_POINT,
+
+	/**
+	 * <p>
+	 * Both {@link #DEVIATION} and {@link #CHANGE_POINT} apply.
+	 * </p>
+	 */
+	BOTH
+}// end class def
@@ -0,0 +1,269 @@
+package org.latency4j;
+
+/**
+ * <p>
+ * An error-rate {@link LatencyRequirement requirement} governs the proportion
+ * of {@link LatencyRequirement#getWorkCategory() operations} which fail,
+ * rather than their {@link WorkDuration latency}. Root calls are counted in
+ * consecutive windows of {@link #getWindowLength() fixed length}, and an
+ * {@link AlertHandler#errorRateExceeded(ErrorRateLatencyRequirement, WorkDuration, double, double)
+ * alert} is issued, at most once per window, when the error rate of the
+ * current window either:
+ * <ul>
+ * <li>exceeds the {@link #getMaxErrorRate() maximum error rate}, or</li>
+ * <li>exceeds the baseline error rate, i.e. the smoothed rate of preceding
+ * windows, by more than the {@link #getToleranceLevel() tolerance level}.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Individual failures are still {@link AlertHandler#workCategoryFailed(LatencyRequirement, WorkDuration)
+ * notified} unless {@link #isIgnoreErrors() ignored}; the error rate is
+ * tracked either way.
+ * </p>
+ */
+public class ErrorRateLatencyRequirement extends LatencyRequirement {
+	@SuppressWarnings("unused")
+	private static final long serialVersionUID = 6316846416587826413L;
+
+	/**
+	 * <p>
+	 * The default ({@value #DEFAULT_WINDOW_LENGTH}) {@link #getWindowLength()
+	 * window length}, in milliseconds.
+	 * </p>
+	 */
+	public static final long DEFAULT_WINDOW_LENGTH = 60000;
+
+	/**
+	 * <p>
+	 * The default ({@value #DEFAULT_TOLERANCE}) {@link #getToleranceLevel()
+	 * tolerance level}.
+	 * </p>
+	 */
+	public static final double DEFAULT_TOLERANCE = 1.0d;
+
+	/**
+	 * <p>
+	 * The default ({@value #DEFAULT_MINIMUM_CALLS}) {@link #getMinimumCalls()
+	 * number of calls} a window must contain before its error rate is judged.
+	 * </p>
+	 */
+	public static final long DEFAULT_MINIMUM_CALLS = 100;
+
+	/**
+	 * <p>
+	 * The default ({@value #DEFAULT_BASELINE_WINDOWS}) number of
+	 * {@link #getBaselineWindows() windows} over which the baseline error rate
+	 * is smoothed.
+	 * </p>
+	 */
+	public static final int DEFAULT_BASELINE_WINDOWS = 10;
+
+	/**
+	 * <p>
+	 * The length, in milliseconds, of the windows over which error rates are
+	 * calculated.
+	 * </p>
+	 */
+	private volatile long windowLength;
+
+	/**
+	 * <p>
+	 * The error rate, as a fraction between <code>0</code> and <code>1</code>,
+	 * above which a window is in breach of the requirement; <code>0</code>
+	 * disables the check.
+	 * </p>
+	 */
+	private volatile double maxErrorRate;
+
+	/**
+	 * <p>
+	 * The margin, as a fraction of the baseline error rate, by which the error
+	 * rate of a window may exceed the baseline; <code>0</code> disables the
+	 * check.
+	 * </p>
+	 */
+	private volatile double toleranceLevel;
+
+	/**
+	 * <p>
+	 * The number of calls a window must contain before its error rate is
+	 * judged, or contributes to the baseline.
+	 * </p>
+	 */
+	private volatile long minimumCalls;
+
+	/**
+	 * <p>
+	 * The number of windows over which the baseline error rate is smoothed,
+	 * and which must be observed before the {@link #getToleranceLevel()
+	 * tolerance} is applied.
+	 * </p>
+	 */
+	private volatile int baselineWindows;
+
+	/**
+	 * <p>
+	 * Default constructor.
+	 * </p>
+	 */
+	public ErrorRateLatencyRequirement() {
+		setWindowLength(DEFAULT_WINDOW_LENGTH);
+		setToleranceLevel(DEFAULT_TOLERANCE);
+		setMinimumCalls(DEFAULT_MINIMUM_CALLS);
+		setBaselineWindows(DEFAULT_BASELINE_WINDOWS);
+	}
+
+	/**
+	 * @return The length, in milliseconds, of the windows over which error
+	 *         rates are calculated.
+	 */
+	public long getWindowLength() {
+		return windowLength;
+	}
+
+	/**
+	 * <p>
+	 * Sets the length of the windows over which error rates are calculated.
+	 * Changes take effect for categories first observed afterwards.
+	 * </p>
+	 *
+	 * @param windowLength
+	 *            The window length in milliseconds; must be greater than
+	 *            <code>0</code>.
+	 */
+	public void setWindowLength(final long windowLength) {
+		this.windowLength = windowLength;
+	}
+
+	/**
+	 * <p>
+	 * Returns the error rate above which a window is in breach of the
+	 * requirement, regardless of the baseline.
+	 * </p>
+	 *
+	 * @return The maximum error rate, as a fraction between <code>0</code> and
+	 *         <code>1</code>, or <code>0</code> (the default) if no absolute
+	 *         limit applies.
+	 */
+	public double getMaxErrorRate() {
+		return maxErrorRate;
+	}
+
+	/**
+	 * <p>
+	 * Sets the {@link #getMaxErrorRate() maximum error rate}.
+	 * </p>
+	 *
+	 * @param maxErrorRate
+	 *            The maximum error rate, e.g. <code>0.01</code> for 1%, or
+	 *            <code>0</code> to disable the absolute limit.
+	 */
+	public void setMaxErrorRate(final double maxErrorRate) {
+		this.maxErrorRate = maxErrorRate;
+	}
+
+	/**
+	 * <p>
+	 * Returns the margin by which the error rate of a window may exceed the
+	 * baseline error rate. A window with error rate <code>r</code> is in breach
+	 * if <code>r - baseline</code> &gt;
+	 * <code>baseline * {@link #getToleranceLevel() getToleranceLevel()}</code>.
+	 * For example, the default of {@value #DEFAULT_TOLERANCE} alerts once the
+	 * error rate doubles. The baseline is taken to be at least one error per
+	 * {@link #getMinimumCalls() minimum number of calls}, so that a few
+	 * errors after a spell without any are not reported as a deviation.
+	 * </p>
+	 *
+	 * @return The tolerance level, or <code>0</code> if the baseline is not
+	 *         checked.
+	 */
+	public double getToleranceLevel() {
+		return toleranceLevel;
+	}
+
+	/**
+	 * <p>
+	 * Sets the {@link #getToleranceLevel() tolerance level}.
+	 * </p>
+	 *
+	 * @param toleranceLevel
+	 *            The tolerance level, or <code>0</code> to disable the
+	 *            comparison with the baseline.
+	 */
+	public void setToleranceLevel(final double toleranceLevel) {
+		this.toleranceLevel = toleranceLevel;
+	}
+
+	/**
+	 * @return The number of calls a window must contain before its error rate
+	 *         is judged.
+	 */
+	public long getMinimumCalls() {
+		return minimumCalls;
+	}
+
+	/**
+	 * <p>
+	 * Sets the number of calls a window must contain before its error rate is
+	 * judged. This prevents a handful of failures in a quiet window from
+	 * raising an alert.
+	 * </p>
+	 *
+	 * @param minimumCalls
+	 *            The minimum number of calls; must be at least <code>1</code>.
+	 */
+	public void setMinimumCalls(final long minimumCalls) {
+		this.minimumCalls = minimumCalls;
+	}
+
+	/**
+	 * @return The number of windows over which the baseline error rate is
+	 *         smoothed.
+	 */
+	public int getBaselineWindows() {
+		return baselineWindows;
+	}
+
+	/**
+	 * <p>
+	 * Sets the number of windows over which the baseline error rate is
+	 * smoothed. The baseline is an exponential moving average with this span,
+	 * and the {@link #getToleranceLevel() tolerance} is only applied once this
+	 * many windows have been observed.
+	 * </p>
+	 *
+	 * @param baselineWindows
+	 *            The number of windows; must be at least <code>1</code>.
+	 */
+	public void setBaselineWindows(final int baselineWindows) {
+		this.baselineWindows = baselineWindows;
+	}
+
+	@Override
+	protected void copySettingsTo(final LatencyRequirement target) {
+		super.copySettingsTo(target);
+		ErrorRateLatencyRequirement errorRateTarget = (ErrorRateLatencyRequirement) target;
+		errorRateTarget.setWindowLength(windowLength);
+		errorRateTarget.setMaxErrorRate(maxErrorRate);
+		errorRateTarget.setToleranceLevel(toleranceLevel);
+		errorRateTarget.setMinimumCalls(minimumCalls);
+		errorRateTarget.setBaselineWindows(baselineWindows);
+	}
+
+	@Override
+	protected void assertCompulsoryFieldsSpecified() {
+		super.assertCompulsoryFieldsSpecified();
+		if (windowLength <= 0) throw new Latency4JException(
+				"Window length for requirement '" + getWorkCategory() + "' must be greater than 0.");
+		if (maxErrorRate < 0 || maxErrorRate > 1) throw new Latency4JException(
+				"Max error rate for requirement '" + getWorkCategory() + "' must be between 0 and 1.");
+		if (toleranceLevel < 0) throw new Latency4JException(
+				"Tolerance level for requirement '" + getWorkCategory() + "' must not be negative.");
+		if (maxErrorRate == 0 && toleranceLevel == 0) throw new Latency4JException("Requirement '"
+				+ getWorkCategory() + "' must specify a max error rate, a tolerance level or both.");
+		if (minimumCalls < 1) throw new Latency4JException(
+				"Minimum calls for requirement '" + getWorkCategory() + "' must be at least 1.");
+		if (baselineWindows < 1) throw new Latency4JException(
+				"Baseline windows for requirement '" + getWorkCategory() + "' must be at least 1.");
+	}
+}
\ No newline at end of file
@@ -6,6 +6,8 @@ import java.util.List;
 
 import org.latency4j.persistence.DefaultWorkDurationPersistenceManager;
 import org.latency4j.persistence.WorkDurationPersistenceManager;
+import org.latency4j.processing.QuantileSketch;
+import org.latency4j.processing.QuantileSketches;
 
 /**
  * </p>
@@ -57,6 +59,34 @@ public abstract class LatencyRequirement {
 	 */
 	private WorkDurationPersistenceManager persistenceManager;
 
+	/**
+	 * <p>
+	 * Only one in every <code>samplingRate</code> {@link WorkDuration
+	 * durations} is processed, statistics being weighted accordingly. Errored
+	 * and breaching {@link WorkDuration durations} are always processed. A
+	 * value of <code>1</code> (the default) disables sampling.
+	 * </p>
+	 */
+	private volatile int samplingRate;
+
+	/**
+	 * <p>
+	 * When greater than <code>0</code>, the sampling rate is adapted every
+	 * second so that no more than this number of non-breaching
+	 * {@link WorkDuration durations} are processed per second.
+	 * </p>
+	 */
+	private volatile long maxSampledEventsPerSecond;
+
+	/**
+	 * <p>
+	 * The engine of the {@link QuantileSketch sketches} from which percentiles
+	 * of the requirement's {@link WorkDuration durations} are derived, or
+	 * <code>null</code> for the {@link QuantileSketches#LOG_BUCKET default}.
+	 * </p>
+	 */
+	private volatile String quantileSketch;
+
 	/**
 	 * <p>
 	 * Default constructor which initialises internal fields to their default
@@ -66,6 +96,7 @@ public abstract class LatencyRequirement {
 	public LatencyRequirement() {
 		alertHandlers = new ArrayList<AlertHandler>();
 		setIgnoreErrors(true);
+		samplingRate = 1;
 	}
 
 	/**
@@ -222,6 +253,152 @@ public abstract class LatencyRequirement {
 		return persistenceManager;
 	}
 
+	/**
+	 * <p>
+	 * Returns the fixed sampling rate, i.e. the <code>N</code> in 1-in-N
+	 * sampling of non-breaching {@link WorkDuration durations}.
+	 * </p>
+	 * 
+	 * @return The sampling rate. A value of <code>1</code> indicates that all
+	 *         durations are processed.
+	 * 
+	 * @see #setSamplingRate(int)
+	 */
+	public int getSamplingRate() {
+		return samplingRate;
+	}
+
+	/**
+	 * <p>
+	 * Sets the fixed sampling rate. Only one in every
+	 * <code>samplingRate</code> non-breaching, non-errored {@link WorkDuration
+	 * durations} will be queued for processing and persisted; statistics are
+	 * weighted so as to remain representative of all executions.
+	 * </p>
+	 * 
+	 * @param samplingRate
+	 *            The sampling rate; must be at least <code>1</code>.
+	 */
+	public void setSamplingRate(final int samplingRate) {
+		this.samplingRate = samplingRate;
+	}
+
+	/**
+	 * <p>
+	 * Returns the target maximum number of non-breaching {@link WorkDuration
+	 * durations} processed per second under adaptive sampling.
+	 * </p>
+	 * 
+	 * @return The target rate, or <code>0</code> if adaptive sampling is
+	 *         disabled.
+	 * 
+	 * @see #setMaxSampledEventsPerSecond(long)
+	 */
+	public long getMaxSampledEventsPerSecond() {
+		return maxSampledEventsPerSecond;
+	}
+
+	/**
+	 * <p>
+	 * Enables adaptive sampling. The sampling rate is recalculated every
+	 * second from the volume of the previous second, so that at most the
+	 * given number of non-breaching {@link WorkDuration durations} are
+	 * processed per second. The {@link #getSamplingRate() fixed sampling rate}
+	 * acts as a lower bound.
+	 * </p>
+	 * 
+	 * @param maxSampledEventsPerSecond
+	 *            The target rate, or <code>0</code> to disable adaptive
+	 *            sampling.
+	 */
+	public void setMaxSampledEventsPerSecond(final long maxSampledEventsPerSecond) {
+		this.maxSampledEventsPerSecond = maxSampledEventsPerSecond;
+	}
+
+	/**
+	 * <p>
+	 * Returns the engine of the {@link QuantileSketch sketches} in which the
+	 * distribution of {@link WorkDuration durations} is summarised.
+	 * </p>
+	 * 
+	 * @return The name of a {@link QuantileSketches built-in engine} or of a
+	 *         {@link QuantileSketch} class, or <code>null</code> for the
+	 *         default log-bucket histogram.
+	 * 
+	 * @see #setQuantileSketch(String)
+	 */
+	public String getQuantileSketch() {
+		return quantileSketch;
+	}
+
+	/**
+	 * <p>
+	 * Selects the engine of the {@link QuantileSketch sketches} in which the
+	 * distribution of {@link WorkDuration durations} is summarised. The
+	 * default histogram is accurate to within roughly 6%;
+	 * {@link QuantileSketches#T_DIGEST t-digests} are more accurate in the
+	 * tails, and {@link QuantileSketches#DDSKETCH DDSketches} guarantee a
+	 * relative accuracy of 1%. The engine applies to statistics created after
+	 * it is set.
+	 * </p>
+	 * 
+	 * @param quantileSketch
+	 *            The name of a built-in engine, or of a class implementing
+	 *            {@link QuantileSketch} with a public default constructor.
+	 */
+	public void setQuantileSketch(final String quantileSketch) {
+		this.quantileSketch = quantileSketch;
+	}
+
+	/**
+	 * <p>
+	 * Creates an uninitialised copy of this requirement which applies to the
+	 * given {@link #getWorkCategory() category}. The copy shares this
+	 * requirement's {@link #getPersistenceManager() persistence manager} and
+	 * {@link #getAlertHandlers() alert handlers}. This is used to derive the
+	 * requirements of categories matched by a category pattern.
+	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The category of the copy.
+	 * @return The copy, which is of the same class as this requirement.
+	 * @throws Latency4JException
+	 *             If this requirement's class has no accessible default
+	 *             constructor.
+	 */
+	public LatencyRequirement copyForCategory(final String workCategory) {
+		LatencyRequirement result;
+		try {
+			result = getClass().newInstance();
+		} catch (Exception exce) {
+			throw new Latency4JException("Error copying latency-requirement '" + this.workCategory + "'.", exce);
+		}
+		copySettingsTo(result);
+		result.setWorkCategory(workCategory);
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Copies the settings of this requirement, other than its
+	 * {@link #getWorkCategory() category}, to the given requirement.
+	 * Subclasses which hold settings of their own must override this method
+	 * and call the overridden version.
+	 * </p>
+	 * 
+	 * @param target
+	 *            The requirement to which settings are copied.
+	 * @see #copyForCategory(String)
+	 */
+	protected void copySettingsTo(final LatencyRequirement target) {
+		target.setIgnoreErrors(ignoreErrors);
+		target.setSamplingRate(samplingRate);
+		target.setMaxSampledEventsPerSecond(maxSampledEventsPerSecond);
+		target.setQuantileSketch(quantileSketch);
+		target.setPersistenceManager(persistenceManager);
+		target.setAlertHandlers(new ArrayList<AlertHandler>(alertHandlers));
+	}
+
 	/**
 	 * <p>
 	 * Produces a textual representation of the requirement.
@@ -243,6 +420,16 @@ public abstract class LatencyRequirement {
 	protected void assertCompulsoryFieldsSpecified() {
 		if (workCategory == null || workCategory.length() == 0)
 			throw new Latency4JException("Error creating latency-requirement. " + "WorkCategory must be specifed!");
+		if (samplingRate < 1) throw new Latency4JException(
+				"Error creating latency-requirement '" + workCategory + "'. Sampling rate must be at least 1.");
+		if (maxSampledEventsPerSecond < 0) throw new Latency4JException("Error creating latency-requirement '"
+				+ workCategory + "'. Max sampled events per second must not be negative.");
+		try {
+			QuantileSketches.create(quantileSketch);
+		} catch (Latency4JException exce) {
+			throw new Latency4JException(
+					"Error creating latency-requirement '" + workCategory + "'. " + exce.getMessage(), exce);
+		}
 	}
 
 	/**
@@ -0,0 +1,246 @@
+package org.latency4j;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A service level objective (SLO) {@link LatencyRequirement requirement}
+ * states that a given {@link #getObjective() proportion} of
+ * {@link LatencyRequirement#getWorkCategory() operations} must complete
+ * without error within an {@link #getExpectedLatency() expected latency}
+ * over a {@link #getCompliancePeriod() compliance period}, for instance "99.9%
+ * of calls under 200 ms over 30 days". The remaining proportion of calls is
+ * the error budget.
+ * </p>
+ * <p>
+ * Unlike a {@link CappedLatencyRequirement capped requirement}, individual
+ * slow calls are not alerted. Instead, the rate at which the error budget is
+ * being consumed (the burn rate, where <code>1</code> exhausts the budget
+ * exactly at the end of the compliance period) is measured over several
+ * {@link #getBurnRateWindows() windows}, and an alert is issued once when the
+ * burn rate over every window has reached the
+ * {@link #getBurnRateThreshold() threshold}. Requiring the long windows to
+ * agree means that short bursts do not alert, while the short windows ensure
+ * that the alert clears soon after the problem has.
+ * </p>
+ */
+public class SloLatencyRequirement extends LatencyRequirement {
+	@SuppressWarnings("unused")
+	private static final long serialVersionUID = 6209133409850467211L;
+
+	/**
+	 * <p>
+	 * The default {@link #getCompliancePeriod() compliance period} of 30 days,
+	 * in milliseconds.
+	 * </p>
+	 */
+	public static final long DEFAULT_COMPLIANCE_PERIOD = 30L * 24 * 60 * 60 * 1000;
+
+	/**
+	 * <p>
+	 * The default {@link #getBurnRateWindows() burn rate windows}: 5 minutes, 1
+	 * hour and 6 hours.
+	 * </p>
+	 */
+	private static final int[] DEFAULT_BURN_RATE_WINDOWS = { 5, 60, 360 };
+
+	/**
+	 * <p>
+	 * The default ({@value #DEFAULT_BURN_RATE_THRESHOLD})
+	 * {@link #getBurnRateThreshold() burn rate threshold}, at which 5% of a 30
+	 * day budget is consumed in 6 hours.
+	 * </p>
+	 */
+	public static final double DEFAULT_BURN_RATE_THRESHOLD = 6.0d;
+
+	/**
+	 * <p>
+	 * The latency, in milliseconds, within which a call must complete to count
+	 * towards the objective.
+	 * </p>
+	 */
+	private volatile long expectedLatency;
+
+	/**
+	 * <p>
+	 * The proportion of calls, between <code>0</code> and <code>1</code>
+	 * exclusive, which must complete within the expected latency.
+	 * </p>
+	 */
+	private volatile double objective;
+
+	/**
+	 * <p>
+	 * The period, in milliseconds, over which the objective applies.
+	 * </p>
+	 */
+	private volatile long compliancePeriod;
+
+	/**
+	 * <p>
+	 * The lengths, in minutes, of the windows over which burn rates are
+	 * measured.
+	 * </p>
+	 */
+	private volatile int[] burnRateWindows;
+
+	/**
+	 * <p>
+	 * The burn rate which every window must reach for an alert to be issued.
+	 * </p>
+	 */
+	private volatile double burnRateThreshold;
+
+	/**
+	 * <p>
+	 * Default constructor.
+	 * </p>
+	 */
+	public SloLatencyRequirement() {
+		setCompliancePeriod(DEFAULT_COMPLIANCE_PERIOD);
+		setBurnRateWindows(DEFAULT_BURN_RATE_WINDOWS);
+		setBurnRateThreshold(DEFAULT_BURN_RATE_THRESHOLD);
+	}
+
+	/**
+	 * @return The latency, in milliseconds, within which a call must complete
+	 *         to count as good.
+	 */
+	public long getExpectedLatency() {
+		return expectedLatency;
+	}
+
+	/**
+	 * <p>
+	 * Sets the latency within which a call must complete, without error, to
+	 * count as good.
+	 * </p>
+	 *
+	 * @param expectedLatency
+	 *            The latency in milliseconds; must be greater than
+	 *            <code>0</code>.
+	 */
+	public void setExpectedLatency(final long expectedLatency) {
+		this.expectedLatency = expectedLatency;
+	}
+
+	/**
+	 * @return The proportion of calls which must be good, e.g.
+	 *         <code>0.999</code> for 99.9%.
+	 */
+	public double getObjective() {
+		return objective;
+	}
+
+	/**
+	 * <p>
+	 * Sets the proportion of calls which must be good. The error budget is
+	 * <code>1 - objective</code>.
+	 * </p>
+	 *
+	 * @param objective
+	 *            The proportion, greater than <code>0</code> and less than
+	 *            <code>1</code>.
+	 */
+	public void setObjective(final double objective) {
+		this.objective = objective;
+	}
+
+	/**
+	 * @return The period, in milliseconds, over which the objective applies.
+	 *         Defaults to {@link #DEFAULT_COMPLIANCE_PERIOD}.
+	 */
+	public long getCompliancePeriod() {
+		return compliancePeriod;
+	}
+
+	/**
+	 * <p>
+	 * Sets the period over which the objective applies. The period only
+	 * scales the reported time to budget exhaustion; burn rates are
+	 * independent of it.
+	 * </p>
+	 *
+	 * @param compliancePeriod
+	 *            The period in milliseconds; must be greater than
+	 *            <code>0</code>.
+	 */
+	public void setCompliancePeriod(final long compliancePeriod) {
+		this.compliancePeriod = compliancePeriod;
+	}
+
+	/**
+	 * @return A copy of the lengths, in minutes, of the windows over which
+	 *         burn rates are measured, in ascending order.
+	 */
+	public int[] getBurnRateWindows() {
+		return burnRateWindows.clone();
+	}
+
+	/**
+	 * <p>
+	 * Sets the lengths of the windows over which burn rates are measured. The
+	 * counts behind them are kept per minute for the longest window, so a
+	 * window of several days costs a few kilobytes per category. Changes only
+	 * apply to categories which have not yet been monitored.
+	 * </p>
+	 *
+	 * @param burnRateWindows
+	 *            The window lengths in minutes; each must be greater than
+	 *            <code>0</code>.
+	 */
+	public void setBurnRateWindows(final int... burnRateWindows) {
+		int[] windows = burnRateWindows.clone();
+		Arrays.sort(windows);
+		this.burnRateWindows = windows;
+	}
+
+	/**
+	 * @return The burn rate which every window must reach for an alert to be
+	 *         issued. Defaults to {@link #DEFAULT_BURN_RATE_THRESHOLD}.
+	 */
+	public double getBurnRateThreshold() {
+		return burnRateThreshold;
+	}
+
+	/**
+	 * <p>
+	 * Sets the burn rate which every window must reach for an alert to be
+	 * issued. A burn rate of <code>N</code> exhausts the budget in
+	 * <code>1/N</code> of the {@link #getCompliancePeriod() compliance
+	 * period}.
+	 * </p>
+	 *
+	 * @param burnRateThreshold
+	 *            The threshold; must be greater than <code>0</code>.
+	 */
+	public void setBurnRateThreshold(final double burnRateThreshold) {
+		this.burnRateThreshold = burnRateThreshold;
+	}
+
+	@Override
+	protected void copySettingsTo(final LatencyRequirement target) {
+		super.copySettingsTo(target);
+		SloLatencyRequirement sloTarget = (SloLatencyRequirement) target;
+		sloTarget.setExpectedLatency(expectedLatency);
+		sloTarget.setObjective(objective);
+		sloTarget.setCompliancePeriod(compliancePeriod);
+		sloTarget.setBurnRateWindows(burnRateWindows);
+		sloTarget.setBurnRateThreshold(burnRateThreshold);
+	}
+
+	@Override
+	protected void assertCompulsoryFieldsSpecified() {
+		super.assertCompulsoryFieldsSpecified();
+		if (expectedLatency <= 0) throw new Latency4JException(
+				"Expected latency for requirement '" + getWorkCategory() + "' must be greater than 0.");
+		if (objective <= 0 || objective >= 1) throw new Latency4JException(
+				"Objective for requirement '" + getWorkCategory() + "' must be greater than 0 and less than 1.");
+		if (compliancePeriod <= 0) throw new Latency4JException(
+				"Compliance period for requirement '" + getWorkCategory() + "' must be greater than 0.");
+		if (burnRateWindows.length == 0 || burnRateWindows[0] <= 0) throw new Latency4JException(
+				"Requirement '" + getWorkCategory() + "' must specify burn rate windows greater than 0.");
+		if (burnRateThreshold <= 0) throw new Latency4JException(
+				"Burn rate threshold for requirement '" + getWorkCategory() + "' must be greater than 0.");
+	}
+}
\ No newline at end of file
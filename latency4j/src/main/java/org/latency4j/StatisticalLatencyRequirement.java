@@ -1,5 +1,10 @@
 package org.latency4j;
 
+import java.util.Arrays;
+import java.util.TimeZone;
+
+import org.latency4j.persistence.WorkDurationPersistenceManager;
+
 /**
  * <p>
  * A statistical {@link LatencyRequirement requirement} can be used in
@@ -13,6 +18,24 @@ package org.latency4j;
  * latency} should not deviate by more than a given margin from an observed
  * average.
  * </p>
+ * <p>
+ * Judging calls one at a time fires on noise, yet misses small shifts which
+ * persist. The {@link #setDetectionMode(DetectionMode) detection mode} can
+ * therefore add, or substitute, a streaming change-point detector (a
+ * two-sided CUSUM over the root calls of the category), which alerts once
+ * when the latency settles at a new level.
+ * </p>
+ * <p>
+ * Where traffic follows a weekly pattern, a {@link #setSeasonalBaseline(boolean)
+ * seasonal baseline} judges root calls against the average of the same hour
+ * of the week instead of a single average.
+ * </p>
+ * <p>
+ * The average itself can be replaced by a robust
+ * {@link #setBaselineStrategy(BaselineStrategy) baseline strategy}, such as
+ * the median, so that outliers from garbage collection pauses or timeouts
+ * do not distort tolerance checks long after an incident.
+ * </p>
  */
 public class StatisticalLatencyRequirement extends LatencyRequirement {
 	@SuppressWarnings("unused")
@@ -35,6 +58,40 @@ public class StatisticalLatencyRequirement extends LatencyRequirement {
 	 */
 	public static final double DEFAULT_TOLERANCE = 0.10d;
 
+	/**
+	 * <p>
+	 * The default ({@value #DEFAULT_AGGREGATION_THRESHOLD}) number of
+	 * observations a thread aggregates locally before handing them to the
+	 * processor, when {@link #getAggregationInterval() thread-local
+	 * aggregation} is enabled.
+	 * </p>
+	 */
+	public static final int DEFAULT_AGGREGATION_THRESHOLD = 1000;
+
+	/**
+	 * <p>
+	 * The default ({@value #DEFAULT_CHANGE_POINT_THRESHOLD})
+	 * {@link #getChangePointThreshold() change-point threshold}.
+	 * </p>
+	 */
+	public static final double DEFAULT_CHANGE_POINT_THRESHOLD = 5.0d;
+
+	/**
+	 * <p>
+	 * The default ({@value #DEFAULT_CHANGE_POINT_DRIFT})
+	 * {@link #getChangePointDrift() change-point drift}.
+	 * </p>
+	 */
+	public static final double DEFAULT_CHANGE_POINT_DRIFT = 0.05d;
+
+	/**
+	 * <p>
+	 * The default ({@value #DEFAULT_BASELINE_TRIM}) {@link #getBaselineTrim()
+	 * baseline trim}.
+	 * </p>
+	 */
+	public static final double DEFAULT_BASELINE_TRIM = 0.10d;
+
 	/**
 	 * <p>
 	 * The number of observations with which a {@link LatencyMonitor monitor} of
@@ -51,7 +108,7 @@ public class StatisticalLatencyRequirement extends LatencyRequirement {
 	 * This property defaults to {@link #DEFAULT_TOLERANCE}.
 	 * </p>
 	 */
-	private long observationsSignificanceBarrier;
+	private volatile long observationsSignificanceBarrier;
 
 	/**
 	 * <p>
@@ -66,7 +123,82 @@ public class StatisticalLatencyRequirement extends LatencyRequirement {
 	 * consequently, will trigger an {@link AlertHandler alert}.
 	 * </p>
 	 */
-	private double toleranceLevel;
+	private volatile double toleranceLevel;
+
+	/**
+	 * <p>
+	 * When greater than <code>0</code>, non-breaching {@link WorkDuration
+	 * durations} are aggregated on the thread which generates them, and the
+	 * aggregates are merged into the processor's statistics at this interval
+	 * (in milliseconds), or as soon as a thread has aggregated
+	 * {@link #getAggregationThreshold() threshold} observations.
+	 * </p>
+	 */
+	private volatile long aggregationInterval;
+
+	/**
+	 * <p>
+	 * The number of observations after which a thread hands its local
+	 * aggregates to the processor, regardless of the
+	 * {@link #getAggregationInterval() aggregation interval}.
+	 * </p>
+	 */
+	private volatile int aggregationThreshold;
+
+	/**
+	 * <p>
+	 * Whether calls are judged individually, by change-point detection, or
+	 * both.
+	 * </p>
+	 */
+	private volatile DetectionMode detectionMode;
+
+	/**
+	 * <p>
+	 * The accumulated deviation, in multiples of the reference latency, at
+	 * which the change-point detector signals a shift.
+	 * </p>
+	 */
+	private volatile double changePointThreshold;
+
+	/**
+	 * <p>
+	 * The relative deviation per call which the change-point detector
+	 * tolerates without accumulating evidence of a shift.
+	 * </p>
+	 */
+	private volatile double changePointDrift;
+
+	/**
+	 * <p>
+	 * Whether root calls are judged against the average of their hour of the
+	 * week.
+	 * </p>
+	 */
+	private volatile boolean seasonalBaseline;
+
+	/**
+	 * <p>
+	 * The identifier of the time zone in which hours of the week are
+	 * reckoned, or <code>null</code> for the default time zone.
+	 * </p>
+	 */
+	private volatile String seasonalTimeZone;
+
+	/**
+	 * <p>
+	 * How the baseline latency is derived from the observations to date.
+	 * </p>
+	 */
+	private volatile BaselineStrategy baselineStrategy;
+
+	/**
+	 * <p>
+	 * The fraction of observations discarded from each end for the
+	 * {@link BaselineStrategy#TRIMMED_MEAN trimmed mean}.
+	 * </p>
+	 */
+	private volatile double baselineTrim;
 
 	/**
 	 * <p>
@@ -76,6 +208,12 @@ public class StatisticalLatencyRequirement extends LatencyRequirement {
 	public StatisticalLatencyRequirement() {
 		setObservationsSignificanceBarrier(DEFAULT_SIGNIFICANCE_BARRIER);
 		setToleranceLevel(DEFAULT_TOLERANCE);
+		setAggregationThreshold(DEFAULT_AGGREGATION_THRESHOLD);
+		setDetectionMode(DetectionMode.DEVIATION);
+		setChangePointThreshold(DEFAULT_CHANGE_POINT_THRESHOLD);
+		setChangePointDrift(DEFAULT_CHANGE_POINT_DRIFT);
+		setBaselineStrategy(BaselineStrategy.MEAN);
+		setBaselineTrim(DEFAULT_BASELINE_TRIM);
 	}
 
 	/**
@@ -184,4 +322,321 @@ public class StatisticalLatencyRequirement extends LatencyRequirement {
 	public void setToleranceLevel(final double toleranceLevel) {
 		this.toleranceLevel = toleranceLevel;
 	}
+
+	/**
+	 * <p>
+	 * Returns the interval, in milliseconds, at which thread-local aggregates
+	 * are merged into the processor's statistics.
+	 * </p>
+	 * 
+	 * @return The aggregation interval, or <code>0</code> (the default) if
+	 *         thread-local aggregation is disabled.
+	 * 
+	 * @see #setAggregationInterval(long)
+	 */
+	public long getAggregationInterval() {
+		return aggregationInterval;
+	}
+
+	/**
+	 * <p>
+	 * Enables thread-local aggregation. Non-breaching, non-errored
+	 * {@link WorkDuration durations} are then aggregated per method on the
+	 * thread which generates them, and only the aggregates cross to the
+	 * processing thread. Breaching and errored durations are still processed
+	 * individually, so that alerting is unaffected. Aggregated durations are
+	 * not persisted, except for those selected by
+	 * {@link #setSamplingRate(int) sampling}.
+	 * </p>
+	 * 
+	 * @param aggregationInterval
+	 *            The interval in milliseconds, or <code>0</code> to disable
+	 *            thread-local aggregation.
+	 */
+	public void setAggregationInterval(final long aggregationInterval) {
+		this.aggregationInterval = aggregationInterval;
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of observations after which a thread hands its local
+	 * aggregates to the processor.
+	 * </p>
+	 * 
+	 * @return The aggregation threshold.
+	 * 
+	 * @see #setAggregationThreshold(int)
+	 */
+	public int getAggregationThreshold() {
+		return aggregationThreshold;
+	}
+
+	/**
+	 * <p>
+	 * Sets the number of observations after which a thread hands its local
+	 * aggregates to the processor, without waiting for the
+	 * {@link #getAggregationInterval() aggregation interval} to elapse.
+	 * </p>
+	 * 
+	 * @param aggregationThreshold
+	 *            The aggregation threshold; must be at least <code>1</code>.
+	 */
+	public void setAggregationThreshold(final int aggregationThreshold) {
+		this.aggregationThreshold = aggregationThreshold;
+	}
+
+	/**
+	 * @return The {@link DetectionMode detection mode}; defaults to
+	 *         {@link DetectionMode#DEVIATION}.
+	 */
+	public DetectionMode getDetectionMode() {
+		return detectionMode;
+	}
+
+	/**
+	 * <p>
+	 * Sets the {@link DetectionMode detection mode}.
+	 * </p>
+	 * 
+	 * @param detectionMode
+	 *            The detection mode.
+	 */
+	public void setDetectionMode(final DetectionMode detectionMode) {
+		this.detectionMode = detectionMode;
+	}
+
+	/**
+	 * @return <code>True</code> if calls are judged individually against the
+	 *         {@link #getToleranceLevel() tolerance level}.
+	 */
+	public boolean isDeviationDetection() {
+		return detectionMode != DetectionMode.CHANGE_POINT;
+	}
+
+	/**
+	 * @return <code>True</code> if root calls are fed to the change-point
+	 *         detector.
+	 */
+	public boolean isChangePointDetection() {
+		return detectionMode != DetectionMode.DEVIATION;
+	}
+
+	/**
+	 * <p>
+	 * Returns the sensitivity of change-point detection. Each root call adds
+	 * its deviation from the reference latency, as a fraction of the
+	 * reference and capped at <code>1</code>, less the
+	 * {@link #getChangePointDrift() drift}, to a running sum for each
+	 * direction; the sums never fall below <code>0</code>. A shift is
+	 * signalled when either sum exceeds the threshold. For instance, with the
+	 * defaults, a lasting increase of 25% is signalled after about 25 calls,
+	 * whereas isolated outliers, however slow, are not.
+	 * </p>
+	 * 
+	 * @return The threshold; lower values react faster, at the cost of more
+	 *         false alarms.
+	 */
+	public double getChangePointThreshold() {
+		return changePointThreshold;
+	}
+
+	/**
+	 * <p>
+	 * Sets the {@link #getChangePointThreshold() change-point threshold}.
+	 * </p>
+	 * 
+	 * @param changePointThreshold
+	 *            The threshold; must be greater than <code>0</code>.
+	 */
+	public void setChangePointThreshold(final double changePointThreshold) {
+		this.changePointThreshold = changePointThreshold;
+	}
+
+	/**
+	 * <p>
+	 * Returns the relative deviation from the reference latency which each
+	 * call may show without counting towards a shift. It is typically set to
+	 * half the smallest shift worth detecting.
+	 * </p>
+	 * 
+	 * @return The drift, as a fraction of the reference latency.
+	 */
+	public double getChangePointDrift() {
+		return changePointDrift;
+	}
+
+	/**
+	 * <p>
+	 * Sets the {@link #getChangePointDrift() change-point drift}.
+	 * </p>
+	 * 
+	 * @param changePointDrift
+	 *            The drift; must not be negative.
+	 */
+	public void setChangePointDrift(final double changePointDrift) {
+		this.changePointDrift = changePointDrift;
+	}
+
+	/**
+	 * <p>
+	 * Indicates if root calls are judged against a seasonal baseline: a
+	 * running average for each of the 168 hours of the week, seeded from the
+	 * {@link WorkDurationPersistenceManager#loadHistoricalData(String)
+	 * persisted history}. A call is then in breach if it exceeds the average of
+	 * the hour in which it ended by more than the {@link #getToleranceLevel()
+	 * tolerance level}. Until an hour has seen the
+	 * {@link #getObservationsSignificanceBarrier() significance barrier} of
+	 * calls, the average across all hours is used instead. Nested calls are
+	 * always judged against the average of their method.
+	 * </p>
+	 * 
+	 * @return <code>True</code> if the seasonal baseline is enabled;
+	 *         <code>false</code> by default.
+	 */
+	public boolean isSeasonalBaseline() {
+		return seasonalBaseline;
+	}
+
+	/**
+	 * <p>
+	 * Enables or disables the {@link #isSeasonalBaseline() seasonal
+	 * baseline}.
+	 * </p>
+	 * 
+	 * @param seasonalBaseline
+	 *            <code>True</code> to judge root calls against the average of
+	 *            their hour of the week.
+	 */
+	public void setSeasonalBaseline(final boolean seasonalBaseline) {
+		this.seasonalBaseline = seasonalBaseline;
+	}
+
+	/**
+	 * @return The identifier of the time zone in which the hours of the
+	 *         {@link #isSeasonalBaseline() seasonal baseline} are reckoned, or
+	 *         <code>null</code> (the default) for the default time zone.
+	 */
+	public String getSeasonalTimeZone() {
+		return seasonalTimeZone;
+	}
+
+	/**
+	 * <p>
+	 * Sets the time zone in which the hours of the
+	 * {@link #isSeasonalBaseline() seasonal baseline} are reckoned, which
+	 * should be the one in which the traffic pattern repeats.
+	 * </p>
+	 * 
+	 * @param seasonalTimeZone
+	 *            A {@link TimeZone#getTimeZone(String) time zone identifier},
+	 *            such as <code>Europe/London</code>, or <code>null</code> for
+	 *            the default time zone.
+	 */
+	public void setSeasonalTimeZone(final String seasonalTimeZone) {
+		this.seasonalTimeZone = seasonalTimeZone;
+	}
+
+	/**
+	 * @return The time zone in which the hours of the
+	 *         {@link #isSeasonalBaseline() seasonal baseline} are reckoned.
+	 */
+	public TimeZone getSeasonalTimeZoneOrDefault() {
+		return seasonalTimeZone == null ? TimeZone.getDefault() : TimeZone.getTimeZone(seasonalTimeZone);
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link BaselineStrategy strategy} by which the baseline
+	 * latency, against which the {@link #getToleranceLevel() tolerance level}
+	 * is applied, is derived. Robust strategies are computed from the latency
+	 * histogram of each method, and refreshed as observations accumulate
+	 * rather than on every call.
+	 * </p>
+	 * 
+	 * @return The baseline strategy; defaults to {@link BaselineStrategy#MEAN}.
+	 */
+	public BaselineStrategy getBaselineStrategy() {
+		return baselineStrategy;
+	}
+
+	/**
+	 * <p>
+	 * Sets the {@link #getBaselineStrategy() baseline strategy}. Since the
+	 * histogram covers all observations to date, switching strategy takes
+	 * effect without discarding any history.
+	 * </p>
+	 * 
+	 * @param baselineStrategy
+	 *            The baseline strategy.
+	 */
+	public void setBaselineStrategy(final BaselineStrategy baselineStrategy) {
+		this.baselineStrategy = baselineStrategy;
+	}
+
+	/**
+	 * @return The fraction of observations discarded from each end of the
+	 *         distribution for the {@link BaselineStrategy#TRIMMED_MEAN
+	 *         trimmed mean}.
+	 */
+	public double getBaselineTrim() {
+		return baselineTrim;
+	}
+
+	/**
+	 * <p>
+	 * Sets the {@link #getBaselineTrim() baseline trim}.
+	 * </p>
+	 * 
+	 * @param baselineTrim
+	 *            The fraction to discard from each end; must be at least
+	 *            <code>0</code> and below <code>0.5</code>.
+	 */
+	public void setBaselineTrim(final double baselineTrim) {
+		this.baselineTrim = baselineTrim;
+	}
+
+	@Override
+	protected void copySettingsTo(final LatencyRequirement target) {
+		super.copySettingsTo(target);
+		StatisticalLatencyRequirement statisticalTarget = (StatisticalLatencyRequirement) target;
+		statisticalTarget.setObservationsSignificanceBarrier(observationsSignificanceBarrier);
+		statisticalTarget.setToleranceLevel(toleranceLevel);
+		statisticalTarget.setAggregationInterval(aggregationInterval);
+		statisticalTarget.setAggregationThreshold(aggregationThreshold);
+		statisticalTarget.setDetectionMode(detectionMode);
+		statisticalTarget.setChangePointThreshold(changePointThreshold);
+		statisticalTarget.setChangePointDrift(changePointDrift);
+		statisticalTarget.setSeasonalBaseline(seasonalBaseline);
+		statisticalTarget.setSeasonalTimeZone(seasonalTimeZone);
+		statisticalTarget.setBaselineStrategy(baselineStrategy);
+		statisticalTarget.setBaselineTrim(baselineTrim);
+	}
+
+	@Override
+	protected void assertCompulsoryFieldsSpecified() {
+		super.assertCompulsoryFieldsSpecified();
+		if (aggregationInterval < 0) throw new Latency4JException(
+				"Aggregation interval for requirement '" + getWorkCategory() + "' must not be negative.");
+		if (aggregationThreshold < 1) throw new Latency4JException(
+				"Aggregation threshold for requirement '" + getWorkCategory() + "' must be at least 1.");
+		if (detectionMode == null) throw new Latency4JException(
+				"Detection mode for requirement '" + getWorkCategory() + "' must be specified.");
+		if (isChangePointDetection()) {
+			if (changePointThreshold <= 0) throw new Latency4JException(
+					"Change point threshold for requirement '" + getWorkCategory() + "' must be greater than 0.");
+			if (changePointDrift < 0) throw new Latency4JException(
+					"Change point drift for requirement '" + getWorkCategory() + "' must not be negative.");
+			if (aggregationInterval > 0) throw new Latency4JException("Requirement '" + getWorkCategory()
+					+ "' cannot combine change point detection with thread-local aggregation.");
+		}
+		if (baselineStrategy == null) throw new Latency4JException(
+				"Baseline strategy for requirement '" + getWorkCategory() + "' must be specified.");
+		if (baselineTrim < 0 || baselineTrim >= 0.5) throw new Latency4JException(
+				"Baseline trim for requirement '" + getWorkCategory() + "' must be at least 0 and below 0.5.");
+		if (seasonalBaseline && aggregationInterval > 0) throw new Latency4JException("Requirement '"
+				+ getWorkCategory() + "' cannot combine a seasonal baseline with thread-local aggregation.");
+		if (seasonalTimeZone != null && !Arrays.asList(TimeZone.getAvailableIDs()).contains(seasonalTimeZone))
+			throw new Latency4JException("Unknown seasonal time zone '" + seasonalTimeZone + "' for requirement '"
+					+ getWorkCategory() + "'.");
+	}
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package org.latency4j;
+
+/**
+ * <p>
+ * A throughput {@link LatencyRequirement requirement} governs the rate at
+ * which {@link LatencyRequirement#getWorkCategory() operations} complete and
+ * the number of them in progress at once, both early signs of saturation,
+ * rather than the {@link WorkDuration latency} of individual operations.
+ * </p>
+ * <p>
+ * Root calls are counted as they start and complete, without being judged
+ * individually. The counts are evaluated every
+ * {@link #getEvaluationInterval() evaluation interval}, and an alert is
+ * issued when:
+ * <ul>
+ * <li>the completion rate over the interval falls below the
+ * {@link #getMinCallsPerSecond() minimum rate}, once the category has seen
+ * traffic, or</li>
+ * <li>the peak number of calls in progress during the interval exceeds the
+ * {@link #getMaxConcurrency() maximum concurrency}.</li>
+ * </ul>
+ * Each condition is alerted once when it arises, and again only after it has
+ * cleared.
+ * </p>
+ */
+public class ThroughputLatencyRequirement extends LatencyRequirement {
+	@SuppressWarnings("unused")
+	private static final long serialVersionUID = -2094427353938129427L;
+
+	/**
+	 * <p>
+	 * The default ({@value #DEFAULT_EVALUATION_INTERVAL})
+	 * {@link #getEvaluationInterval() evaluation interval}, in milliseconds.
+	 * </p>
+	 */
+	public static final long DEFAULT_EVALUATION_INTERVAL = 10000;
+
+	/**
+	 * <p>
+	 * The minimum number of calls per second which must complete over an
+	 * interval; <code>0</code> disables the check.
+	 * </p>
+	 */
+	private volatile double minCallsPerSecond;
+
+	/**
+	 * <p>
+	 * The maximum number of calls which may be in progress at once;
+	 * <code>0</code> disables the check.
+	 * </p>
+	 */
+	private volatile long maxConcurrency;
+
+	/**
+	 * <p>
+	 * The interval, in milliseconds, over which the completion rate is
+	 * measured and peak concurrency is collected.
+	 * </p>
+	 */
+	private volatile long evaluationInterval;
+
+	/**
+	 * <p>
+	 * Default constructor.
+	 * </p>
+	 */
+	public ThroughputLatencyRequirement() {
+		setEvaluationInterval(DEFAULT_EVALUATION_INTERVAL);
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of calls per second below which the completion rate
+	 * of the category is considered to have collapsed.
+	 * </p>
+	 *
+	 * @return The minimum rate, or <code>0</code> (the default) if the rate
+	 *         is not checked.
+	 */
+	public double getMinCallsPerSecond() {
+		return minCallsPerSecond;
+	}
+
+	/**
+	 * <p>
+	 * Sets the {@link #getMinCallsPerSecond() minimum completion rate}.
+	 * </p>
+	 *
+	 * @param minCallsPerSecond
+	 *            The minimum rate, or <code>0</code> to disable the check.
+	 */
+	public void setMinCallsPerSecond(final double minCallsPerSecond) {
+		this.minCallsPerSecond = minCallsPerSecond;
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of calls which may be in progress at once before the
+	 * requirement is breached.
+	 * </p>
+	 *
+	 * @return The maximum concurrency, or <code>0</code> (the default) if
+	 *         concurrency is not checked.
+	 */
+	public long getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * <p>
+	 * Sets the {@link #getMaxConcurrency() maximum concurrency}.
+	 * </p>
+	 *
+	 * @param maxConcurrency
+	 *            The maximum concurrency, or <code>0</code> to disable the
+	 *            check.
+	 */
+	public void setMaxConcurrency(final long maxConcurrency) {
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	/**
+	 * @return The interval, in milliseconds, at which the requirement is
+	 *         evaluated.
+	 */
+	public long getEvaluationInterval() {
+		return evaluationInterval;
+	}
+
+	/**
+	 * <p>
+	 * Sets the interval at which the requirement is evaluated. The
+	 * completion rate is averaged over the interval, so shorter intervals
+	 * react faster but are more sensitive to bursty traffic.
+	 * </p>
+	 *
+	 * @param evaluationInterval
+	 *            The interval in milliseconds; must be greater than
+	 *            <code>0</code>.
+	 */
+	public void setEvaluationInterval(final long evaluationInterval) {
+		this.evaluationInterval = evaluationInterval;
+	}
+
+	@Override
+	protected void copySettingsTo(final LatencyRequirement target) {
+		super.copySettingsTo(target);
+		ThroughputLatencyRequirement throughputTarget = (ThroughputLatencyRequirement) target;
+		throughputTarget.setMinCallsPerSecond(minCallsPerSecond);
+		throughputTarget.setMaxConcurrency(maxConcurrency);
+		throughputTarget.setEvaluationInterval(evaluationInterval);
+	}
+
+	@Override
+	protected void assertCompulsoryFieldsSpecified() {
+		super.assertCompulsoryFieldsSpecified();
+		if (evaluationInterval <= 0) throw new Latency4JException(
+				"Evaluation interval for requirement '" + getWorkCategory() + "' must be greater than 0.");
+		if (minCallsPerSecond < 0) throw new Latency4JException(
+				"Min calls per second for requirement '" + getWorkCategory() + "' must not be negative.");
+		if (maxConcurrency < 0) throw new Latency4JException(
+				"Max concurrency for requirement '" + getWorkCategory() + "' must not be negative.");
+		if (minCallsPerSecond == 0 && maxConcurrency == 0) throw new Latency4JException("Requirement '"
+				+ getWorkCategory() + "' must specify a min calls per second, a max concurrency or both.");
+	}
+}
\ No newline at end of file
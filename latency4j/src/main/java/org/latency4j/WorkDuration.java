@@ -125,6 +125,34 @@ public class WorkDuration implements Serializable {
 	 */
 	private final WorkDurationId identifier;
 
+	/**
+	 * <p>
+	 * The duration of the monitored call within which this one was made, or
+	 * <code>null</code> for a {@link #isRoot() root} call. Parents are not
+	 * serialised.
+	 * </p>
+	 */
+	private transient WorkDuration parent;
+
+	/**
+	 * <p>
+	 * The total elapsed time of the monitored calls made directly within this
+	 * one.
+	 * </p>
+	 */
+	private long childTime;
+
+	/**
+	 * <p>
+	 * The number of executions which the instance stands for. This exceeds
+	 * <code>1</code> for durations kept by
+	 * {@link LatencyRequirement#getSamplingRate() sampling}, and is persisted
+	 * so that statistics rebuilt from history are weighted as the live ones
+	 * were.
+	 * </p>
+	 */
+	private long weight;
+
 	/**
 	 * <p>
 	 * Public constructor.
@@ -161,6 +189,7 @@ public class WorkDuration implements Serializable {
 		this.end = end;
 		this.root = root;
 		this.errored = errored;
+		this.weight = 1;
 	}
 
 	/**
@@ -251,6 +280,93 @@ public class WorkDuration implements Serializable {
 		this.root = root;
 	}
 
+	/**
+	 * <p>
+	 * Returns the duration of the monitored call within which this one was
+	 * made.
+	 * </p>
+	 * 
+	 * @return The parent duration, or <code>null</code> if this is a
+	 *         {@link #isRoot() root} call or the parent is unknown.
+	 */
+	public WorkDuration getParent() {
+		return parent;
+	}
+
+	/**
+	 * <p>
+	 * Sets the duration of the monitored call within which this one was made.
+	 * </p>
+	 * 
+	 * @param parent
+	 *            The parent duration.
+	 * @see #getParent()
+	 */
+	public void setParent(final WorkDuration parent) {
+		this.parent = parent;
+	}
+
+	/**
+	 * <p>
+	 * Returns the total elapsed time of the monitored calls made directly
+	 * within this one.
+	 * </p>
+	 * 
+	 * @return The time, in milliseconds, spent in child calls.
+	 */
+	public long getChildTime() {
+		return childTime;
+	}
+
+	/**
+	 * <p>
+	 * Adds the elapsed time of a monitored call made directly within this one.
+	 * </p>
+	 * 
+	 * @param elapsedTime
+	 *            The elapsed time, in milliseconds, of the child call.
+	 */
+	public void addChildTime(final long elapsedTime) {
+		childTime += elapsedTime;
+	}
+
+	/**
+	 * <p>
+	 * Returns the time spent in this call itself, i.e. its
+	 * {@link #getElapsedTime() elapsed time} less that of the monitored calls
+	 * made within it.
+	 * </p>
+	 * 
+	 * @return The self time, in milliseconds.
+	 */
+	public long getSelfTime() {
+		return Math.max(0, getElapsedTime() - childTime);
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of executions which the instance stands for.
+	 * </p>
+	 * 
+	 * @return The weight of the duration; <code>1</code> unless it was
+	 *         {@link LatencyRequirement#getSamplingRate() sampled}.
+	 */
+	public long getWeight() {
+		return weight;
+	}
+
+	/**
+	 * <p>
+	 * Sets the number of executions which the instance stands for.
+	 * </p>
+	 * 
+	 * @param weight
+	 *            The weight of the duration; at least <code>1</code>.
+	 */
+	public void setWeight(final long weight) {
+		this.weight = weight;
+	}
+
 	/**
 	 * <p>
 	 * Indicates if the {@link LatencyRequirement#getWorkCategory() work} being
@@ -1,10 +1,22 @@
 package org.latency4j.alert;
 
+import static org.latency4j.alert.StandardHandlerConstants.BURN_RATE_EXCEEDED_MSG_PARAM_KEY;
+import static org.latency4j.alert.StandardHandlerConstants.CALL_RATE_BELOW_MINIMUM_MSG_PARAM_KEY;
 import static org.latency4j.alert.StandardHandlerConstants.CAP_EXCEEDED_MSG_PARAM_KEY;
+import static org.latency4j.alert.StandardHandlerConstants.CONCURRENCY_EXCEEDED_MSG_PARAM_KEY;
+import static org.latency4j.alert.StandardHandlerConstants.DEFAULT_MESSAGE_FOR_BURN_RATE_EXCEEDED;
+import static org.latency4j.alert.StandardHandlerConstants.DEFAULT_MESSAGE_FOR_CALL_RATE_BELOW_MINIMUM;
+import static org.latency4j.alert.StandardHandlerConstants.DEFAULT_MESSAGE_FOR_CONCURRENCY_EXCEEDED;
+import static org.latency4j.alert.StandardHandlerConstants.DEFAULT_MESSAGE_FOR_ERROR_RATE_EXCEEDED;
+import static org.latency4j.alert.StandardHandlerConstants.DEFAULT_MESSAGE_FOR_LEVEL_SHIFT;
 import static org.latency4j.alert.StandardHandlerConstants.DEFAULT_MESSAGE_FOR_MISSED_TARGET;
+import static org.latency4j.alert.StandardHandlerConstants.DEFAULT_MESSAGE_FOR_WARNING_EXCEEDED;
 import static org.latency4j.alert.StandardHandlerConstants.DEFAULT_MESSAGE_FOR_WORK_FAILURE;
 import static org.latency4j.alert.StandardHandlerConstants.DEFAULT_TOLERANCE_EXCEEDED_MESSAGE;
+import static org.latency4j.alert.StandardHandlerConstants.ERROR_RATE_EXCEEDED_MSG_PARAM_KEY;
 import static org.latency4j.alert.StandardHandlerConstants.EXCEEDED_TOLERANCE_MSG_PARAM_KEY;
+import static org.latency4j.alert.StandardHandlerConstants.LEVEL_SHIFT_MSG_PARAM_KEY;
+import static org.latency4j.alert.StandardHandlerConstants.WARNING_EXCEEDED_MSG_PARAM_KEY;
 import static org.latency4j.alert.StandardHandlerConstants.WORK_CATEGORY_FAILED_MSG_PARAM_KEY;
 
 import java.util.HashMap;
@@ -13,9 +25,12 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.latency4j.CappedLatencyRequirement;
 import org.latency4j.AlertHandler;
+import org.latency4j.ErrorRateLatencyRequirement;
 import org.latency4j.Latency4JException;
 import org.latency4j.LatencyRequirement;
+import org.latency4j.SloLatencyRequirement;
 import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.ThroughputLatencyRequirement;
 import org.latency4j.WorkDuration;
 
 /**
@@ -39,6 +54,15 @@ import org.latency4j.WorkDuration;
  * {@link #prepareLatencyExceededCap(CappedLatencyRequirement, WorkDuration)}
  * <br>
  * </li>
+ * <li>{@link StandardHandlerConstants#WARNING_EXCEEDED_MSG_PARAM_KEY}: The
+ * template for messages issued to indicate that a {@link WorkDuration
+ * duration} has breached the {@link CappedLatencyRequirement#getWarningLatency()
+ * warning tier} of its requirement. Where this parameter is not specified, the
+ * default {@link StandardHandlerConstants#DEFAULT_MESSAGE_FOR_WARNING_EXCEEDED}
+ * is used. See
+ * {@link #prepareWarningExceededMsg(CappedLatencyRequirement, WorkDuration)}
+ * <br>
+ * </li>
  * <li>{@link StandardHandlerConstants#WORK_CATEGORY_FAILED_MSG_PARAM_KEY}: The
  * template for messages issued to indicate that a
  * {@link LatencyRequirement#getWorkCategory() monitored task} has failed with
@@ -58,6 +82,41 @@ import org.latency4j.WorkDuration;
  * {@link #prepareDeviationExceededToleranceMsg(StatisticalLatencyRequirement, WorkDuration, double, double)}
  * . <br>
  * </li>
+ * <li>{@link StandardHandlerConstants#ERROR_RATE_EXCEEDED_MSG_PARAM_KEY}: The
+ * template for messages issued to indicate that the error rate of a
+ * {@link LatencyRequirement#getWorkCategory() monitored category} has breached
+ * its {@link ErrorRateLatencyRequirement requirement}. Where this parameter is
+ * not specified, the default
+ * {@link StandardHandlerConstants#DEFAULT_MESSAGE_FOR_ERROR_RATE_EXCEEDED} is
+ * used. See
+ * {@link #prepareErrorRateExceededMsg(ErrorRateLatencyRequirement, WorkDuration, double, double)}
+ * . <br>
+ * </li>
+ * <li>{@link StandardHandlerConstants#CALL_RATE_BELOW_MINIMUM_MSG_PARAM_KEY}
+ * and {@link StandardHandlerConstants#CONCURRENCY_EXCEEDED_MSG_PARAM_KEY}: The
+ * templates for messages issued to indicate that a
+ * {@link ThroughputLatencyRequirement throughput requirement} has been
+ * breached. Where these parameters are not specified, the defaults
+ * {@link StandardHandlerConstants#DEFAULT_MESSAGE_FOR_CALL_RATE_BELOW_MINIMUM}
+ * and
+ * {@link StandardHandlerConstants#DEFAULT_MESSAGE_FOR_CONCURRENCY_EXCEEDED}
+ * are used. <br>
+ * </li>
+ * <li>{@link StandardHandlerConstants#BURN_RATE_EXCEEDED_MSG_PARAM_KEY}: The
+ * template for messages issued to indicate that the error budget of an
+ * {@link SloLatencyRequirement SLO requirement} is being consumed too fast.
+ * Where this parameter is not specified, the default
+ * {@link StandardHandlerConstants#DEFAULT_MESSAGE_FOR_BURN_RATE_EXCEEDED} is
+ * used. <br>
+ * </li>
+ * <li>{@link StandardHandlerConstants#LEVEL_SHIFT_MSG_PARAM_KEY}: The template
+ * for messages issued to indicate that change-point detection has found a
+ * lasting shift in the latency of a {@link StatisticalLatencyRequirement
+ * statistical requirement}'s category. Where this parameter is not
+ * specified, the default
+ * {@link StandardHandlerConstants#DEFAULT_MESSAGE_FOR_LEVEL_SHIFT} is used.
+ * <br>
+ * </li>
  * </ul>
  * </p>
  */
@@ -142,6 +201,24 @@ public abstract class AbstractAlertHandler implements AlertHandler {
 
 		if (!parameters.containsKey(WORK_CATEGORY_FAILED_MSG_PARAM_KEY))
 			parameters.put(WORK_CATEGORY_FAILED_MSG_PARAM_KEY, DEFAULT_MESSAGE_FOR_WORK_FAILURE);
+
+		if (!parameters.containsKey(ERROR_RATE_EXCEEDED_MSG_PARAM_KEY))
+			parameters.put(ERROR_RATE_EXCEEDED_MSG_PARAM_KEY, DEFAULT_MESSAGE_FOR_ERROR_RATE_EXCEEDED);
+
+		if (!parameters.containsKey(CALL_RATE_BELOW_MINIMUM_MSG_PARAM_KEY))
+			parameters.put(CALL_RATE_BELOW_MINIMUM_MSG_PARAM_KEY, DEFAULT_MESSAGE_FOR_CALL_RATE_BELOW_MINIMUM);
+
+		if (!parameters.containsKey(CONCURRENCY_EXCEEDED_MSG_PARAM_KEY))
+			parameters.put(CONCURRENCY_EXCEEDED_MSG_PARAM_KEY, DEFAULT_MESSAGE_FOR_CONCURRENCY_EXCEEDED);
+
+		if (!parameters.containsKey(WARNING_EXCEEDED_MSG_PARAM_KEY))
+			parameters.put(WARNING_EXCEEDED_MSG_PARAM_KEY, DEFAULT_MESSAGE_FOR_WARNING_EXCEEDED);
+
+		if (!parameters.containsKey(BURN_RATE_EXCEEDED_MSG_PARAM_KEY))
+			parameters.put(BURN_RATE_EXCEEDED_MSG_PARAM_KEY, DEFAULT_MESSAGE_FOR_BURN_RATE_EXCEEDED);
+
+		if (!parameters.containsKey(LEVEL_SHIFT_MSG_PARAM_KEY))
+			parameters.put(LEVEL_SHIFT_MSG_PARAM_KEY, DEFAULT_MESSAGE_FOR_LEVEL_SHIFT);
 	}
 
 	/**
@@ -240,6 +317,171 @@ public abstract class AbstractAlertHandler implements AlertHandler {
 		return result;
 	}
 
+	/**
+	 * <p>
+	 * Helper method which formats notification messages where a
+	 * {@link WorkDuration duration} has breached the
+	 * {@link CappedLatencyRequirement#getWarningLatency() warning tier} of its
+	 * requirement. The message template is given by the value of the
+	 * initialisation parameter
+	 * {@link StandardHandlerConstants#WARNING_EXCEEDED_MSG_PARAM_KEY}; see
+	 * {@link AlertFormatter#formatWarningExceededMessage(CappedLatencyRequirement, WorkDuration, String)}
+	 * for the filters it can include.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link CappedLatencyRequirement requirement} to which the
+	 *            notification relates.
+	 * @param duration
+	 *            The {@link WorkDuration duration} which triggered the alert.
+	 * @return A formatted alert message.
+	 */
+	protected String prepareWarningExceededMsg(final CappedLatencyRequirement requirement,
+			final WorkDuration duration) {
+		assertInitialized();
+		return AlertFormatter.formatWarningExceededMessage(requirement, duration,
+				parameters.get(WARNING_EXCEEDED_MSG_PARAM_KEY));
+	}
+
+	/**
+	 * <p>
+	 * Helper method which is used to format notification messages where the
+	 * error rate of a {@link LatencyRequirement#getWorkCategory() category}
+	 * has breached its {@link ErrorRateLatencyRequirement requirement}. The
+	 * message template is given by the value of the initialisation parameter
+	 * {@link StandardHandlerConstants#ERROR_RATE_EXCEEDED_MSG_PARAM_KEY}. For
+	 * the filters it can include, see the delegate method
+	 * {@link AlertFormatter#formatErrorRateExceededMessage(ErrorRateLatencyRequirement, WorkDuration, double, double, String)}
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link ErrorRateLatencyRequirement requirement} to which
+	 *            the notification relates.
+	 * @param duration
+	 *            The {@link WorkDuration duration} with which the breach was
+	 *            detected.
+	 * @param errorRate
+	 *            The error rate of the current window.
+	 * @param baselineErrorRate
+	 *            The baseline error rate, or {@link Double#NaN} if none has
+	 *            been established.
+	 * @return A formatted alert message with all filters specified in the
+	 *         template replaced with actual values from the parameters.
+	 */
+	protected String prepareErrorRateExceededMsg(final ErrorRateLatencyRequirement requirement,
+			final WorkDuration duration, final double errorRate, final double baselineErrorRate) {
+		String result;
+
+		assertInitialized();
+		String errorRateExceededMessage = parameters.get(ERROR_RATE_EXCEEDED_MSG_PARAM_KEY);
+
+		result = AlertFormatter.formatErrorRateExceededMessage(requirement, duration, errorRate, baselineErrorRate,
+				errorRateExceededMessage);
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Helper method which formats notification messages where the completion
+	 * rate of a {@link ThroughputLatencyRequirement throughput requirement}'s
+	 * category has fallen below the minimum. The message template is given by
+	 * the value of the initialisation parameter
+	 * {@link StandardHandlerConstants#CALL_RATE_BELOW_MINIMUM_MSG_PARAM_KEY};
+	 * see
+	 * {@link AlertFormatter#formatCallRateBelowMinimumMessage(ThroughputLatencyRequirement, double, String)}
+	 * for the filters it can include.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link ThroughputLatencyRequirement requirement} to which
+	 *            the notification relates.
+	 * @param callsPerSecond
+	 *            The observed completion rate.
+	 * @return A formatted alert message.
+	 */
+	protected String prepareCallRateBelowMinimumMsg(final ThroughputLatencyRequirement requirement,
+			final double callsPerSecond) {
+		assertInitialized();
+		return AlertFormatter.formatCallRateBelowMinimumMessage(requirement, callsPerSecond,
+				parameters.get(CALL_RATE_BELOW_MINIMUM_MSG_PARAM_KEY));
+	}
+
+	/**
+	 * <p>
+	 * Helper method which formats notification messages where the concurrency
+	 * of a {@link ThroughputLatencyRequirement throughput requirement}'s
+	 * category has exceeded the maximum. The message template is given by the
+	 * value of the initialisation parameter
+	 * {@link StandardHandlerConstants#CONCURRENCY_EXCEEDED_MSG_PARAM_KEY}; see
+	 * {@link AlertFormatter#formatConcurrencyExceededMessage(ThroughputLatencyRequirement, long, String)}
+	 * for the filters it can include.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link ThroughputLatencyRequirement requirement} to which
+	 *            the notification relates.
+	 * @param concurrency
+	 *            The observed peak concurrency.
+	 * @return A formatted alert message.
+	 */
+	protected String prepareConcurrencyExceededMsg(final ThroughputLatencyRequirement requirement,
+			final long concurrency) {
+		assertInitialized();
+		return AlertFormatter.formatConcurrencyExceededMessage(requirement, concurrency,
+				parameters.get(CONCURRENCY_EXCEEDED_MSG_PARAM_KEY));
+	}
+
+	/**
+	 * <p>
+	 * Helper method which formats notification messages where an
+	 * {@link SloLatencyRequirement SLO requirement}'s error budget is being
+	 * consumed too fast. The message template is given by the value of the
+	 * initialisation parameter
+	 * {@link StandardHandlerConstants#BURN_RATE_EXCEEDED_MSG_PARAM_KEY}; see
+	 * {@link AlertFormatter#formatBurnRateExceededMessage(SloLatencyRequirement, double, String)}
+	 * for the filters it can include.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link SloLatencyRequirement requirement} to which the
+	 *            notification relates.
+	 * @param burnRate
+	 *            The observed burn rate.
+	 * @return A formatted alert message.
+	 */
+	protected String prepareBurnRateExceededMsg(final SloLatencyRequirement requirement, final double burnRate) {
+		assertInitialized();
+		return AlertFormatter.formatBurnRateExceededMessage(requirement, burnRate,
+				parameters.get(BURN_RATE_EXCEEDED_MSG_PARAM_KEY));
+	}
+
+	/**
+	 * <p>
+	 * Helper method which formats notification messages where the latency of
+	 * a {@link StatisticalLatencyRequirement statistical requirement}'s
+	 * category has shifted to a new level. The message template is given by
+	 * the value of the initialisation parameter
+	 * {@link StandardHandlerConstants#LEVEL_SHIFT_MSG_PARAM_KEY}; see
+	 * {@link AlertFormatter#formatLevelShiftMessage(StatisticalLatencyRequirement, double, double, String)}
+	 * for the filters it can include.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link StatisticalLatencyRequirement requirement} to which
+	 *            the notification relates.
+	 * @param previousLatency
+	 *            The average latency before the shift.
+	 * @param shiftedLatency
+	 *            The average latency after the shift.
+	 * @return A formatted alert message.
+	 */
+	protected String prepareLevelShiftMsg(final StatisticalLatencyRequirement requirement,
+			final double previousLatency, final double shiftedLatency) {
+		assertInitialized();
+		return AlertFormatter.formatLevelShiftMessage(requirement, previousLatency, shiftedLatency,
+				parameters.get(LEVEL_SHIFT_MSG_PARAM_KEY));
+	}
+
 	/**
 	 * <p>
 	 * Utility method which formats a notification message indicating that a
@@ -1,18 +1,34 @@
 package org.latency4j.alert;
 
+import static org.latency4j.alert.StandardHandlerConstants.BASELINE_ERROR_RATE_TOKEN;
+import static org.latency4j.alert.StandardHandlerConstants.BUDGET_EXHAUSTION_HOURS_TOKEN;
+import static org.latency4j.alert.StandardHandlerConstants.BURN_RATE_TOKEN;
+import static org.latency4j.alert.StandardHandlerConstants.CALLS_PER_SECOND_TOKEN;
+import static org.latency4j.alert.StandardHandlerConstants.CONCURRENCY_TOKEN;
 import static org.latency4j.alert.StandardHandlerConstants.DEVIATION_TOKEN;
 import static org.latency4j.alert.StandardHandlerConstants.DURATION_TOKEN;
+import static org.latency4j.alert.StandardHandlerConstants.ERROR_RATE_TOKEN;
 import static org.latency4j.alert.StandardHandlerConstants.EXCEPTION_MESSAGE_TOKEN;
 import static org.latency4j.alert.StandardHandlerConstants.EXCEPTION_STACKTRACE_TOKEN;
 import static org.latency4j.alert.StandardHandlerConstants.EXPECTED_LATENCY_TOKEN;
+import static org.latency4j.alert.StandardHandlerConstants.MAX_CONCURRENCY_TOKEN;
+import static org.latency4j.alert.StandardHandlerConstants.MAX_ERROR_RATE_TOKEN;
 import static org.latency4j.alert.StandardHandlerConstants.MEAN_TOKEN;
+import static org.latency4j.alert.StandardHandlerConstants.MIN_CALLS_PER_SECOND_TOKEN;
+import static org.latency4j.alert.StandardHandlerConstants.OBJECTIVE_TOKEN;
+import static org.latency4j.alert.StandardHandlerConstants.PREVIOUS_LATENCY_TOKEN;
+import static org.latency4j.alert.StandardHandlerConstants.SHIFTED_LATENCY_TOKEN;
 import static org.latency4j.alert.StandardHandlerConstants.THREAD_ID_TOKEN;
 import static org.latency4j.alert.StandardHandlerConstants.TOLERANCE_LEVEL_TOKEN;
+import static org.latency4j.alert.StandardHandlerConstants.WARNING_LATENCY_TOKEN;
 import static org.latency4j.alert.StandardHandlerConstants.WORK_CATEGORY_TOKEN;
 
 import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.ErrorRateLatencyRequirement;
 import org.latency4j.LatencyRequirement;
+import org.latency4j.SloLatencyRequirement;
 import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.ThroughputLatencyRequirement;
 import org.latency4j.WorkDuration;
 import org.latency4j.WorkDurationId;
 import org.latency4j.util.ExceptionUtil;
@@ -108,8 +124,9 @@ public class AlertFormatter {
 	 * {@link WorkDuration duration}.</li>
 	 * <li>{@link StandardHandlerConstants#EXPECTED_LATENCY_TOKEN}: The cap
 	 * which has been breached. This value is given by the
-	 * {@link CappedLatencyRequirement#getExpectedLatency() expected latency} of
-	 * the specified {@link LatencyRequirement requirement}.</li>
+	 * {@link CappedLatencyRequirement#getExpectedLatency(String) cap which
+	 * applies to the method} of the specified {@link WorkDuration
+	 * duration}.</li>
 	 * <li>{@link StandardHandlerConstants#DURATION_TOKEN}: The actual
 	 * {@link WorkDuration duration} of the operation as specified in the
 	 * parameter list.</li>
@@ -131,12 +148,167 @@ public class AlertFormatter {
 
 		result = message.replace(WORK_CATEGORY_TOKEN, requirement.getWorkCategory());
 		result = result.replace(THREAD_ID_TOKEN, duration.getIdentifier().getThreadId());
-		result = result.replace(EXPECTED_LATENCY_TOKEN, String.valueOf(requirement.getExpectedLatency()));
+		result = result.replace(EXPECTED_LATENCY_TOKEN,
+				String.valueOf(requirement.getExpectedLatency(duration.getMethodName())));
 		result = result.replace(DURATION_TOKEN, duration.toStringTimeOnly());
 
 		return result;
 	}
 
+	/**
+	 * <p>
+	 * Formats an alert which indicates that a {@link WorkDuration duration}
+	 * breached the {@link CappedLatencyRequirement#getWarningLatency() warning
+	 * tier} of its {@link CappedLatencyRequirement requirement}. The same
+	 * filters as for
+	 * {@link #formatTargetMissedMessage(CappedLatencyRequirement, WorkDuration, String)}
+	 * are replaced, and in addition
+	 * {@link StandardHandlerConstants#WARNING_LATENCY_TOKEN} is replaced with
+	 * the warning latency.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link LatencyRequirement requirement} to which the alert
+	 *            relates.
+	 * @param duration
+	 *            The {@link WorkDuration duration} of the monitored task.
+	 * @param message
+	 *            The template from which the alert message is generated.
+	 * @return A formatted alert message with all filters replaced with actual
+	 *         values taken from the parameter list.
+	 */
+	public static String formatWarningExceededMessage(final CappedLatencyRequirement requirement,
+			final WorkDuration duration, final String message) {
+		String result = formatTargetMissedMessage(requirement, duration, message);
+		return result.replace(WARNING_LATENCY_TOKEN, String.valueOf(requirement.getWarningLatency()));
+	}
+
+	/**
+	 * <p>
+	 * Formats an alert which indicates that the error rate of a
+	 * {@link LatencyRequirement#getWorkCategory() monitored category} has
+	 * breached its {@link ErrorRateLatencyRequirement error-rate requirement}.
+	 * This involves replacing the filters, given by the following constants,
+	 * with values taken from the parameter list. Rates are expressed as
+	 * percentages.
+	 * </p>
+	 * <ul>
+	 * <li>{@link StandardHandlerConstants#WORK_CATEGORY_TOKEN}: Replaced with
+	 * the {@link LatencyRequirement#getWorkCategory() category} of the
+	 * {@link LatencyRequirement requirement}.</li>
+	 * <li>{@link StandardHandlerConstants#THREAD_ID_TOKEN}: Replaced with the
+	 * {@link WorkDurationId#getThreadId() id of the thread} of the call with
+	 * which the breach was detected.</li>
+	 * <li>{@link StandardHandlerConstants#ERROR_RATE_TOKEN}: The error rate of
+	 * the current window.</li>
+	 * <li>{@link StandardHandlerConstants#BASELINE_ERROR_RATE_TOKEN}: The
+	 * baseline error rate, or <code>n/a</code> if none has been
+	 * established.</li>
+	 * <li>{@link StandardHandlerConstants#MAX_ERROR_RATE_TOKEN}: The
+	 * {@link ErrorRateLatencyRequirement#getMaxErrorRate() maximum error
+	 * rate} of the requirement.</li>
+	 * <li>{@link StandardHandlerConstants#TOLERANCE_LEVEL_TOKEN}: The
+	 * {@link ErrorRateLatencyRequirement#getToleranceLevel() tolerance level}
+	 * of the requirement.</li>
+	 * </ul>
+	 * 
+	 * @param requirement
+	 *            The {@link LatencyRequirement requirement} to which the alert
+	 *            relates.
+	 * @param duration
+	 *            The {@link WorkDuration duration} with which the breach was
+	 *            detected.
+	 * @param errorRate
+	 *            The error rate of the current window.
+	 * @param baselineErrorRate
+	 *            The baseline error rate, or {@link Double#NaN} if none has
+	 *            been established.
+	 * @param message
+	 *            The template from which the message is built.
+	 * @return A formatted message with all filters replaced with values taken
+	 *         from the parameter list.
+	 */
+	public static String formatErrorRateExceededMessage(final ErrorRateLatencyRequirement requirement,
+			final WorkDuration duration, final double errorRate, final double baselineErrorRate,
+			final String message) {
+		String result;
+		result = message.replace(WORK_CATEGORY_TOKEN, requirement.getWorkCategory());
+		result = result.replace(THREAD_ID_TOKEN, duration.getIdentifier().getThreadId());
+		result = result.replace(ERROR_RATE_TOKEN, String.valueOf(errorRate * 100));
+		result = result.replace(BASELINE_ERROR_RATE_TOKEN,
+				Double.isNaN(baselineErrorRate) ? "n/a" : String.valueOf(baselineErrorRate * 100));
+		result = result.replace(MAX_ERROR_RATE_TOKEN, String.valueOf(requirement.getMaxErrorRate() * 100));
+		result = result.replace(TOLERANCE_LEVEL_TOKEN, String.valueOf(requirement.getToleranceLevel() * 100));
+
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Formats an alert which indicates that the completion rate of a
+	 * {@link LatencyRequirement#getWorkCategory() monitored category} has
+	 * fallen below the minimum of its {@link ThroughputLatencyRequirement
+	 * throughput requirement}. The filter
+	 * {@link StandardHandlerConstants#WORK_CATEGORY_TOKEN} is replaced with the
+	 * category, {@link StandardHandlerConstants#CALLS_PER_SECOND_TOKEN} with the
+	 * observed rate and {@link StandardHandlerConstants#MIN_CALLS_PER_SECOND_TOKEN}
+	 * with the {@link ThroughputLatencyRequirement#getMinCallsPerSecond()
+	 * minimum rate}.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link LatencyRequirement requirement} to which the alert
+	 *            relates.
+	 * @param callsPerSecond
+	 *            The observed completion rate.
+	 * @param message
+	 *            The template from which the message is built.
+	 * @return A formatted message with all filters replaced with values taken
+	 *         from the parameter list.
+	 */
+	public static String formatCallRateBelowMinimumMessage(final ThroughputLatencyRequirement requirement,
+			final double callsPerSecond, final String message) {
+		String result;
+		result = message.replace(WORK_CATEGORY_TOKEN, requirement.getWorkCategory());
+		result = result.replace(CALLS_PER_SECOND_TOKEN, String.valueOf(callsPerSecond));
+		result = result.replace(MIN_CALLS_PER_SECOND_TOKEN, String.valueOf(requirement.getMinCallsPerSecond()));
+
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Formats an alert which indicates that the concurrency of a
+	 * {@link LatencyRequirement#getWorkCategory() monitored category} has
+	 * exceeded the maximum of its {@link ThroughputLatencyRequirement
+	 * throughput requirement}. The filter
+	 * {@link StandardHandlerConstants#WORK_CATEGORY_TOKEN} is replaced with the
+	 * category, {@link StandardHandlerConstants#CONCURRENCY_TOKEN} with the
+	 * observed concurrency and
+	 * {@link StandardHandlerConstants#MAX_CONCURRENCY_TOKEN} with the
+	 * {@link ThroughputLatencyRequirement#getMaxConcurrency() maximum}.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link LatencyRequirement requirement} to which the alert
+	 *            relates.
+	 * @param concurrency
+	 *            The observed peak concurrency.
+	 * @param message
+	 *            The template from which the message is built.
+	 * @return A formatted message with all filters replaced with values taken
+	 *         from the parameter list.
+	 */
+	public static String formatConcurrencyExceededMessage(final ThroughputLatencyRequirement requirement,
+			final long concurrency, final String message) {
+		String result;
+		result = message.replace(WORK_CATEGORY_TOKEN, requirement.getWorkCategory());
+		result = result.replace(CONCURRENCY_TOKEN, String.valueOf(concurrency));
+		result = result.replace(MAX_CONCURRENCY_TOKEN, String.valueOf(requirement.getMaxConcurrency()));
+
+		return result;
+	}
+
 	/**
 	 * <p>
 	 * Formats an alert which indicates that a
@@ -179,6 +351,78 @@ public class AlertFormatter {
 		result = result.replace(EXCEPTION_MESSAGE_TOKEN, duration.getError().getMessage());
 		result = result.replace(EXCEPTION_STACKTRACE_TOKEN, ExceptionUtil.getStackTrace(duration.getError()));
 
+		return result;
+	}
+	/**
+	 * <p>
+	 * Formats an alert which indicates that a {@link LatencyRequirement#getWorkCategory()
+	 * monitored category} is consuming the error budget of its
+	 * {@link SloLatencyRequirement SLO requirement} too fast. The filter
+	 * {@link StandardHandlerConstants#WORK_CATEGORY_TOKEN} is replaced with the
+	 * category, {@link StandardHandlerConstants#BURN_RATE_TOKEN} with the burn
+	 * rate, {@link StandardHandlerConstants#BUDGET_EXHAUSTION_HOURS_TOKEN} with
+	 * the hours in which the budget would be exhausted at that rate,
+	 * {@link StandardHandlerConstants#OBJECTIVE_TOKEN} with the
+	 * {@link SloLatencyRequirement#getObjective() objective} as a percentage
+	 * and {@link StandardHandlerConstants#EXPECTED_LATENCY_TOKEN} with the
+	 * {@link SloLatencyRequirement#getExpectedLatency() expected latency}.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link LatencyRequirement requirement} to which the alert
+	 *            relates.
+	 * @param burnRate
+	 *            The observed burn rate.
+	 * @param message
+	 *            The template from which the message is built.
+	 * @return A formatted message with all filters replaced with values taken
+	 *         from the parameter list.
+	 */
+	public static String formatBurnRateExceededMessage(final SloLatencyRequirement requirement,
+			final double burnRate, final String message) {
+		double exhaustionHours = requirement.getCompliancePeriod() / burnRate / (60 * 60 * 1000);
+
+		String result;
+		result = message.replace(WORK_CATEGORY_TOKEN, requirement.getWorkCategory());
+		result = result.replace(BURN_RATE_TOKEN, String.valueOf(burnRate));
+		result = result.replace(BUDGET_EXHAUSTION_HOURS_TOKEN, String.valueOf(exhaustionHours));
+		result = result.replace(OBJECTIVE_TOKEN, String.valueOf(requirement.getObjective() * 100));
+		result = result.replace(EXPECTED_LATENCY_TOKEN, String.valueOf(requirement.getExpectedLatency()));
+
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Formats an alert which indicates that the latency of a
+	 * {@link LatencyRequirement#getWorkCategory() monitored category} has
+	 * shifted to a new level. The filter
+	 * {@link StandardHandlerConstants#WORK_CATEGORY_TOKEN} is replaced with the
+	 * category, {@link StandardHandlerConstants#PREVIOUS_LATENCY_TOKEN} with
+	 * the average latency before the shift and
+	 * {@link StandardHandlerConstants#SHIFTED_LATENCY_TOKEN} with the average
+	 * latency after it.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link LatencyRequirement requirement} to which the alert
+	 *            relates.
+	 * @param previousLatency
+	 *            The average latency before the shift.
+	 * @param shiftedLatency
+	 *            The average latency after the shift.
+	 * @param message
+	 *            The template from which the message is built.
+	 * @return A formatted message with all filters replaced with values taken
+	 *         from the parameter list.
+	 */
+	public static String formatLevelShiftMessage(final StatisticalLatencyRequirement requirement,
+			final double previousLatency, final double shiftedLatency, final String message) {
+		String result;
+		result = message.replace(WORK_CATEGORY_TOKEN, requirement.getWorkCategory());
+		result = result.replace(PREVIOUS_LATENCY_TOKEN, String.valueOf(previousLatency));
+		result = result.replace(SHIFTED_LATENCY_TOKEN, String.valueOf(shiftedLatency));
+
 		return result;
 	}
 }
\ No newline at end of file
@@ -3,11 +3,14 @@ package org.latency4j.alert;
 import static org.latency4j.Latency4JConstants.EPSILON_LOGGER_NAME;
 
 import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.ErrorRateLatencyRequirement;
 import org.latency4j.AlertHandler;
 import org.latency4j.Latency4JConstants;
 import org.latency4j.Latency4JException;
 import org.latency4j.LatencyRequirement;
+import org.latency4j.SloLatencyRequirement;
 import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.ThroughputLatencyRequirement;
 import org.latency4j.WorkDuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -120,6 +123,46 @@ public class MissedTargetAlertLogger extends AbstractAlertHandler {
 		internalLogMessage(message);
 	}
 
+	@Override
+	public void latencyExceededWarningThreshold(final CappedLatencyRequirement requirement,
+			final WorkDuration duration) {
+		String message = prepareWarningExceededMsg(requirement, duration);
+		internalLogMessage(message);
+	}
+
+	@Override
+	public void errorRateExceeded(final ErrorRateLatencyRequirement requirement, final WorkDuration duration,
+			final double errorRate, final double baselineErrorRate) {
+		String message = prepareErrorRateExceededMsg(requirement, duration, errorRate, baselineErrorRate);
+		internalLogMessage(message);
+	}
+
+	@Override
+	public void callRateBelowMinimum(final ThroughputLatencyRequirement requirement, final double callsPerSecond) {
+		String message = prepareCallRateBelowMinimumMsg(requirement, callsPerSecond);
+		internalLogMessage(message);
+	}
+
+	@Override
+	public void concurrencyExceededMaximum(final ThroughputLatencyRequirement requirement,
+			final long concurrency) {
+		String message = prepareConcurrencyExceededMsg(requirement, concurrency);
+		internalLogMessage(message);
+	}
+
+	@Override
+	public void errorBudgetBurnRateExceeded(final SloLatencyRequirement requirement, final double burnRate) {
+		String message = prepareBurnRateExceededMsg(requirement, burnRate);
+		internalLogMessage(message);
+	}
+
+	@Override
+	public void latencyLevelShiftDetected(final StatisticalLatencyRequirement requirement,
+			final double previousLatency, final double shiftedLatency) {
+		String message = prepareLevelShiftMsg(requirement, previousLatency, shiftedLatency);
+		internalLogMessage(message);
+	}
+
 	@Override
 	public void workCategoryFailed(final LatencyRequirement requirement, final WorkDuration duration) {
 		String message = prepareWorkCategoryFailedMsg(requirement, duration);
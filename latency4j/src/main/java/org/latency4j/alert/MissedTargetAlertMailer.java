@@ -7,9 +7,12 @@ import java.util.Set;
 import javax.mail.Session;
 
 import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.ErrorRateLatencyRequirement;
 import org.latency4j.Latency4JException;
 import org.latency4j.LatencyRequirement;
+import org.latency4j.SloLatencyRequirement;
 import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.ThroughputLatencyRequirement;
 import org.latency4j.WorkDuration;
 import org.latency4j.util.Latency4JEmailSender;
 import org.latency4j.util.NetworkUtils;
@@ -134,6 +137,46 @@ public class MissedTargetAlertMailer extends AbstractAlertHandler {
 		sendEmail(messageText);
 	}
 
+	@Override
+	public void latencyExceededWarningThreshold(final CappedLatencyRequirement requirement,
+			final WorkDuration duration) {
+		String messageText = prepareWarningExceededMsg(requirement, duration);
+		sendEmail(messageText);
+	}
+
+	@Override
+	public void errorRateExceeded(final ErrorRateLatencyRequirement requirement, final WorkDuration duration,
+			final double errorRate, final double baselineErrorRate) {
+		String messageText = prepareErrorRateExceededMsg(requirement, duration, errorRate, baselineErrorRate);
+		sendEmail(messageText);
+	}
+
+	@Override
+	public void callRateBelowMinimum(final ThroughputLatencyRequirement requirement, final double callsPerSecond) {
+		String messageText = prepareCallRateBelowMinimumMsg(requirement, callsPerSecond);
+		sendEmail(messageText);
+	}
+
+	@Override
+	public void concurrencyExceededMaximum(final ThroughputLatencyRequirement requirement,
+			final long concurrency) {
+		String messageText = prepareConcurrencyExceededMsg(requirement, concurrency);
+		sendEmail(messageText);
+	}
+
+	@Override
+	public void errorBudgetBurnRateExceeded(final SloLatencyRequirement requirement, final double burnRate) {
+		String messageText = prepareBurnRateExceededMsg(requirement, burnRate);
+		sendEmail(messageText);
+	}
+
+	@Override
+	public void latencyLevelShiftDetected(final StatisticalLatencyRequirement requirement,
+			final double previousLatency, final double shiftedLatency) {
+		String messageText = prepareLevelShiftMsg(requirement, previousLatency, shiftedLatency);
+		sendEmail(messageText);
+	}
+
 	@Override
 	public void workCategoryFailed(final LatencyRequirement requirement, final WorkDuration duration) {
 		String messageText = prepareWorkCategoryFailedMsg(requirement, duration);
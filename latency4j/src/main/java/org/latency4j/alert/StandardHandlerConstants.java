@@ -26,6 +26,36 @@ public interface StandardHandlerConstants {
 	 */
 	String WORK_CATEGORY_FAILED_MSG_PARAM_KEY = "work.failure.msg";
 
+	/**
+	 * {@value #ERROR_RATE_EXCEEDED_MSG_PARAM_KEY}.
+	 */
+	String ERROR_RATE_EXCEEDED_MSG_PARAM_KEY = "error.rate.breach.msg";
+
+	/**
+	 * {@value #CALL_RATE_BELOW_MINIMUM_MSG_PARAM_KEY}.
+	 */
+	String CALL_RATE_BELOW_MINIMUM_MSG_PARAM_KEY = "call.rate.breach.msg";
+
+	/**
+	 * {@value #CONCURRENCY_EXCEEDED_MSG_PARAM_KEY}.
+	 */
+	String CONCURRENCY_EXCEEDED_MSG_PARAM_KEY = "concurrency.breach.msg";
+
+	/**
+	 * {@value #BURN_RATE_EXCEEDED_MSG_PARAM_KEY}.
+	 */
+	String BURN_RATE_EXCEEDED_MSG_PARAM_KEY = "burn.rate.breach.msg";
+
+	/**
+	 * {@value #WARNING_EXCEEDED_MSG_PARAM_KEY}.
+	 */
+	String WARNING_EXCEEDED_MSG_PARAM_KEY = "warning.breach.msg";
+
+	/**
+	 * {@value #LEVEL_SHIFT_MSG_PARAM_KEY}.
+	 */
+	String LEVEL_SHIFT_MSG_PARAM_KEY = "level.shift.msg";
+
 	// token
 	/**
 	 * {@value #WORK_CATEGORY_TOKEN}.
@@ -72,6 +102,71 @@ public interface StandardHandlerConstants {
 	 */
 	String EXCEPTION_STACKTRACE_TOKEN = "@exception.stacktrace@";
 
+	/**
+	 * {@value #ERROR_RATE_TOKEN}.
+	 */
+	String ERROR_RATE_TOKEN = "@error.rate@";
+
+	/**
+	 * {@value #BASELINE_ERROR_RATE_TOKEN}.
+	 */
+	String BASELINE_ERROR_RATE_TOKEN = "@baseline.error.rate@";
+
+	/**
+	 * {@value #MAX_ERROR_RATE_TOKEN}.
+	 */
+	String MAX_ERROR_RATE_TOKEN = "@max.error.rate@";
+
+	/**
+	 * {@value #CALLS_PER_SECOND_TOKEN}.
+	 */
+	String CALLS_PER_SECOND_TOKEN = "@calls.per.second@";
+
+	/**
+	 * {@value #MIN_CALLS_PER_SECOND_TOKEN}.
+	 */
+	String MIN_CALLS_PER_SECOND_TOKEN = "@min.calls.per.second@";
+
+	/**
+	 * {@value #CONCURRENCY_TOKEN}.
+	 */
+	String CONCURRENCY_TOKEN = "@concurrency@";
+
+	/**
+	 * {@value #MAX_CONCURRENCY_TOKEN}.
+	 */
+	String MAX_CONCURRENCY_TOKEN = "@max.concurrency@";
+
+	/**
+	 * {@value #BURN_RATE_TOKEN}.
+	 */
+	String BURN_RATE_TOKEN = "@burn.rate@";
+
+	/**
+	 * {@value #OBJECTIVE_TOKEN}.
+	 */
+	String OBJECTIVE_TOKEN = "@objective@";
+
+	/**
+	 * {@value #BUDGET_EXHAUSTION_HOURS_TOKEN}.
+	 */
+	String BUDGET_EXHAUSTION_HOURS_TOKEN = "@budget.exhaustion.hours@";
+
+	/**
+	 * {@value #WARNING_LATENCY_TOKEN}.
+	 */
+	String WARNING_LATENCY_TOKEN = "@warning.latency@";
+
+	/**
+	 * {@value #PREVIOUS_LATENCY_TOKEN}.
+	 */
+	String PREVIOUS_LATENCY_TOKEN = "@previous.latency@";
+
+	/**
+	 * {@value #SHIFTED_LATENCY_TOKEN}.
+	 */
+	String SHIFTED_LATENCY_TOKEN = "@shifted.latency@";
+
 	// standard messages
 	/**
 	 * <p>
@@ -102,6 +197,20 @@ public interface StandardHandlerConstants {
 	String DEFAULT_MESSAGE_FOR_MISSED_TARGET = THREAD_ID_TOKEN + ": WorkCategory  '" + WORK_CATEGORY_TOKEN
 			+ "' exceeded specified latency " + EXPECTED_LATENCY_TOKEN + ", actual duration " + DURATION_TOKEN + ".";
 
+	/**
+	 * <p>
+	 * Default value for parameter {@link #WARNING_EXCEEDED_MSG_PARAM_KEY}
+	 * </p>
+	 * <p>
+	 * The text value of this constant is as follows.
+	 * </p>
+	 * <p>
+	 * {@value #DEFAULT_MESSAGE_FOR_WARNING_EXCEEDED}
+	 * </p>
+	 */
+	String DEFAULT_MESSAGE_FOR_WARNING_EXCEEDED = THREAD_ID_TOKEN + ": WorkCategory  '" + WORK_CATEGORY_TOKEN
+			+ "' exceeded warning latency " + WARNING_LATENCY_TOKEN + ", actual duration " + DURATION_TOKEN + ".";
+
 	/**
 	 * <p>
 	 * Default value for parameter {@link #WORK_CATEGORY_FAILED_MSG_PARAM_KEY}
@@ -115,4 +224,79 @@ public interface StandardHandlerConstants {
 	 */
 	String DEFAULT_MESSAGE_FOR_WORK_FAILURE = THREAD_ID_TOKEN + ": WorkCategory  '" + WORK_CATEGORY_TOKEN
 			+ "' failed with error: " + EXCEPTION_MESSAGE_TOKEN + ".\nStack Trace:\n" + EXCEPTION_STACKTRACE_TOKEN;
+
+	/**
+	 * <p>
+	 * Default value for parameter {@link #ERROR_RATE_EXCEEDED_MSG_PARAM_KEY}
+	 * </p>
+	 * <p>
+	 * The text value of this constant is as follows.
+	 * </p>
+	 * <p>
+	 * {@value #DEFAULT_MESSAGE_FOR_ERROR_RATE_EXCEEDED}
+	 * </p>
+	 */
+	String DEFAULT_MESSAGE_FOR_ERROR_RATE_EXCEEDED = THREAD_ID_TOKEN + ": WorkCategory  '" + WORK_CATEGORY_TOKEN
+			+ "' error rate " + ERROR_RATE_TOKEN + "% exceeded limit. \n\t\tMax error rate " + MAX_ERROR_RATE_TOKEN
+			+ "%, baseline error rate " + BASELINE_ERROR_RATE_TOKEN + "%, tolerance " + TOLERANCE_LEVEL_TOKEN + "%.";
+
+	/**
+	 * <p>
+	 * Default value for parameter {@link #CALL_RATE_BELOW_MINIMUM_MSG_PARAM_KEY}
+	 * </p>
+	 * <p>
+	 * The text value of this constant is as follows.
+	 * </p>
+	 * <p>
+	 * {@value #DEFAULT_MESSAGE_FOR_CALL_RATE_BELOW_MINIMUM}
+	 * </p>
+	 */
+	String DEFAULT_MESSAGE_FOR_CALL_RATE_BELOW_MINIMUM = "WorkCategory  '" + WORK_CATEGORY_TOKEN
+			+ "' completed " + CALLS_PER_SECOND_TOKEN + " calls per second, below the minimum of "
+			+ MIN_CALLS_PER_SECOND_TOKEN + ".";
+
+	/**
+	 * <p>
+	 * Default value for parameter {@link #CONCURRENCY_EXCEEDED_MSG_PARAM_KEY}
+	 * </p>
+	 * <p>
+	 * The text value of this constant is as follows.
+	 * </p>
+	 * <p>
+	 * {@value #DEFAULT_MESSAGE_FOR_CONCURRENCY_EXCEEDED}
+	 * </p>
+	 */
+	String DEFAULT_MESSAGE_FOR_CONCURRENCY_EXCEEDED = "WorkCategory  '" + WORK_CATEGORY_TOKEN + "' had "
+			+ CONCURRENCY_TOKEN + " calls in progress, above the maximum of " + MAX_CONCURRENCY_TOKEN + ".";
+
+	/**
+	 * <p>
+	 * Default value for parameter {@link #BURN_RATE_EXCEEDED_MSG_PARAM_KEY}
+	 * </p>
+	 * <p>
+	 * The text value of this constant is as follows.
+	 * </p>
+	 * <p>
+	 * {@value #DEFAULT_MESSAGE_FOR_BURN_RATE_EXCEEDED}
+	 * </p>
+	 */
+	String DEFAULT_MESSAGE_FOR_BURN_RATE_EXCEEDED = "WorkCategory  '" + WORK_CATEGORY_TOKEN
+			+ "' is consuming its error budget at " + BURN_RATE_TOKEN + " times the sustainable rate, exhausting it in "
+			+ BUDGET_EXHAUSTION_HOURS_TOKEN + " hours. \n\t\tObjective " + OBJECTIVE_TOKEN + "% of calls within "
+			+ EXPECTED_LATENCY_TOKEN + " ms.";
+
+	/**
+	 * <p>
+	 * Default value for parameter {@link #LEVEL_SHIFT_MSG_PARAM_KEY}
+	 * </p>
+	 * <p>
+	 * The text value of this constant is as follows.
+	 * </p>
+	 * <p>
+	 * {@value #DEFAULT_MESSAGE_FOR_LEVEL_SHIFT}
+	 * </p>
+	 */
+	String DEFAULT_MESSAGE_FOR_LEVEL_SHIFT = "WorkCategory  '" + WORK_CATEGORY_TOKEN
+			+ "' has shifted from an average latency of " + PREVIOUS_LATENCY_TOKEN + " ms to "
+			+ SHIFTED_LATENCY_TOKEN + " ms.";
 }
\ No newline at end of file
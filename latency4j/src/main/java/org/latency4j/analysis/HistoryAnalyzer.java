@@ -0,0 +1,259 @@
+package org.latency4j.analysis;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
+
+import org.latency4j.Latency4JException;
+import org.latency4j.WorkDuration;
+import org.latency4j.persistence.DefaultWorkDurationPersistenceManager;
+import org.latency4j.persistence.DurationFileHandle;
+import org.latency4j.util.PrimitiveTypeUtilities;
+
+/**
+ * <p>
+ * Offline analyzer of the {@link WorkDuration durations} persisted by the
+ * {@link DefaultWorkDurationPersistenceManager default persistence manager}.
+ * All segment files in a data directory, compressed or not, are summarised in
+ * parallel on a {@link ForkJoinPool fork/join pool}, each file being
+ * memory-mapped and its records merged into per-method histograms. The
+ * resulting {@link HistoryReport report} holds percentile tables per category
+ * and method, per-minute time series per category, and the slowest methods.
+ * </p>
+ * <p>
+ * The analyzer can be used programmatically, or from the command line:
+ * </p>
+ *
+ * <pre>
+ * java org.latency4j.analysis.HistoryAnalyzer &lt;data-directory&gt;
+ *      [-from &lt;millis&gt;] [-to &lt;millis&gt;] [-top &lt;n&gt;] [-threads &lt;n&gt;] [-series]
+ * </pre>
+ */
+public class HistoryAnalyzer {
+	/**
+	 * <p>
+	 * The number of slowest methods reported by default.
+	 * </p>
+	 */
+	public static final int DEFAULT_TOP_COUNT = 10;
+
+	/**
+	 * <p>
+	 * The percentile by which the slowest methods are ranked.
+	 * </p>
+	 */
+	public static final double RANKING_PERCENTILE = 99;
+
+	private static final double[] REPORTED_PERCENTILES = { 50, 90, 99, 99.9 };
+
+	private static final String USAGE = "Usage: HistoryAnalyzer <data-directory> [-from <millis>] [-to <millis>]"
+			+ " [-top <n>] [-threads <n>] [-series]";
+
+	private File dataDirectory;
+	private long from;
+	private long to;
+	private int parallelism;
+
+	public HistoryAnalyzer() {
+		this.from = 0;
+		this.to = Long.MAX_VALUE;
+		this.parallelism = Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * <p>
+	 * Summarises every segment file in the {@link #setDataDirectory(File)
+	 * data directory}.
+	 * </p>
+	 *
+	 * @return The merged report.
+	 */
+	public HistoryReport analyze() {
+		if (dataDirectory == null || !dataDirectory.isDirectory())
+			throw new Latency4JException("Data directory '" + dataDirectory + "' does not exist.");
+		if (parallelism < 1) throw new Latency4JException("Parallelism must be at least 1.");
+
+		List<File> segments = listSegmentFiles(dataDirectory);
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			return pool.invoke(new SegmentScanTask(segments, 0, segments.size(), from, to));
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Lists the segment files, compressed or not, of all categories in the
+	 * given directory, largest first so that the longest scans start early.
+	 * </p>
+	 */
+	static List<File> listSegmentFiles(final File directory) {
+		File[] files = directory.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(final File file) {
+				return file.isFile() && DurationFileHandle.isSegmentFileName(file.getName());
+			}
+		});
+
+		List<File> result = new ArrayList<File>();
+		if (files != null) result.addAll(Arrays.asList(files));
+		Collections.sort(result, new Comparator<File>() {
+			@Override
+			public int compare(final File first, final File second) {
+				return Long.compare(second.length(), first.length());
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Prints the report as text tables: percentiles per category and method,
+	 * the slowest methods and, optionally, the per-minute time series.
+	 * </p>
+	 */
+	public static void printReport(final HistoryReport report, final PrintStream out, final int topCount,
+			final boolean includeTimeSeries) {
+		out.println("Segments: " + report.getSegmentCount() + ", records: " + report.getRecordCount()
+				+ ", malformed: " + report.getMalformedRecordCount());
+
+		out.println();
+		out.println("Percentiles (ms)");
+		printSummaryHeader(out);
+		for (String category : report.getCategories())
+			for (LatencySummary summary : report.getMethodSummaries(category).values())
+				printSummary(out, summary);
+
+		out.println();
+		out.println("Slowest methods by p" + formatPercentile(RANKING_PERCENTILE) + " (ms)");
+		printSummaryHeader(out);
+		for (LatencySummary summary : report.getSlowestMethods(topCount, RANKING_PERCENTILE))
+			printSummary(out, summary);
+
+		if (includeTimeSeries) {
+			SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+			format.setTimeZone(TimeZone.getTimeZone("UTC"));
+			for (String category : report.getCategories()) {
+				out.println();
+				out.println("Per-minute series (UTC): " + category);
+				out.println(String.format("%-16s %10s %8s %10s %10s", "minute", "count", "errors", "mean", "max"));
+				for (MinuteSummary minute : report.getTimeSeries(category).values())
+					out.println(String.format("%-16s %10d %8d %10.1f %10d", format.format(new Date(minute.getMinute())),
+							minute.getCount(), minute.getErrorCount(), minute.getMean(), minute.getMaxTime()));
+			}
+		}
+	}
+
+	private static void printSummaryHeader(final PrintStream out) {
+		StringBuilder header = new StringBuilder(String.format("%-24s %-32s %10s %8s %10s", "category", "method",
+				"count", "errors", "mean"));
+		for (double percentile : REPORTED_PERCENTILES)
+			header.append(String.format(" %8s", "p" + formatPercentile(percentile)));
+		header.append(String.format(" %8s", "max"));
+		out.println(header);
+	}
+
+	private static void printSummary(final PrintStream out, final LatencySummary summary) {
+		StringBuilder row = new StringBuilder(String.format("%-24s %-32s %10d %8d %10.1f", summary.getWorkCategory(),
+				summary.getMethodName(), summary.getNumberOfObservations(), summary.getErrorCount(),
+				summary.getMean()));
+		for (double percentile : REPORTED_PERCENTILES)
+			row.append(String.format(" %8d", summary.getPercentile(percentile)));
+		row.append(String.format(" %8d", summary.getMaxTime()));
+		out.println(row);
+	}
+
+	private static String formatPercentile(final double percentile) {
+		return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+	}
+
+	public static void main(final String[] args) {
+		if (args.length == 0) {
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+
+		HistoryAnalyzer analyzer = new HistoryAnalyzer();
+		analyzer.setDataDirectory(new File(args[0]));
+		int topCount = DEFAULT_TOP_COUNT;
+		boolean includeTimeSeries = false;
+
+		try {
+			for (int i = 1; i < args.length; i++) {
+				String option = args[i];
+				if ("-series".equals(option)) includeTimeSeries = true;
+				else if (i + 1 < args.length && PrimitiveTypeUtilities.isValidLong(args[i + 1])) {
+					long value = PrimitiveTypeUtilities.toLongValue(args[++i]);
+					if ("-from".equals(option)) analyzer.setFrom(value);
+					else if ("-to".equals(option)) analyzer.setTo(value);
+					else if ("-top".equals(option)) topCount = (int) value;
+					else if ("-threads".equals(option)) analyzer.setParallelism((int) value);
+					else throw new Latency4JException("Unknown option '" + option + "'.");
+				} else throw new Latency4JException("Invalid option '" + option + "'.");
+			}
+
+			long start = System.currentTimeMillis();
+			HistoryReport report = analyzer.analyze();
+			printReport(report, System.out, topCount, includeTimeSeries);
+			System.out.println();
+			System.out.println("Analyzed in " + (System.currentTimeMillis() - start) + "ms.");
+		} catch (Latency4JException exce) {
+			System.err.println(exce.getMessage());
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+	}
+
+	public File getDataDirectory() {
+		return dataDirectory;
+	}
+
+	public void setDataDirectory(final File dataDirectory) {
+		this.dataDirectory = dataDirectory;
+	}
+
+	/**
+	 * @return The start (inclusive) of the range of end times analysed.
+	 */
+	public long getFrom() {
+		return from;
+	}
+
+	public void setFrom(final long from) {
+		this.from = from;
+	}
+
+	/**
+	 * @return The end (exclusive) of the range of end times analysed.
+	 */
+	public long getTo() {
+		return to;
+	}
+
+	public void setTo(final long to) {
+		this.to = to;
+	}
+
+	/**
+	 * @return The number of threads scanning segments; the number of
+	 *         available processors by default.
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(final int parallelism) {
+		this.parallelism = parallelism;
+	}
+}// end class def
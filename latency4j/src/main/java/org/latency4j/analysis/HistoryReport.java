@@ -0,0 +1,188 @@
+package org.latency4j.analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * The result of a {@link HistoryAnalyzer history analysis}: a
+ * {@link LatencySummary summary} per category and method, and a per-minute
+ * {@link #getTimeSeries(String) time series} per category. Reports of
+ * separate segments are {@link #merge(HistoryReport) merged} into one.
+ * </p>
+ */
+public class HistoryReport {
+	/**
+	 * <p>
+	 * Length of a time series interval in milliseconds.
+	 * </p>
+	 */
+	public static final long MINUTE_MILLIS = 60 * 1000L;
+
+	private final Map<String, Map<String, LatencySummary>> summaries;
+	private final Map<String, TreeMap<Long, MinuteSummary>> timeSeries;
+	private long recordCount;
+	private long malformedRecordCount;
+	private int segmentCount;
+
+	HistoryReport() {
+		this.summaries = new HashMap<String, Map<String, LatencySummary>>();
+		this.timeSeries = new HashMap<String, TreeMap<Long, MinuteSummary>>();
+	}
+
+	LatencySummary getOrCreateSummary(final String workCategory, final String methodName) {
+		Map<String, LatencySummary> methods = summaries.get(workCategory);
+		if (methods == null) {
+			methods = new HashMap<String, LatencySummary>();
+			summaries.put(workCategory, methods);
+		}
+
+		LatencySummary result = methods.get(methodName);
+		if (result == null) {
+			result = new LatencySummary(workCategory, methodName);
+			methods.put(methodName, result);
+		}
+		return result;
+	}
+
+	MinuteSummary getOrCreateMinute(final String workCategory, final long minute) {
+		TreeMap<Long, MinuteSummary> series = timeSeries.get(workCategory);
+		if (series == null) {
+			series = new TreeMap<Long, MinuteSummary>();
+			timeSeries.put(workCategory, series);
+		}
+
+		MinuteSummary result = series.get(minute);
+		if (result == null) {
+			result = new MinuteSummary(minute);
+			series.put(minute, result);
+		}
+		return result;
+	}
+
+	void incrementRecordCount() {
+		recordCount++;
+	}
+
+	void incrementMalformedRecordCount() {
+		malformedRecordCount++;
+	}
+
+	void incrementSegmentCount() {
+		segmentCount++;
+	}
+
+	/**
+	 * <p>
+	 * Adds the contents of the given report to this one.
+	 * </p>
+	 */
+	void merge(final HistoryReport other) {
+		for (Map<String, LatencySummary> methods : other.summaries.values())
+			for (LatencySummary summary : methods.values())
+				getOrCreateSummary(summary.getWorkCategory(), summary.getMethodName()).merge(summary);
+
+		for (Map.Entry<String, TreeMap<Long, MinuteSummary>> series : other.timeSeries.entrySet())
+			for (MinuteSummary minute : series.getValue().values())
+				getOrCreateMinute(series.getKey(), minute.getMinute()).merge(minute);
+
+		recordCount += other.recordCount;
+		malformedRecordCount += other.malformedRecordCount;
+		segmentCount += other.segmentCount;
+	}
+
+	/**
+	 * @return The categories found, in alphabetical order.
+	 */
+	public Set<String> getCategories() {
+		return Collections.unmodifiableSet(new TreeSet<String>(summaries.keySet()));
+	}
+
+	/**
+	 * @return The summaries of the category's methods, by method name.
+	 */
+	public SortedMap<String, LatencySummary> getMethodSummaries(final String workCategory) {
+		Map<String, LatencySummary> methods = summaries.get(workCategory);
+		SortedMap<String, LatencySummary> result = new TreeMap<String, LatencySummary>();
+		if (methods != null) result.putAll(methods);
+		return Collections.unmodifiableSortedMap(result);
+	}
+
+	/**
+	 * @return The summary of the given method, or <code>null</code> if none of
+	 *         its durations were found.
+	 */
+	public LatencySummary getSummary(final String workCategory, final String methodName) {
+		Map<String, LatencySummary> methods = summaries.get(workCategory);
+		return methods == null ? null : methods.get(methodName);
+	}
+
+	/**
+	 * @return The category's {@link MinuteSummary per-minute summaries},
+	 *         keyed by the start of each minute.
+	 */
+	public SortedMap<Long, MinuteSummary> getTimeSeries(final String workCategory) {
+		TreeMap<Long, MinuteSummary> series = timeSeries.get(workCategory);
+		SortedMap<Long, MinuteSummary> result = series == null ? new TreeMap<Long, MinuteSummary>() : series;
+		return Collections.unmodifiableSortedMap(result);
+	}
+
+	/**
+	 * <p>
+	 * Returns the methods, across all categories, with the highest times at
+	 * the given percentile.
+	 * </p>
+	 *
+	 * @param count
+	 *            The maximum number of methods to return.
+	 * @param percentile
+	 *            The percentile by which methods are ranked.
+	 * @return The slowest methods, slowest first.
+	 */
+	public List<LatencySummary> getSlowestMethods(final int count, final double percentile) {
+		List<LatencySummary> result = new ArrayList<LatencySummary>();
+		for (Map<String, LatencySummary> methods : summaries.values())
+			for (LatencySummary summary : methods.values())
+				if (summary.getNumberOfObservations() > 0) result.add(summary);
+
+		Collections.sort(result, new Comparator<LatencySummary>() {
+			@Override
+			public int compare(final LatencySummary first, final LatencySummary second) {
+				int comparison = Long.compare(second.getPercentile(percentile), first.getPercentile(percentile));
+				return comparison != 0 ? comparison : Double.compare(second.getMean(), first.getMean());
+			}
+		});
+		return result.size() > count ? result.subList(0, count) : result;
+	}
+
+	/**
+	 * @return The number of {@link WorkDuration durations} summarised.
+	 */
+	public long getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * @return The number of records which could not be parsed.
+	 */
+	public long getMalformedRecordCount() {
+		return malformedRecordCount;
+	}
+
+	/**
+	 * @return The number of segment files read.
+	 */
+	public int getSegmentCount() {
+		return segmentCount;
+	}
+}// end class def
@@ -0,0 +1,116 @@
+package org.latency4j.analysis;
+
+import java.util.Arrays;
+
+import org.latency4j.WorkDuration;
+import org.latency4j.processing.WorkStatisticsSnapshot;
+
+/**
+ * <p>
+ * Summary of the persisted {@link WorkDuration durations} of a single
+ * category and method, as collated by a {@link HistoryAnalyzer history
+ * analyzer}. Time statistics cover non-errored durations only, and
+ * percentiles are derived from a histogram with the same buckets as those of
+ * {@link WorkStatisticsSnapshot}.
+ * </p>
+ */
+public class LatencySummary {
+	private final String workCategory;
+	private final String methodName;
+	private long numberOfObservations;
+	private long errorCount;
+	private long totalTime;
+	private long maxTime;
+	private long[] bucketCounts;
+
+	LatencySummary(final String workCategory, final String methodName) {
+		this.workCategory = workCategory;
+		this.methodName = methodName;
+		this.bucketCounts = new long[64];
+	}
+
+	void add(final long elapsedTime, final boolean errored, final long weight) {
+		if (errored) {
+			errorCount += weight;
+			return;
+		}
+
+		numberOfObservations += weight;
+		totalTime += elapsedTime * weight;
+		if (elapsedTime > maxTime) maxTime = elapsedTime;
+
+		int bucket = WorkStatisticsSnapshot.getBucketIndex(elapsedTime);
+		if (bucket >= bucketCounts.length) growTo(bucket + 1);
+		bucketCounts[bucket] += weight;
+	}
+
+	void merge(final LatencySummary other) {
+		numberOfObservations += other.numberOfObservations;
+		errorCount += other.errorCount;
+		totalTime += other.totalTime;
+		if (other.maxTime > maxTime) maxTime = other.maxTime;
+
+		if (other.bucketCounts.length > bucketCounts.length) growTo(other.bucketCounts.length);
+		for (int i = 0; i < other.bucketCounts.length; i++)
+			bucketCounts[i] += other.bucketCounts[i];
+	}
+
+	private void growTo(final int minimumLength) {
+		bucketCounts = Arrays.copyOf(bucketCounts, Math.max(minimumLength, bucketCounts.length * 2));
+	}
+
+	public String getWorkCategory() {
+		return workCategory;
+	}
+
+	public String getMethodName() {
+		return methodName;
+	}
+
+	/**
+	 * @return The number of non-errored durations.
+	 */
+	public long getNumberOfObservations() {
+		return numberOfObservations;
+	}
+
+	/**
+	 * @return The number of errored durations.
+	 */
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * @return The total time, in milliseconds, of the non-errored durations.
+	 */
+	public long getTotalTime() {
+		return totalTime;
+	}
+
+	public long getMaxTime() {
+		return maxTime;
+	}
+
+	/**
+	 * @return The average time in milliseconds, or <code>0</code> if there
+	 *         were no non-errored durations.
+	 */
+	public double getMean() {
+		return numberOfObservations == 0 ? 0 : (double) totalTime / numberOfObservations;
+	}
+
+	/**
+	 * <p>
+	 * Returns the given percentile of the non-errored durations, which never
+	 * exceeds {@link #getMaxTime()}.
+	 * </p>
+	 *
+	 * @param percentile
+	 *            The percentile, between 0 and 100.
+	 * @return The time at the percentile in milliseconds.
+	 */
+	public long getPercentile(final double percentile) {
+		return Math.min(WorkStatisticsSnapshot.getValueAtPercentile(bucketCounts, percentile), maxTime);
+	}
+}// end class def
@@ -0,0 +1,72 @@
+package org.latency4j.analysis;
+
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * Summary of the persisted {@link WorkDuration durations} of a category which
+ * ended within a single minute; one point of a {@link HistoryReport#getTimeSeries(String)
+ * time series}.
+ * </p>
+ */
+public class MinuteSummary {
+	private final long minute;
+	private long count;
+	private long errorCount;
+	private long totalTime;
+	private long maxTime;
+
+	MinuteSummary(final long minute) {
+		this.minute = minute;
+	}
+
+	void add(final long elapsedTime, final boolean errored, final long weight) {
+		count += weight;
+		if (errored) errorCount += weight;
+		else {
+			totalTime += elapsedTime * weight;
+			if (elapsedTime > maxTime) maxTime = elapsedTime;
+		}
+	}
+
+	void merge(final MinuteSummary other) {
+		count += other.count;
+		errorCount += other.errorCount;
+		totalTime += other.totalTime;
+		if (other.maxTime > maxTime) maxTime = other.maxTime;
+	}
+
+	/**
+	 * @return The start of the minute, in milliseconds since the epoch.
+	 */
+	public long getMinute() {
+		return minute;
+	}
+
+	/**
+	 * @return The number of durations, errored or not, which ended in the
+	 *         minute.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * @return The longest non-errored time in milliseconds.
+	 */
+	public long getMaxTime() {
+		return maxTime;
+	}
+
+	/**
+	 * @return The average non-errored time in milliseconds.
+	 */
+	public double getMean() {
+		long observations = count - errorCount;
+		return observations == 0 ? 0 : (double) totalTime / observations;
+	}
+}// end class def
@@ -0,0 +1,302 @@
+package org.latency4j.analysis;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.GZIPInputStream;
+
+import org.latency4j.persistence.DurationFileHandle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Fork/join task which summarises a range of segment files into a
+ * {@link HistoryReport report}. Ranges of more than one file are split in two
+ * and the halves summarised in parallel; each file is memory-mapped and its
+ * records parsed directly from the mapped bytes, decompressing where the
+ * segment is compressed.
+ * </p>
+ */
+class SegmentScanTask extends RecursiveTask<HistoryReport> {
+	private static final long serialVersionUID = -6870385472417193021L;
+
+	private static final Logger logger = LoggerFactory.getLogger(SegmentScanTask.class);
+
+	/**
+	 * <p>
+	 * The number of bytes copied out of a mapping, or decompressed, at a time.
+	 * </p>
+	 */
+	private static final int CHUNK_SIZE = 64 * 1024;
+
+	/**
+	 * <p>
+	 * The largest region of an uncompressed segment mapped at once.
+	 * </p>
+	 */
+	private static final long MAX_MAPPING_SIZE = 64 * 1024 * 1024;
+
+	private final List<File> segments;
+	private final int fromIndex;
+	private final int toIndex;
+	private final long from;
+	private final long to;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param segments
+	 *            The segment files.
+	 * @param fromIndex
+	 *            The index of the first file to summarise (inclusive).
+	 * @param toIndex
+	 *            The index of the last file to summarise (exclusive).
+	 * @param from
+	 *            The start of the time range (inclusive).
+	 * @param to
+	 *            The end of the time range (exclusive).
+	 */
+	SegmentScanTask(final List<File> segments, final int fromIndex, final int toIndex, final long from,
+			final long to) {
+		this.segments = segments;
+		this.fromIndex = fromIndex;
+		this.toIndex = toIndex;
+		this.from = from;
+		this.to = to;
+	}
+
+	@Override
+	protected HistoryReport compute() {
+		HistoryReport result;
+		if (toIndex - fromIndex <= 1) {
+			result = new HistoryReport();
+			if (toIndex > fromIndex) scan(segments.get(fromIndex), result);
+		} else {
+			int middle = (fromIndex + toIndex) >>> 1;
+			SegmentScanTask left = new SegmentScanTask(segments, fromIndex, middle, from, to);
+			SegmentScanTask right = new SegmentScanTask(segments, middle, toIndex, from, to);
+			left.fork();
+			result = right.compute();
+			result.merge(left.join());
+		}
+		return result;
+	}
+
+	private void scan(final File segment, final HistoryReport report) {
+		RecordParser parser = new RecordParser(report);
+		RandomAccessFile file = null;
+		try {
+			file = new RandomAccessFile(segment, "r");
+			FileChannel channel = file.getChannel();
+			long size = channel.size();
+			byte[] chunk = new byte[CHUNK_SIZE];
+
+			if (segment.getName().endsWith(DurationFileHandle.COMPRESSED_SEGMENT_EXTENSION)) {
+				if (size > Integer.MAX_VALUE) throw new IOException("Compressed segment too large to map.");
+				InputStream in = new GZIPInputStream(
+						new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, size)), CHUNK_SIZE);
+				int read;
+				while ((read = in.read(chunk)) != -1)
+					parser.parse(chunk, read);
+			} else {
+				for (long position = 0; position < size; position += MAX_MAPPING_SIZE) {
+					MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, position,
+							Math.min(MAX_MAPPING_SIZE, size - position));
+					while (mapping.hasRemaining()) {
+						int length = Math.min(chunk.length, mapping.remaining());
+						mapping.get(chunk, 0, length);
+						parser.parse(chunk, length);
+					}
+				}
+			}
+			report.incrementSegmentCount();
+		} catch (IOException exce) {
+			logger.warn("Unable to read segment '" + segment.getAbsolutePath() + "'. " + exce.getMessage());
+		}
+		finally {
+			if (file != null) {
+				try {
+					file.close();
+				} catch (IOException exce) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Assembles records from chunks of a segment and adds them to a report.
+	 * Fields are parsed from the record bytes; strings are only created when
+	 * the category or method differs from that of the previous record.
+	 * </p>
+	 */
+	private class RecordParser {
+		private final HistoryReport report;
+		private byte[] line;
+		private int lineLength;
+		private byte[] lastKey;
+		private int lastCategoryLength;
+		private int lastKeyLength;
+		private LatencySummary lastSummary;
+		private MinuteSummary lastMinute;
+
+		RecordParser(final HistoryReport report) {
+			this.report = report;
+			this.line = new byte[256];
+			this.lastKey = new byte[256];
+		}
+
+		void parse(final byte[] chunk, final int length) {
+			for (int i = 0; i < length; i++) {
+				byte value = chunk[i];
+				if (value == '\n') {
+					if (lineLength > 0) parseRecord();
+					lineLength = 0;
+				} else {
+					if (lineLength == line.length) line = Arrays.copyOf(line, line.length * 2);
+					line[lineLength++] = value;
+				}
+			}
+		}
+
+		/**
+		 * <p>
+		 * Parses a record of the form
+		 * <code>category,thread,method,start,end,root,errored[,weight]</code>,
+		 * the weight only being present for sampled durations. The method name
+		 * is taken to be everything between the second delimiter and the start
+		 * time.
+		 * </p>
+		 */
+		private void parseRecord() {
+			int categoryEnd = indexOf(0);
+			int threadEnd = categoryEnd == -1 ? -1 : indexOf(categoryEnd + 1);
+			int lastStart = lastIndexOf(lineLength - 1);
+			long weight = 1;
+			int erroredStart = lastStart;
+			if (lastStart > 0 && lastStart + 1 < lineLength && line[lastStart + 1] >= '0'
+					&& line[lastStart + 1] <= '9') {
+				weight = parseLong(lastStart + 1, lineLength);
+				erroredStart = lastIndexOf(lastStart - 1);
+			}
+			int erroredEnd = erroredStart == lastStart ? lineLength : lastStart;
+			int rootStart = erroredStart <= 0 ? -1 : lastIndexOf(erroredStart - 1);
+			int endStart = rootStart <= 0 ? -1 : lastIndexOf(rootStart - 1);
+			int startStart = endStart <= 0 ? -1 : lastIndexOf(endStart - 1);
+
+			long start = startStart == -1 ? -1 : parseLong(startStart + 1, endStart);
+			long end = endStart == -1 ? -1 : parseLong(endStart + 1, rootStart);
+			if (threadEnd == -1 || startStart <= threadEnd || start < 0 || end < 0 || weight < 1) {
+				report.incrementMalformedRecordCount();
+				return;
+			}
+			if (end < from || end >= to) return;
+
+			boolean errored = erroredEnd - erroredStart - 1 == 4 && line[erroredStart + 1] == 't';
+			long elapsedTime = end - start;
+
+			if (!isLastKey(categoryEnd, threadEnd + 1, startStart)) {
+				String category = new String(line, 0, categoryEnd);
+				String method = new String(line, threadEnd + 1, startStart - threadEnd - 1);
+				lastSummary = report.getOrCreateSummary(category, method);
+				lastMinute = null;
+				setLastKey(categoryEnd, threadEnd + 1, startStart);
+			}
+			lastSummary.add(elapsedTime, errored, weight);
+
+			long minute = end - end % HistoryReport.MINUTE_MILLIS;
+			if (lastMinute == null || lastMinute.getMinute() != minute)
+				lastMinute = report.getOrCreateMinute(lastSummary.getWorkCategory(), minute);
+			lastMinute.add(elapsedTime, errored, weight);
+			report.incrementRecordCount();
+		}
+
+		private boolean isLastKey(final int categoryLength, final int methodStart, final int methodEnd) {
+			int methodLength = methodEnd - methodStart;
+			if (lastSummary == null || categoryLength != lastCategoryLength
+					|| categoryLength + methodLength != lastKeyLength)
+				return false;
+
+			for (int i = 0; i < categoryLength; i++)
+				if (line[i] != lastKey[i]) return false;
+			for (int i = 0; i < methodLength; i++)
+				if (line[methodStart + i] != lastKey[categoryLength + i]) return false;
+			return true;
+		}
+
+		private void setLastKey(final int categoryLength, final int methodStart, final int methodEnd) {
+			int methodLength = methodEnd - methodStart;
+			if (lastKey.length < categoryLength + methodLength) lastKey = new byte[categoryLength + methodLength];
+			System.arraycopy(line, 0, lastKey, 0, categoryLength);
+			System.arraycopy(line, methodStart, lastKey, categoryLength, methodLength);
+			lastCategoryLength = categoryLength;
+			lastKeyLength = categoryLength + methodLength;
+		}
+
+		private int indexOf(final int fromPosition) {
+			for (int i = fromPosition; i < lineLength; i++)
+				if (line[i] == ',') return i;
+			return -1;
+		}
+
+		private int lastIndexOf(final int fromPosition) {
+			for (int i = fromPosition; i >= 0; i--)
+				if (line[i] == ',') return i;
+			return -1;
+		}
+
+		private long parseLong(final int fromPosition, final int toPosition) {
+			if (fromPosition >= toPosition) return -1;
+			long result = 0;
+			for (int i = fromPosition; i < toPosition; i++) {
+				int digit = line[i] - '0';
+				if (digit < 0 || digit > 9) return -1;
+				result = result * 10 + digit;
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Presents a (mapped) buffer as a stream, for decompression.
+	 * </p>
+	 */
+	private static class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(final ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+		}
+
+		@Override
+		public int read(final byte[] bytes, final int offset, final int length) {
+			if (length == 0) return 0;
+			if (!buffer.hasRemaining()) return -1;
+			int result = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, result);
+			return result;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+}// end class def
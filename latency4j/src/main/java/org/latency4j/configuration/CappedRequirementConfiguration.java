@@ -1,7 +1,12 @@
 package org.latency4j.configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
 
+import org.latency4j.AlertHandler;
 import org.latency4j.CappedLatencyRequirement;
 
 /**
@@ -21,6 +26,50 @@ public class CappedRequirementConfiguration extends LatencyRequirementConfigurat
 	 */
 	private Long expectedLatency;
 
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link CappedLatencyRequirement#setCallerThreadEvaluation(boolean)}.
+	 * </p>
+	 */
+	private Boolean callerThreadEvaluation;
+
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link CappedLatencyRequirement#setWarningLatency(long)}.
+	 * </p>
+	 */
+	private Long warningLatency;
+
+	/**
+	 * <p>
+	 * The {@link AlertHandler#getAlertHandlerId() identifiers} of the
+	 * {@link AlertHandler alert handlers} which make up the
+	 * {@link CappedLatencyRequirement#getWarningAlertHandlers() warning tier}.
+	 * </p>
+	 */
+	private List<String> warningAlertHandlerIds;
+
+	/**
+	 * <p>
+	 * Used to initialise the
+	 * {@link CappedLatencyRequirement#setMethodLatency(String, long) per-method
+	 * caps}.
+	 * </p>
+	 */
+	private List<MethodCapConfiguration> methodCaps;
+
+	/**
+	 * <p>
+	 * Default constructor.
+	 * </p>
+	 */
+	public CappedRequirementConfiguration() {
+		warningAlertHandlerIds = new ArrayList<String>();
+		methodCaps = new ArrayList<MethodCapConfiguration>();
+	}
+
 	/**
 	 * <p>
 	 * Accessor for field {@link #expectedLatency}.
@@ -45,4 +94,105 @@ public class CappedRequirementConfiguration extends LatencyRequirementConfigurat
 	public void setExpectedLatency(final Long expectedLatency) {
 		this.expectedLatency = expectedLatency;
 	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #callerThreadEvaluation}.
+	 * </p>
+	 * 
+	 * @return The value of the field {@link #callerThreadEvaluation}.
+	 */
+	@XmlAttribute(name = "callerThreadEvaluation", required = false)
+	public Boolean getCallerThreadEvaluation() {
+		return callerThreadEvaluation;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #callerThreadEvaluation}.
+	 * </p>
+	 * 
+	 * @param callerThreadEvaluation
+	 *            The value to which the field {@link #callerThreadEvaluation}
+	 *            should be set.
+	 */
+	public void setCallerThreadEvaluation(final Boolean callerThreadEvaluation) {
+		this.callerThreadEvaluation = callerThreadEvaluation;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #warningLatency}.
+	 * </p>
+	 * 
+	 * @return The value of the field {@link #warningLatency}.
+	 */
+	@XmlAttribute(name = "warningLatency", required = false)
+	public Long getWarningLatency() {
+		return warningLatency;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #warningLatency}.
+	 * </p>
+	 * 
+	 * @param warningLatency
+	 *            The value to which the field {@link #warningLatency} should
+	 *            be set.
+	 */
+	public void setWarningLatency(final Long warningLatency) {
+		this.warningLatency = warningLatency;
+	}
+
+	/**
+	 * <p>
+	 * Returns the identifiers of the {@link AlertHandler alert handlers}
+	 * notified of breaches of the warning tier.
+	 * </p>
+	 * 
+	 * @return The warning tier's handler identifiers.
+	 */
+	@XmlElement(name = "warningAlertHandlerId", required = false)
+	public List<String> getWarningAlertHandlerIds() {
+		return warningAlertHandlerIds;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #warningAlertHandlerIds}.
+	 * </p>
+	 * 
+	 * @param warningAlertHandlerIds
+	 *            The value to which the field {@link #warningAlertHandlerIds}
+	 *            should be set.
+	 */
+	public void setWarningAlertHandlerIds(final List<String> warningAlertHandlerIds) {
+		this.warningAlertHandlerIds = warningAlertHandlerIds;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #methodCaps}.
+	 * </p>
+	 * 
+	 * @return The value of the field {@link #methodCaps}.
+	 */
+	@XmlElement(name = "methodCap", required = false)
+	public List<MethodCapConfiguration> getMethodCaps() {
+		return methodCaps;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #methodCaps}.
+	 * </p>
+	 * 
+	 * @param methodCaps
+	 *            The value to which the field {@link #methodCaps} should be
+	 *            set.
+	 */
+	public void setMethodCaps(final List<MethodCapConfiguration> methodCaps) {
+		this.methodCaps = methodCaps;
+	}
 }
\ No newline at end of file
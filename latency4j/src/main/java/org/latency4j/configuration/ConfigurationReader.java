@@ -13,10 +13,16 @@ import javax.xml.bind.Unmarshaller;
 import javax.xml.transform.stream.StreamSource;
 
 import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.BaselineStrategy;
+import org.latency4j.DetectionMode;
+import org.latency4j.ErrorRateLatencyRequirement;
 import org.latency4j.AlertHandler;
 import org.latency4j.Latency4JException;
 import org.latency4j.LatencyRequirement;
+import org.latency4j.SloLatencyRequirement;
 import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.ThroughputLatencyRequirement;
+import org.latency4j.persistence.DefaultWorkDurationPersistenceManager;
 import org.latency4j.persistence.WorkDurationPersistenceManager;
 import org.latency4j.processing.Latency4JResourceManager;
 import org.latency4j.util.ClasspathResourceUtils;
@@ -238,6 +244,22 @@ public class ConfigurationReader {
 
 			loadRequirements(latencyRequirementGroupConfig.getStatisticalRequirements(), epsilonResourceManager);
 
+			if (logger.isDebugEnabled()) logger.debug("Loading error-rate requirements.");
+
+			loadRequirements(latencyRequirementGroupConfig.getErrorRateRequirements(), epsilonResourceManager);
+
+			if (logger.isDebugEnabled()) logger.debug("Loading throughput requirements.");
+
+			loadRequirements(latencyRequirementGroupConfig.getThroughputRequirements(), epsilonResourceManager);
+
+			if (logger.isDebugEnabled()) logger.debug("Loading SLO requirements.");
+
+			loadRequirements(latencyRequirementGroupConfig.getSloRequirements(), epsilonResourceManager);
+
+			if (latencyRequirementGroupConfig.getImplicitRequirement() != null)
+				loadImplicitRequirementTemplate(latencyRequirementGroupConfig.getImplicitRequirement(),
+						epsilonResourceManager);
+
 		} else if (logger.isDebugEnabled()) logger.debug("No latency requirements specified.");
 	}
 
@@ -247,24 +269,70 @@ public class ConfigurationReader {
 			if (logger.isDebugEnabled()) logger.debug(latencyRequirements.size() + " requirements defined.");
 
 			LatencyRequirement latencyRequirement;
-			AlertHandler alertHandler;
 			for (LatencyRequirementConfiguration latencyRequirementConfiguration : latencyRequirements) {
 				latencyRequirement = createLatencyRequirement(latencyRequirementConfiguration);
-
-				if (latencyRequirementConfiguration.getAlertHandlerIds() != null) {
-					for (String handlerName : latencyRequirementConfiguration.getAlertHandlerIds()) {
-						alertHandler = epsilonResourceManager.getAlertHandler(handlerName);
-						if (alertHandler == null)
-							throw new Latency4JException("Unable to find handler with id " + handlerName);
-						latencyRequirement.getAlertHandlers().add(alertHandler);
-					}
-				}
-
+				addAlertHandlers(latencyRequirementConfiguration, latencyRequirement, epsilonResourceManager);
 				epsilonResourceManager.registerLatencyRequirement(latencyRequirement);
 			}
 		} else if (logger.isDebugEnabled()) logger.debug("No matching requirements specified.");
 	}
 
+	/**
+	 * <p>
+	 * Creates the {@link Latency4JResourceManager#getImplicitRequirementTemplate()
+	 * template for implicit requirements}. A single persistence manager is
+	 * created for the template, to be shared by all implicit requirements;
+	 * where no {@link LatencyRequirementConfiguration#getPersistenceManagerClass()
+	 * class} is specified, this is a {@link DefaultWorkDurationPersistenceManager
+	 * default manager} initialised with the template's
+	 * {@link LatencyRequirementConfiguration#getPersistenceManagerParameters()
+	 * parameters}.
+	 * </p>
+	 */
+	private static void loadImplicitRequirementTemplate(final StatisticalRequirementConfiguration configuration,
+			final Latency4JResourceManager epsilonResourceManager) throws Exception {
+		if (logger.isDebugEnabled()) logger.debug("Loading implicit requirement template.");
+
+		LatencyRequirement template = createUninitialisedRequirement(configuration);
+		if (template.getPersistenceManager() == null) {
+			WorkDurationPersistenceManager persistenceManager = new DefaultWorkDurationPersistenceManager();
+			if (configuration.getPersistenceManagerParameters() != null)
+				persistenceManager.setParameters(configuration.getPersistenceManagerParameters());
+			persistenceManager.init();
+			template.setPersistenceManager(persistenceManager);
+		}
+		addAlertHandlers(configuration, template, epsilonResourceManager);
+		epsilonResourceManager.setImplicitRequirementTemplate((StatisticalLatencyRequirement) template);
+	}
+
+	/**
+	 * <p>
+	 * Adds the {@link AlertHandler alert handlers} referenced by the
+	 * {@link LatencyRequirementConfiguration configuration} to the
+	 * {@link LatencyRequirement requirement}.
+	 * </p>
+	 */
+	private static void addAlertHandlers(final LatencyRequirementConfiguration configuration,
+			final LatencyRequirement latencyRequirement, final Latency4JResourceManager epsilonResourceManager) {
+		addAlertHandlers(configuration.getAlertHandlerIds(), latencyRequirement.getAlertHandlers(),
+				epsilonResourceManager);
+		if (configuration instanceof CappedRequirementConfiguration)
+			addAlertHandlers(((CappedRequirementConfiguration) configuration).getWarningAlertHandlerIds(),
+					((CappedLatencyRequirement) latencyRequirement).getWarningAlertHandlers(), epsilonResourceManager);
+	}
+
+	private static void addAlertHandlers(final List<String> alertHandlerIds, final List<AlertHandler> alertHandlers,
+			final Latency4JResourceManager epsilonResourceManager) {
+		if (alertHandlerIds != null) {
+			AlertHandler alertHandler;
+			for (String handlerName : alertHandlerIds) {
+				alertHandler = epsilonResourceManager.getAlertHandler(handlerName);
+				if (alertHandler == null) throw new Latency4JException("Unable to find handler with id " + handlerName);
+				alertHandlers.add(alertHandler);
+			}
+		}
+	}
+
 	/**
 	 * <p>
 	 * Creates a {@link LatencyRequirement latency requirement} from a
@@ -280,9 +348,23 @@ public class ConfigurationReader {
 	 *             If an error occurs initialising the {@link LatencyRequirement
 	 *             requirement}.
 	 */
-	@SuppressWarnings("unchecked")
 	private static LatencyRequirement createLatencyRequirement(final LatencyRequirementConfiguration configuration)
 			throws Exception {
+		LatencyRequirement result = createUninitialisedRequirement(configuration);
+		result.init();
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Creates a {@link LatencyRequirement latency requirement} from a
+	 * {@link LatencyRequirementConfiguration requirement configuration},
+	 * without {@link LatencyRequirement#init() initialising} it.
+	 * </p>
+	 */
+	@SuppressWarnings("unchecked")
+	private static LatencyRequirement createUninitialisedRequirement(
+			final LatencyRequirementConfiguration configuration) throws Exception {
 		LatencyRequirement result;
 		if (configuration instanceof CappedRequirementConfiguration) {
 			CappedRequirementConfiguration cappedRequirementConfig = (CappedRequirementConfiguration) configuration;
@@ -292,6 +374,56 @@ public class ConfigurationReader {
 									+ cappedRequirementConfig.getWorkCategory() + "'."); }
 			result = new CappedLatencyRequirement();
 			((CappedLatencyRequirement) result).setExpectedLatency(cappedRequirementConfig.getExpectedLatency());
+			if (cappedRequirementConfig.getCallerThreadEvaluation() != null)
+				((CappedLatencyRequirement) result)
+						.setCallerThreadEvaluation(cappedRequirementConfig.getCallerThreadEvaluation());
+			if (cappedRequirementConfig.getWarningLatency() != null)
+				((CappedLatencyRequirement) result).setWarningLatency(cappedRequirementConfig.getWarningLatency());
+			for (MethodCapConfiguration methodCap : cappedRequirementConfig.getMethodCaps()) {
+				if (methodCap.getMethod() == null || methodCap.getExpectedLatency() == null)
+					throw new Latency4JException("Method caps for requirement '"
+							+ cappedRequirementConfig.getWorkCategory() + "' must specify a method and a latency.");
+				((CappedLatencyRequirement) result).setMethodLatency(methodCap.getMethod(),
+						methodCap.getExpectedLatency());
+			}
+		} else if (configuration instanceof ErrorRateRequirementConfiguration) {
+			ErrorRateLatencyRequirement errorRateRequirement = new ErrorRateLatencyRequirement();
+			ErrorRateRequirementConfiguration errorRateRequirementConfig = (ErrorRateRequirementConfiguration) configuration;
+			if (errorRateRequirementConfig.getWindowLength() != null)
+				errorRateRequirement.setWindowLength(errorRateRequirementConfig.getWindowLength());
+			if (errorRateRequirementConfig.getMaxErrorRate() != null)
+				errorRateRequirement.setMaxErrorRate(errorRateRequirementConfig.getMaxErrorRate());
+			if (errorRateRequirementConfig.getToleranceLevel() != null)
+				errorRateRequirement.setToleranceLevel(errorRateRequirementConfig.getToleranceLevel());
+			if (errorRateRequirementConfig.getMinimumCalls() != null)
+				errorRateRequirement.setMinimumCalls(errorRateRequirementConfig.getMinimumCalls());
+			if (errorRateRequirementConfig.getBaselineWindows() != null)
+				errorRateRequirement.setBaselineWindows(errorRateRequirementConfig.getBaselineWindows());
+			result = errorRateRequirement;
+		} else if (configuration instanceof ThroughputRequirementConfiguration) {
+			ThroughputLatencyRequirement throughputRequirement = new ThroughputLatencyRequirement();
+			ThroughputRequirementConfiguration throughputRequirementConfig = (ThroughputRequirementConfiguration) configuration;
+			if (throughputRequirementConfig.getMinCallsPerSecond() != null)
+				throughputRequirement.setMinCallsPerSecond(throughputRequirementConfig.getMinCallsPerSecond());
+			if (throughputRequirementConfig.getMaxConcurrency() != null)
+				throughputRequirement.setMaxConcurrency(throughputRequirementConfig.getMaxConcurrency());
+			if (throughputRequirementConfig.getEvaluationInterval() != null)
+				throughputRequirement.setEvaluationInterval(throughputRequirementConfig.getEvaluationInterval());
+			result = throughputRequirement;
+		} else if (configuration instanceof SloRequirementConfiguration) {
+			SloLatencyRequirement sloRequirement = new SloLatencyRequirement();
+			SloRequirementConfiguration sloRequirementConfig = (SloRequirementConfiguration) configuration;
+			if (sloRequirementConfig.getExpectedLatency() != null)
+				sloRequirement.setExpectedLatency(sloRequirementConfig.getExpectedLatency());
+			if (sloRequirementConfig.getObjective() != null)
+				sloRequirement.setObjective(sloRequirementConfig.getObjective());
+			if (sloRequirementConfig.getCompliancePeriod() != null)
+				sloRequirement.setCompliancePeriod(sloRequirementConfig.getCompliancePeriod());
+			if (sloRequirementConfig.getBurnRateWindows() != null) sloRequirement.setBurnRateWindows(
+					parseBurnRateWindows(sloRequirementConfig.getBurnRateWindows(), configuration.getWorkCategory()));
+			if (sloRequirementConfig.getBurnRateThreshold() != null)
+				sloRequirement.setBurnRateThreshold(sloRequirementConfig.getBurnRateThreshold());
+			result = sloRequirement;
 		} else {
 			StatisticalLatencyRequirement statisticalRequirement = new StatisticalLatencyRequirement();
 			StatisticalRequirementConfiguration statsRequirementConfig = (StatisticalRequirementConfiguration) configuration;
@@ -302,10 +434,34 @@ public class ConfigurationReader {
 			}
 			if (statsRequirementConfig.getToleranceLevel() != null)
 				statisticalRequirement.setToleranceLevel(statsRequirementConfig.getToleranceLevel());
+			if (statsRequirementConfig.getAggregationInterval() != null)
+				statisticalRequirement.setAggregationInterval(statsRequirementConfig.getAggregationInterval());
+			if (statsRequirementConfig.getAggregationThreshold() != null)
+				statisticalRequirement.setAggregationThreshold(statsRequirementConfig.getAggregationThreshold());
+			if (statsRequirementConfig.getDetectionMode() != null)
+				statisticalRequirement.setDetectionMode(parseEnum(DetectionMode.class,
+						statsRequirementConfig.getDetectionMode(), "detection mode", configuration.getWorkCategory()));
+			if (statsRequirementConfig.getChangePointThreshold() != null)
+				statisticalRequirement.setChangePointThreshold(statsRequirementConfig.getChangePointThreshold());
+			if (statsRequirementConfig.getChangePointDrift() != null)
+				statisticalRequirement.setChangePointDrift(statsRequirementConfig.getChangePointDrift());
+			if (statsRequirementConfig.getSeasonalBaseline() != null)
+				statisticalRequirement.setSeasonalBaseline(statsRequirementConfig.getSeasonalBaseline());
+			if (statsRequirementConfig.getSeasonalTimeZone() != null)
+				statisticalRequirement.setSeasonalTimeZone(statsRequirementConfig.getSeasonalTimeZone());
+			if (statsRequirementConfig.getBaselineStrategy() != null) statisticalRequirement.setBaselineStrategy(
+					parseEnum(BaselineStrategy.class, statsRequirementConfig.getBaselineStrategy(), "baseline strategy",
+							configuration.getWorkCategory()));
+			if (statsRequirementConfig.getBaselineTrim() != null)
+				statisticalRequirement.setBaselineTrim(statsRequirementConfig.getBaselineTrim());
 			result = statisticalRequirement;
 		}
 		result.setWorkCategory(configuration.getWorkCategory());
 		if (configuration.getIgnoreErrors() != null) result.setIgnoreErrors(configuration.getIgnoreErrors());
+		if (configuration.getSamplingRate() != null) result.setSamplingRate(configuration.getSamplingRate());
+		if (configuration.getMaxSampledEventsPerSecond() != null)
+			result.setMaxSampledEventsPerSecond(configuration.getMaxSampledEventsPerSecond());
+		if (configuration.getQuantileSketch() != null) result.setQuantileSketch(configuration.getQuantileSketch());
 
 		if (configuration.getPersistenceManagerClass() != null
 				&& configuration.getPersistenceManagerClass().length() > 0) {
@@ -320,10 +476,64 @@ public class ConfigurationReader {
 			persistenceManager.init();
 			result.setPersistenceManager(persistenceManager);
 		}
-		result.init();
 		return result;
 	}
 
+	/**
+	 * <p>
+	 * Parses a comma separated list of
+	 * {@link SloLatencyRequirement#getBurnRateWindows() burn rate window}
+	 * lengths, in minutes.
+	 * </p>
+	 * 
+	 * @param burnRateWindows
+	 *            The list, e.g. <code>5,60,360</code>.
+	 * @param workCategory
+	 *            The category of the requirement, for error reporting.
+	 * @return The window lengths.
+	 */
+	private static int[] parseBurnRateWindows(final String burnRateWindows, final String workCategory) {
+		String[] tokens = burnRateWindows.split(",");
+		int[] result = new int[tokens.length];
+		try {
+			for (int i = 0; i < tokens.length; i++)
+				result[i] = Integer.parseInt(tokens[i].trim());
+		}
+		catch (NumberFormatException numberFormatException) {
+			throw new Latency4JException("Invalid burn rate windows '" + burnRateWindows + "' for requirement '"
+					+ workCategory + "'.", numberFormatException);
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Parses the name of an enum constant, such as a {@link DetectionMode
+	 * detection mode} or {@link BaselineStrategy baseline strategy},
+	 * case-insensitively.
+	 * </p>
+	 * 
+	 * @param enumType
+	 *            The enum type.
+	 * @param name
+	 *            The name of the constant.
+	 * @param description
+	 *            A description of the setting, for error reporting.
+	 * @param workCategory
+	 *            The category of the requirement, for error reporting.
+	 * @return The constant.
+	 */
+	private static <E extends Enum<E>> E parseEnum(final Class<E> enumType, final String name,
+			final String description, final String workCategory) {
+		try {
+			return Enum.valueOf(enumType, name.trim().toUpperCase());
+		}
+		catch (IllegalArgumentException illegalArgumentException) {
+			throw new Latency4JException("Invalid " + description + " '" + name + "' for requirement '"
+					+ workCategory + "'.", illegalArgumentException);
+		}
+	}
+
 	/**
 	 * <p>
 	 * Creates/initialises an {@link AlertHandler alert handler} from a
@@ -0,0 +1,180 @@
+package org.latency4j.configuration;
+
+import javax.xml.bind.annotation.XmlAttribute;
+
+import org.latency4j.ErrorRateLatencyRequirement;
+
+/**
+ * <p>
+ * Encapsulates the configuration for an {@link ErrorRateLatencyRequirement
+ * error-rate requirement}.
+ * </p>
+ *
+ * @see ErrorRateLatencyRequirement
+ */
+public class ErrorRateRequirementConfiguration extends LatencyRequirementConfiguration {
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link ErrorRateLatencyRequirement#setWindowLength(long)}.
+	 * </p>
+	 */
+	private Long windowLength;
+
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link ErrorRateLatencyRequirement#setMaxErrorRate(double)}.
+	 * </p>
+	 */
+	private Double maxErrorRate;
+
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link ErrorRateLatencyRequirement#setToleranceLevel(double)}.
+	 * </p>
+	 */
+	private Double toleranceLevel;
+
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link ErrorRateLatencyRequirement#setMinimumCalls(long)}.
+	 * </p>
+	 */
+	private Long minimumCalls;
+
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link ErrorRateLatencyRequirement#setBaselineWindows(int)}.
+	 * </p>
+	 */
+	private Integer baselineWindows;
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #windowLength}.
+	 * </p>
+	 *
+	 * @return The value of the field {@link #windowLength}.
+	 */
+	@XmlAttribute(name = "windowLength", required = false)
+	public Long getWindowLength() {
+		return windowLength;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #windowLength}.
+	 * </p>
+	 *
+	 * @param windowLength
+	 *            The value to which the field {@link #windowLength} should be
+	 *            set.
+	 */
+	public void setWindowLength(final Long windowLength) {
+		this.windowLength = windowLength;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #maxErrorRate}.
+	 * </p>
+	 *
+	 * @return The value of the field {@link #maxErrorRate}.
+	 */
+	@XmlAttribute(name = "maxErrorRate", required = false)
+	public Double getMaxErrorRate() {
+		return maxErrorRate;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #maxErrorRate}.
+	 * </p>
+	 *
+	 * @param maxErrorRate
+	 *            The value to which the field {@link #maxErrorRate} should be
+	 *            set.
+	 */
+	public void setMaxErrorRate(final Double maxErrorRate) {
+		this.maxErrorRate = maxErrorRate;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #toleranceLevel}.
+	 * </p>
+	 *
+	 * @return The value of the field {@link #toleranceLevel}.
+	 */
+	@XmlAttribute(name = "toleranceLevel", required = false)
+	public Double getToleranceLevel() {
+		return toleranceLevel;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #toleranceLevel}.
+	 * </p>
+	 *
+	 * @param toleranceLevel
+	 *            The value to which the field {@link #toleranceLevel} should
+	 *            be set.
+	 */
+	public void setToleranceLevel(final Double toleranceLevel) {
+		this.toleranceLevel = toleranceLevel;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #minimumCalls}.
+	 * </p>
+	 *
+	 * @return The value of the field {@link #minimumCalls}.
+	 */
+	@XmlAttribute(name = "minimumCalls", required = false)
+	public Long getMinimumCalls() {
+		return minimumCalls;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #minimumCalls}.
+	 * </p>
+	 *
+	 * @param minimumCalls
+	 *            The value to which the field {@link #minimumCalls} should be
+	 *            set.
+	 */
+	public void setMinimumCalls(final Long minimumCalls) {
+		this.minimumCalls = minimumCalls;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #baselineWindows}.
+	 * </p>
+	 *
+	 * @return The value of the field {@link #baselineWindows}.
+	 */
+	@XmlAttribute(name = "baselineWindows", required = false)
+	public Integer getBaselineWindows() {
+		return baselineWindows;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #baselineWindows}.
+	 * </p>
+	 *
+	 * @param baselineWindows
+	 *            The value to which the field {@link #baselineWindows} should
+	 *            be set.
+	 */
+	public void setBaselineWindows(final Integer baselineWindows) {
+		this.baselineWindows = baselineWindows;
+	}
+}
\ No newline at end of file
@@ -89,6 +89,30 @@ public abstract class LatencyRequirementConfiguration {
 	 */
 	private List<String> alertHandlerIds;
 
+	/**
+	 * <p>
+	 * The {@link LatencyRequirement#getSamplingRate() fixed sampling rate} of
+	 * the configured requirement.
+	 * </p>
+	 */
+	private Integer samplingRate;
+
+	/**
+	 * <p>
+	 * The {@link LatencyRequirement#getMaxSampledEventsPerSecond() adaptive
+	 * sampling target} of the configured requirement.
+	 * </p>
+	 */
+	private Long maxSampledEventsPerSecond;
+
+	/**
+	 * <p>
+	 * The {@link LatencyRequirement#getQuantileSketch() quantile sketch
+	 * engine} of the configured requirement.
+	 * </p>
+	 */
+	private String quantileSketch;
+
 	/**
 	 * <p>
 	 * Default constructor.
@@ -269,6 +293,86 @@ public abstract class LatencyRequirementConfiguration {
 		this.alertHandlerIds = identfiers;
 	}
 
+	/**
+	 * <p>
+	 * Accessor for the field {@link #samplingRate}.
+	 * </p>
+	 * 
+	 * @return The {@link LatencyRequirement#getSamplingRate() sampling rate},
+	 *         or <code>null</code> if not specified.
+	 */
+	@XmlAttribute(name = "samplingRate", required = false)
+	public Integer getSamplingRate() {
+		return samplingRate;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for the field {@link #samplingRate}.
+	 * </p>
+	 * 
+	 * @param samplingRate
+	 *            The {@link LatencyRequirement#setSamplingRate(int) sampling
+	 *            rate}.
+	 */
+	public void setSamplingRate(final Integer samplingRate) {
+		this.samplingRate = samplingRate;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for the field {@link #maxSampledEventsPerSecond}.
+	 * </p>
+	 * 
+	 * @return The {@link LatencyRequirement#getMaxSampledEventsPerSecond()
+	 *         adaptive sampling target}, or <code>null</code> if not
+	 *         specified.
+	 */
+	@XmlAttribute(name = "maxSampledEventsPerSecond", required = false)
+	public Long getMaxSampledEventsPerSecond() {
+		return maxSampledEventsPerSecond;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for the field {@link #maxSampledEventsPerSecond}.
+	 * </p>
+	 * 
+	 * @param maxSampledEventsPerSecond
+	 *            The
+	 *            {@link LatencyRequirement#setMaxSampledEventsPerSecond(long)
+	 *            adaptive sampling target}.
+	 */
+	public void setMaxSampledEventsPerSecond(final Long maxSampledEventsPerSecond) {
+		this.maxSampledEventsPerSecond = maxSampledEventsPerSecond;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for the field {@link #quantileSketch}.
+	 * </p>
+	 * 
+	 * @return The {@link LatencyRequirement#getQuantileSketch() quantile
+	 *         sketch engine}, or <code>null</code> if not specified.
+	 */
+	@XmlAttribute(name = "quantileSketch", required = false)
+	public String getQuantileSketch() {
+		return quantileSketch;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for the field {@link #quantileSketch}.
+	 * </p>
+	 * 
+	 * @param quantileSketch
+	 *            The {@link LatencyRequirement#setQuantileSketch(String)
+	 *            quantile sketch engine}.
+	 */
+	public void setQuantileSketch(final String quantileSketch) {
+		this.quantileSketch = quantileSketch;
+	}
+
 	@Override
 	public String toString() {
 		StringBuffer result = new StringBuffer();
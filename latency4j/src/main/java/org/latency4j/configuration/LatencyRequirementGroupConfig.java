@@ -32,6 +32,39 @@ public class LatencyRequirementGroupConfig implements Serializable {
 	 */
 	private List<StatisticalRequirementConfiguration> statisticalRequirements;
 
+	/**
+	 * <p>
+	 * The {@link ErrorRateRequirementConfiguration error-rate requirement
+	 * configurations}.
+	 * </p>
+	 */
+	private List<ErrorRateRequirementConfiguration> errorRateRequirements;
+
+	/**
+	 * <p>
+	 * The {@link ThroughputRequirementConfiguration throughput requirement
+	 * configurations}.
+	 * </p>
+	 */
+	private List<ThroughputRequirementConfiguration> throughputRequirements;
+
+	/**
+	 * <p>
+	 * The {@link SloRequirementConfiguration SLO requirement configurations}.
+	 * </p>
+	 */
+	private List<SloRequirementConfiguration> sloRequirements;
+
+	/**
+	 * <p>
+	 * The template for implicit requirements, i.e. those created for
+	 * categories without a configured requirement. Its
+	 * {@link LatencyRequirementConfiguration#getWorkCategory() category} is
+	 * ignored.
+	 * </p>
+	 */
+	private StatisticalRequirementConfiguration implicitRequirement;
+
 	/**
 	 * <p>
 	 * Default constructor.
@@ -40,6 +73,9 @@ public class LatencyRequirementGroupConfig implements Serializable {
 	public LatencyRequirementGroupConfig() {
 		cappedRequirements = new ArrayList<CappedRequirementConfiguration>();
 		statisticalRequirements = new ArrayList<StatisticalRequirementConfiguration>();
+		errorRateRequirements = new ArrayList<ErrorRateRequirementConfiguration>();
+		throughputRequirements = new ArrayList<ThroughputRequirementConfiguration>();
+		sloRequirements = new ArrayList<SloRequirementConfiguration>();
 	}
 
 	/**
@@ -98,6 +134,116 @@ public class LatencyRequirementGroupConfig implements Serializable {
 		this.statisticalRequirements = statisticalRequirements;
 	}
 
+	/**
+	 * <p>
+	 * Returns the {@link ErrorRateRequirementConfiguration error-rate
+	 * requirement configurations} encapsulated by the instance.
+	 * </p>
+	 * 
+	 * @return The encapsulated {@link ErrorRateRequirementConfiguration
+	 *         error-rate requirement configurations}.
+	 */
+	@XmlElement(name = "errorRateRequirement", required = false)
+	public List<ErrorRateRequirementConfiguration> getErrorRateRequirements() {
+		return errorRateRequirements;
+	}
+
+	/**
+	 * <p>
+	 * Sets the {@link ErrorRateRequirementConfiguration error-rate requirement
+	 * configurations} encapsulated by the instance.
+	 * </p>
+	 * 
+	 * @param errorRateRequirements
+	 *            The {@link ErrorRateRequirementConfiguration error-rate
+	 *            requirement configurations} encapsulated by this instance.
+	 */
+	public void setErrorRateRequirements(final List<ErrorRateRequirementConfiguration> errorRateRequirements) {
+		this.errorRateRequirements = errorRateRequirements;
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link ThroughputRequirementConfiguration throughput
+	 * requirement configurations} encapsulated by the instance.
+	 * </p>
+	 * 
+	 * @return The encapsulated {@link ThroughputRequirementConfiguration
+	 *         throughput requirement configurations}.
+	 */
+	@XmlElement(name = "throughputRequirement", required = false)
+	public List<ThroughputRequirementConfiguration> getThroughputRequirements() {
+		return throughputRequirements;
+	}
+
+	/**
+	 * <p>
+	 * Sets the {@link ThroughputRequirementConfiguration throughput
+	 * requirement configurations} encapsulated by the instance.
+	 * </p>
+	 * 
+	 * @param throughputRequirements
+	 *            The {@link ThroughputRequirementConfiguration throughput
+	 *            requirement configurations} encapsulated by this instance.
+	 */
+	public void setThroughputRequirements(final List<ThroughputRequirementConfiguration> throughputRequirements) {
+		this.throughputRequirements = throughputRequirements;
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link SloRequirementConfiguration SLO requirement
+	 * configurations} encapsulated by the instance.
+	 * </p>
+	 * 
+	 * @return The encapsulated {@link SloRequirementConfiguration SLO
+	 *         requirement configurations}.
+	 */
+	@XmlElement(name = "sloRequirement", required = false)
+	public List<SloRequirementConfiguration> getSloRequirements() {
+		return sloRequirements;
+	}
+
+	/**
+	 * <p>
+	 * Sets the {@link SloRequirementConfiguration SLO requirement
+	 * configurations} encapsulated by the instance.
+	 * </p>
+	 * 
+	 * @param sloRequirements
+	 *            The {@link SloRequirementConfiguration SLO requirement
+	 *            configurations} encapsulated by this instance.
+	 */
+	public void setSloRequirements(final List<SloRequirementConfiguration> sloRequirements) {
+		this.sloRequirements = sloRequirements;
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link StatisticalRequirementConfiguration template} for
+	 * implicit requirements.
+	 * </p>
+	 * 
+	 * @return The template, or <code>null</code> if none is configured.
+	 */
+	@XmlElement(name = "implicitRequirement", required = false)
+	public StatisticalRequirementConfiguration getImplicitRequirement() {
+		return implicitRequirement;
+	}
+
+	/**
+	 * <p>
+	 * Sets the {@link StatisticalRequirementConfiguration template} for
+	 * implicit requirements.
+	 * </p>
+	 * 
+	 * @param implicitRequirement
+	 *            The template for implicit requirements.
+	 */
+	public void setImplicitRequirement(final StatisticalRequirementConfiguration implicitRequirement) {
+		this.implicitRequirement = implicitRequirement;
+	}
+
 	@Override
 	public String toString() {
 		StringBuffer result = new StringBuffer();
@@ -0,0 +1,79 @@
+package org.latency4j.configuration;
+
+import javax.xml.bind.annotation.XmlAttribute;
+
+import org.latency4j.CappedLatencyRequirement;
+
+/**
+ * <p>
+ * Encapsulates a {@link CappedLatencyRequirement#setMethodLatency(String, long)
+ * per-method cap} of a {@link CappedRequirementConfiguration capped
+ * requirement}.
+ * </p>
+ * 
+ * @see CappedLatencyRequirement
+ */
+public class MethodCapConfiguration {
+	/**
+	 * <p>
+	 * The name of the method whose cap is overridden.
+	 * </p>
+	 */
+	private String method;
+
+	/**
+	 * <p>
+	 * The method's cap, in milliseconds.
+	 * </p>
+	 */
+	private Long expectedLatency;
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #method}.
+	 * </p>
+	 * 
+	 * @return The value of the field {@link #method}.
+	 */
+	@XmlAttribute(name = "method", required = true)
+	public String getMethod() {
+		return method;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #method}.
+	 * </p>
+	 * 
+	 * @param method
+	 *            The value to which the field {@link #method} should be set.
+	 */
+	public void setMethod(final String method) {
+		this.method = method;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #expectedLatency}.
+	 * </p>
+	 * 
+	 * @return The value of the field {@link #expectedLatency}.
+	 */
+	@XmlAttribute(name = "expectedLatency", required = true)
+	public Long getExpectedLatency() {
+		return expectedLatency;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #expectedLatency}.
+	 * </p>
+	 * 
+	 * @param expectedLatency
+	 *            The value to which the field {@link #expectedLatency} should
+	 *            be set.
+	 */
+	public void setExpectedLatency(final Long expectedLatency) {
+		this.expectedLatency = expectedLatency;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,181 @@
+package org.latency4j.configuration;
+
+import javax.xml.bind.annotation.XmlAttribute;
+
+import org.latency4j.SloLatencyRequirement;
+
+/**
+ * <p>
+ * Encapsulates the configuration for an {@link SloLatencyRequirement SLO
+ * requirement}.
+ * </p>
+ *
+ * @see SloLatencyRequirement
+ */
+public class SloRequirementConfiguration extends LatencyRequirementConfiguration {
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link SloLatencyRequirement#setExpectedLatency(long)}.
+	 * </p>
+	 */
+	private Long expectedLatency;
+
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link SloLatencyRequirement#setObjective(double)}.
+	 * </p>
+	 */
+	private Double objective;
+
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link SloLatencyRequirement#setCompliancePeriod(long)}.
+	 * </p>
+	 */
+	private Long compliancePeriod;
+
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link SloLatencyRequirement#setBurnRateWindows(int...)}, as a comma
+	 * separated list of window lengths in minutes.
+	 * </p>
+	 */
+	private String burnRateWindows;
+
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link SloLatencyRequirement#setBurnRateThreshold(double)}.
+	 * </p>
+	 */
+	private Double burnRateThreshold;
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #expectedLatency}.
+	 * </p>
+	 *
+	 * @return The value of the field {@link #expectedLatency}.
+	 */
+	@XmlAttribute(name = "expectedLatency", required = false)
+	public Long getExpectedLatency() {
+		return expectedLatency;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #expectedLatency}.
+	 * </p>
+	 *
+	 * @param expectedLatency
+	 *            The value to which the field {@link #expectedLatency} should
+	 *            be set.
+	 */
+	public void setExpectedLatency(final Long expectedLatency) {
+		this.expectedLatency = expectedLatency;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #objective}.
+	 * </p>
+	 *
+	 * @return The value of the field {@link #objective}.
+	 */
+	@XmlAttribute(name = "objective", required = false)
+	public Double getObjective() {
+		return objective;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #objective}.
+	 * </p>
+	 *
+	 * @param objective
+	 *            The value to which the field {@link #objective} should be
+	 *            set.
+	 */
+	public void setObjective(final Double objective) {
+		this.objective = objective;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #compliancePeriod}.
+	 * </p>
+	 *
+	 * @return The value of the field {@link #compliancePeriod}.
+	 */
+	@XmlAttribute(name = "compliancePeriod", required = false)
+	public Long getCompliancePeriod() {
+		return compliancePeriod;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #compliancePeriod}.
+	 * </p>
+	 *
+	 * @param compliancePeriod
+	 *            The value to which the field {@link #compliancePeriod}
+	 *            should be set.
+	 */
+	public void setCompliancePeriod(final Long compliancePeriod) {
+		this.compliancePeriod = compliancePeriod;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #burnRateWindows}.
+	 * </p>
+	 *
+	 * @return The value of the field {@link #burnRateWindows}.
+	 */
+	@XmlAttribute(name = "burnRateWindows", required = false)
+	public String getBurnRateWindows() {
+		return burnRateWindows;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #burnRateWindows}.
+	 * </p>
+	 *
+	 * @param burnRateWindows
+	 *            The value to which the field {@link #burnRateWindows} should
+	 *            be set.
+	 */
+	public void setBurnRateWindows(final String burnRateWindows) {
+		this.burnRateWindows = burnRateWindows;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #burnRateThreshold}.
+	 * </p>
+	 *
+	 * @return The value of the field {@link #burnRateThreshold}.
+	 */
+	@XmlAttribute(name = "burnRateThreshold", required = false)
+	public Double getBurnRateThreshold() {
+		return burnRateThreshold;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #burnRateThreshold}.
+	 * </p>
+	 *
+	 * @param burnRateThreshold
+	 *            The value to which the field {@link #burnRateThreshold}
+	 *            should be set.
+	 */
+	public void setBurnRateThreshold(final Double burnRateThreshold) {
+		this.burnRateThreshold = burnRateThreshold;
+	}
+}
\ No newline at end of file
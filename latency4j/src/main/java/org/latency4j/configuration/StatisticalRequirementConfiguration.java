@@ -2,6 +2,8 @@ package org.latency4j.configuration;
 
 import javax.xml.bind.annotation.XmlAttribute;
 
+import org.latency4j.BaselineStrategy;
+import org.latency4j.DetectionMode;
 import org.latency4j.StatisticalLatencyRequirement;
 
 /**
@@ -28,6 +30,80 @@ public class StatisticalRequirementConfiguration extends LatencyRequirementConfi
 	 */
 	private Double toleranceLevel;
 
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link StatisticalLatencyRequirement#setAggregationInterval(long)}.
+	 * </p>
+	 */
+	private Long aggregationInterval;
+
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link StatisticalLatencyRequirement#setAggregationThreshold(int)}.
+	 * </p>
+	 */
+	private Integer aggregationThreshold;
+
+	/**
+	 * <p>
+	 * The name of the {@link DetectionMode detection mode}, used to initialise
+	 * the field
+	 * {@link StatisticalLatencyRequirement#setDetectionMode(DetectionMode)}.
+	 * </p>
+	 */
+	private String detectionMode;
+
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link StatisticalLatencyRequirement#setChangePointThreshold(double)}.
+	 * </p>
+	 */
+	private Double changePointThreshold;
+
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link StatisticalLatencyRequirement#setChangePointDrift(double)}.
+	 * </p>
+	 */
+	private Double changePointDrift;
+
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link StatisticalLatencyRequirement#setSeasonalBaseline(boolean)}.
+	 * </p>
+	 */
+	private Boolean seasonalBaseline;
+
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link StatisticalLatencyRequirement#setSeasonalTimeZone(String)}.
+	 * </p>
+	 */
+	private String seasonalTimeZone;
+
+	/**
+	 * <p>
+	 * The name of the {@link BaselineStrategy baseline strategy}, used to
+	 * initialise the field
+	 * {@link StatisticalLatencyRequirement#setBaselineStrategy(BaselineStrategy)}.
+	 * </p>
+	 */
+	private String baselineStrategy;
+
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link StatisticalLatencyRequirement#setBaselineTrim(double)}.
+	 * </p>
+	 */
+	private Double baselineTrim;
+
 	/**
 	 * <p>
 	 * Accessor for the field {@link #observationsSignificanceBarrier}.
@@ -81,4 +157,229 @@ public class StatisticalRequirementConfiguration extends LatencyRequirementConfi
 	public void setToleranceLevel(final Double toleranceLevel) {
 		this.toleranceLevel = toleranceLevel;
 	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #aggregationInterval}.
+	 * </p>
+	 * 
+	 * @return The value of the field {@link #aggregationInterval}.
+	 */
+	@XmlAttribute(name = "aggregationInterval", required = false)
+	public Long getAggregationInterval() {
+		return aggregationInterval;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #aggregationInterval}.
+	 * </p>
+	 * 
+	 * @param aggregationInterval
+	 *            The value to which the field {@link #aggregationInterval}
+	 *            should be set.
+	 */
+	public void setAggregationInterval(final Long aggregationInterval) {
+		this.aggregationInterval = aggregationInterval;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #aggregationThreshold}.
+	 * </p>
+	 * 
+	 * @return The value of the field {@link #aggregationThreshold}.
+	 */
+	@XmlAttribute(name = "aggregationThreshold", required = false)
+	public Integer getAggregationThreshold() {
+		return aggregationThreshold;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #aggregationThreshold}.
+	 * </p>
+	 * 
+	 * @param aggregationThreshold
+	 *            The value to which the field {@link #aggregationThreshold}
+	 *            should be set.
+	 */
+	public void setAggregationThreshold(final Integer aggregationThreshold) {
+		this.aggregationThreshold = aggregationThreshold;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #detectionMode}.
+	 * </p>
+	 * 
+	 * @return The value of the field {@link #detectionMode}.
+	 */
+	@XmlAttribute(name = "detectionMode", required = false)
+	public String getDetectionMode() {
+		return detectionMode;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #detectionMode}.
+	 * </p>
+	 * 
+	 * @param detectionMode
+	 *            The value to which the field {@link #detectionMode}
+	 *            should be set.
+	 */
+	public void setDetectionMode(final String detectionMode) {
+		this.detectionMode = detectionMode;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #changePointThreshold}.
+	 * </p>
+	 * 
+	 * @return The value of the field {@link #changePointThreshold}.
+	 */
+	@XmlAttribute(name = "changePointThreshold", required = false)
+	public Double getChangePointThreshold() {
+		return changePointThreshold;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #changePointThreshold}.
+	 * </p>
+	 * 
+	 * @param changePointThreshold
+	 *            The value to which the field {@link #changePointThreshold}
+	 *            should be set.
+	 */
+	public void setChangePointThreshold(final Double changePointThreshold) {
+		this.changePointThreshold = changePointThreshold;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #changePointDrift}.
+	 * </p>
+	 * 
+	 * @return The value of the field {@link #changePointDrift}.
+	 */
+	@XmlAttribute(name = "changePointDrift", required = false)
+	public Double getChangePointDrift() {
+		return changePointDrift;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #changePointDrift}.
+	 * </p>
+	 * 
+	 * @param changePointDrift
+	 *            The value to which the field {@link #changePointDrift}
+	 *            should be set.
+	 */
+	public void setChangePointDrift(final Double changePointDrift) {
+		this.changePointDrift = changePointDrift;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #seasonalBaseline}.
+	 * </p>
+	 * 
+	 * @return The value of the field {@link #seasonalBaseline}.
+	 */
+	@XmlAttribute(name = "seasonalBaseline", required = false)
+	public Boolean getSeasonalBaseline() {
+		return seasonalBaseline;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #seasonalBaseline}.
+	 * </p>
+	 * 
+	 * @param seasonalBaseline
+	 *            The value to which the field {@link #seasonalBaseline}
+	 *            should be set.
+	 */
+	public void setSeasonalBaseline(final Boolean seasonalBaseline) {
+		this.seasonalBaseline = seasonalBaseline;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #seasonalTimeZone}.
+	 * </p>
+	 * 
+	 * @return The value of the field {@link #seasonalTimeZone}.
+	 */
+	@XmlAttribute(name = "seasonalTimeZone", required = false)
+	public String getSeasonalTimeZone() {
+		return seasonalTimeZone;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #seasonalTimeZone}.
+	 * </p>
+	 * 
+	 * @param seasonalTimeZone
+	 *            The value to which the field {@link #seasonalTimeZone}
+	 *            should be set.
+	 */
+	public void setSeasonalTimeZone(final String seasonalTimeZone) {
+		this.seasonalTimeZone = seasonalTimeZone;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #baselineStrategy}.
+	 * </p>
+	 * 
+	 * @return The value of the field {@link #baselineStrategy}.
+	 */
+	@XmlAttribute(name = "baselineStrategy", required = false)
+	public String getBaselineStrategy() {
+		return baselineStrategy;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #baselineStrategy}.
+	 * </p>
+	 * 
+	 * @param baselineStrategy
+	 *            The value to which the field {@link #baselineStrategy}
+	 *            should be set.
+	 */
+	public void setBaselineStrategy(final String baselineStrategy) {
+		this.baselineStrategy = baselineStrategy;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #baselineTrim}.
+	 * </p>
+	 * 
+	 * @return The value of the field {@link #baselineTrim}.
+	 */
+	@XmlAttribute(name = "baselineTrim", required = false)
+	public Double getBaselineTrim() {
+		return baselineTrim;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #baselineTrim}.
+	 * </p>
+	 * 
+	 * @param baselineTrim
+	 *            The value to which the field {@link #baselineTrim}
+	 *            should be set.
+	 */
+	public void setBaselineTrim(final Double baselineTrim) {
+		this.baselineTrim = baselineTrim;
+	}
 }// end class def
\ No newline at end of file
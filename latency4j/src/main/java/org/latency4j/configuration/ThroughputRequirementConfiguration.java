@@ -0,0 +1,114 @@
+package org.latency4j.configuration;
+
+import javax.xml.bind.annotation.XmlAttribute;
+
+import org.latency4j.ThroughputLatencyRequirement;
+
+/**
+ * <p>
+ * Encapsulates the configuration for a {@link ThroughputLatencyRequirement
+ * throughput requirement}.
+ * </p>
+ *
+ * @see ThroughputLatencyRequirement
+ */
+public class ThroughputRequirementConfiguration extends LatencyRequirementConfiguration {
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link ThroughputLatencyRequirement#setMinCallsPerSecond(double)}.
+	 * </p>
+	 */
+	private Double minCallsPerSecond;
+
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link ThroughputLatencyRequirement#setMaxConcurrency(long)}.
+	 * </p>
+	 */
+	private Long maxConcurrency;
+
+	/**
+	 * <p>
+	 * Used to initialise the field
+	 * {@link ThroughputLatencyRequirement#setEvaluationInterval(long)}.
+	 * </p>
+	 */
+	private Long evaluationInterval;
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #minCallsPerSecond}.
+	 * </p>
+	 *
+	 * @return The value of the field {@link #minCallsPerSecond}.
+	 */
+	@XmlAttribute(name = "minCallsPerSecond", required = false)
+	public Double getMinCallsPerSecond() {
+		return minCallsPerSecond;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #minCallsPerSecond}.
+	 * </p>
+	 *
+	 * @param minCallsPerSecond
+	 *            The value to which the field {@link #minCallsPerSecond}
+	 *            should be set.
+	 */
+	public void setMinCallsPerSecond(final Double minCallsPerSecond) {
+		this.minCallsPerSecond = minCallsPerSecond;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #maxConcurrency}.
+	 * </p>
+	 *
+	 * @return The value of the field {@link #maxConcurrency}.
+	 */
+	@XmlAttribute(name = "maxConcurrency", required = false)
+	public Long getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #maxConcurrency}.
+	 * </p>
+	 *
+	 * @param maxConcurrency
+	 *            The value to which the field {@link #maxConcurrency} should
+	 *            be set.
+	 */
+	public void setMaxConcurrency(final Long maxConcurrency) {
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	/**
+	 * <p>
+	 * Accessor for field {@link #evaluationInterval}.
+	 * </p>
+	 *
+	 * @return The value of the field {@link #evaluationInterval}.
+	 */
+	@XmlAttribute(name = "evaluationInterval", required = false)
+	public Long getEvaluationInterval() {
+		return evaluationInterval;
+	}
+
+	/**
+	 * <p>
+	 * Mutator for field {@link #evaluationInterval}.
+	 * </p>
+	 *
+	 * @param evaluationInterval
+	 *            The value to which the field {@link #evaluationInterval}
+	 *            should be set.
+	 */
+	public void setEvaluationInterval(final Long evaluationInterval) {
+		this.evaluationInterval = evaluationInterval;
+	}
+}
\ No newline at end of file
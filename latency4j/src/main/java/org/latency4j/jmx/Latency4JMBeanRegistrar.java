@@ -0,0 +1,338 @@
+package org.latency4j.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.latency4j.Latency4JException;
+import org.latency4j.LatencyRequirement;
+import org.latency4j.processing.AsynchronousLatencyMonitorFactory;
+import org.latency4j.processing.CategoryEvictionListener;
+import org.latency4j.processing.LatencyProcessor;
+import org.latency4j.processing.StatisticsKeyEvictionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Registers {@link LatencyRequirementStatisticsMBean requirement} and
+ * {@link MethodStatisticsMBean method} MBeans for the categories monitored by
+ * an {@link AsynchronousLatencyMonitorFactory asynchronous monitor factory}.
+ * Since categories and methods are discovered as they are monitored, the
+ * registrar periodically {@link #refresh() refreshes} the registered MBeans on
+ * a background thread. The MBeans of categories whose statistics the
+ * processor {@link CategoryEvictionListener evicts}, and of methods whose
+ * statistics it {@link StatisticsKeyEvictionListener folds into overflow}, are
+ * unregistered on the next refresh.
+ * </p>
+ * <p>
+ * Requirement MBeans are registered under
+ * <code>org.latency4j:type=LatencyRequirement,category=&lt;category&gt;</code>,
+ * and method MBeans under
+ * <code>org.latency4j:type=MethodStatistics,category=&lt;category&gt;,method=&lt;method&gt;</code>.
+ * </p>
+ */
+public class Latency4JMBeanRegistrar {
+	/**
+	 * <p>
+	 * Internal logger.
+	 * </p>
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(Latency4JMBeanRegistrar.class);
+
+	/**
+	 * <p>
+	 * The JMX domain under which MBeans are registered.
+	 * </p>
+	 */
+	public static final String JMX_DOMAIN = "org.latency4j";
+
+	/**
+	 * <p>
+	 * Default interval, in milliseconds, between {@link #refresh() refreshes}.
+	 * </p>
+	 */
+	public static final long DEFAULT_REFRESH_INTERVAL = 10000;
+
+	/**
+	 * <p>
+	 * The factory whose monitored categories are exposed.
+	 * </p>
+	 */
+	private AsynchronousLatencyMonitorFactory monitorFactory;
+
+	/**
+	 * <p>
+	 * The server with which MBeans are registered. Defaults to the platform
+	 * MBean server.
+	 * </p>
+	 */
+	private MBeanServer mbeanServer;
+
+	/**
+	 * <p>
+	 * Interval, in milliseconds, between {@link #refresh() refreshes}. A value
+	 * of <code>0</code> or less disables periodic refreshing.
+	 * </p>
+	 */
+	private long refreshInterval;
+
+	/**
+	 * <p>
+	 * The names of MBeans registered to date, by category.
+	 * </p>
+	 */
+	private final Map<String, List<ObjectName>> registeredNames;
+
+	/**
+	 * <p>
+	 * Categories evicted by the processor since the last refresh.
+	 * </p>
+	 */
+	private final Queue<String> evictedCategories;
+
+	/**
+	 * <p>
+	 * Queues the categories evicted by the processor, whose MBeans are
+	 * unregistered on the next {@link #refresh() refresh} rather than on the
+	 * processing thread.
+	 * </p>
+	 */
+	private final CategoryEvictionListener evictionListener;
+
+	/**
+	 * <p>
+	 * The names of the method MBeans whose statistics the processor has
+	 * evicted since the last refresh.
+	 * </p>
+	 */
+	private final Queue<ObjectName> evictedMethods;
+
+	/**
+	 * <p>
+	 * Queues the names of the method MBeans whose statistics the processor
+	 * evicts, which are unregistered on the next {@link #refresh() refresh}.
+	 * </p>
+	 */
+	private final StatisticsKeyEvictionListener keyEvictionListener;
+
+	/**
+	 * <p>
+	 * Scheduler driving periodic refreshes.
+	 * </p>
+	 */
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * <p>
+	 * Default constructor.
+	 * </p>
+	 */
+	public Latency4JMBeanRegistrar() {
+		this.refreshInterval = DEFAULT_REFRESH_INTERVAL;
+		this.registeredNames = new HashMap<String, List<ObjectName>>();
+		this.evictedCategories = new ConcurrentLinkedQueue<String>();
+		this.evictionListener = new CategoryEvictionListener() {
+			@Override
+			public void categoryEvicted(final String workCategory) {
+				evictedCategories.add(workCategory);
+			}
+		};
+		this.evictedMethods = new ConcurrentLinkedQueue<ObjectName>();
+		this.keyEvictionListener = new StatisticsKeyEvictionListener() {
+			@Override
+			public void statisticsKeyEvicted(final String workCategory, final String statisticsKey) {
+				evictedMethods.add(createMethodName(workCategory, statisticsKey));
+			}
+		};
+	}
+
+	public AsynchronousLatencyMonitorFactory getMonitorFactory() {
+		return monitorFactory;
+	}
+
+	public void setMonitorFactory(final AsynchronousLatencyMonitorFactory monitorFactory) {
+		this.monitorFactory = monitorFactory;
+	}
+
+	public MBeanServer getMbeanServer() {
+		return mbeanServer;
+	}
+
+	public void setMbeanServer(final MBeanServer mbeanServer) {
+		this.mbeanServer = mbeanServer;
+	}
+
+	public long getRefreshInterval() {
+		return refreshInterval;
+	}
+
+	public void setRefreshInterval(final long refreshInterval) {
+		this.refreshInterval = refreshInterval;
+	}
+
+	/**
+	 * <p>
+	 * Registers MBeans for all categories monitored to date, and schedules
+	 * periodic {@link #refresh() refreshes}.
+	 * </p>
+	 */
+	public void init() {
+		if (monitorFactory == null) throw new Latency4JException("No monitor factory set for MBean registrar.");
+		if (mbeanServer == null) mbeanServer = ManagementFactory.getPlatformMBeanServer();
+
+		monitorFactory.getAsyncProcessor().addCategoryEvictionListener(evictionListener);
+		monitorFactory.getAsyncProcessor().addStatisticsKeyEvictionListener(keyEvictionListener);
+		refresh();
+
+		if (refreshInterval > 0) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(final Runnable runnable) {
+					Thread result = new Thread(runnable, "latency4j-jmx-refresh");
+					result.setDaemon(true);
+					return result;
+				}
+			});
+			scheduler.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						refresh();
+					} catch (Throwable t) {
+						logger.warn("Failed to refresh latency4j MBeans.", t);
+					}
+				}
+			}, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Unregisters the MBeans of categories and methods evicted since the last
+	 * refresh, then registers MBeans for any categories and methods which have been
+	 * monitored since.
+	 * </p>
+	 */
+	public synchronized void refresh() {
+		LatencyProcessor processor = monitorFactory.getAsyncProcessor();
+
+		String evicted;
+		while ((evicted = evictedCategories.poll()) != null)
+			unregisterAll(registeredNames.remove(evicted));
+
+		ObjectName evictedMethod;
+		while ((evictedMethod = evictedMethods.poll()) != null) {
+			List<ObjectName> names = registeredNames.get(ObjectName.unquote(evictedMethod.getKeyProperty("category")));
+			if (names != null && names.remove(evictedMethod)) unregisterAll(Collections.singletonList(evictedMethod));
+		}
+
+		for (LatencyRequirement requirement : monitorFactory.getMonitoredRequirements()) {
+			String category = requirement.getWorkCategory();
+			registerIfAbsent(category, createRequirementName(category),
+					new LatencyRequirementStatistics(processor, requirement));
+
+			for (String method : processor.getStatisticsKeys(category)) {
+				if (!LatencyProcessor.ROOT_CALL_STATISTICS_KEY.equals(method))
+					registerIfAbsent(category, createMethodName(category, method),
+							new MethodStatistics(processor, category, method));
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Stops periodic refreshes and unregisters all MBeans registered by this
+	 * instance.
+	 * </p>
+	 */
+	public synchronized void destroy() {
+		if (scheduler != null) scheduler.shutdownNow();
+		if (monitorFactory != null) {
+			monitorFactory.getAsyncProcessor().removeCategoryEvictionListener(evictionListener);
+			monitorFactory.getAsyncProcessor().removeStatisticsKeyEvictionListener(keyEvictionListener);
+		}
+
+		for (List<ObjectName> names : registeredNames.values())
+			unregisterAll(names);
+		registeredNames.clear();
+		evictedCategories.clear();
+		evictedMethods.clear();
+	}
+
+	/**
+	 * <p>
+	 * Creates the {@link ObjectName name} for a requirement MBean.
+	 * </p>
+	 *
+	 * @param workCategory
+	 *            The requirement's category.
+	 * @return The MBean name.
+	 */
+	public static ObjectName createRequirementName(final String workCategory) {
+		return createName("type=LatencyRequirement,category=" + ObjectName.quote(workCategory));
+	}
+
+	/**
+	 * <p>
+	 * Creates the {@link ObjectName name} for a method MBean.
+	 * </p>
+	 *
+	 * @param workCategory
+	 *            The category to which the method belongs.
+	 * @param methodName
+	 *            The method name.
+	 * @return The MBean name.
+	 */
+	public static ObjectName createMethodName(final String workCategory, final String methodName) {
+		return createName("type=MethodStatistics,category=" + ObjectName.quote(workCategory) + ",method="
+				+ ObjectName.quote(methodName));
+	}
+
+	private static ObjectName createName(final String properties) {
+		try {
+			return new ObjectName(JMX_DOMAIN + ":" + properties);
+		} catch (Exception exce) {
+			throw new Latency4JException(exce);
+		}
+	}
+
+	private void registerIfAbsent(final String workCategory, final ObjectName name, final Object mbean) {
+		if (!mbeanServer.isRegistered(name)) {
+			try {
+				mbeanServer.registerMBean(mbean, name);
+				List<ObjectName> names = registeredNames.get(workCategory);
+				if (names == null) {
+					names = new ArrayList<ObjectName>();
+					registeredNames.put(workCategory, names);
+				}
+				names.add(name);
+			} catch (Exception exce) {
+				logger.warn("Failed to register MBean '{}'.", name, exce);
+			}
+		}
+	}
+
+	private void unregisterAll(final List<ObjectName> names) {
+		if (names == null) return;
+		for (ObjectName name : names) {
+			try {
+				if (mbeanServer.isRegistered(name)) mbeanServer.unregisterMBean(name);
+			} catch (Exception exce) {
+				logger.warn("Failed to unregister MBean '{}'.", name, exce);
+			}
+		}
+	}
+}// end class def
@@ -0,0 +1,239 @@
+package org.latency4j.jmx;
+
+import java.util.List;
+import java.util.Map;
+
+import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.LatencyRequirement;
+import org.latency4j.SloLatencyRequirement;
+import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.ThroughputLatencyRequirement;
+import org.latency4j.persistence.PersistenceWriterStatistics;
+import org.latency4j.processing.LatencyProcessor;
+import org.latency4j.processing.SlowCallExemplar;
+import org.latency4j.processing.WorkStatisticsSnapshot;
+
+/**
+ * <p>
+ * {@link LatencyRequirementStatisticsMBean} implementation. Adjustments made
+ * through the update operations are applied directly to the
+ * {@link LatencyRequirement requirement}, and take effect from the next
+ * {@link org.latency4j.WorkDuration duration} processed.
+ * </p>
+ */
+public class LatencyRequirementStatistics extends MethodStatistics implements LatencyRequirementStatisticsMBean {
+	/**
+	 * <p>
+	 * The processor from which statistics are read.
+	 * </p>
+	 */
+	private final LatencyProcessor latencyProcessor;
+
+	/**
+	 * <p>
+	 * The requirement exposed by this instance.
+	 * </p>
+	 */
+	private final LatencyRequirement requirement;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param latencyProcessor
+	 *            The {@link LatencyProcessor processor} from which statistics
+	 *            are read.
+	 * @param requirement
+	 *            The {@link LatencyRequirement requirement} to expose.
+	 */
+	public LatencyRequirementStatistics(final LatencyProcessor latencyProcessor,
+			final LatencyRequirement requirement) {
+		super(latencyProcessor, requirement.getWorkCategory(), LatencyProcessor.ROOT_CALL_STATISTICS_KEY);
+		this.latencyProcessor = latencyProcessor;
+		this.requirement = requirement;
+	}
+
+	@Override
+	public String getRequirementType() {
+		return requirement.getClass().getSimpleName();
+	}
+
+	@Override
+	public long getTotalBreachCount() {
+		long result = 0;
+		for (WorkStatisticsSnapshot snapshot : latencyProcessor.getStatisticsSnapshots(getWorkCategory()).values())
+			result += snapshot.getBreachCount();
+		return result;
+	}
+
+	@Override
+	public long getTotalWarningCount() {
+		long result = 0;
+		for (WorkStatisticsSnapshot snapshot : latencyProcessor.getStatisticsSnapshots(getWorkCategory()).values())
+			result += snapshot.getWarningCount();
+		return result;
+	}
+
+	@Override
+	public long getTotalErrorCount() {
+		long result = 0;
+		for (WorkStatisticsSnapshot snapshot : latencyProcessor.getStatisticsSnapshots(getWorkCategory()).values())
+			result += snapshot.getErrorCount();
+		return result;
+	}
+
+	@Override
+	public long getWithinCapCount() {
+		return latencyProcessor.getWithinCapCount(getWorkCategory());
+	}
+
+	@Override
+	public String[] getSlowestCalls() {
+		List<SlowCallExemplar> exemplars = latencyProcessor.getSlowestCalls(getWorkCategory());
+		String[] result = new String[exemplars.size()];
+		for (int i = 0; i < result.length; i++)
+			result[i] = exemplars.get(i).toString();
+		return result;
+	}
+
+	@Override
+	public Integer getPersistenceBacklog() {
+		PersistenceWriterStatistics writerStatistics = getWriterStatistics();
+		return writerStatistics == null ? null : writerStatistics.getBacklog();
+	}
+
+	@Override
+	public Double getAveragePersistenceWriteMicros() {
+		PersistenceWriterStatistics writerStatistics = getWriterStatistics();
+		return writerStatistics == null ? null : writerStatistics.getAverageWriteMicros();
+	}
+
+	@Override
+	public Long getPersistenceDroppedCount() {
+		PersistenceWriterStatistics writerStatistics = getWriterStatistics();
+		return writerStatistics == null ? null : writerStatistics.getRecordsDropped();
+	}
+
+	@Override
+	public Double getToleranceLevel() {
+		Double result = null;
+		if (requirement instanceof StatisticalLatencyRequirement)
+			result = ((StatisticalLatencyRequirement) requirement).getToleranceLevel();
+		return result;
+	}
+
+	@Override
+	public Long getObservationsSignificanceBarrier() {
+		Long result = null;
+		if (requirement instanceof StatisticalLatencyRequirement)
+			result = ((StatisticalLatencyRequirement) requirement).getObservationsSignificanceBarrier();
+		return result;
+	}
+
+	@Override
+	public Long getExpectedLatency() {
+		Long result = null;
+		if (requirement instanceof CappedLatencyRequirement)
+			result = ((CappedLatencyRequirement) requirement).getExpectedLatency();
+		return result;
+	}
+
+	@Override
+	public Long getWarningLatency() {
+		Long result = null;
+		if (requirement instanceof CappedLatencyRequirement) {
+			long warningLatency = ((CappedLatencyRequirement) requirement).getWarningLatency();
+			if (warningLatency > 0) result = warningLatency;
+		}
+		return result;
+	}
+
+	@Override
+	public Double getErrorRate() {
+		return toNullable(latencyProcessor.getErrorRate(getWorkCategory()));
+	}
+
+	@Override
+	public Double getBaselineErrorRate() {
+		return toNullable(latencyProcessor.getBaselineErrorRate(getWorkCategory()));
+	}
+
+	@Override
+	public Double getCallsPerSecond() {
+		return toNullable(latencyProcessor.getCallsPerSecond(getWorkCategory()));
+	}
+
+	@Override
+	public Long getConcurrency() {
+		Long result = null;
+		if (requirement instanceof ThroughputLatencyRequirement)
+			result = latencyProcessor.getConcurrency(getWorkCategory());
+		return result;
+	}
+
+	@Override
+	public String[] getBurnRates() {
+		String[] result = null;
+		if (requirement instanceof SloLatencyRequirement) {
+			Map<Integer, Double> burnRates = latencyProcessor.getBurnRates(getWorkCategory());
+			result = new String[burnRates.size()];
+			int i = 0;
+			for (Map.Entry<Integer, Double> entry : burnRates.entrySet())
+				result[i++] = entry.getKey() + "=" + entry.getValue();
+		}
+		return result;
+	}
+
+	@Override
+	public void updateToleranceLevel(final double toleranceLevel) {
+		if (toleranceLevel < 0) throw new IllegalArgumentException("Tolerance level must not be negative.");
+		getStatisticalRequirement().setToleranceLevel(toleranceLevel);
+	}
+
+	@Override
+	public void updateObservationsSignificanceBarrier(final long observationsSignificanceBarrier) {
+		if (observationsSignificanceBarrier < 0)
+			throw new IllegalArgumentException("Significance barrier must not be negative.");
+		getStatisticalRequirement().setObservationsSignificanceBarrier(observationsSignificanceBarrier);
+	}
+
+	@Override
+	public void updateExpectedLatency(final long expectedLatency) {
+		if (expectedLatency <= 0) throw new IllegalArgumentException("Expected latency must be greater than 0.");
+		if (!(requirement instanceof CappedLatencyRequirement)) throw new UnsupportedOperationException(
+				"Requirement '" + getWorkCategory() + "' is not a capped requirement.");
+		CappedLatencyRequirement cappedRequirement = (CappedLatencyRequirement) requirement;
+		if (expectedLatency <= cappedRequirement.getWarningLatency()) throw new IllegalArgumentException(
+				"Expected latency must be greater than the warning latency of " + cappedRequirement.getWarningLatency()
+						+ ".");
+		cappedRequirement.setExpectedLatency(expectedLatency);
+	}
+
+	private PersistenceWriterStatistics getWriterStatistics() {
+		PersistenceWriterStatistics result = null;
+		if (requirement.getPersistenceManager() instanceof PersistenceWriterStatistics)
+			result = (PersistenceWriterStatistics) requirement.getPersistenceManager();
+		return result;
+	}
+
+	private static Double toNullable(final double value) {
+		return Double.isNaN(value) ? null : value;
+	}
+
+	/**
+	 * <p>
+	 * Returns the exposed requirement as a {@link StatisticalLatencyRequirement
+	 * statistical requirement}.
+	 * </p>
+	 *
+	 * @return The exposed requirement.
+	 * @throws UnsupportedOperationException
+	 *             If the requirement is not a statistical requirement.
+	 */
+	private StatisticalLatencyRequirement getStatisticalRequirement() {
+		if (!(requirement instanceof StatisticalLatencyRequirement)) throw new UnsupportedOperationException(
+				"Requirement '" + getWorkCategory() + "' is not a statistical requirement.");
+		return (StatisticalLatencyRequirement) requirement;
+	}
+}// end class def
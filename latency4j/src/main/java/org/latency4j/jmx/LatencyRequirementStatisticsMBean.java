@@ -0,0 +1,170 @@
+package org.latency4j.jmx;
+
+import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.ErrorRateLatencyRequirement;
+import org.latency4j.LatencyRequirement;
+import org.latency4j.SloLatencyRequirement;
+import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.ThroughputLatencyRequirement;
+import org.latency4j.persistence.PersistenceWriterStatistics;
+
+/**
+ * <p>
+ * Management interface exposing the live statistics of a monitored
+ * {@link LatencyRequirement requirement}, and operations to tune it at
+ * runtime. Latency figures relate to calls at the root of the monitored call
+ * stack; nested calls are exposed through {@link MethodStatisticsMBean}.
+ * </p>
+ */
+public interface LatencyRequirementStatisticsMBean extends MethodStatisticsMBean {
+	/**
+	 * @return The simple class name of the {@link LatencyRequirement
+	 *         requirement}.
+	 */
+	String getRequirementType();
+
+	/**
+	 * @return The number of breaches across all methods in the category.
+	 */
+	long getTotalBreachCount();
+
+	/**
+	 * @return The number of warning tier breaches across all methods in the
+	 *         category.
+	 */
+	long getTotalWarningCount();
+
+	/**
+	 * @return The number of errors across all methods in the category.
+	 */
+	long getTotalErrorCount();
+
+	/**
+	 * @return The number of calls found within the cap on the calling thread,
+	 *         when {@link CappedLatencyRequirement#isCallerThreadEvaluation()
+	 *         caller thread evaluation} is enabled. These calls are not
+	 *         included in any other statistic.
+	 */
+	long getWithinCapCount();
+
+	/**
+	 * @return Descriptions of the
+	 *         {@link org.latency4j.processing.LatencyProcessor#getSlowestCalls(String)
+	 *         slowest calls} across all methods in the category, slowest first.
+	 */
+	String[] getSlowestCalls();
+
+	/**
+	 * @return The number of durations waiting to be persisted, or
+	 *         <code>null</code> if the requirement's persistence manager does
+	 *         not report {@link PersistenceWriterStatistics writer
+	 *         statistics}.
+	 */
+	Integer getPersistenceBacklog();
+
+	/**
+	 * @return The average time, in microseconds, taken to persist a batch of
+	 *         durations, or <code>null</code> if the requirement's persistence
+	 *         manager does not report {@link PersistenceWriterStatistics writer
+	 *         statistics}.
+	 */
+	Double getAveragePersistenceWriteMicros();
+
+	/**
+	 * @return The number of durations dropped by the persistence manager, or
+	 *         <code>null</code> if it does not report
+	 *         {@link PersistenceWriterStatistics writer statistics}.
+	 */
+	Long getPersistenceDroppedCount();
+
+	/**
+	 * @return The {@link StatisticalLatencyRequirement#getToleranceLevel()
+	 *         tolerance level}, or <code>null</code> for other requirement
+	 *         types.
+	 */
+	Double getToleranceLevel();
+
+	/**
+	 * @return The
+	 *         {@link StatisticalLatencyRequirement#getObservationsSignificanceBarrier()
+	 *         significance barrier}, or <code>null</code> for other
+	 *         requirement types.
+	 */
+	Long getObservationsSignificanceBarrier();
+
+	/**
+	 * @return The {@link CappedLatencyRequirement#getExpectedLatency()
+	 *         expected latency}, or <code>null</code> for other requirement
+	 *         types.
+	 */
+	Long getExpectedLatency();
+
+	/**
+	 * @return The {@link CappedLatencyRequirement#getWarningLatency() warning
+	 *         latency}, or <code>null</code> for other requirement types or
+	 *         where there is no warning tier.
+	 */
+	Long getWarningLatency();
+
+	/**
+	 * @return The error rate of the current window of an
+	 *         {@link ErrorRateLatencyRequirement error-rate requirement}, or
+	 *         <code>null</code> for other requirement types or while the
+	 *         window holds too few calls.
+	 */
+	Double getErrorRate();
+
+	/**
+	 * @return The baseline error rate of an {@link ErrorRateLatencyRequirement
+	 *         error-rate requirement}, or <code>null</code> for other
+	 *         requirement types or while no baseline has been established.
+	 */
+	Double getBaselineErrorRate();
+
+	/**
+	 * @return The completion rate over the last evaluation interval of a
+	 *         {@link ThroughputLatencyRequirement throughput requirement}, or
+	 *         <code>null</code> for other requirement types or before an
+	 *         interval has completed.
+	 */
+	Double getCallsPerSecond();
+
+	/**
+	 * @return The number of calls in progress for a
+	 *         {@link ThroughputLatencyRequirement throughput requirement}, or
+	 *         <code>null</code> for other requirement types.
+	 */
+	Long getConcurrency();
+
+	/**
+	 * @return The error budget burn rate over each window of an
+	 *         {@link SloLatencyRequirement SLO requirement}, as
+	 *         <code>window minutes=burn rate</code> pairs, or
+	 *         <code>null</code> for other requirement types.
+	 */
+	String[] getBurnRates();
+
+	/**
+	 * @param toleranceLevel
+	 *            The new {@link StatisticalLatencyRequirement#getToleranceLevel()
+	 *            tolerance level}.
+	 */
+	void updateToleranceLevel(double toleranceLevel);
+
+	/**
+	 * @param observationsSignificanceBarrier
+	 *            The new
+	 *            {@link StatisticalLatencyRequirement#getObservationsSignificanceBarrier()
+	 *            significance barrier}.
+	 */
+	void updateObservationsSignificanceBarrier(long observationsSignificanceBarrier);
+
+	/**
+	 * @param expectedLatency
+	 *            The new {@link CappedLatencyRequirement#getExpectedLatency()
+	 *            expected latency}, which must be greater than the
+	 *            {@link CappedLatencyRequirement#getWarningLatency() warning
+	 *            latency}.
+	 */
+	void updateExpectedLatency(long expectedLatency);
+}
@@ -0,0 +1,135 @@
+package org.latency4j.jmx;
+
+import org.latency4j.processing.LatencyProcessor;
+import org.latency4j.processing.WorkStatisticsSnapshot;
+
+/**
+ * <p>
+ * {@link MethodStatisticsMBean} implementation. Every attribute read takes a
+ * fresh {@link WorkStatisticsSnapshot snapshot} from the
+ * {@link LatencyProcessor latency processor}, so reads never block duration
+ * processing.
+ * </p>
+ */
+public class MethodStatistics implements MethodStatisticsMBean {
+	/**
+	 * <p>
+	 * The processor from which statistics are read.
+	 * </p>
+	 */
+	private final LatencyProcessor latencyProcessor;
+
+	/**
+	 * <p>
+	 * The category to which the method belongs.
+	 * </p>
+	 */
+	private final String workCategory;
+
+	/**
+	 * <p>
+	 * The key under which the processor holds the method's statistics.
+	 * </p>
+	 */
+	private final String methodName;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param latencyProcessor
+	 *            The {@link LatencyProcessor processor} from which statistics
+	 *            are read.
+	 * @param workCategory
+	 *            The category to which the method belongs.
+	 * @param methodName
+	 *            The key under which the processor holds the method's
+	 *            statistics.
+	 */
+	public MethodStatistics(final LatencyProcessor latencyProcessor, final String workCategory,
+			final String methodName) {
+		this.latencyProcessor = latencyProcessor;
+		this.workCategory = workCategory;
+		this.methodName = methodName;
+	}
+
+	@Override
+	public String getWorkCategory() {
+		return workCategory;
+	}
+
+	@Override
+	public String getMethodName() {
+		return methodName;
+	}
+
+	@Override
+	public long getNumberOfObservations() {
+		WorkStatisticsSnapshot snapshot = getSnapshot();
+		return snapshot == null ? 0 : snapshot.getNumberOfObservations();
+	}
+
+	@Override
+	public double getMeanLatency() {
+		WorkStatisticsSnapshot snapshot = getSnapshot();
+		return snapshot == null ? 0.0d : snapshot.getMean();
+	}
+
+	@Override
+	public long getMaxLatency() {
+		WorkStatisticsSnapshot snapshot = getSnapshot();
+		return snapshot == null ? 0 : snapshot.getMaxTime();
+	}
+
+	@Override
+	public long getMedianLatency() {
+		return getPercentile(50);
+	}
+
+	@Override
+	public long getPercentile90Latency() {
+		return getPercentile(90);
+	}
+
+	@Override
+	public long getPercentile99Latency() {
+		return getPercentile(99);
+	}
+
+	@Override
+	public long getErrorCount() {
+		WorkStatisticsSnapshot snapshot = getSnapshot();
+		return snapshot == null ? 0 : snapshot.getErrorCount();
+	}
+
+	@Override
+	public long getBreachCount() {
+		WorkStatisticsSnapshot snapshot = getSnapshot();
+		return snapshot == null ? 0 : snapshot.getBreachCount();
+	}
+
+	@Override
+	public long getWarningCount() {
+		WorkStatisticsSnapshot snapshot = getSnapshot();
+		return snapshot == null ? 0 : snapshot.getWarningCount();
+	}
+
+	@Override
+	public long getPercentile(final double percentile) {
+		WorkStatisticsSnapshot snapshot = getSnapshot();
+		return snapshot == null ? 0 : snapshot.getPercentile(percentile);
+	}
+
+	/**
+	 * <p>
+	 * Returns a {@link WorkStatisticsSnapshot snapshot} of the method's
+	 * statistics.
+	 * </p>
+	 *
+	 * @return The current statistics, or <code>null</code> if none exist.
+	 */
+	private WorkStatisticsSnapshot getSnapshot() {
+		return latencyProcessor.getStatisticsSnapshot(workCategory, methodName);
+	}
+}// end class def
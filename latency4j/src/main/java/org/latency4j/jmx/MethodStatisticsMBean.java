@@ -0,0 +1,78 @@
+package org.latency4j.jmx;
+
+import org.latency4j.LatencyRequirement;
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * Management interface exposing the live statistics collated for a single
+ * {@link WorkDuration#getMethodName() method} within a monitored
+ * {@link LatencyRequirement#getWorkCategory() category}.
+ * </p>
+ */
+public interface MethodStatisticsMBean {
+	/**
+	 * @return The {@link LatencyRequirement#getWorkCategory() category} to
+	 *         which the method belongs.
+	 */
+	String getWorkCategory();
+
+	/**
+	 * @return The {@link WorkDuration#getMethodName() method name}, or the
+	 *         root call marker for calls at the root of the call stack.
+	 */
+	String getMethodName();
+
+	/**
+	 * @return The number of non-errored calls observed.
+	 */
+	long getNumberOfObservations();
+
+	/**
+	 * @return The average latency in milliseconds.
+	 */
+	double getMeanLatency();
+
+	/**
+	 * @return The longest latency observed, in milliseconds.
+	 */
+	long getMaxLatency();
+
+	/**
+	 * @return The median latency in milliseconds.
+	 */
+	long getMedianLatency();
+
+	/**
+	 * @return The 90th percentile latency in milliseconds.
+	 */
+	long getPercentile90Latency();
+
+	/**
+	 * @return The 99th percentile latency in milliseconds.
+	 */
+	long getPercentile99Latency();
+
+	/**
+	 * @return The number of calls which terminated with an error.
+	 */
+	long getErrorCount();
+
+	/**
+	 * @return The number of calls which breached the governing requirement.
+	 */
+	long getBreachCount();
+
+	/**
+	 * @return The number of calls which breached the warning tier, but not the
+	 *         limit, of the governing requirement.
+	 */
+	long getWarningCount();
+
+	/**
+	 * @param percentile
+	 *            The percentile, between <code>0</code> and <code>100</code>.
+	 * @return The latency in milliseconds at the given percentile.
+	 */
+	long getPercentile(double percentile);
+}
@@ -0,0 +1,43 @@
+package org.latency4j.persistence;
+
+import java.util.Collection;
+
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * A {@link WorkDurationPersistenceManager persistence manager} which can
+ * persist {@link WorkDuration durations} in batches, for instance with a
+ * single bulk insert or network round-trip. The latency processor hands each
+ * batch of durations it drains to such managers in a single call.
+ * </p>
+ * <p>
+ * Managers which only implement {@link WorkDurationPersistenceManager} are
+ * {@link SingleRecordPersistenceAdapter#adapt(WorkDurationPersistenceManager)
+ * adapted} to this interface, and continue to receive durations one at a
+ * time.
+ * </p>
+ */
+public interface BatchWorkDurationPersistenceManager extends WorkDurationPersistenceManager {
+	/**
+	 * <p>
+	 * Persists the supplied {@link WorkDuration durations}, in order.
+	 * Implementations may buffer them until the next {@link #flush() flush}.
+	 * </p>
+	 * 
+	 * @param durations
+	 *            The {@link WorkDuration durations} to persist. The collection
+	 *            must not be modified, or retained, by the manager after the
+	 *            call returns.
+	 */
+	void save(Collection<WorkDuration> durations);
+
+	/**
+	 * <p>
+	 * Blocks until all {@link WorkDuration durations} previously
+	 * {@link #save(Collection) saved} have been written to the backing
+	 * persistent storage.
+	 * </p>
+	 */
+	void flush();
+}// end class def
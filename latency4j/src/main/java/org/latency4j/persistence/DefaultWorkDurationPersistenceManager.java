@@ -2,16 +2,17 @@ package org.latency4j.persistence;
 
 import static org.latency4j.Latency4JConstants.JAVA_TMP_FILE_FOLDER;
 
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 import org.latency4j.Latency4JConstants;
 import org.latency4j.Latency4JException;
@@ -19,8 +20,8 @@ import org.latency4j.LatencyRequirement;
 import org.latency4j.WorkDuration;
 import org.latency4j.WorkDurationId;
 import org.latency4j.configuration.LatencyRequirementConfiguration;
-import org.latency4j.util.FileUtilities;
-import org.latency4j.util.LockUtil;
+import org.latency4j.processing.CategoryEvictionListener;
+import org.latency4j.util.IOResourceCloser;
 import org.latency4j.util.PrimitiveTypeUtilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,8 +33,26 @@ import org.slf4j.LoggerFactory;
  * it reads and writes {@link WorkDuration durations} to a specified location on
  * the filesystem.
  * </p>
+ * <p>
+ * {@link #save(WorkDuration) Saved} durations are queued and written by a
+ * writer thread, in batches, so that callers are not delayed by disk I/O.
+ * Managers writing to the same directory with the same settings share the
+ * writer thread and queue, and hence its statistics. Durations saved while
+ * the writer's queue is full are dropped, unless the manager is configured to
+ * wait for space instead. The writer's backlog and write latency are
+ * reported through {@link PersistenceWriterStatistics}, and the thread is
+ * stopped by {@link #destroy()} once no other manager shares it.
+ * </p>
+ * <p>
+ * Persisted durations can be retrieved by time range through the
+ * {@link DurationQuery} methods, which use the per-segment time index to read
+ * only the parts of the log relevant to the range. Reads exclude the writer
+ * from sealing, compressing or deleting segments, so that a concurrent roll
+ * never hides part of the history.
+ * </p>
  */
-public class DefaultWorkDurationPersistenceManager implements WorkDurationPersistenceManager {
+public class DefaultWorkDurationPersistenceManager implements BatchWorkDurationPersistenceManager,
+		PersistenceWriterStatistics, DurationQuery, CategoryEvictionListener {
 	private static final Logger logger = LoggerFactory.getLogger(DefaultWorkDurationPersistenceManager.class);
 
 	/**
@@ -57,13 +76,9 @@ public class DefaultWorkDurationPersistenceManager implements WorkDurationPersis
 	 * <p>
 	 * Key ({@value #MAX_HISTORICAL_DATA_FILESIZE_CONFIG_PARAM}) to the
 	 * {@link LatencyRequirementConfiguration#getPersistenceManagerParameters()
-	 * configuration parameter} which specifies the maximum size of
-	 * {@link WorkDuration duration} files.
-	 * </p>
-	 * <p>
-	 * In order to prevent stale statistics on system startup, it is advisable
-	 * to delete the duration files which have exceeded, reached or nearing this
-	 * size so that the toolkit can replace them with more up-to-date records.
+	 * configuration parameter} which specifies the maximum size of a
+	 * {@link WorkDuration duration} log segment. Once the active segment
+	 * exceeds this size it is sealed, and a new segment is started.
 	 * </p>
 	 * <p>
 	 * The default value of this parameter is
@@ -82,37 +97,165 @@ public class DefaultWorkDurationPersistenceManager implements WorkDurationPersis
 
 	/**
 	 * <p>
-	 * The map of configuration parameters with which the instance is
-	 * initialised.
+	 * Key ({@value #SEGMENT_ROLL_INTERVAL_CONFIG_PARAM}) to the configuration
+	 * parameter which specifies the age, in milliseconds, at which the active
+	 * {@link WorkDuration duration} log segment is sealed regardless of its
+	 * size. Segments are not rolled by time where this parameter is not
+	 * specified, or is <code>0</code>.
 	 * </p>
 	 */
-	private Map<String, String> parameters;
+	public static final String SEGMENT_ROLL_INTERVAL_CONFIG_PARAM = "segment.roll.interval.ms";
 
-	private long maxFileSize;
+	/**
+	 * <p>
+	 * Key ({@value #COMPRESS_SEGMENTS_CONFIG_PARAM}) to the configuration
+	 * parameter which specifies whether sealed log segments are compressed.
+	 * Defaults to <code>true</code>.
+	 * </p>
+	 */
+	public static final String COMPRESS_SEGMENTS_CONFIG_PARAM = "compress.segments";
 
 	/**
 	 * <p>
-	 * A map of file {@link DurationFileHandle output-stream handles}, to which
-	 * {@link WorkDuration duration} instances are persisted. There is a 1:1
-	 * mapping between the {@link LatencyRequirement requirements} to which the
-	 * {@link WorkDurationPersistenceManager persistence manager} relates, and
-	 * the {@link DurationFileHandle output-stream handles}. Put differently,
-	 * there should be an {@link DurationFileHandle output-stream handle} for
-	 * each {@link LatencyRequirement requirement} to which the
-	 * {@link WorkDurationPersistenceManager persistence-manager} relates.
+	 * Key ({@value #RETENTION_MAX_AGE_CONFIG_PARAM}) to the configuration
+	 * parameter which specifies the age, in milliseconds, beyond which sealed
+	 * log segments are deleted. Segments are not retired by age where this
+	 * parameter is not specified, or is <code>0</code>.
 	 * </p>
 	 */
-	private volatile Map<String, DurationFileHandle> outputFileHandles;
+	public static final String RETENTION_MAX_AGE_CONFIG_PARAM = "retention.max.age.ms";
 
-	private File outputDirectory;
+	/**
+	 * <p>
+	 * Key ({@value #RETENTION_MAX_BYTES_CONFIG_PARAM}) to the configuration
+	 * parameter which specifies the total size, in bytes, of the sealed
+	 * segments of each category's log beyond which the oldest are deleted. A value of
+	 * <code>0</code> disables size-based retention.
+	 * </p>
+	 * <p>
+	 * The default value of this parameter is
+	 * <q>{@link #DEFAULT_RETENTION_MAX_BYTES}</q>.
+	 * </p>
+	 */
+	public static final String RETENTION_MAX_BYTES_CONFIG_PARAM = "retention.max.bytes";
+
+	/**
+	 * <p>
+	 * The default value of the configuration parameter
+	 * {@value #RETENTION_MAX_BYTES_CONFIG_PARAM}.
+	 * </p>
+	 */
+	public static final long DEFAULT_RETENTION_MAX_BYTES = 16 * DEFAULT_MAX_FILESIZE; // 64mb
+
+	/**
+	 * <p>
+	 * Key ({@value #FSYNC_POLICY_CONFIG_PARAM}) to the configuration parameter
+	 * which specifies when log segments are forced to disk: one of
+	 * <code>none</code> (the default), <code>interval</code> or
+	 * <code>records</code>, as per {@link FsyncPolicy}.
+	 * </p>
+	 */
+	public static final String FSYNC_POLICY_CONFIG_PARAM = "fsync.policy";
+
+	/**
+	 * <p>
+	 * Key ({@value #FSYNC_INTERVAL_CONFIG_PARAM}) to the configuration
+	 * parameter which specifies the interval, in milliseconds, of the
+	 * <code>interval</code> fsync policy. Defaults to
+	 * <q>{@link #DEFAULT_FSYNC_INTERVAL}</q>.
+	 * </p>
+	 */
+	public static final String FSYNC_INTERVAL_CONFIG_PARAM = "fsync.interval.ms";
+
+	/**
+	 * <p>
+	 * Key ({@value #FSYNC_RECORDS_CONFIG_PARAM}) to the configuration parameter
+	 * which specifies the number of records of the <code>records</code> fsync
+	 * policy. Defaults to <q>{@link #DEFAULT_FSYNC_RECORDS}</q>.
+	 * </p>
+	 */
+	public static final String FSYNC_RECORDS_CONFIG_PARAM = "fsync.records";
 
 	/**
 	 * <p>
-	 * Lock which is used to control insertion into the
-	 * {@link #outputFileHandles output-stream handles} map.
+	 * Key ({@value #WRITER_QUEUE_CAPACITY_CONFIG_PARAM}) to the configuration
+	 * parameter which specifies the maximum number of durations waiting to be
+	 * written. Durations saved while the queue is full are dropped, unless
+	 * {@value #WRITER_BLOCK_WHEN_FULL_CONFIG_PARAM} is set. Defaults to
+	 * <q>{@link #DEFAULT_WRITER_QUEUE_CAPACITY}</q>.
 	 * </p>
 	 */
-	private final Lock outputStreamsLock;
+	public static final String WRITER_QUEUE_CAPACITY_CONFIG_PARAM = "writer.queue.capacity";
+
+	/**
+	 * <p>
+	 * Key ({@value #WRITER_BLOCK_WHEN_FULL_CONFIG_PARAM}) to the configuration
+	 * parameter which specifies whether saving a duration while the writer's
+	 * queue is full waits for space, so that no duration is lost, rather than
+	 * dropping it. Defaults to <code>false</code>.
+	 * </p>
+	 */
+	public static final String WRITER_BLOCK_WHEN_FULL_CONFIG_PARAM = "writer.block.when.full";
+
+	/**
+	 * <p>
+	 * Key ({@value #MAX_OPEN_LOGS_CONFIG_PARAM}) to the configuration
+	 * parameter which specifies the maximum number of category logs held open
+	 * by the writer. The least recently written log is closed once the limit
+	 * is exceeded, and reopened when next written to. Defaults to
+	 * <q>{@link #DEFAULT_MAX_OPEN_LOGS}</q>.
+	 * </p>
+	 */
+	public static final String MAX_OPEN_LOGS_CONFIG_PARAM = "max.open.logs";
+
+	public static final long DEFAULT_FSYNC_INTERVAL = 1000;
+
+	public static final long DEFAULT_FSYNC_RECORDS = 1000;
+
+	public static final int DEFAULT_WRITER_QUEUE_CAPACITY = 65536;
+
+	public static final int DEFAULT_MAX_OPEN_LOGS = 128;
+
+	/**
+	 * <p>
+	 * The map of configuration parameters with which the instance is
+	 * initialised.
+	 * </p>
+	 */
+	private Map<String, String> parameters;
+
+	private long maxFileSize;
+
+	private long segmentRollInterval;
+
+	private boolean compressSegments;
+
+	private long retentionMaxAge;
+
+	private long retentionMaxBytes;
+
+	private FsyncPolicy fsyncPolicy;
+
+	private long fsyncInterval;
+
+	private long fsyncRecords;
+
+	private int writerQueueCapacity;
+
+	private boolean writerBlockWhenFull;
+
+	private int maxOpenLogs;
+
+	/**
+	 * <p>
+	 * The {@link DurationWriter writer} which persists {@link WorkDuration
+	 * duration} instances to a {@link DurationFileHandle log} per
+	 * {@link LatencyRequirement#getWorkCategory() category}.
+	 * </p>
+	 */
+	private volatile DurationWriter writer;
+
+	private File outputDirectory;
 
 	/**
 	 * <p>
@@ -131,8 +274,13 @@ public class DefaultWorkDurationPersistenceManager implements WorkDurationPersis
 	public DefaultWorkDurationPersistenceManager() {
 		initialized = new AtomicBoolean(false);
 		maxFileSize = DEFAULT_MAX_FILESIZE;
-		outputFileHandles = new HashMap<String, DurationFileHandle>();
-		outputStreamsLock = new ReentrantLock();
+		compressSegments = true;
+		retentionMaxBytes = DEFAULT_RETENTION_MAX_BYTES;
+		fsyncPolicy = FsyncPolicy.NONE;
+		fsyncInterval = DEFAULT_FSYNC_INTERVAL;
+		fsyncRecords = DEFAULT_FSYNC_RECORDS;
+		writerQueueCapacity = DEFAULT_WRITER_QUEUE_CAPACITY;
+		maxOpenLogs = DEFAULT_MAX_OPEN_LOGS;
 	}
 
 	@Override
@@ -143,19 +291,88 @@ public class DefaultWorkDurationPersistenceManager implements WorkDurationPersis
 		if (parameters != null && parameters.containsKey(DATA_DIRECTORY_CONFIG_PARAM))
 			outputFolderName = parameters.get(DATA_DIRECTORY_CONFIG_PARAM);
 
-		if (parameters != null && parameters.containsKey(MAX_HISTORICAL_DATA_FILESIZE_CONFIG_PARAM)) {
-			String maxFileSizeStr = parameters.get(MAX_HISTORICAL_DATA_FILESIZE_CONFIG_PARAM);
-			if (!PrimitiveTypeUtilities.isValidLong(maxFileSizeStr))
-				logger.warn("PersistenceManager parameter '{}', is not a valid long! Saw value '{}'",
-						MAX_HISTORICAL_DATA_FILESIZE_CONFIG_PARAM, maxFileSizeStr);
-			else maxFileSize = PrimitiveTypeUtilities.toLongValue(maxFileSizeStr);
+		maxFileSize = getLongParameter(MAX_HISTORICAL_DATA_FILESIZE_CONFIG_PARAM, maxFileSize);
+		segmentRollInterval = getLongParameter(SEGMENT_ROLL_INTERVAL_CONFIG_PARAM, segmentRollInterval);
+		retentionMaxAge = getLongParameter(RETENTION_MAX_AGE_CONFIG_PARAM, retentionMaxAge);
+		retentionMaxBytes = getLongParameter(RETENTION_MAX_BYTES_CONFIG_PARAM, retentionMaxBytes);
+
+		if (parameters.containsKey(COMPRESS_SEGMENTS_CONFIG_PARAM)) {
+			String compressSegmentsStr = parameters.get(COMPRESS_SEGMENTS_CONFIG_PARAM);
+			if (!PrimitiveTypeUtilities.isValidBoolean(compressSegmentsStr))
+				logger.warn("PersistenceManager parameter '{}', is not a valid boolean! Saw value '{}'",
+						COMPRESS_SEGMENTS_CONFIG_PARAM, compressSegmentsStr);
+			else compressSegments = Boolean.parseBoolean(compressSegmentsStr);
 		}
 
+		if (parameters.containsKey(FSYNC_POLICY_CONFIG_PARAM)) {
+			String fsyncPolicyStr = parameters.get(FSYNC_POLICY_CONFIG_PARAM);
+			try {
+				fsyncPolicy = FsyncPolicy.valueOf(fsyncPolicyStr.trim().toUpperCase());
+			} catch (RuntimeException exce) {
+				logger.warn("PersistenceManager parameter '{}', is not a valid fsync policy! Saw value '{}'",
+						FSYNC_POLICY_CONFIG_PARAM, fsyncPolicyStr);
+			}
+		}
+		fsyncInterval = getLongParameter(FSYNC_INTERVAL_CONFIG_PARAM, fsyncInterval);
+		fsyncRecords = getLongParameter(FSYNC_RECORDS_CONFIG_PARAM, fsyncRecords);
+		writerQueueCapacity = (int) Math.max(1,
+				Math.min(Integer.MAX_VALUE, getLongParameter(WRITER_QUEUE_CAPACITY_CONFIG_PARAM, writerQueueCapacity)));
+		if (parameters.containsKey(WRITER_BLOCK_WHEN_FULL_CONFIG_PARAM)) {
+			String blockWhenFullStr = parameters.get(WRITER_BLOCK_WHEN_FULL_CONFIG_PARAM);
+			if (!PrimitiveTypeUtilities.isValidBoolean(blockWhenFullStr))
+				logger.warn("PersistenceManager parameter '{}', is not a valid boolean! Saw value '{}'",
+						WRITER_BLOCK_WHEN_FULL_CONFIG_PARAM, blockWhenFullStr);
+			else writerBlockWhenFull = Boolean.parseBoolean(blockWhenFullStr);
+		}
+		maxOpenLogs = (int) Math.max(1,
+				Math.min(Integer.MAX_VALUE, getLongParameter(MAX_OPEN_LOGS_CONFIG_PARAM, maxOpenLogs)));
+
 		outputDirectory = prepareOutputDirectoryForWritting(outputFolderName);
 
+		if (writer == null) {
+			writer = DurationWriter.acquire(outputDirectory, new DurationLogPolicy(maxFileSize, segmentRollInterval,
+					compressSegments, retentionMaxAge, retentionMaxBytes, fsyncPolicy, fsyncInterval, fsyncRecords),
+					writerQueueCapacity, writerBlockWhenFull, maxOpenLogs);
+		}
+
 		initialized.set(true);
 	}
 
+	/**
+	 * <p>
+	 * Writes all queued {@link WorkDuration durations}, and releases the
+	 * writer thread, which is stopped once no other manager shares it. The
+	 * instance must be {@link #init() re-initialised} before it can be used
+	 * again.
+	 * </p>
+	 */
+	public synchronized void destroy() {
+		initialized.set(false);
+		if (writer != null) {
+			writer.release();
+			writer = null;
+		}
+	}
+
+	@Override
+	public void flush() {
+		DurationWriter currentWriter = writer;
+		if (currentWriter != null) currentWriter.flush();
+	}
+
+	/**
+	 * <p>
+	 * Closes the log of a category whose statistics have been evicted, once
+	 * its queued {@link WorkDuration durations} have been written. The log is
+	 * reopened if the category is persisted again.
+	 * </p>
+	 */
+	@Override
+	public void categoryEvicted(final String workCategory) {
+		DurationWriter currentWriter = writer;
+		if (currentWriter != null) currentWriter.close(workCategory);
+	}
+
 	@Override
 	public void setParameters(final Map<String, String> parameters) {
 		this.parameters = parameters;
@@ -166,79 +383,210 @@ public class DefaultWorkDurationPersistenceManager implements WorkDurationPersis
 		return parameters;
 	}
 
+	/**
+	 * <p>
+	 * Queues the {@link WorkDuration duration} for writing, and returns
+	 * immediately.
+	 * </p>
+	 */
 	@Override
-	public synchronized void save(final WorkDuration taskDuration) {
+	public void save(final WorkDuration taskDuration) {
 		assertInitialized();
-		persistDuration(taskDuration);
+		if (taskDuration == null) logger.warn("Ignoring request to persist null task-duration.");
+		else writer.enqueue(taskDuration);
 	}
 
+	/**
+	 * <p>
+	 * Queues each of the {@link WorkDuration durations} for writing, via
+	 * {@link #save(WorkDuration)}. The writer thread batches them regardless.
+	 * </p>
+	 */
 	@Override
-	public synchronized List<WorkDuration> loadHistoricalData(final String workCategory) {
+	public void save(final Collection<WorkDuration> durations) {
+		for (WorkDuration duration : durations)
+			save(duration);
+	}
+
+	/**
+	 * <p>
+	 * Loads the {@link WorkDuration durations} from all segments of the
+	 * category's log, oldest first, after {@link #flush() flushing} any queued
+	 * durations. Loads only take the segment read lock, so that those of
+	 * several categories, e.g. warming up on separate threads, run
+	 * concurrently.
+	 * </p>
+	 */
+	@Override
+	public List<WorkDuration> loadHistoricalData(final String workCategory) {
 		assertInitialized();
+		flush();
 		List<WorkDuration> result = new ArrayList<WorkDuration>();
-		File dataFileHandle;
+
+		Lock segmentLock = getSegmentReadLock();
+		segmentLock.lock();
 		try {
-			dataFileHandle = new File(this.outputDirectory, DurationFileHandle.getDataFileName(workCategory));
+			List<File> segments = DurationFileHandle.listSegments(outputDirectory, workCategory);
+			if (segments.isEmpty())
+				logger.warn("No historical data file for latency-requirement: " + workCategory + ".");
+
+			for (File segment : segments) {
+				BufferedReader reader = null;
+				try {
+					reader = new BufferedReader(new InputStreamReader(DurationFileHandle.openSegment(segment)));
+
+					String durationLine;
+					int lineNumber = 0;
+					while ((durationLine = reader.readLine()) != null) {
+						if (durationLine.length() == 0) continue;
+						result.add(parseDurationFromLine(durationLine, segment, lineNumber));
+						lineNumber++;
+					}
+				} catch (Throwable error) {
+					logger.warn("Error reading historical data segment '" + segment.getAbsolutePath()
+							+ "' for latency-requirement: " + workCategory + ". " + error.getMessage());
+				}
+				finally {
+					IOResourceCloser.close(reader);
+				}
+			}
+		}
+		finally {
+			segmentLock.unlock();
+		}
 
-			List<String> linesFromFile = FileUtilities.readLinesFromFile(dataFileHandle,
-					DurationFileHandle.DATA_FILE_LINE_DELIMITER);
+		return result;
+	}
 
-			WorkDuration duration;
-			int lineNumber = 0;
-			for (String durationLine : linesFromFile) {
-				duration = parseDurationFromLine(durationLine, dataFileHandle, lineNumber);
+	/**
+	 * <p>
+	 * Reads the matching {@link WorkDuration durations}, after
+	 * {@link #flush() flushing} any queued durations.
+	 * </p>
+	 */
+	@Override
+	public List<WorkDuration> findDurations(final String workCategory, final String methodName, final long from,
+			final long to) {
+		assertInitialized();
+		flush();
+		final List<WorkDuration> result = new ArrayList<WorkDuration>();
+		readDurations(workCategory, methodName, from, to, new DurationLogReader.DurationVisitor() {
+			@Override
+			public void visit(final WorkDuration duration) {
+				result.add(duration);
+			}
+		});
+		return result;
+	}
 
-				lineNumber++;
+	/**
+	 * <p>
+	 * Summarises the matching {@link WorkDuration durations}, after
+	 * {@link #flush() flushing} any queued durations.
+	 * </p>
+	 */
+	@Override
+	public DurationAggregate aggregate(final String workCategory, final String methodName, final long from,
+			final long to) {
+		assertInitialized();
+		flush();
+		final DurationAggregate result = new DurationAggregate();
+		readDurations(workCategory, methodName, from, to, new DurationLogReader.DurationVisitor() {
+			@Override
+			public void visit(final WorkDuration duration) {
 				result.add(duration);
 			}
-		} catch (Throwable error) {
-			logger.warn("No historical data file for latency-requirement: " + workCategory + ". " + error.getMessage());
+		});
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Passes the matching {@link WorkDuration durations} to the visitor,
+	 * holding the writer's {@link DurationWriter#getSegmentReadLock() segment
+	 * lock} so that no segment is sealed or deleted meanwhile.
+	 * </p>
+	 */
+	private void readDurations(final String workCategory, final String methodName, final long from, final long to,
+			final DurationLogReader.DurationVisitor visitor) {
+		Lock segmentLock = getSegmentReadLock();
+		segmentLock.lock();
+		try {
+			new DurationLogReader(outputDirectory, workCategory, methodName, from, to).read(visitor);
 		}
+		finally {
+			segmentLock.unlock();
+		}
+	}
 
-		return result;
+	/**
+	 * @return The writer's {@link DurationWriter#getSegmentReadLock() segment
+	 *         read lock}.
+	 * @throws Latency4JException
+	 *             If the manager has been destroyed.
+	 */
+	private Lock getSegmentReadLock() {
+		DurationWriter currentWriter = writer;
+		if (currentWriter == null) throw new Latency4JException("Epsilon PersistenceManager not initialised.");
+		return currentWriter.getSegmentReadLock();
 	}
 
 	public File getOutputDirectory() {
 		return outputDirectory;
 	}
 
+	@Override
+	public int getBacklog() {
+		DurationWriter currentWriter = writer;
+		return currentWriter == null ? 0 : currentWriter.getBacklog();
+	}
+
+	@Override
+	public long getRecordsWritten() {
+		DurationWriter currentWriter = writer;
+		return currentWriter == null ? 0 : currentWriter.getRecordsWritten();
+	}
+
+	@Override
+	public long getRecordsDropped() {
+		DurationWriter currentWriter = writer;
+		return currentWriter == null ? 0 : currentWriter.getRecordsDropped();
+	}
+
+	@Override
+	public long getBatchesWritten() {
+		DurationWriter currentWriter = writer;
+		return currentWriter == null ? 0 : currentWriter.getBatchesWritten();
+	}
+
+	@Override
+	public double getAverageWriteMicros() {
+		DurationWriter currentWriter = writer;
+		return currentWriter == null ? 0 : currentWriter.getAverageWriteMicros();
+	}
+
+	@Override
+	public long getMaxWriteMicros() {
+		DurationWriter currentWriter = writer;
+		return currentWriter == null ? 0 : currentWriter.getMaxWriteMicros();
+	}
+
 	/**
 	 * <p>
-	 * Saves the specified {@link WorkDuration duration} to a data-file
-	 * corresponding to the {@link WorkDurationId#getWorkCategory() category} to
-	 * which it relates and as determined by the method
-	 * {@link #getDataFileName(String)}. The
-	 * {@link WorkDurationId#getWorkCategory() category} is obtained from the
-	 * {@link WorkDuration#getIdentifier() identifier} of the specified
-	 * {@link WorkDuration duration}.
+	 * Reads the named {@link LatencyRequirementConfiguration#getPersistenceManagerParameters()
+	 * configuration parameter} as a <code>long</code>.
 	 * </p>
 	 * 
-	 * @param duration
-	 *            The data to save.
+	 * @return The parameter's value, or the default where it is not specified
+	 *         or invalid.
 	 */
-	private void persistDuration(final WorkDuration duration) {
-		try {
-			DurationFileHandle dataFileHandle = getFileHandle(duration.getIdentifier().getWorkCategory());
-			dataFileHandle.saveDuration(duration);
-		} catch (Throwable error) {
-			logger.warn("Error persisting task-duration '" + duration.getIdentifier() + "': " + error.getMessage());
-		}
-	}
-
-	private DurationFileHandle getFileHandle(final String category) throws IOException {
-		DurationFileHandle result = outputFileHandles.get(category);
-		if (result == null) {
-			try {
-				LockUtil.acquireLock(this.outputStreamsLock);
-				result = this.outputFileHandles.get(category);
-				if (result == null) {
-					result = new DurationFileHandle(outputDirectory, category, maxFileSize);
-					outputFileHandles.put(category, result);
-				}
-			}
-			finally {
-				LockUtil.releaseLock(outputStreamsLock);
-			}
+	private long getLongParameter(final String name, final long defaultValue) {
+		long result = defaultValue;
+		if (parameters.containsKey(name)) {
+			String valueStr = parameters.get(name);
+			if (!PrimitiveTypeUtilities.isValidLong(valueStr))
+				logger.warn("PersistenceManager parameter '{}', is not a valid long! Saw value '{}'", name, valueStr);
+			else result = PrimitiveTypeUtilities.toLongValue(valueStr);
 		}
 		return result;
 	}
@@ -263,13 +611,13 @@ public class DefaultWorkDurationPersistenceManager implements WorkDurationPersis
 	 * 
 	 * @return An object/parsed representation of the input line.
 	 */
-	private WorkDuration parseDurationFromLine(final String line, final File dataFile, final int lineNumber) {
+	static WorkDuration parseDurationFromLine(final String line, final File dataFile, final int lineNumber) {
 		WorkDuration result = null;
 
 		StringTokenizer tokenizer = new StringTokenizer(line, DurationFileHandle.DATA_DELIMETER, false);
 
 		String workCategory = null, threadId = null, methodName = null, startTimeText = null, endTimeText = null,
-				rootText = null, erroredText = null;
+				rootText = null, erroredText = null, weightText = null;
 
 		long start, end;
 		boolean root, errored;
@@ -311,6 +659,9 @@ public class DefaultWorkDurationPersistenceManager implements WorkDurationPersis
 		else throw new Latency4JException("Error reading data file from directory '" + dataFile.getAbsolutePath()
 				+ "'. Missing termination-code. Line# " + lineNumber);
 
+		// the weight is only recorded for sampled durations
+		if (tokenizer.hasMoreElements()) weightText = tokenizer.nextToken().trim();
+
 		if (!PrimitiveTypeUtilities.isValidLong(startTimeText) || !PrimitiveTypeUtilities.isValidLong(endTimeText))
 			throw new Latency4JException("Failure to read line due to invalid start/end time formats. "
 					+ "Error reading historical data from: " + dataFile.getAbsolutePath() + ". Line#" + lineNumber);
@@ -319,6 +670,11 @@ public class DefaultWorkDurationPersistenceManager implements WorkDurationPersis
 			throw new Latency4JException("Failure to read line due to invalid boolean fields. "
 					+ "Error reading historical data from: " + dataFile.getAbsolutePath() + ". Line#" + lineNumber);
 
+		if (weightText != null && (!PrimitiveTypeUtilities.isValidLong(weightText)
+				|| PrimitiveTypeUtilities.toLongValue(weightText) < 1))
+			throw new Latency4JException("Failure to read line due to an invalid weight. "
+					+ "Error reading historical data from: " + dataFile.getAbsolutePath() + ". Line#" + lineNumber);
+
 		{
 			start = PrimitiveTypeUtilities.toLongValue(startTimeText);
 			end = PrimitiveTypeUtilities.toLongValue(endTimeText);
@@ -326,6 +682,7 @@ public class DefaultWorkDurationPersistenceManager implements WorkDurationPersis
 			errored = Boolean.parseBoolean(erroredText);
 
 			result = createDuration(workCategory, threadId, methodName, start, end, root, errored);
+			if (weightText != null) result.setWeight(PrimitiveTypeUtilities.toLongValue(weightText));
 		}
 
 		return result;
@@ -370,7 +727,7 @@ public class DefaultWorkDurationPersistenceManager implements WorkDurationPersis
 	 * @return Returns the {@link WorkDuration duration} instance created from
 	 *         the specified field values.
 	 */
-	private WorkDuration createDuration(final String workContext, final String threadId, final String methodName,
+	private static WorkDuration createDuration(final String workContext, final String threadId, final String methodName,
 			final long start, final long end, final boolean root, final boolean errored) {
 		WorkDurationId identifier = new WorkDurationId(workContext, threadId);
 		return new WorkDuration(identifier, methodName, start, end, root, errored);
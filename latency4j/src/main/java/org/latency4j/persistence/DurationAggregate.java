@@ -0,0 +1,128 @@
+package org.latency4j.persistence;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.latency4j.WorkDuration;
+import org.latency4j.processing.WorkStatisticsSnapshot;
+
+/**
+ * <p>
+ * A summary of the persisted {@link WorkDuration durations} matching a
+ * {@link DurationQuery#aggregate(String, String, long, long) query}. As with
+ * {@link WorkStatisticsSnapshot}, time statistics cover non-errored durations
+ * only, and percentiles are derived from a histogram with the same buckets.
+ * </p>
+ */
+public class DurationAggregate implements Serializable {
+	private static final long serialVersionUID = 4130551427862376314L;
+
+	private long numberOfObservations;
+	private long errorCount;
+	private long totalTime;
+	private long minTime;
+	private long maxTime;
+	private long[] bucketCounts;
+
+	DurationAggregate() {
+		this.minTime = Long.MAX_VALUE;
+		this.bucketCounts = new long[64];
+	}
+
+	/**
+	 * <p>
+	 * Adds a matching {@link WorkDuration duration} to the summary, counting
+	 * it as many times as its {@link WorkDuration#getWeight() weight}.
+	 * </p>
+	 */
+	void add(final WorkDuration duration) {
+		long weight = duration.getWeight();
+		if (duration.isErrored()) {
+			errorCount += weight;
+			return;
+		}
+
+		long elapsedTime = duration.getElapsedTime();
+		numberOfObservations += weight;
+		totalTime += elapsedTime * weight;
+		if (elapsedTime < minTime) minTime = elapsedTime;
+		if (elapsedTime > maxTime) maxTime = elapsedTime;
+
+		int bucket = WorkStatisticsSnapshot.getBucketIndex(elapsedTime);
+		if (bucket >= bucketCounts.length)
+			bucketCounts = Arrays.copyOf(bucketCounts, Math.max(bucket + 1, bucketCounts.length * 2));
+		bucketCounts[bucket] += weight;
+	}
+
+	/**
+	 * @return The number of non-errored durations.
+	 */
+	public long getNumberOfObservations() {
+		return numberOfObservations;
+	}
+
+	/**
+	 * @return The number of errored durations.
+	 */
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * @return The total time, in milliseconds, of the non-errored durations.
+	 */
+	public long getTotalTime() {
+		return totalTime;
+	}
+
+	/**
+	 * @return The shortest time in milliseconds, or <code>0</code> if there
+	 *         were no non-errored durations.
+	 */
+	public long getMinTime() {
+		return numberOfObservations == 0 ? 0 : minTime;
+	}
+
+	/**
+	 * @return The longest time in milliseconds.
+	 */
+	public long getMaxTime() {
+		return maxTime;
+	}
+
+	/**
+	 * @return The average time in milliseconds, or <code>0</code> if there
+	 *         were no non-errored durations.
+	 */
+	public double getMean() {
+		return numberOfObservations == 0 ? 0 : (double) totalTime / numberOfObservations;
+	}
+
+	/**
+	 * <p>
+	 * Returns the given percentile of the non-errored durations. The value is
+	 * exact below 16 milliseconds, and otherwise accurate to within the
+	 * histogram's precision, and never exceeds {@link #getMaxTime()}.
+	 * </p>
+	 *
+	 * @param percentile
+	 *            The percentile, between 0 and 100.
+	 * @return The time at the percentile in milliseconds.
+	 */
+	public long getPercentile(final double percentile) {
+		return Math.min(WorkStatisticsSnapshot.getValueAtPercentile(bucketCounts, percentile), maxTime);
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer result = new StringBuffer();
+		result.append("#observations-" + numberOfObservations);
+		result.append(", mean-" + getMean());
+		result.append(", min-" + getMinTime());
+		result.append(", p50-" + getPercentile(50));
+		result.append(", p99-" + getPercentile(99));
+		result.append(", max-" + maxTime);
+		result.append(", #errors-" + errorCount);
+		return result.toString();
+	}
+}// end class def
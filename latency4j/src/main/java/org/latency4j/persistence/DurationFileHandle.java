@@ -1,17 +1,73 @@
 package org.latency4j.persistence;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Map;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import org.latency4j.LatencyRequirement;
 import org.latency4j.WorkDuration;
 import org.latency4j.util.IOResourceCloser;
+import org.latency4j.util.PrimitiveTypeUtilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * <p>
+ * An append-only, segmented log of the {@link WorkDuration durations} of a
+ * single {@link LatencyRequirement#getWorkCategory() category}. Durations are
+ * appended to the active segment, named as per
+ * {@link #getDataFileName(String)}, which is opened in append mode so that
+ * history survives restarts.
+ * </p>
+ * <p>
+ * Once the active segment exceeds the
+ * {@link DurationLogPolicy#getMaxSegmentBytes() maximum segment size}, or the
+ * {@link DurationLogPolicy#getSegmentRollInterval() roll interval}, it is
+ * sealed: renamed to <code>&lt;category&gt;.eps.&lt;sequence&gt;</code> and,
+ * where {@link DurationLogPolicy#isCompressSealedSegments() enabled},
+ * compressed to <code>&lt;category&gt;.eps.&lt;sequence&gt;.gz</code>. Since
+ * the name of an active segment always ends with the extension, and that of
+ * a sealed segment never does, the segments of one category are never
+ * mistaken for those of another, such as <code>orders</code> and
+ * <code>orders.2</code>. The oldest sealed segments are then deleted as
+ * required by the {@link DurationLogPolicy#getRetentionMaxAge() age} and
+ * {@link DurationLogPolicy#getRetentionMaxBytes() size} retention limits, so
+ * that disk usage remains bounded (by the size limit plus one active segment)
+ * while recent durations are always kept.
+ * </p>
+ * <p>
+ * Records are written in batches, each with a single gathering write per
+ * segment, and the active segment is forced to disk as per the
+ * {@link DurationLogPolicy#getFsyncPolicy() fsync policy}. Every segment is
+ * accompanied by a sparse {@link SegmentIndex time index}, maintained as
+ * records are appended and rewritten when a segment is compressed, so that
+ * {@link DurationQuery queries} need only read the blocks relevant to a time
+ * range. Instances are not
+ * thread-safe; they are only accessed by the writer thread of the owning
+ * {@link DefaultWorkDurationPersistenceManager persistence manager}, which
+ * supplies the lock that keeps readers from listing segments while they are
+ * being sealed, compressed or deleted.
+ * </p>
+ */
 public class DurationFileHandle {
+	private static final Logger logger = LoggerFactory.getLogger(DurationFileHandle.class);
 
 	/**
 	 * <p>
@@ -22,6 +78,22 @@ public class DurationFileHandle {
 	 */
 	public static final String HISTORICAL_DATA_FILE_EXTENSION = ".eps";
 
+	/**
+	 * <p>
+	 * Additional extension
+	 * <q>{@value #COMPRESSED_SEGMENT_EXTENSION}</q> for compressed segments.
+	 * </p>
+	 */
+	public static final String COMPRESSED_SEGMENT_EXTENSION = ".gz";
+
+	/**
+	 * <p>
+	 * Extension given to compressed segments while they are being written.
+	 * Such files are incomplete, and are ignored when reading.
+	 * </p>
+	 */
+	private static final String PARTIAL_SEGMENT_EXTENSION = ".part";
+
 	/**
 	 * <p>
 	 * Internal line/record delimiter for {@link WorkDuration duration} records.
@@ -38,47 +110,228 @@ public class DurationFileHandle {
 	 */
 	protected static final String DATA_DELIMETER = ",";
 
+	private final File outputDirectory;
+	private final String category;
+	private final DurationLogPolicy policy;
+	private final File outputFile;
+
 	/**
 	 * <p>
-	 * The maximum permissible size for {@link WorkDuration duration} data
-	 * files. The data files are rolled over once they exceed this size.
+	 * Lock held while segments are sealed, compressed or deleted, which
+	 * readers of the log exclude by holding the corresponding read lock.
 	 * </p>
 	 */
-	private final long maxFileSize;
+	private final Lock sealLock;
 
-	private volatile boolean notFull;
+	private FileOutputStream outputStream;
 
-	private final File outputFile;
-	private final OutputStream outputStream;
+	private FileChannel outputChannel;
 
-	protected DurationFileHandle(final File outputDirectory, final String category, final long maxFileSize)
-			throws IOException {
-		this.notFull = true;
+	/**
+	 * <p>
+	 * The number of bytes in the active segment.
+	 * </p>
+	 */
+	private long activeSegmentBytes;
+
+	/**
+	 * <p>
+	 * The time at which the active segment was started.
+	 * </p>
+	 */
+	private long activeSegmentStart;
+
+	/**
+	 * <p>
+	 * The sequence number to be given to the next sealed segment.
+	 * </p>
+	 */
+	private long nextSequence;
+
+	/**
+	 * <p>
+	 * The number of records written since the active segment was last forced
+	 * to disk.
+	 * </p>
+	 */
+	private long recordsSinceSync;
+
+	/**
+	 * <p>
+	 * The time at which the active segment was last forced to disk.
+	 * </p>
+	 */
+	private long lastSync;
+
+	/**
+	 * <p>
+	 * Stream to which entries of the active segment's index are appended.
+	 * </p>
+	 */
+	private DataOutputStream indexStream;
+
+	/**
+	 * <p>
+	 * The block of the active segment which has yet to be indexed.
+	 * </p>
+	 */
+	private SegmentIndex.Block currentBlock;
+
+	/**
+	 * <p>
+	 * Blocks completed by the records being written, which are indexed once
+	 * the records are on disk.
+	 * </p>
+	 */
+	private final List<SegmentIndex.Block> completedBlocks = new ArrayList<SegmentIndex.Block>();
+
+	protected DurationFileHandle(final File outputDirectory, final String category, final DurationLogPolicy policy,
+			final Lock sealLock) throws IOException {
+		this.outputDirectory = outputDirectory;
+		this.category = category;
+		this.policy = policy;
 		this.outputFile = new File(outputDirectory, getDataFileName(category));
-		this.outputStream = new BufferedOutputStream(new FileOutputStream(this.outputFile));
-		this.maxFileSize = maxFileSize;
+		this.sealLock = sealLock;
+
+		sealLock.lock();
+		try {
+			List<File> sealedSegments = listSealedSegments(outputDirectory, category);
+			this.nextSequence = sealedSegments.isEmpty() ? 1
+					: getSegmentSequence(sealedSegments.get(sealedSegments.size() - 1), category) + 1;
+
+			// complete any compression interrupted by a previous shutdown
+			if (policy.isCompressSealedSegments()) {
+				for (File segment : sealedSegments)
+					if (!isCompressed(segment)) compressSegment(segment);
+			}
+
+			openActiveSegment();
+			applyRetention(System.currentTimeMillis());
+		}
+		finally {
+			sealLock.unlock();
+		}
 	}
 
 	protected void saveDuration(final WorkDuration duration) throws IOException {
-		if (this.notFull) {
-			if (this.isFileExceededAllowedSize()) {
-				this.notFull = false;
-				IOResourceCloser.close(this.outputStream);
-			} else {
-				StringBuffer outputBuffer = new StringBuffer();
-
-				outputBuffer.append(escapeDilimiter(duration.getIdentifier().getWorkCategory()) + DATA_DELIMETER);
-				outputBuffer.append(escapeDilimiter(duration.getIdentifier().getThreadId()) + DATA_DELIMETER);
-				outputBuffer.append(duration.getMethodName() + DATA_DELIMETER);
-				outputBuffer.append(duration.getStartTime() + DATA_DELIMETER);
-				outputBuffer.append(duration.getEndTime() + DATA_DELIMETER);
-				outputBuffer.append(duration.isRoot() + DATA_DELIMETER);
-				outputBuffer.append(duration.isErrored() + DATA_FILE_LINE_DELIMITER);
-
-				this.outputStream.write(outputBuffer.toString().getBytes());
-				this.outputStream.flush();
+		writeRecords(new ByteBuffer[] { encode(duration) }, System.currentTimeMillis());
+	}
+
+	/**
+	 * <p>
+	 * Appends the given {@link #encode(WorkDuration) encoded} records to the
+	 * log, rolling the active segment between records where required. The
+	 * records destined for each segment are written with a single gathering
+	 * write.
+	 * </p>
+	 *
+	 * @param records
+	 *            The encoded records, in order.
+	 * @param now
+	 *            The current time.
+	 * @throws IOException
+	 *             If the records could not be written.
+	 */
+	protected void writeRecords(final ByteBuffer[] records, final long now) throws IOException {
+		if (outputChannel == null) openActiveSegment();
+
+		int offset = 0;
+		long pendingBytes = 0;
+		for (int i = 0; i < records.length; i++) {
+			int recordLength = records[i].remaining();
+			if (isRollDue(activeSegmentBytes + pendingBytes, recordLength, now)) {
+				writeFully(records, offset, i - offset);
+				activeSegmentBytes += pendingBytes;
+				recordsSinceSync += i - offset;
+				pendingBytes = 0;
+				offset = i;
+				rollActiveSegment(now);
 			}
+			pendingBytes += recordLength;
+			indexRecord(records[i]);
 		}
+
+		writeFully(records, offset, records.length - offset);
+		activeSegmentBytes += pendingBytes;
+		recordsSinceSync += records.length - offset;
+		writeCompletedBlocks();
+	}
+
+	/**
+	 * <p>
+	 * Forces the active segment to disk if required by the
+	 * {@link DurationLogPolicy#getFsyncPolicy() fsync policy}.
+	 * </p>
+	 *
+	 * @param now
+	 *            The current time.
+	 * @throws IOException
+	 *             If the segment could not be forced to disk.
+	 */
+	protected void syncIfDue(final long now) throws IOException {
+		if (outputChannel == null || recordsSinceSync == 0) return;
+
+		boolean due;
+		switch (policy.getFsyncPolicy()) {
+		case INTERVAL:
+			due = now - lastSync >= policy.getFsyncInterval();
+			break;
+		case RECORDS:
+			due = recordsSinceSync >= policy.getFsyncRecords();
+			break;
+		default:
+			due = false;
+		}
+		if (due) sync(now);
+	}
+
+	/**
+	 * <p>
+	 * Closes the active segment, forcing it to disk first unless the
+	 * {@link DurationLogPolicy#getFsyncPolicy() fsync policy} is
+	 * {@link FsyncPolicy#NONE}.
+	 * </p>
+	 */
+	protected void close() {
+		try {
+			if (outputChannel != null && policy.getFsyncPolicy() != FsyncPolicy.NONE && recordsSinceSync > 0)
+				sync(System.currentTimeMillis());
+		} catch (IOException exce) {
+			logger.warn("Unable to sync segment '{}': {}", outputFile.getAbsolutePath(), exce.getMessage());
+		}
+		IOResourceCloser.close(outputStream);
+		IOResourceCloser.close(indexStream);
+		outputStream = null;
+		outputChannel = null;
+		indexStream = null;
+	}
+
+	/**
+	 * <p>
+	 * Encodes a {@link WorkDuration duration} as a log record. The
+	 * {@link WorkDuration#getWeight() weight} of a sampled duration is appended
+	 * as an eighth field; it is omitted for the common weight of
+	 * <code>1</code>, so that such records keep their original layout.
+	 * </p>
+	 *
+	 * @param duration
+	 *            The {@link WorkDuration duration} to encode.
+	 * @return The encoded record, ready for writing.
+	 */
+	protected static ByteBuffer encode(final WorkDuration duration) {
+		StringBuilder outputBuffer = new StringBuilder(128);
+
+		outputBuffer.append(escapeDilimiter(duration.getIdentifier().getWorkCategory())).append(DATA_DELIMETER);
+		outputBuffer.append(escapeDilimiter(duration.getIdentifier().getThreadId())).append(DATA_DELIMETER);
+		outputBuffer.append(duration.getMethodName()).append(DATA_DELIMETER);
+		outputBuffer.append(duration.getStartTime()).append(DATA_DELIMETER);
+		outputBuffer.append(duration.getEndTime()).append(DATA_DELIMETER);
+		outputBuffer.append(duration.isRoot()).append(DATA_DELIMETER);
+		outputBuffer.append(duration.isErrored());
+		if (duration.getWeight() > 1) outputBuffer.append(DATA_DELIMETER).append(duration.getWeight());
+		outputBuffer.append(DATA_FILE_LINE_DELIMITER);
+
+		return ByteBuffer.wrap(outputBuffer.toString().getBytes());
 	}
 
 	/**
@@ -88,9 +341,10 @@ public class DurationFileHandle {
 	 * file is generally a concatenation of the
 	 * {@link LatencyRequirement#getWorkCategory() category} and the Epsilon
 	 * file extension
-	 * <q>{@value #HISTORICAL_DATA_FILE_EXTENSION}</q>.
+	 * <q>{@value #HISTORICAL_DATA_FILE_EXTENSION}</q>. This is the name of the
+	 * active segment of the category's log.
 	 * </p>
-	 * 
+	 *
 	 * @param category
 	 *            The {@link LatencyRequirement#getWorkCategory() category} to
 	 *            which the output data file relates.
@@ -101,57 +355,436 @@ public class DurationFileHandle {
 		return category + HISTORICAL_DATA_FILE_EXTENSION;
 	}
 
+	/**
+	 * <p>
+	 * Lists all segments of the specified category's log, oldest first. The
+	 * active segment, where it exists, is always last.
+	 * </p>
+	 *
+	 * @param directory
+	 *            The directory holding the log.
+	 * @param category
+	 *            The {@link LatencyRequirement#getWorkCategory() category}
+	 *            whose log is to be listed.
+	 * @return The segments of the log, which may be empty.
+	 */
+	public static List<File> listSegments(final File directory, final String category) {
+		List<File> result = listSealedSegments(directory, category);
+		File activeSegment = new File(directory, getDataFileName(category));
+		if (activeSegment.isFile()) result.add(activeSegment);
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Opens a segment for reading, decompressing it if it is compressed.
+	 * </p>
+	 *
+	 * @param segment
+	 *            A segment as returned by {@link #listSegments(File, String)}.
+	 * @return A stream over the segment's uncompressed records, which the
+	 *         caller must close.
+	 * @throws IOException
+	 *             If the segment cannot be opened.
+	 */
+	public static InputStream openSegment(final File segment) throws IOException {
+		InputStream result = new BufferedInputStream(new FileInputStream(segment));
+		if (isCompressed(segment)) {
+			try {
+				result = new GZIPInputStream(result);
+			} catch (IOException exce) {
+				IOResourceCloser.close(result);
+				throw exce;
+			}
+		}
+		return result;
+	}
+
 	@Override
 	protected void finalize() throws Throwable {
-		IOResourceCloser.close(this.outputStream);
+		close();
 		super.finalize();
 	}
 
+	private boolean isRollDue(final long segmentBytes, final int recordLength, final long now) {
+		boolean result = false;
+		if (segmentBytes > 0) {
+			result = segmentBytes + recordLength > policy.getMaxSegmentBytes();
+			if (!result && policy.getSegmentRollInterval() > 0)
+				result = now - activeSegmentStart >= policy.getSegmentRollInterval();
+		}
+		return result;
+	}
+
+	private void writeFully(final ByteBuffer[] records, final int offset, final int length) throws IOException {
+		if (length == 0) return;
+		ByteBuffer last = records[offset + length - 1];
+		while (last.hasRemaining())
+			outputChannel.write(records, offset, length);
+	}
+
+	private void sync(final long now) throws IOException {
+		outputChannel.force(false);
+		recordsSinceSync = 0;
+		lastSync = now;
+	}
+
+	private void openActiveSegment() throws IOException {
+		activeSegmentBytes = outputFile.length();
+		activeSegmentStart = activeSegmentBytes > 0 ? outputFile.lastModified() : System.currentTimeMillis();
+		openActiveIndex();
+		outputStream = new FileOutputStream(outputFile, true);
+		outputChannel = outputStream.getChannel();
+		recordsSinceSync = 0;
+		lastSync = System.currentTimeMillis();
+	}
+
+	/**
+	 * <p>
+	 * Opens the index of the active segment for appending, first indexing any
+	 * records written since its last complete block. An incomplete record left
+	 * at the end of the segment by an abrupt shutdown is truncated, so that
+	 * index positions remain aligned with records.
+	 * </p>
+	 */
+	private void openActiveIndex() throws IOException {
+		File indexFile = SegmentIndex.getIndexFile(outputFile);
+		SegmentIndex index = SegmentIndex.read(indexFile);
+		if (index == null || index.getIndexedLength() > activeSegmentBytes) {
+			index = new SegmentIndex();
+			index.write(indexFile);
+		}
+
+		long indexedLength = index.getIndexedLength();
+		SegmentIndex tailIndex = new SegmentIndex();
+		currentBlock = new SegmentIndex.Block(indexedLength);
+		if (activeSegmentBytes > indexedLength) {
+			InputStream in = null;
+			try {
+				in = new BufferedInputStream(new FileInputStream(outputFile));
+				skipFully(in, indexedLength);
+				currentBlock = tailIndex.scan(in, indexedLength);
+			}
+			finally {
+				IOResourceCloser.close(in);
+			}
+
+			if (currentBlock.getEnd() < activeSegmentBytes) {
+				logger.warn("Truncating incomplete record at the end of segment '{}'.", outputFile.getAbsolutePath());
+				truncate(outputFile, currentBlock.getEnd());
+				activeSegmentBytes = currentBlock.getEnd();
+			}
+		}
+
+		indexStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile, true)));
+		for (int i = 0; i < tailIndex.size(); i++)
+			SegmentIndex.writeEntry(indexStream, tailIndex.getOffset(i), tailIndex.getLength(i),
+					tailIndex.getRecordCount(i), tailIndex.getMinTime(i), tailIndex.getMaxTime(i));
+		indexStream.flush();
+	}
+
+	private void indexRecord(final ByteBuffer record) {
+		int recordLength = record.remaining();
+		currentBlock.add(recordLength, SegmentIndex.parseEndTime(record.array(), recordLength));
+		if (currentBlock.isFull()) {
+			completedBlocks.add(currentBlock);
+			currentBlock = new SegmentIndex.Block(currentBlock.getEnd());
+		}
+	}
+
+	/**
+	 * <p>
+	 * Appends the {@link #completedBlocks completed blocks} to the index of
+	 * the active segment. Called only once their records have been written.
+	 * </p>
+	 */
+	private void writeCompletedBlocks() throws IOException {
+		if (completedBlocks.isEmpty()) return;
+		for (SegmentIndex.Block block : completedBlocks)
+			SegmentIndex.writeEntry(indexStream, block.getOffset(), block.getLength(), block.getRecordCount(),
+					block.getMinTime(), block.getMaxTime());
+		indexStream.flush();
+		completedBlocks.clear();
+	}
+
+	/**
+	 * <p>
+	 * Seals the active segment, starts a new one and applies the retention
+	 * limits, holding the {@link #sealLock seal lock} throughout.
+	 * </p>
+	 */
+	private void rollActiveSegment(final long now) throws IOException {
+		writeCompletedBlocks();
+		if (!currentBlock.isEmpty()) completedBlocks.add(currentBlock);
+		writeCompletedBlocks();
+
+		sealLock.lock();
+		try {
+			close();
+
+			File sealedSegment = new File(outputDirectory, getDataFileName(category) + "." + nextSequence);
+			if (!outputFile.renameTo(sealedSegment))
+				throw new IOException("Unable to seal segment '" + outputFile.getAbsolutePath() + "'.");
+			nextSequence++;
+
+			File indexFile = SegmentIndex.getIndexFile(outputFile);
+			if (!indexFile.renameTo(SegmentIndex.getIndexFile(sealedSegment))) indexFile.delete();
+
+			openActiveSegment();
+			if (policy.isCompressSealedSegments()) compressSegment(sealedSegment);
+			applyRetention(now);
+		}
+		finally {
+			sealLock.unlock();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Compresses a sealed segment, replacing it and its index with their
+	 * compressed equivalents. Each indexed block is compressed as a separate
+	 * gzip member, so that blocks can still be read individually. The
+	 * compressed files are written under temporary names, so that an
+	 * interrupted compression never leaves a truncated segment.
+	 * </p>
+	 */
+	private void compressSegment(final File segment) throws IOException {
+		File indexFile = SegmentIndex.getIndexFile(segment);
+		SegmentIndex index = SegmentIndex.read(indexFile);
+		if (index == null || index.getIndexedLength() != segment.length()) index = indexSegment(segment);
+
+		File compressedSegment = new File(segment.getPath() + COMPRESSED_SEGMENT_EXTENSION);
+		File partialSegment = new File(compressedSegment.getPath() + PARTIAL_SEGMENT_EXTENSION);
+		File compressedIndexFile = SegmentIndex.getIndexFile(compressedSegment);
+		SegmentIndex compressedIndex = new SegmentIndex();
+
+		InputStream in = null;
+		FileOutputStream out = null;
+		try {
+			in = new BufferedInputStream(new FileInputStream(segment));
+			out = new FileOutputStream(partialSegment);
+			FileChannel outChannel = out.getChannel();
+			byte[] buffer = new byte[8192];
+
+			for (int i = 0; i < index.size(); i++) {
+				long offset = outChannel.position();
+				OutputStream member = new GZIPOutputStream(new NonClosingOutputStream(out), 8192);
+				long remaining = index.getLength(i);
+				while (remaining > 0) {
+					int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+					if (read == -1) throw new IOException("Segment '" + segment.getAbsolutePath() + "' is truncated.");
+					member.write(buffer, 0, read);
+					remaining -= read;
+				}
+				member.close();
+				compressedIndex.add(offset, outChannel.position() - offset, index.getRecordCount(i),
+						index.getMinTime(i), index.getMaxTime(i));
+			}
+			out.close();
+			out = null;
+		}
+		finally {
+			IOResourceCloser.close(in);
+			IOResourceCloser.close(out);
+		}
+
+		compressedIndex.write(compressedIndexFile);
+		partialSegment.setLastModified(segment.lastModified());
+		if (!partialSegment.renameTo(compressedSegment) || !segment.delete())
+			logger.warn("Unable to replace segment '{}' with its compressed equivalent.", segment.getAbsolutePath());
+		else indexFile.delete();
+	}
+
+	/**
+	 * <p>
+	 * Builds the index of an uncompressed segment by scanning it.
+	 * </p>
+	 */
+	private static SegmentIndex indexSegment(final File segment) throws IOException {
+		SegmentIndex result = new SegmentIndex();
+		InputStream in = null;
+		try {
+			in = new BufferedInputStream(new FileInputStream(segment));
+			SegmentIndex.Block tail = result.scan(in, 0);
+			if (!tail.isEmpty()) result.add(tail);
+		}
+		finally {
+			IOResourceCloser.close(in);
+		}
+		return result;
+	}
+
+	private static void skipFully(final InputStream in, final long count) throws IOException {
+		long remaining = count;
+		while (remaining > 0) {
+			long skipped = in.skip(remaining);
+			if (skipped <= 0) throw new IOException("Unexpected end of segment.");
+			remaining -= skipped;
+		}
+	}
+
+	private static void truncate(final File file, final long length) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			randomAccessFile.setLength(length);
+		}
+		finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Deletes the oldest sealed segments which breach the retention limits.
+	 * The active segment is never deleted.
+	 * </p>
+	 */
+	private void applyRetention(final long now) {
+		long maxAge = policy.getRetentionMaxAge();
+		long maxBytes = policy.getRetentionMaxBytes();
+		if (maxAge <= 0 && maxBytes <= 0) return;
+
+		List<File> sealedSegments = listSealedSegments(outputDirectory, category);
+		long totalBytes = 0;
+		for (File segment : sealedSegments)
+			totalBytes += segment.length();
+
+		for (File segment : sealedSegments) {
+			boolean expired = maxAge > 0 && now - segment.lastModified() > maxAge;
+			boolean oversized = maxBytes > 0 && totalBytes > maxBytes;
+			if (!expired && !oversized) break;
+
+			long length = segment.length();
+			SegmentIndex.getIndexFile(segment).delete();
+			if (segment.delete()) totalBytes -= length;
+			else logger.warn("Unable to delete expired segment '{}'.", segment.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * <p>
+	 * Lists the sealed segments of the specified category's log, in order of
+	 * their sequence numbers.
+	 * </p>
+	 */
+	private static List<File> listSealedSegments(final File directory, final String category) {
+		File[] files = directory.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(final File dir, final String name) {
+				return getSegmentSequence(name, category) > 0;
+			}
+		});
+
+		List<File> result = new ArrayList<File>();
+		if (files != null) Collections.addAll(result, files);
+		Collections.sort(result, new Comparator<File>() {
+			@Override
+			public int compare(final File first, final File second) {
+				long firstSequence = getSegmentSequence(first, category);
+				long secondSequence = getSegmentSequence(second, category);
+				return firstSequence < secondSequence ? -1 : (firstSequence == secondSequence ? 0 : 1);
+			}
+		});
+		return result;
+	}
+
+	private static long getSegmentSequence(final File segment, final String category) {
+		return getSegmentSequence(segment.getName(), category);
+	}
+
+	/**
+	 * @return The sequence number of the named sealed segment, or
+	 *         <code>-1</code> if the name is not that of a sealed segment of
+	 *         the category.
+	 */
+	private static long getSegmentSequence(final String name, final String category) {
+		String prefix = getDataFileName(category) + ".";
+		String suffix = name.endsWith(COMPRESSED_SEGMENT_EXTENSION) ? COMPRESSED_SEGMENT_EXTENSION : "";
+
+		long result = -1;
+		if (name.startsWith(prefix) && name.length() > prefix.length() + suffix.length()) {
+			String sequence = name.substring(prefix.length(), name.length() - suffix.length());
+			if (isSequence(sequence)) result = PrimitiveTypeUtilities.toLongValue(sequence);
+		}
+		return result;
+	}
+
+	/**
+	 * @return <code>True</code> if the text is a sequence number, i.e. made up
+	 *         of digits only.
+	 */
+	private static boolean isSequence(final String text) {
+		boolean result = text.length() > 0 && PrimitiveTypeUtilities.isValidLong(text);
+		for (int i = 0; result && i < text.length(); i++)
+			result = Character.isDigit(text.charAt(i));
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Indicates if the named file is a segment, active or sealed, of any
+	 * category's log, as opposed to an index or a partially written file.
+	 * </p>
+	 *
+	 * @param name
+	 *            The name of the file.
+	 * @return <code>True</code> if the file is a segment.
+	 */
+	public static boolean isSegmentFileName(final String name) {
+		if (name.endsWith(HISTORICAL_DATA_FILE_EXTENSION)) return true;
+
+		String sequence = name;
+		if (sequence.endsWith(COMPRESSED_SEGMENT_EXTENSION))
+			sequence = sequence.substring(0, sequence.length() - COMPRESSED_SEGMENT_EXTENSION.length());
+		int separator = sequence.lastIndexOf('.');
+		return separator > 0 && sequence.substring(0, separator).endsWith(HISTORICAL_DATA_FILE_EXTENSION)
+				&& isSequence(sequence.substring(separator + 1));
+	}
+
+	static boolean isCompressed(final File segment) {
+		return segment.getName().endsWith(COMPRESSED_SEGMENT_EXTENSION);
+	}
+
 	/**
 	 * <p>
 	 * Processes all text cells/fields to be written to file, so as to ensure
 	 * that any occurrences of the reserved field delimited
 	 * <q>{@value #DATA_DELIMETER}</q> are escaped.
 	 * </p>
-	 * 
+	 *
 	 * @param arg
 	 *            The string in which occurrences of the delimiter are to be
 	 *            escaped.
 	 * @return The parameter string, but with all occurrences of the delimiter
 	 *         <q>{@value #DATA_DELIMETER}</q> escaped.
 	 */
-	private String escapeDilimiter(final String arg) {
+	private static String escapeDilimiter(final String arg) {
 		return arg.replaceAll(DATA_DELIMETER, "\\" + DATA_DELIMETER);
 	}
 
 	/**
 	 * <p>
-	 * Indicates if the specified file has exceeded the maximum permissible size
-	 * as determined from the {@link #setParameters(Map) configuration
-	 * parameter}
-	 * <q>{@value #MAX_HISTORICAL_DATA_FILESIZE_CONFIG_PARAM}</q>.
+	 * Stream which passes writes through to another, but does not close it.
 	 * </p>
-	 * 
-	 * @param dataFile
-	 *            The file whose size is to be examined.
-	 * 
-	 * @return <code>True</code> if the file has exceeded the maximum specified
-	 *         size, and <code>false</code> otherwise.
 	 */
-	private boolean isFileExceededAllowedSize() {
-		return outputFile.length() > getMaxFileSize();
-	}
+	private static class NonClosingOutputStream extends OutputStream {
+		private final OutputStream out;
 
-	/**
-	 * <p>
-	 * Returns the maximum permissible size for {@link WorkDuration duration}
-	 * data files. The data files are rolled over once they exceed this size.
-	 * </p>
-	 * 
-	 * @return The maximum permissible size of {@link WorkDuration duration}
-	 *         data files.
-	 */
-	private long getMaxFileSize() {
-		return maxFileSize;
+		NonClosingOutputStream(final OutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(final int b) throws IOException {
+			out.write(b);
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void close() {}
 	}
 }
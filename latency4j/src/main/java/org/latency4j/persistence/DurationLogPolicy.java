@@ -0,0 +1,188 @@
+package org.latency4j.persistence;
+
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * The rolling, compression and retention rules which a
+ * {@link DurationFileHandle duration log} applies to its segments. Instances
+ * are assembled by the {@link DefaultWorkDurationPersistenceManager default
+ * persistence manager} from its configuration parameters.
+ * </p>
+ */
+public class DurationLogPolicy {
+	/**
+	 * <p>
+	 * The size, in bytes, beyond which the active segment is sealed.
+	 * </p>
+	 */
+	private final long maxSegmentBytes;
+
+	/**
+	 * <p>
+	 * The age, in milliseconds, beyond which the active segment is sealed, or
+	 * <code>0</code> if segments are not rolled by time.
+	 * </p>
+	 */
+	private final long segmentRollInterval;
+
+	/**
+	 * <p>
+	 * Whether sealed segments are compressed.
+	 * </p>
+	 */
+	private final boolean compressSealedSegments;
+
+	/**
+	 * <p>
+	 * The age, in milliseconds, beyond which sealed segments are deleted, or
+	 * <code>0</code> if segments are not retired by age.
+	 * </p>
+	 */
+	private final long retentionMaxAge;
+
+	/**
+	 * <p>
+	 * The total number of bytes, across the sealed segments of a log, beyond
+	 * which the oldest are deleted, or <code>0</code> if segments
+	 * are not retired by size.
+	 * </p>
+	 */
+	private final long retentionMaxBytes;
+
+	/**
+	 * <p>
+	 * When the active segment is forced to disk.
+	 * </p>
+	 */
+	private final FsyncPolicy fsyncPolicy;
+
+	/**
+	 * <p>
+	 * The interval, in milliseconds, for the {@link FsyncPolicy#INTERVAL}
+	 * policy.
+	 * </p>
+	 */
+	private final long fsyncInterval;
+
+	/**
+	 * <p>
+	 * The number of records for the {@link FsyncPolicy#RECORDS} policy.
+	 * </p>
+	 */
+	private final long fsyncRecords;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param maxSegmentBytes
+	 *            The size, in bytes, beyond which the active segment is
+	 *            sealed.
+	 * @param segmentRollInterval
+	 *            The age, in milliseconds, beyond which the active segment is
+	 *            sealed; <code>0</code> to disable time-based rolling.
+	 * @param compressSealedSegments
+	 *            Whether sealed segments should be compressed.
+	 * @param retentionMaxAge
+	 *            The age, in milliseconds, beyond which sealed segments are
+	 *            deleted; <code>0</code> to disable age-based retention.
+	 * @param retentionMaxBytes
+	 *            The total size of a log's sealed segments, in bytes, beyond
+	 *            which the oldest are deleted; <code>0</code> to disable
+	 *            size-based retention.
+	 */
+	public DurationLogPolicy(final long maxSegmentBytes, final long segmentRollInterval,
+			final boolean compressSealedSegments, final long retentionMaxAge, final long retentionMaxBytes) {
+		this(maxSegmentBytes, segmentRollInterval, compressSealedSegments, retentionMaxAge, retentionMaxBytes,
+				FsyncPolicy.NONE, 0, 0);
+	}
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param maxSegmentBytes
+	 *            The size, in bytes, beyond which the active segment is
+	 *            sealed.
+	 * @param segmentRollInterval
+	 *            The age, in milliseconds, beyond which the active segment is
+	 *            sealed; <code>0</code> to disable time-based rolling.
+	 * @param compressSealedSegments
+	 *            Whether sealed segments should be compressed.
+	 * @param retentionMaxAge
+	 *            The age, in milliseconds, beyond which sealed segments are
+	 *            deleted; <code>0</code> to disable age-based retention.
+	 * @param retentionMaxBytes
+	 *            The total size of a log's sealed segments, in bytes, beyond
+	 *            which the oldest are deleted; <code>0</code> to disable
+	 *            size-based retention.
+	 * @param fsyncPolicy
+	 *            When the active segment is forced to disk.
+	 * @param fsyncInterval
+	 *            The interval, in milliseconds, for the
+	 *            {@link FsyncPolicy#INTERVAL} policy.
+	 * @param fsyncRecords
+	 *            The number of records for the {@link FsyncPolicy#RECORDS}
+	 *            policy.
+	 */
+	public DurationLogPolicy(final long maxSegmentBytes, final long segmentRollInterval,
+			final boolean compressSealedSegments, final long retentionMaxAge, final long retentionMaxBytes,
+			final FsyncPolicy fsyncPolicy, final long fsyncInterval, final long fsyncRecords) {
+		this.maxSegmentBytes = maxSegmentBytes;
+		this.segmentRollInterval = segmentRollInterval;
+		this.compressSealedSegments = compressSealedSegments;
+		this.retentionMaxAge = retentionMaxAge;
+		this.retentionMaxBytes = retentionMaxBytes;
+		this.fsyncPolicy = fsyncPolicy;
+		this.fsyncInterval = fsyncInterval;
+		this.fsyncRecords = fsyncRecords;
+	}
+
+	/**
+	 * @return The size, in bytes, beyond which the active segment is sealed.
+	 *         A segment always holds at least one {@link WorkDuration
+	 *         duration} record.
+	 */
+	public long getMaxSegmentBytes() {
+		return maxSegmentBytes;
+	}
+
+	public long getSegmentRollInterval() {
+		return segmentRollInterval;
+	}
+
+	public boolean isCompressSealedSegments() {
+		return compressSealedSegments;
+	}
+
+	public long getRetentionMaxAge() {
+		return retentionMaxAge;
+	}
+
+	public long getRetentionMaxBytes() {
+		return retentionMaxBytes;
+	}
+
+	public FsyncPolicy getFsyncPolicy() {
+		return fsyncPolicy;
+	}
+
+	public long getFsyncInterval() {
+		return fsyncInterval;
+	}
+
+	public long getFsyncRecords() {
+		return fsyncRecords;
+	}
+
+	@Override
+	public String toString() {
+		return "DurationLogPolicy[maxSegmentBytes=" + maxSegmentBytes + ", segmentRollInterval=" + segmentRollInterval
+				+ ", compressSealedSegments=" + compressSealedSegments + ", retentionMaxAge=" + retentionMaxAge
+				+ ", retentionMaxBytes=" + retentionMaxBytes + ", fsyncPolicy=" + fsyncPolicy + ", fsyncInterval="
+				+ fsyncInterval + ", fsyncRecords=" + fsyncRecords + "]";
+	}
+}// end class def
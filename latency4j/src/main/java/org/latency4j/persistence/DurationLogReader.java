@@ -0,0 +1,167 @@
+package org.latency4j.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.latency4j.WorkDuration;
+import org.latency4j.util.IOResourceCloser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Reads the {@link WorkDuration durations} of a {@link DurationFileHandle
+ * duration log} which ended within a time range. Where a segment has a
+ * {@link SegmentIndex time index}, only the blocks whose times overlap the
+ * range are read, together with any records of the active segment written
+ * since its last indexed block; segments without an index are read in full.
+ * </p>
+ */
+class DurationLogReader {
+	private static final Logger logger = LoggerFactory.getLogger(DurationLogReader.class);
+
+	/**
+	 * <p>
+	 * Receives the {@link WorkDuration durations} matched by a read.
+	 * </p>
+	 */
+	interface DurationVisitor {
+		void visit(WorkDuration duration);
+	}
+
+	private final File directory;
+	private final String workCategory;
+	private final String methodName;
+	private final long from;
+	private final long to;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param directory
+	 *            The directory holding the log.
+	 * @param workCategory
+	 *            The category whose log is read.
+	 * @param methodName
+	 *            The method to match, or <code>null</code> for all.
+	 * @param from
+	 *            The start of the range (inclusive).
+	 * @param to
+	 *            The end of the range (exclusive).
+	 */
+	DurationLogReader(final File directory, final String workCategory, final String methodName, final long from,
+			final long to) {
+		this.directory = directory;
+		this.workCategory = workCategory;
+		this.methodName = methodName;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * <p>
+	 * Passes each matching {@link WorkDuration duration} to the visitor, oldest
+	 * segment first. Segments which cannot be read are logged and skipped.
+	 * </p>
+	 */
+	void read(final DurationVisitor visitor) {
+		if (from >= to) return;
+
+		List<File> segments = DurationFileHandle.listSegments(directory, workCategory);
+		for (File segment : segments) {
+			try {
+				readSegment(segment, visitor);
+			} catch (IOException exce) {
+				logger.warn("Error reading segment '" + segment.getAbsolutePath() + "' for latency-requirement: "
+						+ workCategory + ". " + exce.getMessage());
+			}
+		}
+	}
+
+	private void readSegment(final File segment, final DurationVisitor visitor) throws IOException {
+		SegmentIndex index = SegmentIndex.read(SegmentIndex.getIndexFile(segment));
+		if (index == null) {
+			InputStream in = null;
+			try {
+				in = DurationFileHandle.openSegment(segment);
+				readRecords(in, segment, visitor);
+			}
+			finally {
+				IOResourceCloser.close(in);
+			}
+			return;
+		}
+
+		boolean compressed = DurationFileHandle.isCompressed(segment);
+		RandomAccessFile file = new RandomAccessFile(segment, "r");
+		try {
+			for (int i = 0; i < index.size(); i++) {
+				if (!index.overlaps(i, from, to)) continue;
+
+				byte[] block = new byte[(int) index.getLength(i)];
+				file.seek(index.getOffset(i));
+				file.readFully(block);
+
+				InputStream in = new ByteArrayInputStream(block);
+				if (compressed) in = new GZIPInputStream(in, 8192);
+				readRecords(in, segment, visitor);
+			}
+
+			long indexedLength = index.getIndexedLength();
+			if (!compressed && file.length() > indexedLength) {
+				InputStream in = new BufferedInputStream(new FileInputStream(file.getFD()));
+				file.seek(indexedLength);
+				readRecords(in, segment, visitor);
+			}
+		}
+		finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Reads records from the stream, passing those which match to the visitor.
+	 * Only the end time of each record is parsed unless it falls within the
+	 * range. A final line without a line delimiter, which may still be being
+	 * written, is ignored.
+	 * </p>
+	 */
+	private void readRecords(final InputStream in, final File segment, final DurationVisitor visitor)
+			throws IOException {
+		byte[] line = new byte[256];
+		int lineLength = 0;
+		int lineNumber = 0;
+		int read;
+		InputStream bufferedIn = in instanceof BufferedInputStream ? in : new BufferedInputStream(in);
+		while ((read = bufferedIn.read()) != -1) {
+			if (lineLength == line.length) line = Arrays.copyOf(line, line.length * 2);
+			line[lineLength++] = (byte) read;
+			if (read != '\n') continue;
+
+			long endTime = SegmentIndex.parseEndTime(line, lineLength);
+			if (endTime >= from && endTime < to) {
+				try {
+					WorkDuration duration = DefaultWorkDurationPersistenceManager.parseDurationFromLine(
+							new String(line, 0, lineLength - 1), segment, lineNumber);
+					if (duration != null && (methodName == null || methodName.equals(duration.getMethodName())))
+						visitor.visit(duration);
+				} catch (RuntimeException exce) {
+					logger.warn(exce.getMessage());
+				}
+			}
+			lineLength = 0;
+			lineNumber++;
+		}
+	}
+}// end class def
@@ -0,0 +1,60 @@
+package org.latency4j.persistence;
+
+import java.util.List;
+
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * Implemented by {@link WorkDurationPersistenceManager persistence managers}
+ * which can retrieve persisted {@link WorkDuration durations} by time range,
+ * without loading the whole of a category's history.
+ * </p>
+ * <p>
+ * A duration falls within a range if its {@link WorkDuration#getEndTime() end
+ * time} is at or after the start of the range, and before its end.
+ * </p>
+ */
+public interface DurationQuery {
+	/**
+	 * <p>
+	 * Returns the persisted {@link WorkDuration durations} of the given
+	 * category, and optionally method, which ended within the given range.
+	 * </p>
+	 *
+	 * @param workCategory
+	 *            The category of the durations.
+	 * @param methodName
+	 *            The method of the durations, or <code>null</code> for all
+	 *            methods of the category.
+	 * @param from
+	 *            The start of the range (inclusive), in milliseconds since the
+	 *            epoch.
+	 * @param to
+	 *            The end of the range (exclusive), in milliseconds since the
+	 *            epoch.
+	 * @return The matching durations, in the order in which they were
+	 *         persisted.
+	 */
+	List<WorkDuration> findDurations(String workCategory, String methodName, long from, long to);
+
+	/**
+	 * <p>
+	 * Summarises the persisted {@link WorkDuration durations} which
+	 * {@link #findDurations(String, String, long, long) match} the given
+	 * criteria, without retaining them.
+	 * </p>
+	 *
+	 * @param workCategory
+	 *            The category of the durations.
+	 * @param methodName
+	 *            The method of the durations, or <code>null</code> for all
+	 *            methods of the category.
+	 * @param from
+	 *            The start of the range (inclusive).
+	 * @param to
+	 *            The end of the range (exclusive).
+	 * @return The summary of the matching durations.
+	 */
+	DurationAggregate aggregate(String workCategory, String methodName, long from, long to);
+}
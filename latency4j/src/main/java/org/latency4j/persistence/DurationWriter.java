@@ -0,0 +1,537 @@
+package org.latency4j.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.latency4j.WorkDuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * The writer stage of the {@link DefaultWorkDurationPersistenceManager default
+ * persistence manager}. {@link WorkDuration Durations} are queued by callers
+ * and written by a dedicated thread, which drains them in batches, groups
+ * them by category and appends each group to its {@link DurationFileHandle
+ * log} with a single gathering write. Slow disks therefore delay only this
+ * thread, rather than the callers.
+ * </p>
+ * <p>
+ * At most a {@link #maxOpenHandles fixed number} of logs are held open; the
+ * least recently written log is closed once the limit is exceeded, or once
+ * its category is {@link #close(String) no longer monitored}, and reopened
+ * when next written to.
+ * </p>
+ * <p>
+ * Managers writing to the same directory with the same settings
+ * {@link #acquire(File, DurationLogPolicy, int, boolean, int) share} a single
+ * writer, and hence a single thread and queue, however many requirements are
+ * configured. The queue's capacity is a bound, rather than an allocation.
+ * </p>
+ */
+class DurationWriter implements Runnable, PersistenceWriterStatistics {
+	private static final Logger logger = LoggerFactory.getLogger(DurationWriter.class);
+
+	/**
+	 * <p>
+	 * The maximum number of queue entries written as one batch.
+	 * </p>
+	 */
+	static final int MAX_BATCH_SIZE = 1024;
+
+	/**
+	 * <p>
+	 * The interval at which an idle writer checks if segments are due to be
+	 * forced to disk.
+	 * </p>
+	 */
+	private static final long IDLE_SYNC_CHECK_MILLIS = 100;
+
+	/**
+	 * <p>
+	 * Queue entry which stops the writer.
+	 * </p>
+	 */
+	private static final Object STOP = new Object();
+
+	/**
+	 * <p>
+	 * The {@link #acquire(File, DurationLogPolicy, int, boolean, int) shared}
+	 * writers, keyed by directory and settings. Also guards their
+	 * {@link #references reference counts}.
+	 * </p>
+	 */
+	private static final Map<String, DurationWriter> sharedWriters = new HashMap<String, DurationWriter>();
+
+	private final File outputDirectory;
+
+	private final DurationLogPolicy policy;
+
+	/**
+	 * <p>
+	 * Queue of {@link WorkDuration durations} to write, interspersed with
+	 * {@link CountDownLatch latches} released once all preceding durations
+	 * have been written.
+	 * </p>
+	 */
+	private final BlockingQueue<Object> queue;
+
+	/**
+	 * <p>
+	 * Open {@link DurationFileHandle logs} by category, in order of last
+	 * write, least recent first. Only accessed by the writer thread.
+	 * </p>
+	 */
+	private final LinkedHashMap<String, DurationFileHandle> fileHandles;
+
+	/**
+	 * <p>
+	 * Categories whose logs are to be {@link #close(String) closed}. Kept
+	 * apart from the {@link #queue}, so that requests are not lost when it is
+	 * full.
+	 * </p>
+	 */
+	private final Queue<String> pendingCloses;
+
+	/**
+	 * <p>
+	 * Set when a manager joins a running writer, so that all logs are closed
+	 * before the next write and reopened as they are on disk.
+	 * </p>
+	 */
+	private volatile boolean reopenRequested;
+
+	/**
+	 * <p>
+	 * Whether {@link #enqueue(WorkDuration) enqueuing} waits for space while
+	 * the queue is full, rather than dropping the duration.
+	 * </p>
+	 */
+	private final boolean blockWhenFull;
+
+	/**
+	 * <p>
+	 * The maximum number of logs held open.
+	 * </p>
+	 */
+	private final int maxOpenHandles;
+
+	/**
+	 * <p>
+	 * Lock whose write lock is held while segments are sealed, compressed or
+	 * deleted, and whose read lock is held by readers of the logs, so that
+	 * segments do not vanish while they are being listed and read.
+	 * </p>
+	 */
+	private final ReadWriteLock segmentLock;
+
+	private final AtomicLong recordsDropped;
+
+	private final Thread thread;
+
+	private volatile boolean running;
+
+	private volatile long recordsWritten;
+
+	private volatile long batchesWritten;
+
+	private volatile long totalWriteNanos;
+
+	private volatile long maxWriteNanos;
+
+	/**
+	 * <p>
+	 * The key of the writer among the {@link #sharedWriters shared writers},
+	 * or <code>null</code> if it is not shared.
+	 * </p>
+	 */
+	private String sharedKey;
+
+	/**
+	 * <p>
+	 * The number of managers which have
+	 * {@link #acquire(File, DurationLogPolicy, int, boolean, int) acquired}
+	 * and not yet {@link #release() released} the writer.
+	 * </p>
+	 */
+	private int references;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param outputDirectory
+	 *            The directory to which logs are written.
+	 * @param policy
+	 *            The {@link DurationLogPolicy policy} of the logs.
+	 * @param queueCapacity
+	 *            The maximum number of durations waiting to be written.
+	 * @param blockWhenFull
+	 *            Whether to wait for space while the queue is full, rather
+	 *            than drop durations.
+	 * @param maxOpenHandles
+	 *            The maximum number of logs held open; at least
+	 *            <code>1</code>.
+	 */
+	DurationWriter(final File outputDirectory, final DurationLogPolicy policy, final int queueCapacity,
+			final boolean blockWhenFull, final int maxOpenHandles) {
+		this.outputDirectory = outputDirectory;
+		this.policy = policy;
+		this.queue = new LinkedBlockingQueue<Object>(queueCapacity);
+		this.fileHandles = new LinkedHashMap<String, DurationFileHandle>(16, 0.75f, true);
+		this.pendingCloses = new ConcurrentLinkedQueue<String>();
+		this.blockWhenFull = blockWhenFull;
+		this.maxOpenHandles = Math.max(1, maxOpenHandles);
+		this.segmentLock = new ReentrantReadWriteLock();
+		this.recordsDropped = new AtomicLong();
+		this.thread = new Thread(this, "latency4j-duration-writer[" + outputDirectory.getName() + "]");
+		this.thread.setDaemon(true);
+	}
+
+	/**
+	 * <p>
+	 * Returns the running writer shared by managers writing to the given
+	 * directory with the given settings, starting one if there is none. Each
+	 * call must be matched by a {@link #release() release}. A manager which
+	 * joins a running writer sees the logs as they are on disk, e.g. after
+	 * they were archived or deleted, since the writer reopens them before its
+	 * next write.
+	 * </p>
+	 *
+	 * @param outputDirectory
+	 *            The directory to which logs are written.
+	 * @param policy
+	 *            The {@link DurationLogPolicy policy} of the logs.
+	 * @param queueCapacity
+	 *            The maximum number of durations waiting to be written.
+	 * @param blockWhenFull
+	 *            Whether to wait for space while the queue is full, rather
+	 *            than drop durations.
+	 * @param maxOpenHandles
+	 *            The maximum number of logs held open.
+	 * @return The shared writer.
+	 */
+	static DurationWriter acquire(final File outputDirectory, final DurationLogPolicy policy,
+			final int queueCapacity, final boolean blockWhenFull, final int maxOpenHandles) {
+		String key = outputDirectory.getAbsolutePath() + "|" + policy + "|" + queueCapacity + "|" + blockWhenFull
+				+ "|" + maxOpenHandles;
+		synchronized (sharedWriters) {
+			DurationWriter result = sharedWriters.get(key);
+			if (result == null) {
+				result = new DurationWriter(outputDirectory, policy, queueCapacity, blockWhenFull, maxOpenHandles);
+				result.sharedKey = key;
+				result.start();
+				sharedWriters.put(key, result);
+			} else result.reopenRequested = true;
+			result.references++;
+			return result;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Releases a writer {@link #acquire(File, DurationLogPolicy, int, boolean, int)
+	 * acquired} by a manager. The writer is {@link #stop() stopped} once no
+	 * manager uses it; until then, the durations queued so far are
+	 * {@link #flush() flushed}.
+	 * </p>
+	 */
+	void release() {
+		synchronized (sharedWriters) {
+			if (--references == 0) {
+				sharedWriters.remove(sharedKey);
+				stop();
+				return;
+			}
+		}
+		flush();
+	}
+
+	void start() {
+		running = true;
+		thread.start();
+	}
+
+	/**
+	 * <p>
+	 * Writes all queued durations, closes the logs and stops the writer
+	 * thread.
+	 * </p>
+	 */
+	void stop() {
+		if (!running) return;
+		running = false;
+		try {
+			queue.put(STOP);
+			thread.join();
+		} catch (InterruptedException exce) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Queues a {@link WorkDuration duration} for writing. If the queue is
+	 * full, the duration is dropped; or, where the writer
+	 * {@link #blockWhenFull blocks when full}, the call waits for space until
+	 * the writer is stopped.
+	 * </p>
+	 *
+	 * @param duration
+	 *            The {@link WorkDuration duration} to write.
+	 */
+	void enqueue(final WorkDuration duration) {
+		boolean queued = queue.offer(duration);
+		try {
+			while (!queued && blockWhenFull && running)
+				queued = queue.offer(duration, IDLE_SYNC_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException exce) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (!queued) {
+			if (recordsDropped.incrementAndGet() % 10000 == 1)
+				logger.warn("Duration writer for '{}' is falling behind; {} durations dropped so far.",
+						outputDirectory.getAbsolutePath(), recordsDropped.get());
+		}
+	}
+
+	/**
+	 * <p>
+	 * Requests that the log of a category be closed, before the writer writes
+	 * its next batch. Durations of the category which are still queued reopen
+	 * the log.
+	 * </p>
+	 *
+	 * @param category
+	 *            The category whose log to close.
+	 */
+	void close(final String category) {
+		if (running) pendingCloses.add(category);
+	}
+
+	/**
+	 * <p>
+	 * Blocks until all durations queued before the call have been written.
+	 * Returns early if the writer is {@link #stop() stopped} meanwhile, since
+	 * a stopped writer no longer releases flush latches.
+	 * </p>
+	 */
+	void flush() {
+		if (!running) return;
+		CountDownLatch latch = new CountDownLatch(1);
+		try {
+			while (!queue.offer(latch, IDLE_SYNC_CHECK_MILLIS, TimeUnit.MILLISECONDS))
+				if (!running) return;
+			while (!latch.await(IDLE_SYNC_CHECK_MILLIS, TimeUnit.MILLISECONDS))
+				if (!thread.isAlive()) return;
+		} catch (InterruptedException exce) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Returns the lock which readers of the logs must hold while listing and
+	 * reading segments. It must not be acquired before {@link #flush()
+	 * flushing}, since the writer may need to seal a segment to complete the
+	 * flush.
+	 * </p>
+	 *
+	 * @return The read lock.
+	 */
+	Lock getSegmentReadLock() {
+		return segmentLock.readLock();
+	}
+
+	@Override
+	public void run() {
+		List<Object> batch = new ArrayList<Object>(MAX_BATCH_SIZE);
+		boolean stopped = false;
+		while (!stopped) {
+			try {
+				Object first = queue.poll(IDLE_SYNC_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+				// requests made before the batch was queued apply to it
+				closePendingLogs();
+				if (first != null) {
+					batch.add(first);
+					queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+					stopped = writeBatch(batch);
+					batch.clear();
+				}
+				syncIfDue(System.currentTimeMillis());
+			} catch (InterruptedException exce) {
+				stopped = !running;
+			} catch (Throwable exce) {
+				logger.warn("Duration writer error: " + exce.getMessage(), exce);
+				batch.clear();
+			}
+		}
+
+		for (DurationFileHandle fileHandle : fileHandles.values())
+			fileHandle.close();
+		fileHandles.clear();
+
+		// release flushes which were queued behind the stop marker
+		Object entry;
+		while ((entry = queue.poll()) != null)
+			if (entry instanceof CountDownLatch) ((CountDownLatch) entry).countDown();
+	}
+
+	@Override
+	public int getBacklog() {
+		return queue.size();
+	}
+
+	@Override
+	public long getRecordsWritten() {
+		return recordsWritten;
+	}
+
+	@Override
+	public long getRecordsDropped() {
+		return recordsDropped.get();
+	}
+
+	@Override
+	public long getBatchesWritten() {
+		return batchesWritten;
+	}
+
+	@Override
+	public double getAverageWriteMicros() {
+		long batches = batchesWritten;
+		return batches == 0 ? 0 : totalWriteNanos / 1000.0d / batches;
+	}
+
+	@Override
+	public long getMaxWriteMicros() {
+		return TimeUnit.NANOSECONDS.toMicros(maxWriteNanos);
+	}
+
+	/**
+	 * <p>
+	 * Writes a batch, then releases any flush latches it contains.
+	 * </p>
+	 *
+	 * @return <code>True</code> if the batch contains the stop marker.
+	 */
+	private boolean writeBatch(final List<Object> batch) {
+		boolean result = false;
+		List<CountDownLatch> latches = null;
+		Map<String, List<ByteBuffer>> recordsByCategory = new LinkedHashMap<String, List<ByteBuffer>>();
+
+		for (Object entry : batch) {
+			if (entry instanceof WorkDuration) {
+				WorkDuration duration = (WorkDuration) entry;
+				String category = duration.getIdentifier().getWorkCategory();
+				List<ByteBuffer> records = recordsByCategory.get(category);
+				if (records == null) {
+					records = new ArrayList<ByteBuffer>();
+					recordsByCategory.put(category, records);
+				}
+				records.add(DurationFileHandle.encode(duration));
+			} else if (entry == STOP) result = true;
+			else {
+				if (latches == null) latches = new ArrayList<CountDownLatch>();
+				latches.add((CountDownLatch) entry);
+			}
+		}
+
+		long start = System.nanoTime();
+		long now = System.currentTimeMillis();
+		int written = 0;
+		for (Map.Entry<String, List<ByteBuffer>> entry : recordsByCategory.entrySet()) {
+			List<ByteBuffer> records = entry.getValue();
+			try {
+				getFileHandle(entry.getKey()).writeRecords(records.toArray(new ByteBuffer[records.size()]), now);
+				written += records.size();
+			} catch (Throwable error) {
+				recordsDropped.addAndGet(records.size());
+				logger.warn("Error persisting " + records.size() + " task-durations for '" + entry.getKey() + "': "
+						+ error.getMessage());
+			}
+		}
+
+		if (written > 0) {
+			syncIfDue(now);
+			long elapsed = System.nanoTime() - start;
+			recordsWritten += written;
+			batchesWritten++;
+			totalWriteNanos += elapsed;
+			if (elapsed > maxWriteNanos) maxWriteNanos = elapsed;
+		}
+
+		if (latches != null) {
+			for (CountDownLatch latch : latches)
+				latch.countDown();
+		}
+		return result;
+	}
+
+	private void closePendingLogs() {
+		if (reopenRequested) {
+			reopenRequested = false;
+			for (DurationFileHandle fileHandle : fileHandles.values())
+				fileHandle.close();
+			fileHandles.clear();
+		}
+
+		String category;
+		while ((category = pendingCloses.poll()) != null) {
+			DurationFileHandle fileHandle = fileHandles.remove(category);
+			if (fileHandle != null) fileHandle.close();
+		}
+	}
+
+	private void syncIfDue(final long now) {
+		if (policy.getFsyncPolicy() == FsyncPolicy.NONE) return;
+		for (Map.Entry<String, DurationFileHandle> entry : fileHandles.entrySet()) {
+			try {
+				entry.getValue().syncIfDue(now);
+			} catch (IOException exce) {
+				logger.warn("Error syncing task-durations for '" + entry.getKey() + "': " + exce.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Returns the log of the category, opening it if need be, and marks it as
+	 * the most recently written. Where the {@link #maxOpenHandles limit} of
+	 * open logs is exceeded, the least recently written logs are closed.
+	 * </p>
+	 */
+	private DurationFileHandle getFileHandle(final String category) throws IOException {
+		DurationFileHandle result = fileHandles.get(category); // marks as recently written
+		if (result == null) {
+			result = new DurationFileHandle(outputDirectory, category, policy, segmentLock.writeLock());
+			fileHandles.put(category, result);
+
+			Iterator<DurationFileHandle> iterator = fileHandles.values().iterator();
+			while (fileHandles.size() > maxOpenHandles) {
+				iterator.next().close();
+				iterator.remove();
+			}
+		}
+		return result;
+	}
+}// end class def
@@ -0,0 +1,35 @@
+package org.latency4j.persistence;
+
+/**
+ * <p>
+ * Determines when the active segment of a {@link DurationFileHandle duration
+ * log} is forced to disk.
+ * </p>
+ */
+public enum FsyncPolicy {
+	/**
+	 * <p>
+	 * Segments are never explicitly forced to disk; this is left to the
+	 * operating system.
+	 * </p>
+	 */
+	NONE,
+
+	/**
+	 * <p>
+	 * The active segment is forced to disk at most once every
+	 * {@link DurationLogPolicy#getFsyncInterval() interval}, if it has been
+	 * written to.
+	 * </p>
+	 */
+	INTERVAL,
+
+	/**
+	 * <p>
+	 * The active segment is forced to disk once every
+	 * {@link DurationLogPolicy#getFsyncRecords() N records}, checked at the
+	 * end of each batch.
+	 * </p>
+	 */
+	RECORDS
+}// end class def
@@ -0,0 +1,45 @@
+package org.latency4j.persistence;
+
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * Implemented by {@link WorkDurationPersistenceManager persistence managers}
+ * which write {@link WorkDuration durations} on a separate writer thread, to
+ * report the health of that thread.
+ * </p>
+ */
+public interface PersistenceWriterStatistics {
+	/**
+	 * @return The number of {@link WorkDuration durations} waiting to be
+	 *         written.
+	 */
+	int getBacklog();
+
+	/**
+	 * @return The number of {@link WorkDuration durations} written.
+	 */
+	long getRecordsWritten();
+
+	/**
+	 * @return The number of {@link WorkDuration durations} discarded because
+	 *         the backlog was full, or because they could not be written.
+	 */
+	long getRecordsDropped();
+
+	/**
+	 * @return The number of batches written.
+	 */
+	long getBatchesWritten();
+
+	/**
+	 * @return The average time, in microseconds, taken to write a batch
+	 *         (including any forcing to disk).
+	 */
+	double getAverageWriteMicros();
+
+	/**
+	 * @return The longest time, in microseconds, taken to write a batch.
+	 */
+	long getMaxWriteMicros();
+}// end class def
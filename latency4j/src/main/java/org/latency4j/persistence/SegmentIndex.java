@@ -0,0 +1,331 @@
+package org.latency4j.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.latency4j.WorkDuration;
+import org.latency4j.util.IOResourceCloser;
+
+/**
+ * <p>
+ * A sparse time index over a segment of a {@link DurationFileHandle duration
+ * log}. The segment is divided into blocks of roughly {@link #BLOCK_BYTES}
+ * bytes of records, and the index holds, for each block, its position within
+ * the segment file and the earliest and latest {@link WorkDuration#getEndTime()
+ * end times} of its records. Queries over a time range therefore only read
+ * the blocks whose times overlap the range.
+ * </p>
+ * <p>
+ * Each block of a compressed segment is a separate gzip member, so that it
+ * can be decompressed on its own. The index of a segment is held in a file of
+ * the same name with the extension {@value #INDEX_FILE_EXTENSION} appended.
+ * </p>
+ */
+class SegmentIndex {
+	/**
+	 * <p>
+	 * Extension appended to the name of a segment to obtain that of its index.
+	 * </p>
+	 */
+	static final String INDEX_FILE_EXTENSION = ".idx";
+
+	/**
+	 * <p>
+	 * The number of uncompressed record bytes after which a block is closed.
+	 * </p>
+	 */
+	static final int BLOCK_BYTES = 64 * 1024;
+
+	private long[] offsets;
+	private long[] lengths;
+	private int[] recordCounts;
+	private long[] minTimes;
+	private long[] maxTimes;
+	private int size;
+
+	SegmentIndex() {
+		this.offsets = new long[16];
+		this.lengths = new long[16];
+		this.recordCounts = new int[16];
+		this.minTimes = new long[16];
+		this.maxTimes = new long[16];
+	}
+
+	/**
+	 * <p>
+	 * Returns the index file of the given segment.
+	 * </p>
+	 */
+	static File getIndexFile(final File segment) {
+		return new File(segment.getPath() + INDEX_FILE_EXTENSION);
+	}
+
+	/**
+	 * <p>
+	 * Reads an index file. A truncated final entry, as may be left by an
+	 * abrupt shutdown, is ignored.
+	 * </p>
+	 *
+	 * @return The index, or <code>null</code> if the file does not exist.
+	 */
+	static SegmentIndex read(final File indexFile) throws IOException {
+		if (!indexFile.isFile()) return null;
+
+		SegmentIndex result = new SegmentIndex();
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+			while (true) {
+				long offset = in.readLong();
+				long length = in.readLong();
+				int recordCount = in.readInt();
+				long minTime = in.readLong();
+				long maxTime = in.readLong();
+				result.add(offset, length, recordCount, minTime, maxTime);
+			}
+		} catch (EOFException exce) {
+			// end of index
+		}
+		finally {
+			IOResourceCloser.close(in);
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Writes the whole index to the given file, replacing its contents.
+	 * </p>
+	 */
+	void write(final File indexFile) throws IOException {
+		DataOutputStream out = null;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+			for (int i = 0; i < size; i++)
+				writeEntry(out, offsets[i], lengths[i], recordCounts[i], minTimes[i], maxTimes[i]);
+			out.close();
+			out = null;
+		}
+		finally {
+			IOResourceCloser.close(out);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Writes a single index entry.
+	 * </p>
+	 */
+	static void writeEntry(final DataOutput out, final long offset, final long length, final int recordCount,
+			final long minTime, final long maxTime) throws IOException {
+		out.writeLong(offset);
+		out.writeLong(length);
+		out.writeInt(recordCount);
+		out.writeLong(minTime);
+		out.writeLong(maxTime);
+	}
+
+	/**
+	 * <p>
+	 * Indexes uncompressed records read from the given stream, which is
+	 * positioned at the given offset of its segment. Complete blocks are added
+	 * to this index; the trailing, incomplete block is returned. A final line
+	 * without a line delimiter is not indexed.
+	 * </p>
+	 *
+	 * @param in
+	 *            The stream of records, which is not closed.
+	 * @param offset
+	 *            The position of the stream within the segment.
+	 * @return The trailing block, which may be empty.
+	 */
+	Block scan(final InputStream in, final long offset) throws IOException {
+		Block result = new Block(offset);
+		byte[] line = new byte[256];
+		int lineLength = 0;
+		int read;
+		InputStream bufferedIn = in instanceof BufferedInputStream ? in : new BufferedInputStream(in);
+		while ((read = bufferedIn.read()) != -1) {
+			if (lineLength == line.length) line = Arrays.copyOf(line, line.length * 2);
+			line[lineLength++] = (byte) read;
+
+			if (read == '\n') {
+				result.add(lineLength, parseEndTime(line, lineLength));
+				lineLength = 0;
+				if (result.isFull()) {
+					add(result);
+					result = new Block(result.getEnd());
+				}
+			}
+		}
+		return result;
+	}
+
+	void add(final Block block) {
+		add(block.getOffset(), block.getLength(), block.getRecordCount(), block.getMinTime(), block.getMaxTime());
+	}
+
+	void add(final long offset, final long length, final int recordCount, final long minTime, final long maxTime) {
+		if (size == offsets.length) {
+			int capacity = size * 2;
+			offsets = Arrays.copyOf(offsets, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+			recordCounts = Arrays.copyOf(recordCounts, capacity);
+			minTimes = Arrays.copyOf(minTimes, capacity);
+			maxTimes = Arrays.copyOf(maxTimes, capacity);
+		}
+		offsets[size] = offset;
+		lengths[size] = length;
+		recordCounts[size] = recordCount;
+		minTimes[size] = minTime;
+		maxTimes[size] = maxTime;
+		size++;
+	}
+
+	int size() {
+		return size;
+	}
+
+	long getOffset(final int block) {
+		return offsets[block];
+	}
+
+	long getLength(final int block) {
+		return lengths[block];
+	}
+
+	int getRecordCount(final int block) {
+		return recordCounts[block];
+	}
+
+	long getMinTime(final int block) {
+		return minTimes[block];
+	}
+
+	long getMaxTime(final int block) {
+		return maxTimes[block];
+	}
+
+	/**
+	 * @return The position in the segment just after the last indexed block.
+	 */
+	long getIndexedLength() {
+		return size == 0 ? 0 : offsets[size - 1] + lengths[size - 1];
+	}
+
+	/**
+	 * <p>
+	 * Indicates if the given block holds records which ended within the given
+	 * time range.
+	 * </p>
+	 */
+	boolean overlaps(final int block, final long from, final long to) {
+		return minTimes[block] < to && maxTimes[block] >= from;
+	}
+
+	/**
+	 * <p>
+	 * Extracts the {@link WorkDuration#getEndTime() end time} from an encoded
+	 * record. The end time is the third field from the end, or the fourth
+	 * where the record ends with a numeric {@link WorkDuration#getWeight()
+	 * weight} rather than the errored flag, which makes this independent of
+	 * delimiters escaped in the leading text fields.
+	 * </p>
+	 *
+	 * @return The end time, or <code>-1</code> if the record is malformed.
+	 */
+	static long parseEndTime(final byte[] record, final int length) {
+		int delimiters = 0;
+		int endTimeField = 3;
+		int end = length;
+		for (int i = length - 1; i >= 0; i--) {
+			if (record[i] == ',') {
+				delimiters++;
+				if (delimiters == 1 && i + 1 < length && record[i + 1] >= '0' && record[i + 1] <= '9')
+					endTimeField = 4;
+				if (delimiters == endTimeField - 1) end = i;
+				else if (delimiters == endTimeField) return parseLong(record, i + 1, end);
+			}
+		}
+		return -1;
+	}
+
+	private static long parseLong(final byte[] bytes, final int from, final int to) {
+		if (from >= to) return -1;
+		long result = 0;
+		for (int i = from; i < to; i++) {
+			int digit = bytes[i] - '0';
+			if (digit < 0 || digit > 9) return -1;
+			result = result * 10 + digit;
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * A block of records being indexed.
+	 * </p>
+	 */
+	static class Block {
+		private final long offset;
+		private long length;
+		private int recordCount;
+		private long minTime;
+		private long maxTime;
+
+		Block(final long offset) {
+			this.offset = offset;
+			this.minTime = Long.MAX_VALUE;
+			this.maxTime = Long.MIN_VALUE;
+		}
+
+		void add(final long recordLength, final long endTime) {
+			length += recordLength;
+			recordCount++;
+			if (endTime < minTime) minTime = endTime;
+			if (endTime > maxTime) maxTime = endTime;
+		}
+
+		boolean isEmpty() {
+			return recordCount == 0;
+		}
+
+		boolean isFull() {
+			return length >= BLOCK_BYTES;
+		}
+
+		long getOffset() {
+			return offset;
+		}
+
+		long getLength() {
+			return length;
+		}
+
+		long getEnd() {
+			return offset + length;
+		}
+
+		int getRecordCount() {
+			return recordCount;
+		}
+
+		long getMinTime() {
+			return minTime;
+		}
+
+		long getMaxTime() {
+			return maxTime;
+		}
+	}
+}// end class def
@@ -0,0 +1,94 @@
+package org.latency4j.persistence;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * Adapts a {@link WorkDurationPersistenceManager persistence manager} which
+ * only saves single {@link WorkDuration durations} to the
+ * {@link BatchWorkDurationPersistenceManager batch} contract, by saving each
+ * duration of a batch in turn. Flushing is a no-op, as such managers do not
+ * buffer.
+ * </p>
+ */
+public class SingleRecordPersistenceAdapter implements BatchWorkDurationPersistenceManager {
+	/**
+	 * <p>
+	 * The adapted manager.
+	 * </p>
+	 */
+	private final WorkDurationPersistenceManager delegate;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 * 
+	 * @param delegate
+	 *            The {@link WorkDurationPersistenceManager manager} to adapt.
+	 */
+	public SingleRecordPersistenceAdapter(final WorkDurationPersistenceManager delegate) {
+		this.delegate = delegate;
+	}
+
+	/**
+	 * <p>
+	 * Returns the given manager as a {@link BatchWorkDurationPersistenceManager
+	 * batch manager}, adapting it if required.
+	 * </p>
+	 * 
+	 * @param persistenceManager
+	 *            The {@link WorkDurationPersistenceManager manager}.
+	 * @return The manager itself if it supports batches, and an adapter
+	 *         otherwise.
+	 */
+	public static BatchWorkDurationPersistenceManager adapt(final WorkDurationPersistenceManager persistenceManager) {
+		BatchWorkDurationPersistenceManager result;
+		if (persistenceManager instanceof BatchWorkDurationPersistenceManager)
+			result = (BatchWorkDurationPersistenceManager) persistenceManager;
+		else result = new SingleRecordPersistenceAdapter(persistenceManager);
+		return result;
+	}
+
+	public WorkDurationPersistenceManager getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public void init() {
+		delegate.init();
+	}
+
+	@Override
+	public void setParameters(final Map<String, String> parameters) {
+		delegate.setParameters(parameters);
+	}
+
+	@Override
+	public Map<String, String> getParameters() {
+		return delegate.getParameters();
+	}
+
+	@Override
+	public void save(final WorkDuration taskDuration) {
+		delegate.save(taskDuration);
+	}
+
+	@Override
+	public void save(final Collection<WorkDuration> durations) {
+		for (WorkDuration duration : durations)
+			delegate.save(duration);
+	}
+
+	@Override
+	public void flush() {}
+
+	@Override
+	public List<WorkDuration> loadHistoricalData(final String workCategory) {
+		return delegate.loadHistoricalData(workCategory);
+	}
+}// end class def
@@ -1,13 +1,19 @@
 package org.latency4j.processing;
 
-import java.util.HashMap;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.latency4j.CappedLatencyRequirement;
 import org.latency4j.LatencyMonitor;
 import org.latency4j.LatencyRequirement;
+import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.ThroughputLatencyRequirement;
 import org.latency4j.WorkDuration;
 import org.latency4j.WorkDurationId;
+import org.latency4j.util.StripedCounter;
 
 /**
  * <p>
@@ -36,7 +42,9 @@ public class AsynchronousLatencyMonitor implements LatencyMonitor {
 	 * {@link Stack}, where the entries in the {@link Stack stack} relate to the
 	 * method calls falling within the monitored
 	 * {@link LatencyRequirement#getWorkCategory() category} for a given thread
-	 * of execution.
+	 * of execution. Since every thread only touches its own entry, a
+	 * concurrent map suffices to make the monitor safe for use by many
+	 * threads.
 	 * </p>
 	 */
 	private final Map<WorkDurationId, Stack<WorkDuration>> durationsMap;
@@ -58,6 +66,44 @@ public class AsynchronousLatencyMonitor implements LatencyMonitor {
 	 */
 	private final LatencyProcessor asyncProcessor;
 
+	/**
+	 * <p>
+	 * Decides which {@link WorkDuration durations} are passed on to the
+	 * {@link #asyncProcessor processor} when the requirement is
+	 * {@link LatencyRequirement#getSamplingRate() sampled}.
+	 * </p>
+	 */
+	private final DurationSampler sampler;
+
+	/**
+	 * <p>
+	 * Counts the {@link WorkDuration durations} of a
+	 * {@link CappedLatencyRequirement#isCallerThreadEvaluation() caller thread
+	 * evaluated} requirement which are within the cap, and are hence never
+	 * queued. <code>Null</code> for non-capped requirements.
+	 * </p>
+	 */
+	private final StripedCounter withinCapCounter;
+
+	/**
+	 * <p>
+	 * Aggregates non-breaching {@link WorkDuration durations} on the calling
+	 * thread when {@link StatisticalLatencyRequirement#getAggregationInterval()
+	 * thread-local aggregation} is enabled. <code>Null</code> for
+	 * non-statistical requirements.
+	 * </p>
+	 */
+	private final ThreadLocalAggregator aggregator;
+
+	/**
+	 * <p>
+	 * Counts root calls as they start and complete when the requirement is a
+	 * {@link ThroughputLatencyRequirement throughput requirement}.
+	 * <code>Null</code> for other requirements.
+	 * </p>
+	 */
+	private final ThroughputTracker throughputTracker;
+
 	/**
 	 * <p>
 	 * Constructs an instance to monitor the specified {@link LatencyRequirement
@@ -72,9 +118,59 @@ public class AsynchronousLatencyMonitor implements LatencyMonitor {
 	 *            monitored requirement.
 	 */
 	public AsynchronousLatencyMonitor(final LatencyRequirement requirement, final LatencyProcessor asyncProcessor) {
-		this.durationsMap = new HashMap<WorkDurationId, Stack<WorkDuration>>();
+		this.durationsMap = new ConcurrentHashMap<WorkDurationId, Stack<WorkDuration>>();
 		this.latencyRequirement = requirement;
 		this.asyncProcessor = asyncProcessor;
+		this.sampler = new DurationSampler(requirement, asyncProcessor);
+		asyncProcessor.retainMonitorResources(requirement.getWorkCategory());
+		this.withinCapCounter = requirement instanceof CappedLatencyRequirement
+				? asyncProcessor.getOrCreateWithinCapCounter(requirement.getWorkCategory()) : null;
+		this.aggregator = requirement instanceof StatisticalLatencyRequirement
+				? new ThreadLocalAggregator((StatisticalLatencyRequirement) requirement, asyncProcessor) : null;
+		this.throughputTracker = requirement instanceof ThroughputLatencyRequirement
+				? asyncProcessor.getOrCreateThroughputTracker((ThroughputLatencyRequirement) requirement) : null;
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link LatencyRequirement requirement} being monitored.
+	 * </p>
+	 * 
+	 * @return The {@link LatencyRequirement requirement} being monitored.
+	 */
+	public LatencyRequirement getLatencyRequirement() {
+		return latencyRequirement;
+	}
+
+	/**
+	 * <p>
+	 * Indicates if no thread is currently inside a monitored call, i.e. if
+	 * the monitor can be discarded without losing a call in progress.
+	 * </p>
+	 * 
+	 * @return <code>True</code> if no call is in progress.
+	 */
+	boolean isIdle() {
+		return durationsMap.isEmpty();
+	}
+
+	/**
+	 * <p>
+	 * Returns a reference through which the resources the monitor registered
+	 * with the {@link LatencyProcessor processor} are released, once the
+	 * monitor has been evicted by its {@link AsynchronousLatencyMonitorFactory
+	 * factory} and is no longer reachable. Threads which obtained the monitor
+	 * before it was evicted hence keep using it as before.
+	 * </p>
+	 * 
+	 * @param queue
+	 *            The queue on which the reference is enqueued once the monitor
+	 *            is no longer reachable.
+	 * @return The reference, which must be kept reachable until it is
+	 *         {@link RetiredMonitor#release() released}.
+	 */
+	RetiredMonitor retire(final ReferenceQueue<AsynchronousLatencyMonitor> queue) {
+		return new RetiredMonitor(this, queue);
 	}
 
 	@Override
@@ -113,7 +209,8 @@ public class AsynchronousLatencyMonitor implements LatencyMonitor {
 			durations = new Stack<WorkDuration>();
 			durationsMap.put(durationId, durations);
 			taskDuration.setRoot(true);
-		}
+			if (throughputTracker != null) throughputTracker.callStarted();
+		} else taskDuration.setParent(durations.peek());
 		durations.push(taskDuration);
 	}
 
@@ -122,9 +219,10 @@ public class AsynchronousLatencyMonitor implements LatencyMonitor {
 	 * Delegate method which processes a completed task. It creates a
 	 * {@link WorkDuration duration} instance to hold the information about the
 	 * current execution point, and
-	 * {@link LatencyProcessor#processTaskCompletion(LatencyRequirement, WorkDuration)
+	 * {@link LatencyProcessor#processTaskCompletion(LatencyRequirement, WorkDuration, long)
 	 * places} this on the processing queue of the {@link LatencyProcessor
-	 * latency processor}.
+	 * latency processor}, unless it is skipped by
+	 * {@link LatencyRequirement#getSamplingRate() sampling}.
 	 * </p>
 	 * 
 	 * @param errored
@@ -153,15 +251,70 @@ public class AsynchronousLatencyMonitor implements LatencyMonitor {
 			result.markFinished();
 			result.setError(cause);
 			result.setErrored(errored);
+			if (result.getParent() != null) result.getParent().addChildTime(result.getElapsedTime());
 
-			asyncProcessor.processTaskCompletion(latencyRequirement, result);
+			if (isWithinCapOnCallerThread(result)) withinCapCounter.increment();
+			else if (isAggregatedOnCallerThread(result)) {
+				aggregator.aggregate(result);
+
+				// sampled durations are queued for persistence only
+				if (sampler.isEnabled() && sampler.sample(result) > 0)
+					asyncProcessor.processTaskCompletion(latencyRequirement, result, 0);
+			} else {
+				long weight = sampler.sample(result);
+				if (weight > 0) asyncProcessor.processTaskCompletion(latencyRequirement, result, weight);
+			}
 
 			// if no more entries, then remove stack
-			if (durations.isEmpty()) durationsMap.remove(taskDurationKey);
+			if (durations.isEmpty()) {
+				durationsMap.remove(taskDurationKey);
+				if (throughputTracker != null) throughputTracker.callCompleted();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Indicates if the given {@link WorkDuration duration} can be disposed of
+	 * on the calling thread, i.e. the requirement is
+	 * {@link CappedLatencyRequirement#isCallerThreadEvaluation() evaluated on
+	 * the calling thread}, and the duration is neither errored nor a breach
+	 * of any tier, or of its method's cap.
+	 * </p>
+	 * 
+	 * @param duration
+	 *            A {@link WorkDuration#markFinished() finished}
+	 *            {@link WorkDuration duration}.
+	 * @return <code>True</code> if the duration need only be counted.
+	 */
+	private boolean isWithinCapOnCallerThread(final WorkDuration duration) {
+		boolean result = false;
+		if (withinCapCounter != null && !duration.isErrored()) {
+			CappedLatencyRequirement cappedRequirement = (CappedLatencyRequirement) latencyRequirement;
+			result = cappedRequirement.isCallerThreadEvaluation()
+					&& duration.getElapsedTime() <= cappedRequirement.getLowestTierLatency(duration);
 		}
 		return result;
 	}
 
+	/**
+	 * <p>
+	 * Indicates if the given {@link WorkDuration duration} should be
+	 * {@link StatisticalLatencyRequirement#getAggregationInterval() aggregated}
+	 * on the calling thread, i.e. aggregation is enabled and the duration is
+	 * neither errored nor a breach of the requirement.
+	 * </p>
+	 * 
+	 * @param duration
+	 *            A {@link WorkDuration#markFinished() finished}
+	 *            {@link WorkDuration duration}.
+	 * @return <code>True</code> if the duration should be aggregated.
+	 */
+	private boolean isAggregatedOnCallerThread(final WorkDuration duration) {
+		return aggregator != null && aggregator.isEnabled() && !duration.isErrored() && !sampler.isBreach(duration);
+	}
+
 	/**
 	 * <p>
 	 * Resolves the name of the currently executing method in the
@@ -197,4 +350,41 @@ public class AsynchronousLatencyMonitor implements LatencyMonitor {
 		result = className + "." + methodName;
 		return result;
 	}
+
+	/**
+	 * <p>
+	 * A weak reference to an evicted {@link AsynchronousLatencyMonitor
+	 * monitor}, holding the resources to release once the monitor is no
+	 * longer reachable.
+	 * </p>
+	 */
+	static class RetiredMonitor extends WeakReference<AsynchronousLatencyMonitor> {
+		private final String workCategory;
+		private final LatencyProcessor asyncProcessor;
+		private final StripedCounter withinCapCounter;
+		private final ThreadLocalAggregator aggregator;
+		private final ThroughputTracker throughputTracker;
+
+		private RetiredMonitor(final AsynchronousLatencyMonitor monitor,
+				final ReferenceQueue<AsynchronousLatencyMonitor> queue) {
+			super(monitor, queue);
+			this.workCategory = monitor.latencyRequirement.getWorkCategory();
+			this.asyncProcessor = monitor.asyncProcessor;
+			this.withinCapCounter = monitor.withinCapCounter;
+			this.aggregator = monitor.aggregator;
+			this.throughputTracker = monitor.throughputTracker;
+		}
+
+		/**
+		 * <p>
+		 * Hands the pending thread-local aggregates of the monitor to the
+		 * {@link LatencyProcessor processor}, and releases the counter and
+		 * tracker it shared with other monitors of the category.
+		 * </p>
+		 */
+		void release() {
+			if (aggregator != null) aggregator.release();
+			asyncProcessor.releaseMonitorResources(workCategory, withinCapCounter, throughputTracker);
+		}
+	}
 }// end class def
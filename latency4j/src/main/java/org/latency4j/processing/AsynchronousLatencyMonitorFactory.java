@@ -4,8 +4,25 @@ import static org.latency4j.Latency4JConstants.CONFIG_FILE_VM_PROP;
 import static org.latency4j.Latency4JConstants.DEFAULT_CONFIGURATION_RESOURCE_NAME;
 
 import java.io.InputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -18,6 +35,8 @@ import org.latency4j.MonitorFactoryStaticHandle;
 import org.latency4j.StatisticalLatencyRequirement;
 import org.latency4j.WorkDuration;
 import org.latency4j.alert.MissedTargetAlertLogger;
+import org.latency4j.persistence.DefaultWorkDurationPersistenceManager;
+import org.latency4j.persistence.WorkDurationPersistenceManager;
 import org.latency4j.configuration.Latency4JConfiguration;
 import org.latency4j.configuration.ConfigurationReader;
 import org.slf4j.Logger;
@@ -37,6 +56,31 @@ public class AsynchronousLatencyMonitorFactory implements MonitorFactory {
 	 */
 	private static final Logger logger = LoggerFactory.getLogger(AsynchronousLatencyMonitorFactory.class);
 
+	/**
+	 * <p>
+	 * The default maximum number of threads on which the statistics of
+	 * {@link StatisticalLatencyRequirement statistical requirements} are
+	 * {@link #setWarmUpThreads(int) warmed up}.
+	 * </p>
+	 */
+	public static final int DEFAULT_WARM_UP_THREADS = 4;
+
+	/**
+	 * <p>
+	 * The default maximum number of categories for which
+	 * {@link #setMaxCategories(int) monitors and statistics} are kept.
+	 * </p>
+	 */
+	public static final int DEFAULT_MAX_CATEGORIES = 10000;
+
+	/**
+	 * <p>
+	 * The default maximum number of methods for which the
+	 * {@link #setMaxStatisticsKeys(int) statistics} of a category are kept.
+	 * </p>
+	 */
+	public static final int DEFAULT_MAX_STATISTICS_KEYS = 1000;
+
 	/**
 	 * <p>
 	 * A reference to the {@link Latency4JResourceManager Epsilon resource
@@ -65,11 +109,61 @@ public class AsynchronousLatencyMonitorFactory implements MonitorFactory {
 	/**
 	 * <p>
 	 * An internal {@link Map} holding {@link AsynchronousLatencyMonitor
-	 * monitor} references.
+	 * monitor} references. Reads are not synchronised, so the map must be
+	 * safe for concurrent access.
 	 * </p>
 	 */
 	private final Map<String, AsynchronousLatencyMonitor> monitorMap;
 
+	/**
+	 * <p>
+	 * The {@link #monitorMap monitors}, from the least to the most recently
+	 * looked up. Guarded by the {@link #writeLock}.
+	 * </p>
+	 */
+	private final Map<String, AsynchronousLatencyMonitor> monitorRecency;
+
+	/**
+	 * <p>
+	 * Categories whose statistics the {@link #asyncProcessor processor} has
+	 * evicted, and whose monitors are yet to be discarded under the
+	 * {@link #writeLock}.
+	 * </p>
+	 */
+	private final Queue<String> evictedCategories;
+
+	/**
+	 * <p>
+	 * The queue on which evicted monitors are
+	 * {@link AsynchronousLatencyMonitor#retire(ReferenceQueue) enqueued} once
+	 * they are no longer reachable, and their resources can be released.
+	 * </p>
+	 */
+	private final ReferenceQueue<AsynchronousLatencyMonitor> unreachableMonitors;
+
+	/**
+	 * <p>
+	 * The references to evicted monitors which are yet to be released.
+	 * Guarded by the {@link #writeLock}.
+	 * </p>
+	 */
+	private final Set<AsynchronousLatencyMonitor.RetiredMonitor> retiredMonitors;
+
+	/**
+	 * <p>
+	 * The maximum number of {@link #monitorMap monitors} kept, or
+	 * <code>0</code> if unbounded.
+	 * </p>
+	 */
+	private volatile int maxCategories;
+
+	/**
+	 * <p>
+	 * The number of monitors evicted to date.
+	 * </p>
+	 */
+	private volatile long evictedMonitorCount;
+
 	/**
 	 * <p>
 	 * The path from which to load the {@link Latency4JConfiguration epsilon
@@ -85,6 +179,33 @@ public class AsynchronousLatencyMonitorFactory implements MonitorFactory {
 	 */
 	private final Lock writeLock;
 
+	/**
+	 * <p>
+	 * The maximum number of threads on which statistics are warmed up at
+	 * {@link #init() initialisation}; <code>0</code> disables warm-up.
+	 * </p>
+	 */
+	private int warmUpThreads;
+
+	/**
+	 * <p>
+	 * The persistence manager shared by implicit requirements where no
+	 * {@link Latency4JResourceManager#getImplicitRequirementTemplate() template}
+	 * is configured. Created on first use, under the {@link #writeLock}.
+	 * </p>
+	 */
+	private WorkDurationPersistenceManager implicitPersistenceManager;
+
+	/**
+	 * <p>
+	 * The {@link AlertHandler alert handler} shared by implicit requirements
+	 * where no {@link Latency4JResourceManager#getImplicitRequirementTemplate()
+	 * template} is configured. Created on first use, under the
+	 * {@link #writeLock}.
+	 * </p>
+	 */
+	private AlertHandler implicitAlertHandler;
+
 	/**
 	 * <p>
 	 * Default constructor.
@@ -92,16 +213,51 @@ public class AsynchronousLatencyMonitorFactory implements MonitorFactory {
 	 */
 	public AsynchronousLatencyMonitorFactory() {
 		this.epsilonResourceManager = new Latency4JResourceManager();
-		this.monitorMap = new HashMap<String, AsynchronousLatencyMonitor>();
+		this.monitorMap = new ConcurrentHashMap<String, AsynchronousLatencyMonitor>();
+		this.monitorRecency = new LinkedHashMap<String, AsynchronousLatencyMonitor>(16, 0.75f, true);
+		this.evictedCategories = new ConcurrentLinkedQueue<String>();
+		this.unreachableMonitors = new ReferenceQueue<AsynchronousLatencyMonitor>();
+		this.retiredMonitors = new HashSet<AsynchronousLatencyMonitor.RetiredMonitor>();
 		this.writeLock = new ReentrantLock();
+		this.warmUpThreads = DEFAULT_WARM_UP_THREADS;
 		this.asyncProcessor = new LatencyProcessor();
+		setMaxCategories(DEFAULT_MAX_CATEGORIES);
+		setMaxStatisticsKeys(DEFAULT_MAX_STATISTICS_KEYS);
+		this.asyncProcessor.addCategoryEvictionListener(new CategoryEvictionListener() {
+			@Override
+			public void categoryEvicted(final String workCategory) {
+				evictedCategories.add(workCategory);
+				// never wait for the lock on the processing thread
+				if (writeLock.tryLock()) {
+					try {
+						evictMonitorsOfEvictedCategories();
+					}
+					finally {
+						writeLock.unlock();
+					}
+				}
+			}
+		});
 		this.asyncProcessor.start();
 	}
 
 	@Override
 	public AsynchronousLatencyMonitor getMonitor(final String workCategory) {
 		AsynchronousLatencyMonitor result = this.monitorMap.get(workCategory);
-		if (result == null) {
+		if (result != null) {
+			// the recency is only updated if the lock is free, so that
+			// lookups of existing monitors never wait
+			if (this.writeLock.tryLock()) {
+				try {
+					this.monitorRecency.get(workCategory);
+					evictMonitorsOfEvictedCategories();
+					releaseUnreachableMonitors();
+				}
+				finally {
+					this.writeLock.unlock();
+				}
+			}
+		} else {
 			this.writeLock.lock();
 			try {
 				// if not already created, then create
@@ -110,16 +266,14 @@ public class AsynchronousLatencyMonitorFactory implements MonitorFactory {
 
 					// if no requirement, then create an implicit statistical
 					// requirement
-					if (requirement == null) {
-						requirement = new StatisticalLatencyRequirement();
-						requirement.setWorkCategory(workCategory);
-						requirement.getAlertHandlers().add(createHandlerForImplicitRequirement(workCategory));
-
-						requirement.init();
-					}
+					if (requirement == null) requirement = createImplicitRequirement(workCategory);
 
 					result = new AsynchronousLatencyMonitor(requirement, this.asyncProcessor);
 					this.monitorMap.put(workCategory, result);
+					this.monitorRecency.put(workCategory, result);
+					evictMonitorsOfEvictedCategories();
+					evictIdleMonitors(workCategory);
+					releaseUnreachableMonitors();
 				} else result = this.monitorMap.get(workCategory);
 				// someone beat this thread to it
 			}
@@ -176,6 +330,11 @@ public class AsynchronousLatencyMonitorFactory implements MonitorFactory {
 	 * the application classpath.</li>
 	 * </ul>
 	 * </p>
+	 * <p>
+	 * Once configured, the statistics of all {@link StatisticalLatencyRequirement
+	 * statistical requirements} are {@link #warmUpStatistics() warmed up} in
+	 * the background.
+	 * </p>
 	 */
 	public void init() {
 		String configurationResourceName = this.configurationPath;
@@ -209,6 +368,7 @@ public class AsynchronousLatencyMonitorFactory implements MonitorFactory {
 				logger.warn("Epsilon not initialized! No configuration set found at this time");
 			} else Latency4JException.wrapException(exception);
 		}
+		warmUpStatistics();
 	}
 
 	/**
@@ -230,6 +390,219 @@ public class AsynchronousLatencyMonitorFactory implements MonitorFactory {
 	 */
 	public void init(final InputStream stream) {
 		ConfigurationReader.readConfiguration(getEpsilonResourceManager(), stream);
+		warmUpStatistics();
+	}
+
+	/**
+	 * <p>
+	 * Builds the statistics of every configured
+	 * {@link StatisticalLatencyRequirement statistical requirement}, replaying
+	 * their history, on a pool of at most {@link #getWarmUpThreads()} daemon
+	 * threads; rather than lazily, on the {@link LatencyProcessor processing
+	 * thread}, when their first duration arrives. The pool's threads exit once
+	 * the warm-up completes. Does nothing if warm-up is disabled.
+	 * </p>
+	 * 
+	 * @see LatencyProcessor#isWarmingUp()
+	 */
+	protected void warmUpStatistics() {
+		if (warmUpThreads <= 0) return;
+
+		List<LatencyRequirement> requirements = new ArrayList<LatencyRequirement>();
+		for (LatencyRequirement requirement : getEpsilonResourceManager().getLatencyRequirements())
+			if (requirement instanceof StatisticalLatencyRequirement) requirements.add(requirement);
+		if (requirements.isEmpty()) return;
+
+		int threads = Math.min(warmUpThreads, requirements.size());
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					@Override
+					public Thread newThread(final Runnable runnable) {
+						Thread result = new Thread(runnable, "latency4j-warm-up-" + count.incrementAndGet());
+						result.setDaemon(true);
+						return result;
+					}
+				});
+
+		for (LatencyRequirement requirement : requirements)
+			asyncProcessor.warmUp(requirement, executor);
+		executor.shutdown();
+	}
+
+	/**
+	 * <p>
+	 * Returns the maximum number of threads on which statistics are
+	 * {@link #warmUpStatistics() warmed up}.
+	 * </p>
+	 * 
+	 * @return The maximum number of warm-up threads; <code>0</code> if warm-up
+	 *         is disabled.
+	 */
+	public int getWarmUpThreads() {
+		return warmUpThreads;
+	}
+
+	/**
+	 * <p>
+	 * Sets the maximum number of threads on which statistics are
+	 * {@link #warmUpStatistics() warmed up}, which should be set before
+	 * {@link #init() initialisation}. Defaults to
+	 * {@link #DEFAULT_WARM_UP_THREADS}.
+	 * </p>
+	 * 
+	 * @param warmUpThreads
+	 *            The maximum number of warm-up threads; <code>0</code> to
+	 *            build statistics lazily instead.
+	 */
+	public void setWarmUpThreads(final int warmUpThreads) {
+		this.warmUpThreads = warmUpThreads;
+	}
+
+	/**
+	 * <p>
+	 * Returns the maximum number of categories for which monitors and
+	 * statistics are kept.
+	 * </p>
+	 * 
+	 * @return The cap, or <code>0</code> if unbounded.
+	 * @see #setMaxCategories(int)
+	 */
+	public int getMaxCategories() {
+		return maxCategories;
+	}
+
+	/**
+	 * <p>
+	 * Caps the number of categories for which {@link #getMonitor(String)
+	 * monitors} are kept, and for which the {@link #getAsyncProcessor()
+	 * processor} keeps {@link LatencyProcessor#setMaxCategories(int)
+	 * statistics}; so that dynamically named categories, e.g. ones including
+	 * identifiers, cannot exhaust memory. Beyond the cap, the oldest monitor
+	 * which has no call in progress is discarded, and is created afresh if
+	 * its category is used again. Likewise, the monitor of a category whose
+	 * statistics the processor evicts is discarded if it has no call in
+	 * progress. Defaults to {@link #DEFAULT_MAX_CATEGORIES}.
+	 * </p>
+	 * 
+	 * @param maxCategories
+	 *            The cap, or <code>0</code> for no limit.
+	 */
+	public void setMaxCategories(final int maxCategories) {
+		this.maxCategories = maxCategories;
+		this.asyncProcessor.setMaxCategories(maxCategories);
+		this.epsilonResourceManager.setMaxCachedCategories(maxCategories);
+	}
+
+	/**
+	 * <p>
+	 * Returns the maximum number of methods for which the statistics of a
+	 * category are kept.
+	 * </p>
+	 * 
+	 * @return The cap, or <code>0</code> if unbounded.
+	 * @see LatencyProcessor#setMaxStatisticsKeys(int)
+	 */
+	public int getMaxStatisticsKeys() {
+		return asyncProcessor.getMaxStatisticsKeys();
+	}
+
+	/**
+	 * <p>
+	 * Caps the number of methods for which the statistics of a category are
+	 * kept, as described by {@link LatencyProcessor#setMaxStatisticsKeys(int)}.
+	 * Defaults to {@link #DEFAULT_MAX_STATISTICS_KEYS}.
+	 * </p>
+	 * 
+	 * @param maxStatisticsKeys
+	 *            The cap, or <code>0</code> for no limit.
+	 */
+	public void setMaxStatisticsKeys(final int maxStatisticsKeys) {
+		this.asyncProcessor.setMaxStatisticsKeys(maxStatisticsKeys);
+	}
+
+	/**
+	 * @return The number of monitors evicted to date to respect the
+	 *         {@link #setMaxCategories(int) cap}.
+	 */
+	public long getEvictedMonitorCount() {
+		return evictedMonitorCount;
+	}
+
+	/**
+	 * <p>
+	 * Evicts the least recently looked up monitors which have no call in
+	 * progress while the {@link #maxCategories cap} is exceeded. Monitors with
+	 * calls in progress are kept, and reconsidered on a later eviction. Called
+	 * under the {@link #writeLock}.
+	 * </p>
+	 * 
+	 * @param newestCategory
+	 *            The category of the monitor just created, which is never
+	 *            evicted.
+	 */
+	private void evictIdleMonitors(final String newestCategory) {
+		int cap = maxCategories;
+		if (cap <= 0) return;
+
+		Iterator<Map.Entry<String, AsynchronousLatencyMonitor>> iterator = monitorRecency.entrySet().iterator();
+		while (monitorRecency.size() > cap && iterator.hasNext()) {
+			Map.Entry<String, AsynchronousLatencyMonitor> eldest = iterator.next();
+			if (eldest.getValue().isIdle() && !eldest.getKey().equals(newestCategory)) {
+				iterator.remove();
+				monitorMap.remove(eldest.getKey());
+				retireMonitor(eldest.getKey(), eldest.getValue());
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Discards the monitors of the {@link #evictedCategories categories} whose
+	 * statistics the {@link #asyncProcessor processor} has evicted, unless
+	 * they have a call in progress. Called under the {@link #writeLock}.
+	 * </p>
+	 */
+	private void evictMonitorsOfEvictedCategories() {
+		String workCategory;
+		while ((workCategory = evictedCategories.poll()) != null) {
+			AsynchronousLatencyMonitor monitor = monitorMap.get(workCategory);
+			if (monitor != null && monitor.isIdle()) {
+				monitorMap.remove(workCategory);
+				monitorRecency.remove(workCategory);
+				retireMonitor(workCategory, monitor);
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Discards the requirement cached for the category of an evicted monitor.
+	 * The resources the monitor registered with the {@link #asyncProcessor
+	 * processor} are only {@link #releaseUnreachableMonitors() released} once
+	 * it is no longer reachable, as threads which looked it up before it was
+	 * evicted may still be using it. Called under the {@link #writeLock}.
+	 * </p>
+	 */
+	private void retireMonitor(final String workCategory, final AsynchronousLatencyMonitor monitor) {
+		this.retiredMonitors.add(monitor.retire(this.unreachableMonitors));
+		this.epsilonResourceManager.releaseCategory(workCategory);
+		evictedMonitorCount++;
+	}
+
+	/**
+	 * <p>
+	 * Releases the resources of the evicted monitors which are no longer
+	 * reachable. Called under the {@link #writeLock}.
+	 * </p>
+	 */
+	private void releaseUnreachableMonitors() {
+		Reference<? extends AsynchronousLatencyMonitor> reference;
+		while ((reference = unreachableMonitors.poll()) != null) {
+			AsynchronousLatencyMonitor.RetiredMonitor retired = (AsynchronousLatencyMonitor.RetiredMonitor) reference;
+			if (retiredMonitors.remove(retired)) retired.release();
+		}
 	}
 
 	/**
@@ -247,6 +620,23 @@ public class AsynchronousLatencyMonitorFactory implements MonitorFactory {
 		return this.asyncProcessor;
 	}
 
+	/**
+	 * <p>
+	 * Returns the {@link LatencyRequirement requirements} (explicit or
+	 * implicit) for which {@link #getMonitor(String) monitors} have been
+	 * created to date.
+	 * </p>
+	 * 
+	 * @return A copy of the {@link LatencyRequirement requirements} currently
+	 *         being monitored.
+	 */
+	public Collection<LatencyRequirement> getMonitoredRequirements() {
+		List<LatencyRequirement> result = new ArrayList<LatencyRequirement>();
+		for (AsynchronousLatencyMonitor monitor : this.monitorMap.values())
+			result.add(monitor.getLatencyRequirement());
+		return result;
+	}
+
 	/**
 	 * <p>
 	 * Returns a reference to the {@link Latency4JResourceManager resource
@@ -262,34 +652,62 @@ public class AsynchronousLatencyMonitorFactory implements MonitorFactory {
 
 	/**
 	 * <p>
-	 * Creates an {@link AlertHandler alert handler} for an implicit
-	 * {@link StatisticalLatencyRequirement statistical requirement}. It returns
-	 * an {@link MissedTargetAlertLogger alert logger} initialised with the
-	 * default log-level, and with the logger category set as to the specified
-	 * category.
+	 * Creates an implicit {@link StatisticalLatencyRequirement statistical
+	 * requirement} for a category which has no configured requirement. Its
+	 * settings are copied from the
+	 * {@link Latency4JResourceManager#getImplicitRequirementTemplate()
+	 * template}, if one is configured, and its persistence manager and
+	 * {@link AlertHandler alert handlers} are shared with all other implicit
+	 * requirements; so that each unconfigured category does not cost a
+	 * persistence manager, writer thread and handler of its own. Called under
+	 * the {@link #writeLock}.
 	 * </p>
 	 * 
 	 * @param workCategory
-	 *            The category covered by the implicit {@link LatencyRequirement
-	 *            requirement} for which the {@link MissedTargetAlertLogger
-	 *            alert handler} is being created.
-	 * 
-	 * @return A {@link MissedTargetAlertLogger alert logger} initialised to the
-	 *         default log-level and the given category.
+	 *            The category for which the requirement is created.
+	 * @return The initialised requirement.
 	 */
-	private MissedTargetAlertLogger createHandlerForImplicitRequirement(final String workCategory) {
-		MissedTargetAlertLogger result = new MissedTargetAlertLogger();
+	private StatisticalLatencyRequirement createImplicitRequirement(final String workCategory) {
+		StatisticalLatencyRequirement result;
+		StatisticalLatencyRequirement template = getEpsilonResourceManager().getImplicitRequirementTemplate();
 
-		result.setAlertHandlerId(workCategory + String.valueOf(System.currentTimeMillis()));
+		if (template != null) result = (StatisticalLatencyRequirement) template.copyForCategory(workCategory);
+		else result = new StatisticalLatencyRequirement();
 
-		Map<String, String> handlerParams = new HashMap<String, String>();
-		handlerParams.put(MissedTargetAlertLogger.LOG_CATEGORY_CONFIG_PARAM_KEY, workCategory);
+		if (result.getPersistenceManager() == null) {
+			if (implicitPersistenceManager == null) {
+				implicitPersistenceManager = new DefaultWorkDurationPersistenceManager();
+				implicitPersistenceManager.init();
+			}
+			result.setPersistenceManager(implicitPersistenceManager);
+		}
 
-		result.setParameters(handlerParams);
+		if (result.getAlertHandlers().isEmpty()) {
+			if (implicitAlertHandler == null) implicitAlertHandler = createHandlerForImplicitRequirements();
+			result.getAlertHandlers().add(implicitAlertHandler);
+		}
 
-		// initialise
+		result.setWorkCategory(workCategory);
 		result.init();
+		return result;
+	}
 
+	/**
+	 * <p>
+	 * Creates the {@link AlertHandler alert handler} shared by implicit
+	 * requirements where the template specifies none. It returns an
+	 * {@link MissedTargetAlertLogger alert logger} initialised with the
+	 * default log-level and logger category.
+	 * </p>
+	 * 
+	 * @return A {@link MissedTargetAlertLogger alert logger} initialised to the
+	 *         default log-level and category.
+	 */
+	private MissedTargetAlertLogger createHandlerForImplicitRequirements() {
+		MissedTargetAlertLogger result = new MissedTargetAlertLogger();
+		result.setAlertHandlerId("implicitRequirements" + String.valueOf(System.currentTimeMillis()));
+		result.setParameters(new HashMap<String, String>());
+		result.init();
 		return result;
 	}
 }// end class def
\ No newline at end of file
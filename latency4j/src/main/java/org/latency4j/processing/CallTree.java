@@ -0,0 +1,170 @@
+package org.latency4j.processing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.latency4j.LatencyRequirement;
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * Aggregates the nested {@link WorkDuration durations} of a
+ * {@link LatencyRequirement#getWorkCategory() category} by call path, i.e. by
+ * the sequence of {@link WorkDuration#getMethodName() methods} from the root
+ * call down to the method itself. For each path, the number of calls, their
+ * total and longest times and their {@link WorkDuration#getSelfTime() self
+ * times} are kept, so that the nested method responsible for a slow root call
+ * can be identified.
+ * </p>
+ * <p>
+ * The tree holds at most {@link #getMaxNodes()} paths; calls along paths
+ * beyond that are counted as dropped. Like {@link WorkStatistics}, the tree is
+ * only updated by the {@link LatencyProcessor latency processor} thread, but
+ * can be {@link #snapshot() captured} by any thread.
+ * </p>
+ */
+class CallTree {
+	/**
+	 * <p>
+	 * The default ({@value #DEFAULT_MAX_NODES}) maximum number of call paths
+	 * held per category.
+	 * </p>
+	 */
+	static final int DEFAULT_MAX_NODES = 500;
+
+	/**
+	 * <p>
+	 * Synthetic node whose children are the root calls.
+	 * </p>
+	 */
+	private final Node root;
+
+	/**
+	 * <p>
+	 * The maximum number of call paths held.
+	 * </p>
+	 */
+	private final int maxNodes;
+
+	/**
+	 * <p>
+	 * The number of call paths held.
+	 * </p>
+	 */
+	private int nodeCount;
+
+	/**
+	 * <p>
+	 * The number of calls not recorded because their path would have
+	 * exceeded {@link #maxNodes}.
+	 * </p>
+	 */
+	private volatile long droppedCount;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param maxNodes
+	 *            The maximum number of call paths to hold.
+	 */
+	CallTree(final int maxNodes) {
+		this.root = new Node(LatencyProcessor.ROOT_CALL_STATISTICS_KEY);
+		this.maxNodes = maxNodes;
+	}
+
+	int getMaxNodes() {
+		return maxNodes;
+	}
+
+	int getNodeCount() {
+		return nodeCount;
+	}
+
+	long getDroppedCount() {
+		return droppedCount;
+	}
+
+	/**
+	 * <p>
+	 * Records a {@link WorkDuration#markFinished() finished} duration under
+	 * its call path, as given by its chain of {@link WorkDuration#getParent()
+	 * parents}.
+	 * </p>
+	 *
+	 * @param duration
+	 *            The duration to record.
+	 * @param weight
+	 *            The number of executions which the duration stands for.
+	 */
+	void record(final WorkDuration duration, final long weight) {
+		List<String> path = new ArrayList<String>();
+		for (WorkDuration call = duration; call != null; call = call.getParent())
+			path.add(call.getMethodName());
+
+		Node node = root;
+		for (int i = path.size() - 1; i >= 0 && node != null; i--)
+			node = getOrCreateChild(node, path.get(i));
+
+		if (node == null) droppedCount += weight;
+		else node.update(duration.getElapsedTime(), duration.getSelfTime(), weight);
+	}
+
+	/**
+	 * <p>
+	 * Captures the current state of the tree.
+	 * </p>
+	 *
+	 * @return An immutable view of the tree.
+	 */
+	CallTreeSnapshot snapshot() {
+		return new CallTreeSnapshot(root.snapshot().getChildren(), droppedCount);
+	}
+
+	private Node getOrCreateChild(final Node parent, final String methodName) {
+		Node result = parent.children.get(methodName);
+		if (result == null && nodeCount < maxNodes) {
+			result = new Node(methodName);
+			parent.children.put(methodName, result);
+			nodeCount++;
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * The aggregated calls along a single path.
+	 * </p>
+	 */
+	private static class Node {
+		private final String methodName;
+		private final Map<String, Node> children;
+		private volatile long invocationCount;
+		private volatile long totalTime;
+		private volatile long selfTime;
+		private volatile long maxTime;
+
+		Node(final String methodName) {
+			this.methodName = methodName;
+			this.children = new ConcurrentHashMap<String, Node>();
+		}
+
+		void update(final long elapsedTime, final long elapsedSelfTime, final long weight) {
+			invocationCount += weight;
+			totalTime += elapsedTime * weight;
+			selfTime += elapsedSelfTime * weight;
+			if (elapsedTime > maxTime) maxTime = elapsedTime;
+		}
+
+		CallTreeNodeSnapshot snapshot() {
+			List<CallTreeNodeSnapshot> childSnapshots = new ArrayList<CallTreeNodeSnapshot>(children.size());
+			for (Node child : children.values())
+				childSnapshots.add(child.snapshot());
+			return new CallTreeNodeSnapshot(methodName, invocationCount, totalTime, selfTime, maxTime,
+					childSnapshots);
+		}
+	}
+}// end class def
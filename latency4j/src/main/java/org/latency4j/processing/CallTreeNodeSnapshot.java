@@ -0,0 +1,137 @@
+package org.latency4j.processing;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * An immutable view of the calls made along one call path of a
+ * {@link CallTreeSnapshot call tree}. The path is that of the node's parent
+ * followed by the node's {@link #getMethodName() method}.
+ * </p>
+ */
+public class CallTreeNodeSnapshot implements Serializable {
+	private static final long serialVersionUID = 4471929085610351276L;
+
+	/**
+	 * <p>
+	 * Orders nodes by descending {@link #getTotalTime() total time}.
+	 * </p>
+	 */
+	private static final Comparator<CallTreeNodeSnapshot> BY_TOTAL_TIME_DESCENDING = new Comparator<CallTreeNodeSnapshot>() {
+		@Override
+		public int compare(final CallTreeNodeSnapshot first, final CallTreeNodeSnapshot second) {
+			return first.totalTime > second.totalTime ? -1 : first.totalTime < second.totalTime ? 1 : 0;
+		}
+	};
+
+	private final String methodName;
+	private final long invocationCount;
+	private final long totalTime;
+	private final long selfTime;
+	private final long maxTime;
+	private final List<CallTreeNodeSnapshot> children;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param methodName
+	 *            The {@link WorkDuration#getMethodName() method} called.
+	 * @param invocationCount
+	 *            The number of calls made along the path.
+	 * @param totalTime
+	 *            The total elapsed time of those calls.
+	 * @param selfTime
+	 *            The part of the total time not spent in monitored child
+	 *            calls.
+	 * @param maxTime
+	 *            The longest elapsed time of a single call.
+	 * @param children
+	 *            The nodes of the calls made within this one, in any order.
+	 */
+	public CallTreeNodeSnapshot(final String methodName, final long invocationCount, final long totalTime,
+			final long selfTime, final long maxTime, final List<CallTreeNodeSnapshot> children) {
+		this.methodName = methodName;
+		this.invocationCount = invocationCount;
+		this.totalTime = totalTime;
+		this.selfTime = selfTime;
+		this.maxTime = maxTime;
+
+		List<CallTreeNodeSnapshot> sortedChildren = new ArrayList<CallTreeNodeSnapshot>(children);
+		Collections.sort(sortedChildren, BY_TOTAL_TIME_DESCENDING);
+		this.children = Collections.unmodifiableList(sortedChildren);
+	}
+
+	public String getMethodName() {
+		return methodName;
+	}
+
+	public long getInvocationCount() {
+		return invocationCount;
+	}
+
+	/**
+	 * @return The total elapsed time, in milliseconds, of the calls, including
+	 *         that spent in monitored child calls.
+	 */
+	public long getTotalTime() {
+		return totalTime;
+	}
+
+	/**
+	 * @return The time, in milliseconds, spent in the calls themselves rather
+	 *         than in monitored child calls.
+	 */
+	public long getSelfTime() {
+		return selfTime;
+	}
+
+	public long getMaxTime() {
+		return maxTime;
+	}
+
+	public double getAverageTime() {
+		return invocationCount == 0 ? 0 : (double) totalTime / invocationCount;
+	}
+
+	public double getAverageSelfTime() {
+		return invocationCount == 0 ? 0 : (double) selfTime / invocationCount;
+	}
+
+	/**
+	 * @return The nodes of the calls made within this one, the most
+	 *         time-consuming first.
+	 */
+	public List<CallTreeNodeSnapshot> getChildren() {
+		return children;
+	}
+
+	/**
+	 * <p>
+	 * Returns the child node for the given method.
+	 * </p>
+	 *
+	 * @param childMethodName
+	 *            The method of the child call.
+	 * @return The child node, or <code>null</code> if the method has not been
+	 *         called within this one.
+	 */
+	public CallTreeNodeSnapshot getChild(final String childMethodName) {
+		for (CallTreeNodeSnapshot child : children)
+			if (child.methodName.equals(childMethodName)) return child;
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return "CallTreeNode[" + methodName + ", calls=" + invocationCount + ", total=" + totalTime + ", self="
+				+ selfTime + ", max=" + maxTime + "]";
+	}
+}// end class def
@@ -0,0 +1,110 @@
+package org.latency4j.processing;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.latency4j.LatencyRequirement;
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * An immutable, point-in-time view of the call tree which the
+ * {@link LatencyProcessor latency processor} has built for a given
+ * {@link LatencyRequirement#getWorkCategory() category}. Instances are
+ * obtained via {@link LatencyProcessor#getCallTreeSnapshot(String)}.
+ * </p>
+ */
+public class CallTreeSnapshot implements Serializable {
+	private static final long serialVersionUID = -6055713413628093580L;
+
+	/**
+	 * <p>
+	 * The nodes of the root calls, the most time-consuming first.
+	 * </p>
+	 */
+	private final List<CallTreeNodeSnapshot> rootCalls;
+
+	/**
+	 * <p>
+	 * The number of calls which were not recorded because the tree was full.
+	 * </p>
+	 */
+	private final long droppedCount;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param rootCalls
+	 *            The nodes of the root calls.
+	 * @param droppedCount
+	 *            The number of calls which were not recorded because the tree
+	 *            was full.
+	 */
+	public CallTreeSnapshot(final List<CallTreeNodeSnapshot> rootCalls, final long droppedCount) {
+		this.rootCalls = rootCalls;
+		this.droppedCount = droppedCount;
+	}
+
+	/**
+	 * @return The nodes of the root calls, the most time-consuming first.
+	 */
+	public List<CallTreeNodeSnapshot> getRootCalls() {
+		return rootCalls;
+	}
+
+	/**
+	 * <p>
+	 * Returns the node of the root calls to the given method.
+	 * </p>
+	 *
+	 * @param methodName
+	 *            The {@link WorkDuration#getMethodName() method} of the root
+	 *            call.
+	 * @return The node, or <code>null</code> if no root call has been made to
+	 *         the method.
+	 */
+	public CallTreeNodeSnapshot getRootCall(final String methodName) {
+		for (CallTreeNodeSnapshot rootCall : rootCalls)
+			if (rootCall.getMethodName().equals(methodName)) return rootCall;
+		return null;
+	}
+
+	public long getDroppedCount() {
+		return droppedCount;
+	}
+
+	/**
+	 * <p>
+	 * Returns the path to the node with the greatest
+	 * {@link CallTreeNodeSnapshot#getSelfTime() self time}, i.e. the method
+	 * which itself accounts for the most time, and the calls through which it
+	 * was reached.
+	 * </p>
+	 *
+	 * @return The nodes from the root call down to the costliest node, or an
+	 *         empty list if the tree is empty.
+	 */
+	public List<CallTreeNodeSnapshot> findHighestSelfTimePath() {
+		List<CallTreeNodeSnapshot> result = new ArrayList<CallTreeNodeSnapshot>();
+		List<CallTreeNodeSnapshot> path = new ArrayList<CallTreeNodeSnapshot>();
+		for (CallTreeNodeSnapshot rootCall : rootCalls)
+			findHighestSelfTimePath(rootCall, path, result);
+		return Collections.unmodifiableList(result);
+	}
+
+	private static void findHighestSelfTimePath(final CallTreeNodeSnapshot node, final List<CallTreeNodeSnapshot> path,
+			final List<CallTreeNodeSnapshot> best) {
+		path.add(node);
+		if (best.isEmpty() || node.getSelfTime() > best.get(best.size() - 1).getSelfTime()) {
+			best.clear();
+			best.addAll(path);
+		}
+		for (CallTreeNodeSnapshot child : node.getChildren())
+			findHighestSelfTimePath(child, path, best);
+		path.remove(path.size() - 1);
+	}
+}// end class def
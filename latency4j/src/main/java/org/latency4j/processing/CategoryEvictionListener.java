@@ -0,0 +1,33 @@
+package org.latency4j.processing;
+
+/**
+ * <p>
+ * Notified by the {@link LatencyProcessor latency processor} when the
+ * statistics of a category are evicted to respect its
+ * {@link LatencyProcessor#setMaxCategories(int) cap}, so that state kept per
+ * category elsewhere, e.g. registered MBeans or open files, can be released
+ * along with them.
+ * </p>
+ * <p>
+ * Listeners are invoked on the processing thread, and should therefore
+ * return promptly. A
+ * {@link org.latency4j.persistence.WorkDurationPersistenceManager persistence
+ * manager} which implements this interface is notified of the categories it
+ * persists without having to be registered.
+ * </p>
+ *
+ * @see LatencyProcessor#addCategoryEvictionListener(CategoryEvictionListener)
+ */
+public interface CategoryEvictionListener {
+	/**
+	 * <p>
+	 * Invoked once the statistics of the given category have been evicted.
+	 * The category starts afresh if it is observed again.
+	 * </p>
+	 *
+	 * @param workCategory
+	 *            The {@link org.latency4j.LatencyRequirement#getWorkCategory()
+	 *            category} evicted.
+	 */
+	void categoryEvicted(String workCategory);
+}
@@ -0,0 +1,476 @@
+package org.latency4j.processing;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.latency4j.LatencyRequirement;
+import org.latency4j.Latency4JException;
+
+/**
+ * <p>
+ * Resolves {@link LatencyRequirement#getWorkCategory() work categories}
+ * against {@link LatencyRequirement requirements} whose categories are
+ * patterns rather than names. Two forms of pattern are supported:
+ * </p>
+ * <ul>
+ * <li>Wildcard patterns, containing one or more <code>*</code> characters,
+ * each of which matches any (possibly empty) sequence of characters; e.g.
+ * <code>com.acme.orders.*</code>.</li>
+ * <li>Regular expressions, prefixed with {@value #REGEX_PREFIX}; e.g.
+ * <code>regex:com\.acme\.(orders|billing)\..*</code>. The expression must
+ * match the whole category.</li>
+ * </ul>
+ * <p>
+ * Where several patterns match a category, the most specific applies:
+ * </p>
+ * <ol>
+ * <li>The wildcard pattern with the longest literal prefix, i.e. the text
+ * before its first <code>*</code>.</li>
+ * <li>Among those, the wildcard pattern with the most literal characters.</li>
+ * <li>Among those, the wildcard pattern which was added first.</li>
+ * <li>Regular expressions are consulted only when no wildcard pattern
+ * matches, in the order in which they were added.</li>
+ * </ol>
+ * <p>
+ * Wildcard patterns are held in a character trie keyed on their literal
+ * prefixes, so that a lookup walks the category once and only examines the
+ * patterns whose prefix the category starts with, however many patterns are
+ * registered. The outcome of each lookup, including a miss, is cached per
+ * category, so that subsequent lookups of that category are constant time.
+ * Misses are no longer cached once the cache holds
+ * {@link #setMaxCachedCategories(int) as many categories as allowed}, and
+ * the entry of a category can be {@link #evict(String) evicted} once it is
+ * no longer monitored.
+ * </p>
+ * <p>
+ * <b>Note</b> that {@link #resolve(String) lookups} may be performed
+ * concurrently, but patterns must not be {@link #addPattern(LatencyRequirement)
+ * added} while lookups are in progress.
+ * </p>
+ */
+class CategoryPatternResolver implements Serializable {
+	private static final long serialVersionUID = -2305126840987318829L;
+
+	/**
+	 * <p>
+	 * Prefix which identifies a category as a regular expression.
+	 * </p>
+	 */
+	static final String REGEX_PREFIX = "regex:";
+
+	/**
+	 * <p>
+	 * The wildcard character of wildcard patterns.
+	 * </p>
+	 */
+	static final char WILDCARD = '*';
+
+	/**
+	 * <p>
+	 * Cached outcome of lookups which matched no pattern.
+	 * </p>
+	 */
+	private static final Resolution NO_MATCH = new Resolution(null);
+
+	/**
+	 * <p>
+	 * Root of the trie of wildcard patterns.
+	 * </p>
+	 */
+	private final TrieNode root;
+
+	/**
+	 * <p>
+	 * The regular expression patterns, in the order in which they were added.
+	 * </p>
+	 */
+	private final List<RegexEntry> regexEntries;
+
+	/**
+	 * <p>
+	 * Outcome of previous lookups, keyed by category.
+	 * </p>
+	 */
+	private final ConcurrentMap<String, Resolution> cache;
+
+	/**
+	 * <p>
+	 * The number of categories beyond which misses are not cached, or
+	 * <code>0</code> if unbounded.
+	 * </p>
+	 */
+	private volatile int maxCachedCategories;
+
+	/**
+	 * <p>
+	 * The number of patterns added, used to order patterns of equal
+	 * specificity.
+	 * </p>
+	 */
+	private int patternCount;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 */
+	CategoryPatternResolver() {
+		root = new TrieNode();
+		regexEntries = new ArrayList<RegexEntry>();
+		cache = new ConcurrentHashMap<String, Resolution>();
+	}
+
+	/**
+	 * <p>
+	 * Indicates if the given category is a pattern, as opposed to the name of
+	 * a single category.
+	 * </p>
+	 *
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category} to
+	 *            test.
+	 * @return <code>True</code> if the category is a wildcard pattern or a
+	 *         regular expression.
+	 */
+	static boolean isPattern(final String workCategory) {
+		return workCategory != null
+				&& (workCategory.startsWith(REGEX_PREFIX) || workCategory.indexOf(WILDCARD) >= 0);
+	}
+
+	/**
+	 * <p>
+	 * Adds a {@link LatencyRequirement requirement} whose
+	 * {@link LatencyRequirement#getWorkCategory() category} is a
+	 * {@link #isPattern(String) pattern}. Previously cached lookups are
+	 * discarded.
+	 * </p>
+	 *
+	 * @param requirement
+	 *            The requirement to add.
+	 * @throws Latency4JException
+	 *             If the category is not a pattern, or is an invalid regular
+	 *             expression.
+	 */
+	void addPattern(final LatencyRequirement requirement) {
+		String pattern = requirement.getWorkCategory();
+		if (!isPattern(pattern))
+			throw new Latency4JException("Work category '" + pattern + "' is not a category pattern.");
+
+		int order = patternCount++;
+		if (pattern.startsWith(REGEX_PREFIX)) {
+			try {
+				regexEntries.add(
+						new RegexEntry(Pattern.compile(pattern.substring(REGEX_PREFIX.length())), requirement));
+			} catch (PatternSyntaxException exce) {
+				throw new Latency4JException("Invalid category pattern '" + pattern + "'.", exce);
+			}
+		} else {
+			WildcardEntry entry = new WildcardEntry(pattern, order, requirement);
+			TrieNode node = root;
+			for (int i = 0; i < entry.getPrefixLength(); i++)
+				node = node.getOrCreateChild(pattern.charAt(i));
+			node.add(entry);
+		}
+		cache.clear();
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link LatencyRequirement requirement} of the given category,
+	 * {@link LatencyRequirement#copyForCategory(String) derived} from that of
+	 * the most specific pattern which matches it. The derived requirement is
+	 * {@link LatencyRequirement#init() initialised}, and the same instance is
+	 * returned by subsequent lookups of the category.
+	 * </p>
+	 *
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category} to
+	 *            resolve.
+	 * @return The requirement of the category, or <code>null</code> if no
+	 *         pattern matches.
+	 */
+	LatencyRequirement resolve(final String workCategory) {
+		Resolution result = cache.get(workCategory);
+		if (result == null) {
+			LatencyRequirement pattern = match(workCategory);
+			if (pattern == null) {
+				int cap = maxCachedCategories;
+				if (cap > 0 && cache.size() >= cap) return null;
+			}
+			result = pattern == null ? NO_MATCH : new Resolution(pattern.copyForCategory(workCategory));
+
+			// only the resolution which is cached is initialised, so that
+			// concurrent lookups of a category initialise it exactly once
+			Resolution existing = cache.putIfAbsent(workCategory, result);
+			if (existing != null) result = existing;
+		}
+
+		try {
+			return result.getRequirement();
+		} catch (RuntimeException exce) {
+			cache.remove(workCategory, result);
+			throw exce;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link LatencyRequirement requirement} of the most specific
+	 * pattern which matches the given category, without consulting the cache.
+	 * Deeper trie nodes hold patterns with longer literal prefixes, and so
+	 * supersede matches found at shallower nodes.
+	 * </p>
+	 *
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category} to
+	 *            match.
+	 * @return The requirement of the matching pattern, or <code>null</code>
+	 *         if no pattern matches.
+	 */
+	LatencyRequirement match(final String workCategory) {
+		WildcardEntry best = root.match(workCategory);
+		TrieNode node = root;
+		for (int i = 0; i < workCategory.length() && node != null; i++) {
+			node = node.getChild(workCategory.charAt(i));
+			if (node != null) {
+				WildcardEntry candidate = node.match(workCategory);
+				if (candidate != null) best = candidate;
+			}
+		}
+		if (best != null) return best.getRequirement();
+
+		for (RegexEntry entry : regexEntries)
+			if (entry.matches(workCategory)) return entry.getRequirement();
+		return null;
+	}
+
+	/**
+	 * <p>
+	 * Discards the cached lookup of a category, so that a later lookup
+	 * resolves, and initialises, its requirement afresh.
+	 * </p>
+	 *
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}.
+	 */
+	void evict(final String workCategory) {
+		cache.remove(workCategory);
+	}
+
+	/**
+	 * <p>
+	 * Caps the number of cached categories beyond which lookups which match
+	 * no pattern are no longer cached. Lookups which match a pattern are
+	 * always cached, so that the category's requirement is initialised once;
+	 * they are expected to be {@link #evict(String) evicted} along with the
+	 * category.
+	 * </p>
+	 *
+	 * @param maxCachedCategories
+	 *            The cap, or <code>0</code> for no limit.
+	 */
+	void setMaxCachedCategories(final int maxCachedCategories) {
+		this.maxCachedCategories = maxCachedCategories;
+	}
+
+	/**
+	 * @return The number of patterns added.
+	 */
+	int size() {
+		return patternCount;
+	}
+
+	/**
+	 * <p>
+	 * Removes all patterns, and cached lookups.
+	 * </p>
+	 */
+	void clear() {
+		root.clear();
+		regexEntries.clear();
+		cache.clear();
+		patternCount = 0;
+	}
+
+	/**
+	 * <p>
+	 * A node of the wildcard trie. It holds the patterns whose literal prefix
+	 * ends at the node, most specific first.
+	 * </p>
+	 */
+	private static class TrieNode implements Serializable {
+		private static final long serialVersionUID = 6137740329865527718L;
+
+		private Map<Character, TrieNode> children;
+		private List<WildcardEntry> entries;
+
+		TrieNode getChild(final char character) {
+			return children == null ? null : children.get(character);
+		}
+
+		TrieNode getOrCreateChild(final char character) {
+			if (children == null) children = new HashMap<Character, TrieNode>();
+			TrieNode result = children.get(character);
+			if (result == null) {
+				result = new TrieNode();
+				children.put(character, result);
+			}
+			return result;
+		}
+
+		void add(final WildcardEntry entry) {
+			if (entries == null) entries = new ArrayList<WildcardEntry>();
+			int index = 0;
+			while (index < entries.size() && !entry.isMoreSpecificThan(entries.get(index)))
+				index++;
+			entries.add(index, entry);
+		}
+
+		WildcardEntry match(final String workCategory) {
+			if (entries != null) for (WildcardEntry entry : entries)
+				if (entry.matches(workCategory)) return entry;
+			return null;
+		}
+
+		void clear() {
+			children = null;
+			entries = null;
+		}
+	}
+
+	/**
+	 * <p>
+	 * A wildcard pattern, split into the literal segments between its
+	 * wildcards.
+	 * </p>
+	 */
+	private static class WildcardEntry implements Serializable {
+		private static final long serialVersionUID = 3368011523093462416L;
+
+		private final String[] segments;
+		private final int literalLength;
+		private final int order;
+		private final LatencyRequirement requirement;
+
+		WildcardEntry(final String pattern, final int order, final LatencyRequirement requirement) {
+			List<String> segmentList = new ArrayList<String>();
+			int start = 0;
+			int wildcard;
+			while ((wildcard = pattern.indexOf(WILDCARD, start)) >= 0) {
+				segmentList.add(pattern.substring(start, wildcard));
+				start = wildcard + 1;
+			}
+			segmentList.add(pattern.substring(start));
+
+			this.segments = segmentList.toArray(new String[segmentList.size()]);
+			this.literalLength = pattern.length() - (segments.length - 1);
+			this.order = order;
+			this.requirement = requirement;
+		}
+
+		int getPrefixLength() {
+			return segments[0].length();
+		}
+
+		LatencyRequirement getRequirement() {
+			return requirement;
+		}
+
+		boolean isMoreSpecificThan(final WildcardEntry other) {
+			if (literalLength != other.literalLength) return literalLength > other.literalLength;
+			return order < other.order;
+		}
+
+		/**
+		 * <p>
+		 * Matches the category against the segments, the first anchored at
+		 * the start, the last at the end and the remainder at their earliest
+		 * occurrence in between.
+		 * </p>
+		 */
+		boolean matches(final String workCategory) {
+			String first = segments[0];
+			String last = segments[segments.length - 1];
+			if (workCategory.length() < literalLength || !workCategory.startsWith(first)
+					|| !workCategory.endsWith(last))
+				return false;
+
+			int position = first.length();
+			int end = workCategory.length() - last.length();
+			for (int i = 1; i < segments.length - 1; i++) {
+				int index = workCategory.indexOf(segments[i], position);
+				if (index < 0 || index + segments[i].length() > end) return false;
+				position = index + segments[i].length();
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * <p>
+	 * A regular expression pattern.
+	 * </p>
+	 */
+	private static class RegexEntry implements Serializable {
+		private static final long serialVersionUID = -7618339016367017702L;
+
+		private final Pattern pattern;
+		private final LatencyRequirement requirement;
+
+		RegexEntry(final Pattern pattern, final LatencyRequirement requirement) {
+			this.pattern = pattern;
+			this.requirement = requirement;
+		}
+
+		boolean matches(final String workCategory) {
+			return pattern.matcher(workCategory).matches();
+		}
+
+		LatencyRequirement getRequirement() {
+			return requirement;
+		}
+	}
+
+	/**
+	 * <p>
+	 * The cached outcome of a lookup.
+	 * </p>
+	 */
+	private static class Resolution implements Serializable {
+		private static final long serialVersionUID = 1590962470254712384L;
+
+		private final LatencyRequirement requirement;
+		private volatile boolean initialised;
+
+		Resolution(final LatencyRequirement requirement) {
+			this.requirement = requirement;
+			this.initialised = requirement == null;
+		}
+
+		/**
+		 * <p>
+		 * Returns the requirement, {@link LatencyRequirement#init()
+		 * initialising} it on first access. Threads which look up the category
+		 * meanwhile wait for the initialisation to complete.
+		 * </p>
+		 */
+		LatencyRequirement getRequirement() {
+			if (!initialised) {
+				synchronized (this) {
+					if (!initialised) {
+						requirement.init();
+						initialised = true;
+					}
+				}
+			}
+			return requirement;
+		}
+	}
+}// end class def
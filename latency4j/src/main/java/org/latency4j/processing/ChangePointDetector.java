@@ -0,0 +1,164 @@
+package org.latency4j.processing;
+
+import org.latency4j.StatisticalLatencyRequirement;
+
+/**
+ * <p>
+ * Detects lasting shifts in the latency of a {@link StatisticalLatencyRequirement
+ * statistical requirement}'s category with a two-sided CUSUM, in constant
+ * time and memory per observation.
+ * </p>
+ * <p>
+ * Each observation's deviation from the reference latency is expressed as a
+ * fraction of the reference, capped at <code>&plusmn;1</code> so that single
+ * outliers cannot signal a shift on their own, and accumulated separately
+ * for each direction, less the
+ * {@link StatisticalLatencyRequirement#getChangePointDrift() drift}. When
+ * either sum exceeds the
+ * {@link StatisticalLatencyRequirement#getChangePointThreshold() threshold},
+ * the average of the observations which built it up becomes the new
+ * reference, and both sums restart.
+ * </p>
+ * <p>
+ * A {@link org.latency4j.LatencyRequirement#getSamplingRate() sampled}
+ * observation counts once, however many calls it stands for: the sums
+ * measure how consistently observations deviate, which scaling a single
+ * observation by its weight would overstate.
+ * </p>
+ * <p>
+ * Instances are only updated by the {@link LatencyProcessor latency
+ * processor} thread.
+ * </p>
+ */
+class ChangePointDetector {
+	private volatile double referenceLatency;
+	private double previousLatency;
+
+	private double upperSum;
+	private double upperTotal;
+	private long upperCount;
+
+	private double lowerSum;
+	private double lowerTotal;
+	private long lowerCount;
+
+	private volatile long changePointCount;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 */
+	ChangePointDetector() {
+		this.referenceLatency = Double.NaN;
+		this.previousLatency = Double.NaN;
+	}
+
+	/**
+	 * @return <code>True</code> once a reference latency has been set.
+	 */
+	boolean isCalibrated() {
+		return !Double.isNaN(referenceLatency);
+	}
+
+	/**
+	 * <p>
+	 * Sets the latency against which observations are judged until the first
+	 * shift is detected.
+	 * </p>
+	 * 
+	 * @param referenceLatency
+	 *            The reference latency in milliseconds.
+	 */
+	void calibrate(final double referenceLatency) {
+		this.referenceLatency = referenceLatency;
+		resetSums();
+	}
+
+	/**
+	 * <p>
+	 * Adds an observation, and indicates if it has revealed a shift. On a
+	 * shift, {@link #getPreviousLatency()} returns the reference before it and
+	 * {@link #getReferenceLatency()} the level shifted to.
+	 * </p>
+	 * 
+	 * @param elapsedTime
+	 *            The latency of the observation in milliseconds.
+	 * @param drift
+	 *            The tolerated relative deviation per observation.
+	 * @param threshold
+	 *            The accumulated deviation at which a shift is signalled.
+	 * @return <code>True</code> if a shift has been detected.
+	 */
+	boolean update(final double elapsedTime, final double drift, final double threshold) {
+		double deviation = (elapsedTime - referenceLatency) / Math.max(referenceLatency, 1);
+		deviation = Math.max(-1, Math.min(1, deviation));
+
+		upperSum = Math.max(0, upperSum + deviation - drift);
+		if (upperSum > 0) {
+			upperTotal += elapsedTime;
+			upperCount++;
+		} else {
+			upperTotal = 0;
+			upperCount = 0;
+		}
+
+		lowerSum = Math.max(0, lowerSum - deviation - drift);
+		if (lowerSum > 0) {
+			lowerTotal += elapsedTime;
+			lowerCount++;
+		} else {
+			lowerTotal = 0;
+			lowerCount = 0;
+		}
+
+		boolean result = false;
+		if (upperSum > threshold) {
+			shiftTo(upperTotal / upperCount);
+			result = true;
+		} else if (lowerSum > threshold) {
+			shiftTo(lowerTotal / lowerCount);
+			result = true;
+		}
+		return result;
+	}
+
+	/**
+	 * @return The latency against which observations are currently judged,
+	 *         or {@link Double#NaN} before calibration.
+	 */
+	double getReferenceLatency() {
+		return referenceLatency;
+	}
+
+	/**
+	 * @return The reference latency before the last shift, or
+	 *         {@link Double#NaN} if none has been detected.
+	 */
+	double getPreviousLatency() {
+		return previousLatency;
+	}
+
+	/**
+	 * @return The number of shifts detected to date.
+	 */
+	long getChangePointCount() {
+		return changePointCount;
+	}
+
+	private void shiftTo(final double shiftedLatency) {
+		previousLatency = referenceLatency;
+		referenceLatency = shiftedLatency;
+		changePointCount++;
+		resetSums();
+	}
+
+	private void resetSums() {
+		upperSum = 0;
+		upperTotal = 0;
+		upperCount = 0;
+		lowerSum = 0;
+		lowerTotal = 0;
+		lowerCount = 0;
+	}
+}// end class def
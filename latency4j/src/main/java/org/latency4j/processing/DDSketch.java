@@ -0,0 +1,173 @@
+package org.latency4j.processing;
+
+/**
+ * <p>
+ * A {@link QuantileSketch sketch} with a guaranteed relative error, after
+ * the DDSketch of Masson, Rim and Lee. Values are counted in buckets whose
+ * bounds grow geometrically by a factor of
+ * <code>(1 + accuracy) / (1 - accuracy)</code>, and each bucket reports the
+ * value from which its bounds deviate by at most the accuracy. Unlike the
+ * {@link LogBucketSketch default sketch}, the accuracy can be chosen; the
+ * number of buckets is proportional to the logarithm of the slowest observed
+ * call divided by the accuracy.
+ * </p>
+ * <p>
+ * Access is synchronised, so a {@link #copy() copy} taken on another thread
+ * briefly holds up the recording thread.
+ * </p>
+ */
+class DDSketch implements QuantileSketch {
+	private static final long serialVersionUID = -4712563840238176533L;
+
+	/**
+	 * <p>
+	 * The default ({@value #DEFAULT_RELATIVE_ACCURACY}) relative accuracy.
+	 * </p>
+	 */
+	static final double DEFAULT_RELATIVE_ACCURACY = 0.01d;
+
+	/**
+	 * <p>
+	 * The ratio between the bounds of a bucket.
+	 * </p>
+	 */
+	private final double gamma;
+
+	/**
+	 * <p>
+	 * The natural logarithm of {@link #gamma}, used to index buckets.
+	 * </p>
+	 */
+	private final double logGamma;
+
+	/**
+	 * <p>
+	 * The number of values which are <code>0</code> or less.
+	 * </p>
+	 */
+	private long zeroCount;
+
+	/**
+	 * <p>
+	 * The bucket counts; bucket <code>i</code> covers values greater than
+	 * <code>gamma<sup>i-1</sup></code> and at most <code>gamma<sup>i</sup></code>.
+	 * </p>
+	 */
+	private long[] counts;
+
+	private long count;
+
+	/**
+	 * <p>
+	 * Constructor, using the {@link #DEFAULT_RELATIVE_ACCURACY default
+	 * accuracy}.
+	 * </p>
+	 */
+	DDSketch() {
+		this(DEFAULT_RELATIVE_ACCURACY);
+	}
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param relativeAccuracy
+	 *            The relative accuracy, greater than <code>0</code> and less
+	 *            than <code>1</code>.
+	 */
+	DDSketch(final double relativeAccuracy) {
+		if (!(relativeAccuracy > 0 && relativeAccuracy < 1))
+			throw new IllegalArgumentException("Relative accuracy must be between 0 and 1.");
+		this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+		this.logGamma = Math.log(gamma);
+		this.counts = new long[64];
+	}
+
+	/**
+	 * <p>
+	 * Copy constructor.
+	 * </p>
+	 *
+	 * @param source
+	 *            The sketch to copy, whose lock is held by the caller.
+	 */
+	private DDSketch(final DDSketch source) {
+		this.gamma = source.gamma;
+		this.logGamma = source.logGamma;
+		this.zeroCount = source.zeroCount;
+		this.counts = source.counts.clone();
+		this.count = source.count;
+	}
+
+	@Override
+	public synchronized void record(final long value, final long count) {
+		if (value <= 0) zeroCount += count;
+		else {
+			int index = (int) Math.ceil(Math.log(value) / logGamma);
+			if (index >= counts.length) {
+				long[] grown = new long[Math.max(index + 1, counts.length * 2)];
+				System.arraycopy(counts, 0, grown, 0, counts.length);
+				counts = grown;
+			}
+			counts[index] += count;
+		}
+		this.count += count;
+	}
+
+	@Override
+	public void merge(final QuantileSketch other) {
+		if (!(other instanceof DDSketch) || ((DDSketch) other).gamma != gamma) throw new IllegalArgumentException(
+				"Only DDSketches of the same accuracy can be merged.");
+		DDSketch source = (DDSketch) other.copy();
+		synchronized (this) {
+			if (source.counts.length > counts.length) {
+				long[] grown = new long[source.counts.length];
+				System.arraycopy(counts, 0, grown, 0, counts.length);
+				counts = grown;
+			}
+			for (int i = 0; i < source.counts.length; i++)
+				counts[i] += source.counts[i];
+			zeroCount += source.zeroCount;
+			count += source.count;
+		}
+	}
+
+	@Override
+	public synchronized long getCount() {
+		return count;
+	}
+
+	@Override
+	public synchronized double getQuantile(final double quantile) {
+		double result = 0;
+		if (count > 0) {
+			double clampedQuantile = Math.min(1.0d, Math.max(0.0d, quantile));
+			long rank = Math.max(1, (long) Math.ceil(clampedQuantile * count));
+			long seen = zeroCount;
+			for (int i = 0; i < counts.length && seen < rank; i++) {
+				seen += counts[i];
+				if (seen >= rank) result = 2 * Math.pow(gamma, i) / (gamma + 1);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public synchronized long getCountAtOrBelow(final long value) {
+		long result = 0;
+		if (value >= 0) {
+			result = zeroCount;
+			// only whole buckets are counted
+			int lastIndex = value == 0 ? -1 : (int) Math.floor(Math.log(value) / logGamma);
+			for (int i = 0; i <= lastIndex && i < counts.length; i++)
+				result += counts[i];
+		}
+		return result;
+	}
+
+	@Override
+	public synchronized QuantileSketch copy() {
+		return new DDSketch(this);
+	}
+}// end class def
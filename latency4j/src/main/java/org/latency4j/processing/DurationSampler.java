@@ -0,0 +1,204 @@
+package org.latency4j.processing;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.ErrorRateLatencyRequirement;
+import org.latency4j.LatencyRequirement;
+import org.latency4j.SloLatencyRequirement;
+import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * Decides, on the execution thread, which {@link WorkDuration durations} of a
+ * {@link LatencyRequirement requirement} are passed on to the
+ * {@link LatencyProcessor latency processor}. Errored durations, and
+ * durations which breach the requirement, are always passed on. Of the
+ * remainder, one in every {@link LatencyRequirement#getSamplingRate() N} is
+ * passed on, with a weight of <code>N</code> so that statistics remain
+ * representative of all executions.
+ * </p>
+ * <p>
+ * Where {@link LatencyRequirement#getMaxSampledEventsPerSecond() adaptive
+ * sampling} is enabled, <code>N</code> is recalculated once a second from the
+ * number of non-breaching durations observed in the previous second.
+ * </p>
+ */
+class DurationSampler {
+	/**
+	 * <p>
+	 * The length, in milliseconds, of the adaptive sampling window.
+	 * </p>
+	 */
+	static final long ADAPTIVE_WINDOW_MILLIS = 1000;
+
+	/**
+	 * <p>
+	 * The {@link LatencyRequirement requirement} being sampled.
+	 * </p>
+	 */
+	private final LatencyRequirement requirement;
+
+	/**
+	 * <p>
+	 * The processor whose statistics are consulted to detect breaches of
+	 * {@link StatisticalLatencyRequirement statistical requirements}.
+	 * </p>
+	 */
+	private final LatencyProcessor processor;
+
+	/**
+	 * <p>
+	 * The number of non-breaching durations observed in the current adaptive
+	 * window.
+	 * </p>
+	 */
+	private final AtomicLong windowCount;
+
+	/**
+	 * <p>
+	 * Start time of the current adaptive window.
+	 * </p>
+	 */
+	private final AtomicLong windowStart;
+
+	/**
+	 * <p>
+	 * The sampling rate computed from the previous adaptive window.
+	 * </p>
+	 */
+	private volatile long adaptiveRate;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param requirement
+	 *            The {@link LatencyRequirement requirement} to sample.
+	 * @param processor
+	 *            The {@link LatencyProcessor processor} to which sampled
+	 *            durations are passed.
+	 */
+	DurationSampler(final LatencyRequirement requirement, final LatencyProcessor processor) {
+		this.requirement = requirement;
+		this.processor = processor;
+		this.windowCount = new AtomicLong();
+		this.windowStart = new AtomicLong(System.currentTimeMillis());
+		this.adaptiveRate = 1;
+	}
+
+	/**
+	 * <p>
+	 * Decides if the given {@link WorkDuration duration} should be processed.
+	 * </p>
+	 *
+	 * @param duration
+	 *            A {@link WorkDuration#markFinished() finished}
+	 *            {@link WorkDuration duration}.
+	 * @return The number of executions which the duration stands for, or
+	 *         <code>0</code> if it should be skipped.
+	 */
+	long sample(final WorkDuration duration) {
+		long fixedRate = requirement.getSamplingRate();
+		long maxEventsPerSecond = requirement.getMaxSampledEventsPerSecond();
+
+		long result = 1;
+		if (isEnabled() && !duration.isErrored() && !isBreach(duration)) {
+			long rate = fixedRate;
+			if (maxEventsPerSecond > 0)
+				rate = Math.max(rate, updateAdaptiveRate(duration.getEndTime(), maxEventsPerSecond));
+
+			if (rate > 1 && ThreadLocalRandom.current().nextLong(rate) != 0) result = 0;
+			else result = rate;
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Indicates if sampling is enabled for the requirement.
+	 * </p>
+	 *
+	 * @return <code>True</code> if either fixed or adaptive sampling is
+	 *         enabled.
+	 */
+	boolean isEnabled() {
+		return requirement.getSamplingRate() > 1 || requirement.getMaxSampledEventsPerSecond() > 0;
+	}
+
+	/**
+	 * <p>
+	 * Returns the sampling rate computed for the last adaptive window.
+	 * </p>
+	 *
+	 * @return The adaptive sampling rate.
+	 */
+	long getAdaptiveRate() {
+		return adaptiveRate;
+	}
+
+	/**
+	 * <p>
+	 * Counts the current observation and, at the end of each window,
+	 * recalculates the adaptive sampling rate from the window's volume.
+	 * </p>
+	 */
+	private long updateAdaptiveRate(final long now, final long maxEventsPerSecond) {
+		windowCount.incrementAndGet();
+
+		long start = windowStart.get();
+		long windowLength = now - start;
+		if (windowLength >= ADAPTIVE_WINDOW_MILLIS && windowStart.compareAndSet(start, now)) {
+			long count = windowCount.getAndSet(0);
+			double eventsPerSecond = count * 1000.0d / windowLength;
+			adaptiveRate = Math.max(1, (long) Math.ceil(eventsPerSecond / maxEventsPerSecond));
+		}
+		return adaptiveRate;
+	}
+
+	/**
+	 * <p>
+	 * Indicates if the given {@link WorkDuration duration} breaches the
+	 * {@link LatencyRequirement requirement}. For
+	 * {@link StatisticalLatencyRequirement statistical requirements} this is
+	 * judged against the most recently published baseline, or the
+	 * {@link SeasonalBaseline seasonal average} of root calls; where no
+	 * significant average is available yet, the duration is treated as a
+	 * breach so that it is always processed. For {@link SloLatencyRequirement
+	 * SLO requirements} calls slower than the expected latency are breaches,
+	 * so that bad calls are never sampled out. For other requirement types, such
+	 * as {@link ErrorRateLatencyRequirement error-rate requirements}, which do
+	 * not judge individual latencies, only errored durations are breaches.
+	 * </p>
+	 *
+	 * @param duration
+	 *            A {@link WorkDuration#markFinished() finished}
+	 *            {@link WorkDuration duration}.
+	 * @return <code>True</code> if the duration breaches the requirement.
+	 */
+	boolean isBreach(final WorkDuration duration) {
+		boolean result;
+		long elapsedTime = duration.getElapsedTime();
+
+		if (requirement instanceof CappedLatencyRequirement)
+			result = elapsedTime > ((CappedLatencyRequirement) requirement).getLowestTierLatency(duration);
+		else if (requirement instanceof StatisticalLatencyRequirement) {
+			WorkStatistics statistics = processor.getStatistics(requirement.getWorkCategory(),
+					RequirementStatisticsMap.getStatisticsMapKey(duration));
+
+			if (statistics == null || !statistics.isSignificanceBarrierBreached()) result = true;
+			else {
+				StatisticalLatencyRequirement statisticalRequirement = (StatisticalLatencyRequirement) requirement;
+				double baseline = LatencyProcessor.getBaseline(duration, statisticalRequirement,
+						processor.getSeasonalBaseline(requirement.getWorkCategory()), statistics);
+				result = elapsedTime - baseline > baseline * statisticalRequirement.getToleranceLevel();
+			}
+		} else if (requirement instanceof SloLatencyRequirement)
+			result = elapsedTime > ((SloLatencyRequirement) requirement).getExpectedLatency();
+		else result = duration.isErrored();
+		return result;
+	}
+}// end class def
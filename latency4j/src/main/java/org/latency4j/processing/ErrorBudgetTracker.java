@@ -0,0 +1,188 @@
+package org.latency4j.processing;
+
+import org.latency4j.SloLatencyRequirement;
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * Tracks the error budget burn rates of an {@link SloLatencyRequirement SLO
+ * requirement}'s category. Good and bad root calls are counted in ring
+ * buffers of per-minute buckets spanning the longest
+ * {@link SloLatencyRequirement#getBurnRateWindows() window}, and a running
+ * total is kept per window: as each minute passes, the bucket leaving each
+ * window is subtracted from its total. Recording a call and
+ * {@link #tick(long) evaluating} the burn rates therefore cost the same
+ * however long the windows are.
+ * </p>
+ * <p>
+ * Instances are only updated by the {@link LatencyProcessor latency
+ * processor} thread. The published burn rates can be read by any thread.
+ * </p>
+ */
+class ErrorBudgetTracker implements PeriodicTask {
+	private static final long MINUTE_MILLIS = 60 * 1000;
+
+	/**
+	 * <p>
+	 * The requirement whose category is tracked.
+	 * </p>
+	 */
+	private final SloLatencyRequirement requirement;
+
+	/**
+	 * <p>
+	 * The window lengths in minutes, fixed when the tracker is created.
+	 * </p>
+	 */
+	private final int[] windows;
+
+	private final long[] goodBuckets;
+	private final long[] badBuckets;
+	private final long[] windowGood;
+	private final long[] windowBad;
+
+	private long currentMinute;
+	private boolean alerted;
+
+	private volatile double[] burnRates;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param requirement
+	 *            The requirement whose category is tracked.
+	 */
+	ErrorBudgetTracker(final SloLatencyRequirement requirement) {
+		this.requirement = requirement;
+		this.windows = requirement.getBurnRateWindows();
+
+		int bucketCount = windows[windows.length - 1];
+		this.goodBuckets = new long[bucketCount];
+		this.badBuckets = new long[bucketCount];
+		this.windowGood = new long[windows.length];
+		this.windowBad = new long[windows.length];
+		this.currentMinute = -1;
+
+		double[] initialRates = new double[windows.length];
+		for (int i = 0; i < initialRates.length; i++)
+			initialRates[i] = Double.NaN;
+		this.burnRates = initialRates;
+	}
+
+	/**
+	 * <p>
+	 * Counts a {@link WorkDuration#markFinished() finished} root call as good
+	 * if it completed without error within the
+	 * {@link SloLatencyRequirement#getExpectedLatency() expected latency}, and
+	 * as bad otherwise. Calls are counted in the minute in which they ended,
+	 * or the current minute if that has already passed.
+	 * </p>
+	 *
+	 * @param duration
+	 *            The duration of the call.
+	 * @param weight
+	 *            The number of calls the duration stands for.
+	 */
+	void record(final WorkDuration duration, final long weight) {
+		advanceTo(duration.getEndTime() / MINUTE_MILLIS);
+
+		int bucket = bucketIndex(currentMinute);
+		if (!duration.isErrored() && duration.getElapsedTime() <= requirement.getExpectedLatency()) {
+			goodBuckets[bucket] += weight;
+			for (int i = 0; i < windows.length; i++)
+				windowGood[i] += weight;
+		} else {
+			badBuckets[bucket] += weight;
+			for (int i = 0; i < windows.length; i++)
+				windowBad[i] += weight;
+		}
+	}
+
+	/**
+	 * @return The burn rate over each {@link #getWindows() window}, or
+	 *         {@link Double#NaN} for windows without calls.
+	 */
+	double[] getBurnRates() {
+		return burnRates.clone();
+	}
+
+	/**
+	 * @return The window lengths, in minutes, to which the
+	 *         {@link #getBurnRates() burn rates} relate.
+	 */
+	int[] getWindows() {
+		return windows.clone();
+	}
+
+	@Override
+	public void tick(final long now) {
+		advanceTo(now / MINUTE_MILLIS);
+
+		double budget = 1 - requirement.getObjective();
+		double threshold = requirement.getBurnRateThreshold();
+		boolean breached = true;
+		double lowestBurnRate = Double.MAX_VALUE;
+		double[] rates = new double[windows.length];
+		for (int i = 0; i < windows.length; i++) {
+			long calls = windowGood[i] + windowBad[i];
+			rates[i] = calls == 0 ? Double.NaN : ((double) windowBad[i] / calls) / budget;
+			// NaN never reaches the threshold, so windows without calls veto
+			if (!(rates[i] >= threshold)) breached = false;
+			else lowestBurnRate = Math.min(lowestBurnRate, rates[i]);
+		}
+		burnRates = rates;
+
+		if (breached && !alerted)
+			NotificationsIssuer.issueErrorBudgetBurnRateExceededNotification(requirement, lowestBurnRate);
+		alerted = breached;
+	}
+
+	/**
+	 * <p>
+	 * Moves the current minute forward to the given one, expiring the buckets
+	 * which fall out of each window and clearing those which are reused.
+	 * Minutes before the current one are ignored.
+	 * </p>
+	 *
+	 * @param minute
+	 *            The minute, counted from the epoch.
+	 */
+	private void advanceTo(final long minute) {
+		if (currentMinute < 0) currentMinute = minute;
+		else if (minute - currentMinute >= goodBuckets.length) {
+			for (int i = 0; i < goodBuckets.length; i++) {
+				goodBuckets[i] = 0;
+				badBuckets[i] = 0;
+			}
+			for (int i = 0; i < windows.length; i++) {
+				windowGood[i] = 0;
+				windowBad[i] = 0;
+			}
+			currentMinute = minute;
+		} else {
+			while (currentMinute < minute) {
+				currentMinute++;
+				for (int i = 0; i < windows.length; i++) {
+					int expired = bucketIndex(currentMinute - windows[i]);
+					windowGood[i] -= goodBuckets[expired];
+					windowBad[i] -= badBuckets[expired];
+				}
+				int reused = bucketIndex(currentMinute);
+				goodBuckets[reused] = 0;
+				badBuckets[reused] = 0;
+			}
+		}
+	}
+
+	private int bucketIndex(final long minute) {
+		// minutes before the first one map onto buckets which are still empty
+		return (int) (((minute % goodBuckets.length) + goodBuckets.length) % goodBuckets.length);
+	}
+
+	@Override
+	public String toString() {
+		return "ErrorBudgetTracker[" + requirement.getWorkCategory() + "]";
+	}
+}// end class def
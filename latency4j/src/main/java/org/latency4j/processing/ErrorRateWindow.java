@@ -0,0 +1,193 @@
+package org.latency4j.processing;
+
+import org.latency4j.ErrorRateLatencyRequirement;
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * Tracks the error rate of an {@link ErrorRateLatencyRequirement error-rate
+ * requirement}'s category in constant memory: the call and error counts of
+ * the current {@link ErrorRateLatencyRequirement#getWindowLength() window},
+ * and an exponential moving average of the error rates of completed windows,
+ * which serves as the baseline.
+ * </p>
+ * <p>
+ * Instances are only updated by the {@link LatencyProcessor latency
+ * processor} thread. The published rates can be read by any thread.
+ * </p>
+ */
+class ErrorRateWindow {
+	/**
+	 * <p>
+	 * The length of a window, in milliseconds.
+	 * </p>
+	 */
+	private final long windowLength;
+
+	/**
+	 * <p>
+	 * The number of calls a window must contain for its rate to be judged or
+	 * folded into the baseline.
+	 * </p>
+	 */
+	private final long minimumCalls;
+
+	/**
+	 * <p>
+	 * The smoothing factor of the baseline, derived from the number of
+	 * baseline windows.
+	 * </p>
+	 */
+	private final double smoothingFactor;
+
+	private long windowNumber;
+	private long calls;
+	private long errors;
+	private boolean alerted;
+
+	private double baseline;
+	private int baselineWindowCount;
+
+	private volatile double currentErrorRate;
+	private volatile double baselineErrorRate;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param requirement
+	 *            The requirement whose settings govern the window.
+	 */
+	ErrorRateWindow(final ErrorRateLatencyRequirement requirement) {
+		this.windowLength = requirement.getWindowLength();
+		this.minimumCalls = requirement.getMinimumCalls();
+		this.smoothingFactor = 2.0d / (requirement.getBaselineWindows() + 1);
+		this.windowNumber = -1;
+		this.currentErrorRate = Double.NaN;
+		this.baselineErrorRate = Double.NaN;
+	}
+
+	/**
+	 * <p>
+	 * Counts a {@link WorkDuration#markFinished() finished} root call in the
+	 * window in which it ended, first completing the current window if the
+	 * call ended after it. Calls which ended before the current window are
+	 * counted in it regardless.
+	 * </p>
+	 *
+	 * @param duration
+	 *            The duration of the call.
+	 * @param weight
+	 *            The number of calls the duration stands for.
+	 */
+	void record(final WorkDuration duration, final long weight) {
+		long number = duration.getEndTime() / windowLength;
+		if (number > windowNumber) {
+			completeWindow();
+			windowNumber = number;
+		}
+
+		calls += weight;
+		if (duration.isErrored()) errors += weight;
+		currentErrorRate = calls < minimumCalls ? Double.NaN : (double) errors / calls;
+	}
+
+	/**
+	 * <p>
+	 * Indicates if the current window breaches the given requirement, and has
+	 * not yet been alerted. A window is only judged once it holds the
+	 * {@link ErrorRateLatencyRequirement#getMinimumCalls() minimum number of
+	 * calls}, and the baseline is only consulted once it spans the
+	 * {@link ErrorRateLatencyRequirement#getBaselineWindows() required number
+	 * of windows}. The baseline is taken to be no lower than
+	 * {@link #getBaselineFloor() one error per minimum number of calls}, so
+	 * that a single error after an error-free baseline does not breach.
+	 * </p>
+	 *
+	 * @param requirement
+	 *            The requirement, whose limits are read afresh so that they
+	 *            can be adjusted at runtime.
+	 * @return <code>True</code> if an alert is due.
+	 */
+	boolean isBreached(final ErrorRateLatencyRequirement requirement) {
+		boolean result = false;
+		if (!alerted && calls >= minimumCalls) {
+			double errorRate = (double) errors / calls;
+			double maxErrorRate = requirement.getMaxErrorRate();
+			double toleranceLevel = requirement.getToleranceLevel();
+
+			if (maxErrorRate > 0 && errorRate > maxErrorRate) result = true;
+			else if (toleranceLevel > 0 && baselineWindowCount >= requirement.getBaselineWindows()) {
+				double flooredBaseline = Math.max(baseline, getBaselineFloor());
+				result = errorRate - flooredBaseline > flooredBaseline * toleranceLevel;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Records that the current window has been alerted, so that it is not
+	 * alerted again.
+	 * </p>
+	 */
+	void markAlerted() {
+		alerted = true;
+	}
+
+	/**
+	 * @return The error rate of the current window, or {@link Double#NaN} if
+	 *         it does not yet hold the minimum number of calls.
+	 */
+	double getCurrentErrorRate() {
+		return currentErrorRate;
+	}
+
+	/**
+	 * @return The baseline error rate, or {@link Double#NaN} if no window has
+	 *         been completed with the minimum number of calls.
+	 */
+	double getBaselineErrorRate() {
+		return baselineErrorRate;
+	}
+
+	/**
+	 * @return The lowest baseline error rate against which the tolerance
+	 *         level is applied: one error in the minimum number of calls,
+	 *         below which a rate cannot be told apart from a single failure.
+	 */
+	double getBaselineFloor() {
+		return 1.0d / minimumCalls;
+	}
+
+	long getCalls() {
+		return calls;
+	}
+
+	long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * <p>
+	 * Folds the rate of the current window into the baseline, if the window
+	 * holds enough calls, and resets the counts. Windows in which an alert was
+	 * raised are folded in as well, so that a lasting change in error rate
+	 * eventually becomes the new baseline.
+	 * </p>
+	 */
+	private void completeWindow() {
+		if (calls >= minimumCalls) {
+			double errorRate = (double) errors / calls;
+			if (baselineWindowCount == 0) baseline = errorRate;
+			else baseline += smoothingFactor * (errorRate - baseline);
+			baselineWindowCount++;
+			baselineErrorRate = baseline;
+		}
+		calls = 0;
+		errors = 0;
+		alerted = false;
+		currentErrorRate = Double.NaN;
+	}
+}// end class def
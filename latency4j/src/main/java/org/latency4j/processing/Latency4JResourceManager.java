@@ -1,11 +1,15 @@
 package org.latency4j.processing;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.latency4j.AlertHandler;
 import org.latency4j.LatencyRequirement;
+import org.latency4j.StatisticalLatencyRequirement;
 import org.latency4j.configuration.Latency4JConfiguration;
 
 /**
@@ -34,6 +38,34 @@ public class Latency4JResourceManager implements Serializable {
 	 */
 	private final Map<String, LatencyRequirement> latencyRequirements;
 
+	/**
+	 * <p>
+	 * {@link Map Map} of {@link LatencyRequirement latency requirements} whose
+	 * {@link LatencyRequirement#getWorkCategory() categories} are
+	 * {@link CategoryPatternResolver patterns}, keyed by pattern in
+	 * registration order.
+	 * </p>
+	 */
+	private final Map<String, LatencyRequirement> patternRequirements;
+
+	/**
+	 * <p>
+	 * Resolves categories without a requirement of their own against the
+	 * {@link #patternRequirements pattern requirements}.
+	 * </p>
+	 */
+	private final CategoryPatternResolver patternResolver;
+
+	/**
+	 * <p>
+	 * Template from which implicit requirements, i.e. those of categories
+	 * without a configured {@link LatencyRequirement requirement}, take their
+	 * settings, {@link AlertHandler alert handlers} and shared
+	 * persistence manager; or <code>null</code> if none is configured.
+	 * </p>
+	 */
+	private StatisticalLatencyRequirement implicitRequirementTemplate;
+
 	/**
 	 * <p>
 	 * Constructor.
@@ -42,6 +74,8 @@ public class Latency4JResourceManager implements Serializable {
 	public Latency4JResourceManager() {
 		alertHandlers = new HashMap<String, AlertHandler>();
 		latencyRequirements = new HashMap<String, LatencyRequirement>();
+		patternRequirements = new LinkedHashMap<String, LatencyRequirement>();
+		patternResolver = new CategoryPatternResolver();
 	}
 
 	/**
@@ -72,6 +106,9 @@ public class Latency4JResourceManager implements Serializable {
 	public void reset() {
 		alertHandlers.clear();
 		latencyRequirements.clear();
+		patternRequirements.clear();
+		patternResolver.clear();
+		implicitRequirementTemplate = null;
 	}
 
 	/**
@@ -113,7 +150,8 @@ public class Latency4JResourceManager implements Serializable {
 	 * <p>
 	 * Indicates if the manager contains a reference to the
 	 * {@link LatencyRequirement latency requirement} for the given
-	 * {@link LatencyRequirement#getWorkCategory() category}.
+	 * {@link LatencyRequirement#getWorkCategory() category}, either registered
+	 * under that category or matched by a category pattern.
 	 * </p>
 	 * 
 	 * @param workCategory
@@ -128,7 +166,7 @@ public class Latency4JResourceManager implements Serializable {
 	 * @see #registerLatencyRequirement(LatencyRequirement)
 	 */
 	public boolean containsRequirement(final String workCategory) {
-		return latencyRequirements.containsKey(workCategory);
+		return getLatencyRequirement(workCategory) != null;
 	}
 
 	/**
@@ -139,6 +177,15 @@ public class Latency4JResourceManager implements Serializable {
 	 * previously {@link #registerLatencyRequirement(LatencyRequirement)
 	 * registered} with the manager.
 	 * </p>
+	 * <p>
+	 * Where no requirement is registered under the category itself, the
+	 * category is matched against the registered category patterns, as
+	 * described by {@link CategoryPatternResolver}. A matching pattern's
+	 * requirement is {@link LatencyRequirement#copyForCategory(String) copied}
+	 * for the category, so that statistics and persisted durations remain
+	 * keyed by the actual category; the copy is cached, and returned by
+	 * subsequent calls for the same category.
+	 * </p>
 	 * 
 	 * @param workCategory
 	 *            The {@link LatencyRequirement#getWorkCategory() category} of
@@ -154,9 +201,40 @@ public class Latency4JResourceManager implements Serializable {
 	 */
 	public LatencyRequirement getLatencyRequirement(final String workCategory) {
 		LatencyRequirement result = latencyRequirements.get(workCategory);
+		if (result == null) result = patternRequirements.get(workCategory);
+		if (result == null && !patternRequirements.isEmpty()) result = patternResolver.resolve(workCategory);
 		return result;
 	}
 
+	/**
+	 * <p>
+	 * Discards the requirement cached for a category which was resolved
+	 * against a category pattern, once the category is no longer monitored.
+	 * A later {@link #getLatencyRequirement(String) lookup} of the category
+	 * derives it afresh. Requirements registered under the category itself
+	 * are unaffected.
+	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}.
+	 */
+	public void releaseCategory(final String workCategory) {
+		patternResolver.evict(workCategory);
+	}
+
+	/**
+	 * <p>
+	 * Caps the number of categories whose lookups against the category
+	 * patterns are cached, as described by {@link CategoryPatternResolver}.
+	 * </p>
+	 * 
+	 * @param maxCachedCategories
+	 *            The cap, or <code>0</code> for no limit.
+	 */
+	public void setMaxCachedCategories(final int maxCachedCategories) {
+		patternResolver.setMaxCachedCategories(maxCachedCategories);
+	}
+
 	/**
 	 * <p>
 	 * Stores a reference to the specified {@link LatencyRequirement
@@ -165,6 +243,12 @@ public class Latency4JResourceManager implements Serializable {
 	 * {@link #getLatencyRequirement(String) retrieved} later using the
 	 * {@link LatencyRequirement#getWorkCategory() requirement category}.
 	 * </p>
+	 * <p>
+	 * A category containing a <code>*</code> wildcard, or prefixed with
+	 * <q>{@value CategoryPatternResolver#REGEX_PREFIX}</q>, is a category
+	 * pattern; the requirement then applies to every category which the
+	 * pattern matches and which has no requirement of its own.
+	 * </p>
 	 * 
 	 * @param requirement
 	 *            The {@link LatencyRequirement requirement} to store.
@@ -172,6 +256,59 @@ public class Latency4JResourceManager implements Serializable {
 	 * @see AsynchronousLatencyMonitorFactory#init()
 	 */
 	public void registerLatencyRequirement(final LatencyRequirement requirement) {
-		latencyRequirements.put(requirement.getWorkCategory(), requirement);
+		if (CategoryPatternResolver.isPattern(requirement.getWorkCategory())) {
+			if (patternRequirements.containsKey(requirement.getWorkCategory())) {
+				patternRequirements.put(requirement.getWorkCategory(), requirement);
+				patternResolver.clear();
+				for (LatencyRequirement patternRequirement : patternRequirements.values())
+					patternResolver.addPattern(patternRequirement);
+			} else {
+				patternResolver.addPattern(requirement);
+				patternRequirements.put(requirement.getWorkCategory(), requirement);
+			}
+		} else latencyRequirements.put(requirement.getWorkCategory(), requirement);
+	}
+
+	/**
+	 * <p>
+	 * Returns all {@link #registerLatencyRequirement(LatencyRequirement)
+	 * registered} {@link LatencyRequirement requirements}, other than those of
+	 * category patterns.
+	 * </p>
+	 * 
+	 * @return A copy of the registered {@link LatencyRequirement
+	 *         requirements}.
+	 */
+	public Collection<LatencyRequirement> getLatencyRequirements() {
+		return new ArrayList<LatencyRequirement>(latencyRequirements.values());
+	}
+
+	/**
+	 * <p>
+	 * Returns the template for implicit requirements. The template is not
+	 * {@link LatencyRequirement#init() initialised}, and has no
+	 * {@link LatencyRequirement#getWorkCategory() category}; its
+	 * {@link LatencyRequirement#getPersistenceManager() persistence manager}
+	 * and {@link LatencyRequirement#getAlertHandlers() alert handlers} are
+	 * shared by all implicit requirements.
+	 * </p>
+	 * 
+	 * @return The template, or <code>null</code> if none is configured.
+	 */
+	public StatisticalLatencyRequirement getImplicitRequirementTemplate() {
+		return implicitRequirementTemplate;
+	}
+
+	/**
+	 * <p>
+	 * Sets the template for implicit requirements.
+	 * </p>
+	 * 
+	 * @param implicitRequirementTemplate
+	 *            The template, or <code>null</code> to use the defaults.
+	 * @see #getImplicitRequirementTemplate()
+	 */
+	public void setImplicitRequirementTemplate(final StatisticalLatencyRequirement implicitRequirementTemplate) {
+		this.implicitRequirementTemplate = implicitRequirementTemplate;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,300 @@
+package org.latency4j.processing;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * A log-linear histogram of {@link WorkDuration#getElapsedTime() elapsed
+ * times}. Values below {@value #SUB_BUCKET_COUNT} milliseconds are counted
+ * exactly. Above that, each power of two is split into
+ * {@value #SUB_BUCKET_COUNT} equally sized buckets, which bounds the relative
+ * error of any reported percentile to roughly 6%.
+ * </p>
+ * <p>
+ * Instances are designed for a single writer (the {@link LatencyProcessor
+ * latency processor}) and any number of concurrent readers. The bucket array
+ * is only grown as far as the largest value recorded to date, so the memory
+ * used by a histogram is proportional to the logarithm of the slowest
+ * observed call. Readers never block the writer: they simply
+ * {@link #copyCounts() copy} whatever counts are visible at the time.
+ * </p>
+ */
+class LatencyHistogram {
+	/**
+	 * <p>
+	 * The number of bits used to select a bucket within a power of two.
+	 * </p>
+	 */
+	private static final int SUB_BUCKET_BITS = 4;
+
+	/**
+	 * <p>
+	 * The number of buckets into which each power of two is split.
+	 * </p>
+	 */
+	static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * <p>
+	 * The largest power of two that is tracked. Values beyond 2<sup>40</sup>
+	 * milliseconds (roughly 35 years) are counted in the last bucket.
+	 * </p>
+	 */
+	private static final int MAX_EXPONENT = 40;
+
+	/**
+	 * <p>
+	 * The total number of buckets required to cover all values up to
+	 * 2<sup>{@value #MAX_EXPONENT} + 1</sup>.
+	 * </p>
+	 */
+	static final int MAX_BUCKET_COUNT = bucketIndex(Long.MAX_VALUE) + 1;
+
+	/**
+	 * <p>
+	 * The initial number of buckets; enough for values up to 1024
+	 * milliseconds.
+	 * </p>
+	 */
+	private static final int INITIAL_BUCKET_COUNT = bucketIndex(1024) + 1;
+
+	/**
+	 * <p>
+	 * The bucket counts. The array is replaced (never resized in place) when a
+	 * value beyond the current range is recorded.
+	 * </p>
+	 */
+	private volatile AtomicLongArray counts;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 */
+	LatencyHistogram() {
+		counts = new AtomicLongArray(INITIAL_BUCKET_COUNT);
+	}
+
+	/**
+	 * <p>
+	 * Records the given number of occurrences of the specified value. This
+	 * method must only be invoked from a single thread.
+	 * </p>
+	 *
+	 * @param value
+	 *            The observed {@link WorkDuration#getElapsedTime() elapsed
+	 *            time} in milliseconds.
+	 * @param count
+	 *            The number of times the value was observed.
+	 */
+	void record(final long value, final long count) {
+		int index = bucketIndex(value);
+		AtomicLongArray target = counts;
+
+		if (index >= target.length()) target = grow(index + 1);
+		target.lazySet(index, target.get(index) + count);
+	}
+
+	/**
+	 * <p>
+	 * Adds the given bucket counts to those of this histogram. This method
+	 * must only be invoked from the thread which {@link #record(long, long)
+	 * records} values.
+	 * </p>
+	 *
+	 * @param bucketCounts
+	 *            Counts indexed as per {@link #bucketIndex(long)}.
+	 */
+	void merge(final long[] bucketCounts) {
+		AtomicLongArray target = counts;
+		int length = Math.min(bucketCounts.length, MAX_BUCKET_COUNT);
+		for (int i = length - 1; i >= 0; i--) {
+			if (bucketCounts[i] != 0) {
+				if (i >= target.length()) target = grow(i + 1);
+				target.lazySet(i, target.get(i) + bucketCounts[i]);
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Returns a copy of the bucket counts visible to the calling thread.
+	 * </p>
+	 *
+	 * @return A copy of the bucket counts. The value at index <code>i</code>
+	 *         is the number of observations between
+	 *         {@link #bucketLowerBound(int) bucketLowerBound(i)} and
+	 *         {@link #bucketUpperBound(int) bucketUpperBound(i)}.
+	 */
+	long[] copyCounts() {
+		AtomicLongArray source = counts;
+		long[] result = new long[source.length()];
+		for (int i = 0; i < result.length; i++)
+			result[i] = source.get(i);
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Returns the index of the bucket into which the given value falls.
+	 * </p>
+	 *
+	 * @param value
+	 *            The value whose bucket is required.
+	 * @return The index of the bucket into which the value falls.
+	 */
+	static int bucketIndex(final long value) {
+		int result;
+		if (value < SUB_BUCKET_COUNT) result = (int) Math.max(0, value);
+		else {
+			int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+			long mantissa = exponent == MAX_EXPONENT && value >= (1L << (MAX_EXPONENT + 1)) ? SUB_BUCKET_COUNT - 1
+					: (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+			result = (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + (int) mantissa;
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Returns the smallest value which falls into the given bucket.
+	 * </p>
+	 *
+	 * @param index
+	 *            The bucket index.
+	 * @return The (inclusive) lower bound of the bucket.
+	 */
+	static long bucketLowerBound(final int index) {
+		long result;
+		if (index < SUB_BUCKET_COUNT) result = index;
+		else {
+			int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+			long mantissa = index % SUB_BUCKET_COUNT;
+			result = (SUB_BUCKET_COUNT + mantissa) << (exponent - SUB_BUCKET_BITS);
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Returns the smallest value which falls into the bucket following the
+	 * given one.
+	 * </p>
+	 *
+	 * @param index
+	 *            The bucket index.
+	 * @return The (exclusive) upper bound of the bucket.
+	 */
+	static long bucketUpperBound(final int index) {
+		long result;
+		if (index < SUB_BUCKET_COUNT) result = index + 1;
+		else {
+			int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+			result = bucketLowerBound(index) + (1L << (exponent - SUB_BUCKET_BITS));
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Returns the value at the given quantile of the distribution described
+	 * by the specified bucket counts. The midpoint of the bucket in which the
+	 * quantile falls is returned.
+	 * </p>
+	 *
+	 * @param bucketCounts
+	 *            Bucket counts as returned by {@link #copyCounts()}.
+	 * @param quantile
+	 *            The quantile, between <code>0</code> and <code>1</code>.
+	 * @return The value at the given quantile, or <code>0</code> if no values
+	 *         have been recorded.
+	 */
+	static long valueAtQuantile(final long[] bucketCounts, final double quantile) {
+		long total = 0;
+		for (long count : bucketCounts)
+			total += count;
+
+		long result = 0;
+		if (total > 0) {
+			double clampedQuantile = Math.min(1.0d, Math.max(0.0d, quantile));
+			long rank = Math.max(1, (long) Math.ceil(clampedQuantile * total));
+			long seen = 0;
+			for (int i = 0; i < bucketCounts.length; i++) {
+				seen += bucketCounts[i];
+				if (seen >= rank) {
+					result = (bucketLowerBound(i) + bucketUpperBound(i) - 1) / 2;
+					break;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Returns the mean of the distribution described by the specified bucket
+	 * counts, once the given fraction of observations has been discarded from
+	 * each end. Observations are taken to lie at the midpoint of their
+	 * bucket; a bucket which straddles a cut-off contributes in proportion to
+	 * the share of it which is kept.
+	 * </p>
+	 *
+	 * @param bucketCounts
+	 *            Bucket counts as returned by {@link #copyCounts()}.
+	 * @param trim
+	 *            The fraction to discard from each end, between <code>0</code>
+	 *            and <code>0.5</code>.
+	 * @return The trimmed mean, or <code>0</code> if no values have been
+	 *         recorded.
+	 */
+	static double trimmedMean(final long[] bucketCounts, final double trim) {
+		long total = 0;
+		for (long count : bucketCounts)
+			total += count;
+
+		double result = 0;
+		if (total > 0) {
+			double clampedTrim = Math.min(0.5d, Math.max(0.0d, trim));
+			double lowerCut = total * clampedTrim;
+			double upperCut = total - lowerCut;
+			double seen = 0;
+			double sum = 0;
+			double kept = 0;
+			for (int i = 0; i < bucketCounts.length && seen < upperCut; i++) {
+				double from = Math.max(seen, lowerCut);
+				double to = Math.min(seen + bucketCounts[i], upperCut);
+				if (to > from) {
+					sum += (bucketLowerBound(i) + bucketUpperBound(i) - 1) / 2.0d * (to - from);
+					kept += to - from;
+				}
+				seen += bucketCounts[i];
+			}
+			// nothing is kept when trimming half from each end
+			result = kept > 0 ? sum / kept : valueAtQuantile(bucketCounts, 0.5d);
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Replaces the bucket array with a larger copy.
+	 * </p>
+	 *
+	 * @param minimumLength
+	 *            The minimum number of buckets required.
+	 * @return The new bucket array.
+	 */
+	private AtomicLongArray grow(final int minimumLength) {
+		AtomicLongArray source = counts;
+		int newLength = Math.min(MAX_BUCKET_COUNT, Math.max(minimumLength, source.length() + SUB_BUCKET_COUNT * 4));
+
+		AtomicLongArray result = new AtomicLongArray(newLength);
+		for (int i = 0; i < source.length(); i++)
+			result.lazySet(i, source.get(i));
+
+		counts = result;
+		return result;
+	}
+}// end class def
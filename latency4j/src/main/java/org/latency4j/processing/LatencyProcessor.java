@@ -1,16 +1,40 @@
 package org.latency4j.processing;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.ErrorRateLatencyRequirement;
 import org.latency4j.AlertHandler;
 import org.latency4j.LatencyRequirement;
+import org.latency4j.SloLatencyRequirement;
 import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.ThroughputLatencyRequirement;
 import org.latency4j.WorkDuration;
+import org.latency4j.persistence.BatchWorkDurationPersistenceManager;
+import org.latency4j.persistence.SingleRecordPersistenceAdapter;
 import org.latency4j.persistence.WorkDurationPersistenceManager;
+import org.latency4j.util.StripedCounter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,125 +67,1576 @@ public class LatencyProcessor extends Thread {
 	 */
 	private static final Logger logger = LoggerFactory.getLogger(LatencyProcessor.class);
 
+	/**
+	 * <p>
+	 * The key under which {@link #getStatisticsSnapshots(String) statistics}
+	 * for calls at the root of a monitored call stack are published. All other
+	 * statistics are keyed by {@link WorkDuration#getMethodName() method name}.
+	 * </p>
+	 */
+	public static final String ROOT_CALL_STATISTICS_KEY = RequirementStatisticsMap.ROOT_METHOD_MARKER;
+
+	/**
+	 * <p>
+	 * The interval, in milliseconds, at which {@link PeriodicTask periodic
+	 * tasks} are run.
+	 * </p>
+	 */
+	public static final long TICK_INTERVAL_MILLIS = 100;
+
+	/**
+	 * <p>
+	 * The maximum number of entries drained from the queue, and processed, as
+	 * one batch. The {@link WorkDuration durations} of a batch are persisted
+	 * together once it has been processed.
+	 * </p>
+	 */
+	public static final int MAX_DRAIN_SIZE = 256;
+
+	/**
+	 * <p>
+	 * The maximum number of entries deferred for a category while its
+	 * statistics are {@link #warmUp(LatencyRequirement, Executor) warming up}.
+	 * Beyond this, entries are processed without a baseline check.
+	 * </p>
+	 */
+	public static final int MAX_DEFERRED_ENTRIES = 10000;
+
+	/**
+	 * <p>
+	 * The category under which the statistics of
+	 * {@link #setMaxCategories(int) evicted} categories are accumulated.
+	 * </p>
+	 */
+	public static final String OVERFLOW_CATEGORY = "<OVERFLOW>";
+
+	/**
+	 * <p>
+	 * The key under which the statistics of
+	 * {@link #setMaxStatisticsKeys(int) evicted} methods are accumulated.
+	 * </p>
+	 */
+	public static final String OVERFLOW_STATISTICS_KEY = RequirementStatisticsMap.OVERFLOW_KEY;
+
+	/**
+	 * <p>
+	 * The default number of {@link #getSlowestCalls(String) slowest calls}
+	 * kept per category and time window.
+	 * </p>
+	 */
+	public static final int DEFAULT_SLOW_CALL_RESERVOIR_SIZE = 10;
+
+	/**
+	 * <p>
+	 * The default length, in milliseconds, of the time windows for which
+	 * {@link #getSlowestCalls(String) slowest calls} are kept.
+	 * </p>
+	 */
+	public static final long DEFAULT_SLOW_CALL_WINDOW_MILLIS = 60000;
+
 	/**
 	 * <p>
 	 * Map of {@link RequirementStatisticsMap requirement specific} latency
-	 * statistics.
+	 * statistics. Only the processing thread modifies the map, but other
+	 * threads may read it to take {@link WorkStatisticsSnapshot snapshots}.
+	 * </p>
+	 */
+	private final Map<String, RequirementStatisticsMap> statisticsMap;
+
+	/**
+	 * <p>
+	 * Provides a staging queue for {@link WorkDuration durations} waiting to be
+	 * processed.
+	 * </p>
+	 * 
+	 * @see ProcessingQueueEntry
+	 */
+	private final BlockingDeque<ProcessingQueueEntry> processingQueue;
+
+	/**
+	 * <p>
+	 * Counters of {@link WorkDuration durations} which were found to be within
+	 * the cap of a {@link CappedLatencyRequirement#isCallerThreadEvaluation()
+	 * caller thread evaluated} requirement, and hence never queued. Keyed by
+	 * {@link LatencyRequirement#getWorkCategory() category}.
+	 * </p>
+	 */
+	private final ConcurrentHashMap<String, StripedCounter> withinCapCounters;
+
+	/**
+	 * <p>
+	 * The {@link ThroughputTracker trackers} of
+	 * {@link ThroughputLatencyRequirement throughput requirements}, keyed by
+	 * {@link LatencyRequirement#getWorkCategory() category}.
+	 * </p>
+	 */
+	private final ConcurrentHashMap<String, ThroughputTracker> throughputTrackers;
+
+	/**
+	 * <p>
+	 * The number of {@link AsynchronousLatencyMonitor monitors} sharing the
+	 * {@link #withinCapCounters counter} and {@link #throughputTrackers
+	 * tracker} of each category, which are only discarded once the last of
+	 * them is released. Guarded by itself.
+	 * </p>
+	 */
+	private final Map<String, Integer> monitorReferences;
+
+	/**
+	 * <p>
+	 * The {@link ErrorBudgetTracker trackers} of {@link SloLatencyRequirement
+	 * SLO requirements}, keyed by {@link LatencyRequirement#getWorkCategory()
+	 * category}. Only created and updated on the processing thread.
+	 * </p>
+	 */
+	private final ConcurrentHashMap<String, ErrorBudgetTracker> errorBudgetTrackers;
+
+	/**
+	 * <p>
+	 * {@link PeriodicTask Tasks} run periodically on the processing thread.
+	 * </p>
+	 */
+	private final List<PeriodicTask> periodicTasks;
+
+	/**
+	 * <p>
+	 * {@link CategoryEvictionListener Listeners} notified, on the processing
+	 * thread, of evicted categories.
+	 * </p>
+	 */
+	private final List<CategoryEvictionListener> evictionListeners;
+
+	/**
+	 * <p>
+	 * {@link StatisticsKeyEvictionListener Listeners} notified, on the
+	 * processing thread, of evicted method statistics.
+	 * </p>
+	 */
+	private final List<StatisticsKeyEvictionListener> keyEvictionListeners;
+
+	/**
+	 * <p>
+	 * Set on every published {@link RequirementStatisticsMap statistics map}
+	 * to relay its evicted method statistics to the
+	 * {@link #keyEvictionListeners listeners}.
+	 * </p>
+	 */
+	private final StatisticsKeyEvictionListener keyEvictionRelay;
+
+	/**
+	 * <p>
+	 * The time at which {@link #periodicTasks periodic tasks} are next due.
+	 * Only accessed by the processing thread.
+	 * </p>
+	 */
+	private long nextTick;
+
+	/**
+	 * <p>
+	 * The entries of the batch being processed. Only accessed by the
+	 * processing thread.
+	 * </p>
+	 */
+	private final List<ProcessingQueueEntry> drainedEntries;
+
+	/**
+	 * <p>
+	 * {@link WorkDuration Durations} of the current batch awaiting
+	 * persistence, by {@link WorkDurationPersistenceManager persistence
+	 * manager}. Only accessed by the processing thread.
+	 * </p>
+	 */
+	private final Map<WorkDurationPersistenceManager, List<WorkDuration>> pendingPersistence;
+
+	/**
+	 * <p>
+	 * Every {@link WorkDurationPersistenceManager persistence manager} to
+	 * which durations have been handed, so that they can be
+	 * {@link BatchWorkDurationPersistenceManager#flush() flushed} when the
+	 * processor terminates. Only accessed by the processing thread.
+	 * </p>
+	 */
+	private final Map<WorkDurationPersistenceManager, BatchWorkDurationPersistenceManager> persistenceManagers;
+
+	/**
+	 * <p>
+	 * The number of categories with published statistics whose requirement
+	 * uses each {@link WorkDurationPersistenceManager persistence manager}.
+	 * Only accessed by the processing thread.
+	 * </p>
+	 */
+	private final Map<WorkDurationPersistenceManager, Integer> persistenceManagerUsage;
+
+	/**
+	 * <p>
+	 * {@link WorkDurationPersistenceManager Persistence managers} left unused
+	 * by evicted categories, whose {@link #persistenceManagers entries} are
+	 * discarded once the current batch is persisted. Only accessed by the
+	 * processing thread.
+	 * </p>
+	 */
+	private final List<WorkDurationPersistenceManager> unusedPersistenceManagers;
+
+	/**
+	 * <p>
+	 * {@link RequirementStatisticsMap Statistics} being built from history
+	 * on warm-up threads, keyed by {@link LatencyRequirement#getWorkCategory()
+	 * category}. Entries are removed by the processing thread once the
+	 * statistics have been installed.
+	 * </p>
+	 */
+	private final ConcurrentHashMap<String, WarmUpTask> warmUps;
+
+	/**
+	 * <p>
+	 * Entries held back, by {@link LatencyRequirement#getWorkCategory()
+	 * category}, until the category's statistics have been warmed up. Only
+	 * accessed by the processing thread.
+	 * </p>
+	 */
+	private final Map<String, List<ProcessingQueueEntry>> deferredEntries;
+
+	/**
+	 * <p>
+	 * The statistics of the entries which arrived for a warming up category
+	 * once {@link #MAX_DEFERRED_ENTRIES} were deferred, merged into its
+	 * statistics when they are installed. Keyed by category, and only
+	 * accessed by the processing thread.
+	 * </p>
+	 */
+	private final Map<String, RequirementStatisticsMap> pendingStatistics;
+
+	/**
+	 * <p>
+	 * The categories of {@link #statisticsMap}, other than
+	 * {@link #OVERFLOW_CATEGORY}, in order of last update, least recent
+	 * first. Only accessed by the processing thread.
+	 * </p>
+	 */
+	private final LinkedHashMap<String, RequirementStatisticsMap> categoryRecency;
+
+	/**
+	 * <p>
+	 * The maximum number of categories for which statistics are kept, or
+	 * <code>0</code> if unbounded.
+	 * </p>
+	 */
+	private volatile int maxCategories;
+
+	/**
+	 * <p>
+	 * The maximum number of methods for which the statistics of a category
+	 * are kept, or <code>0</code> if unbounded.
+	 * </p>
+	 */
+	private volatile int maxStatisticsKeys;
+
+	/**
+	 * <p>
+	 * The number of categories evicted to date.
+	 * </p>
+	 */
+	private volatile long evictedCategoryCount;
+
+	/**
+	 * <p>
+	 * The number of methods evicted, to date, from categories which have
+	 * since been evicted themselves.
+	 * </p>
+	 */
+	private volatile long retiredKeyEvictionCount;
+
+	/**
+	 * <p>
+	 * The number of slowest calls kept per category and time window, or
+	 * <code>0</code> if none are kept.
+	 * </p>
+	 */
+	private volatile int slowCallReservoirSize;
+
+	/**
+	 * <p>
+	 * The length, in milliseconds, of the time windows for which slowest calls
+	 * are kept.
+	 * </p>
+	 */
+	private volatile long slowCallWindowMillis;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 */
+	public LatencyProcessor() {
+		this.processingQueue = new LinkedBlockingDeque<ProcessingQueueEntry>();
+		this.statisticsMap = new ConcurrentHashMap<String, RequirementStatisticsMap>();
+		this.withinCapCounters = new ConcurrentHashMap<String, StripedCounter>();
+		this.throughputTrackers = new ConcurrentHashMap<String, ThroughputTracker>();
+		this.monitorReferences = new HashMap<String, Integer>();
+		this.errorBudgetTrackers = new ConcurrentHashMap<String, ErrorBudgetTracker>();
+		this.periodicTasks = new CopyOnWriteArrayList<PeriodicTask>();
+		this.evictionListeners = new CopyOnWriteArrayList<CategoryEvictionListener>();
+		this.keyEvictionListeners = new CopyOnWriteArrayList<StatisticsKeyEvictionListener>();
+		this.keyEvictionRelay = new StatisticsKeyEvictionListener() {
+			@Override
+			public void statisticsKeyEvicted(final String workCategory, final String statisticsKey) {
+				for (StatisticsKeyEvictionListener listener : keyEvictionListeners) {
+					try {
+						listener.statisticsKeyEvicted(workCategory, statisticsKey);
+					} catch (Throwable t) {
+						logger.warn("Unexpected error notifying eviction listener " + listener + ".", t);
+					}
+				}
+			}
+		};
+		this.drainedEntries = new ArrayList<ProcessingQueueEntry>(MAX_DRAIN_SIZE);
+		this.pendingPersistence = new IdentityHashMap<WorkDurationPersistenceManager, List<WorkDuration>>();
+		this.persistenceManagers = new IdentityHashMap<WorkDurationPersistenceManager, BatchWorkDurationPersistenceManager>();
+		this.persistenceManagerUsage = new IdentityHashMap<WorkDurationPersistenceManager, Integer>();
+		this.unusedPersistenceManagers = new ArrayList<WorkDurationPersistenceManager>();
+		this.warmUps = new ConcurrentHashMap<String, WarmUpTask>();
+		this.deferredEntries = new HashMap<String, List<ProcessingQueueEntry>>();
+		this.pendingStatistics = new HashMap<String, RequirementStatisticsMap>();
+		this.categoryRecency = new LinkedHashMap<String, RequirementStatisticsMap>(16, 0.75f, true);
+		this.slowCallReservoirSize = DEFAULT_SLOW_CALL_RESERVOIR_SIZE;
+		this.slowCallWindowMillis = DEFAULT_SLOW_CALL_WINDOW_MILLIS;
+		setDaemon(true);
+	}
+
+	/**
+	 * <p>
+	 * Asynchronous {@link WorkDuration duration} processing logic. This method
+	 * drains {@link ProcessingQueueEntry#getDuration() durations} from the
+	 * {@link #processingQueue inbound queue}, up to {@link #MAX_DRAIN_SIZE} at
+	 * a time, processes them and triggers any relevant {@link AlertHandler
+	 * alerts}. After processing a batch it persists its {@link WorkDuration
+	 * durations} to storage, with a single
+	 * {@link BatchWorkDurationPersistenceManager#save(java.util.Collection)
+	 * batch save} per {@link WorkDurationPersistenceManager persistence
+	 * manager} specified for the {@link ProcessingQueueEntry#getRequirement()
+	 * requirements} to which the {@link ProcessingQueueEntry#getDuration()
+	 * durations} relate.
+	 * </p>
+	 * <p>
+	 * Between entries, and at least every {@link #TICK_INTERVAL_MILLIS}
+	 * milliseconds, any {@link #registerPeriodicTask(PeriodicTask) periodic
+	 * tasks} are run, and any statistics which have finished
+	 * {@link #warmUp(LatencyRequirement, Executor) warming up} are installed.
+	 * </p>
+	 */
+	@Override
+	public void run() {
+		ProcessingQueueEntry processingQueueEntry;
+		while (true) {
+			try {
+				processingQueueEntry = processingQueue.poll(TICK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+				installCompletedWarmUps();
+				if (processingQueueEntry != null) {
+					drainedEntries.add(processingQueueEntry);
+					processingQueue.drainTo(drainedEntries, MAX_DRAIN_SIZE - 1);
+					processDrainedEntries();
+				}
+				runPeriodicTasksIfDue();
+			} catch (InterruptedException intExce) {
+				logger.warn("Asynchronous processing thread interrupted." + "Terminating Epsilon processor.");
+				flushPersistenceManagers();
+				break;
+			} catch (Throwable t) {
+				logger.warn("Unexpected error in asynchronous processing " + "thread. Skipping WorkDuration instance.",
+						t);
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Queues the {@link WorkDuration duration} for a completed
+	 * {@link LatencyRequirement#getWorkCategory() operation} so that it can be
+	 * processed asynchronously.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link LatencyRequirement requirement} to which the
+	 *            {@link WorkDuration duration} relates.
+	 * @param duration
+	 *            The {@link WorkDuration duration} to be processed.
+	 */
+	protected void processTaskCompletion(final LatencyRequirement requirement, final WorkDuration duration) {
+		processTaskCompletion(requirement, duration, 1);
+	}
+
+	/**
+	 * <p>
+	 * Queues the {@link WorkDuration duration} of a completed
+	 * {@link LatencyRequirement#getWorkCategory() operation} which stands for
+	 * the given number of executions, as is the case for
+	 * {@link LatencyRequirement#getSamplingRate() sampled} durations.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link LatencyRequirement requirement} to which the
+	 *            {@link WorkDuration duration} relates.
+	 * @param duration
+	 *            The {@link WorkDuration duration} to be processed.
+	 * @param weight
+	 *            The number of executions which the duration stands for.
+	 */
+	protected void processTaskCompletion(final LatencyRequirement requirement, final WorkDuration duration,
+			final long weight) {
+		/*
+		 * We do not synchronize this method, because we want to ensure that
+		 * monitors can enqueue durations at all times!
+		 */
+		ProcessingQueueEntry processingQueueEntry = new ProcessingQueueEntry(duration, requirement, weight);
+		processingQueue.add(processingQueueEntry);
+	}
+
+	/**
+	 * <p>
+	 * Queues observations {@link StatisticsDelta aggregated} on an application
+	 * thread, for merging into the statistics of the given requirement.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link LatencyRequirement requirement} to which the
+	 *            observations relate.
+	 * @param deltas
+	 *            The aggregated observations, keyed by statistics key.
+	 */
+	void processStatisticsDeltas(final LatencyRequirement requirement, final Map<String, StatisticsDelta> deltas) {
+		processingQueue.add(new ProcessingQueueEntry(requirement, deltas));
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of entries waiting to be processed.
+	 * </p>
+	 * 
+	 * @return The length of the processing queue.
+	 */
+	public int getQueueSize() {
+		return processingQueue.size();
+	}
+
+	/**
+	 * <p>
+	 * Registers a {@link PeriodicTask task} to be run periodically on the
+	 * processing thread.
+	 * </p>
+	 * 
+	 * @param task
+	 *            The task to register.
+	 */
+	void registerPeriodicTask(final PeriodicTask task) {
+		periodicTasks.add(task);
+	}
+
+	/**
+	 * <p>
+	 * Removes a {@link #registerPeriodicTask(PeriodicTask) registered}
+	 * {@link PeriodicTask task}. The task may still be run once more if the
+	 * processing thread is running tasks at the time.
+	 * </p>
+	 * 
+	 * @param task
+	 *            The task to remove.
+	 */
+	void unregisterPeriodicTask(final PeriodicTask task) {
+		periodicTasks.remove(task);
+	}
+
+	/**
+	 * <p>
+	 * Registers a {@link CategoryEvictionListener listener} to be notified
+	 * when the statistics of a category are evicted to respect the
+	 * {@link #setMaxCategories(int) cap}.
+	 * </p>
+	 * 
+	 * @param listener
+	 *            The listener to register.
+	 */
+	public void addCategoryEvictionListener(final CategoryEvictionListener listener) {
+		evictionListeners.add(listener);
+	}
+
+	/**
+	 * <p>
+	 * Removes a {@link #addCategoryEvictionListener(CategoryEvictionListener)
+	 * registered} {@link CategoryEvictionListener listener}.
+	 * </p>
+	 * 
+	 * @param listener
+	 *            The listener to remove.
+	 */
+	public void removeCategoryEvictionListener(final CategoryEvictionListener listener) {
+		evictionListeners.remove(listener);
+	}
+
+	/**
+	 * <p>
+	 * Registers a {@link StatisticsKeyEvictionListener listener} to be
+	 * notified when the statistics of a method are evicted to respect the
+	 * {@link #setMaxStatisticsKeys(int) cap}.
+	 * </p>
+	 * 
+	 * @param listener
+	 *            The listener to register.
+	 */
+	public void addStatisticsKeyEvictionListener(final StatisticsKeyEvictionListener listener) {
+		keyEvictionListeners.add(listener);
+	}
+
+	/**
+	 * <p>
+	 * Removes a
+	 * {@link #addStatisticsKeyEvictionListener(StatisticsKeyEvictionListener)
+	 * registered} {@link StatisticsKeyEvictionListener listener}.
+	 * </p>
+	 * 
+	 * @param listener
+	 *            The listener to remove.
+	 */
+	public void removeStatisticsKeyEvictionListener(final StatisticsKeyEvictionListener listener) {
+		keyEvictionListeners.remove(listener);
+	}
+
+	/**
+	 * <p>
+	 * Returns the maximum number of categories for which statistics are kept.
+	 * </p>
+	 * 
+	 * @return The cap, or <code>0</code> if unbounded.
+	 * @see #setMaxCategories(int)
+	 */
+	public int getMaxCategories() {
+		return maxCategories;
+	}
+
+	/**
+	 * <p>
+	 * Caps the number of categories for which statistics are kept. Beyond the
+	 * cap, the statistics of the least recently updated category are evicted
+	 * and folded, method by method, into those of {@link #OVERFLOW_CATEGORY}.
+	 * An evicted category which is observed again starts afresh, from its
+	 * history where it has any.
+	 * </p>
+	 * 
+	 * @param maxCategories
+	 *            The cap, or <code>0</code> for no limit.
+	 */
+	public void setMaxCategories(final int maxCategories) {
+		this.maxCategories = maxCategories;
+	}
+
+	/**
+	 * <p>
+	 * Returns the maximum number of methods for which the statistics of a
+	 * category are kept.
+	 * </p>
+	 * 
+	 * @return The cap, or <code>0</code> if unbounded.
+	 * @see #setMaxStatisticsKeys(int)
+	 */
+	public int getMaxStatisticsKeys() {
+		return maxStatisticsKeys;
+	}
+
+	/**
+	 * <p>
+	 * Caps the number of methods for which the statistics of a category are
+	 * kept, not counting {@link #ROOT_CALL_STATISTICS_KEY root calls}. Beyond
+	 * the cap, the statistics of the least recently updated method are
+	 * evicted and folded into those kept under
+	 * {@link #OVERFLOW_STATISTICS_KEY}. The cap applies to categories whose
+	 * statistics are created after it is set.
+	 * </p>
+	 * 
+	 * @param maxStatisticsKeys
+	 *            The cap, or <code>0</code> for no limit.
+	 */
+	public void setMaxStatisticsKeys(final int maxStatisticsKeys) {
+		this.maxStatisticsKeys = maxStatisticsKeys;
+	}
+
+	public int getSlowCallReservoirSize() {
+		return slowCallReservoirSize;
+	}
+
+	/**
+	 * <p>
+	 * Sets the number of {@link #getSlowestCalls(String) slowest calls} kept
+	 * per category and time window. Applies to categories first observed
+	 * after it is set.
+	 * </p>
+	 * 
+	 * @param slowCallReservoirSize
+	 *            The number of calls, or <code>0</code> to keep none.
+	 */
+	public void setSlowCallReservoirSize(final int slowCallReservoirSize) {
+		this.slowCallReservoirSize = slowCallReservoirSize;
+	}
+
+	public long getSlowCallWindowMillis() {
+		return slowCallWindowMillis;
+	}
+
+	/**
+	 * <p>
+	 * Sets the length of the time windows for which
+	 * {@link #getSlowestCalls(String) slowest calls} are kept. Applies to
+	 * categories first observed after it is set.
+	 * </p>
+	 * 
+	 * @param slowCallWindowMillis
+	 *            The window length, in milliseconds; must be positive.
+	 */
+	public void setSlowCallWindowMillis(final long slowCallWindowMillis) {
+		if (slowCallWindowMillis <= 0)
+			throw new IllegalArgumentException("Slow call window must be greater than 0.");
+		this.slowCallWindowMillis = slowCallWindowMillis;
+	}
+
+	/**
+	 * @return The number of categories whose statistics have been evicted to
+	 *         date.
+	 */
+	public long getEvictedCategoryCount() {
+		return evictedCategoryCount;
+	}
+
+	/**
+	 * @return The number of methods whose statistics have been evicted to
+	 *         date, across all categories.
+	 */
+	public long getEvictedStatisticsKeyCount() {
+		long result = retiredKeyEvictionCount;
+		for (RequirementStatisticsMap requirementStatisticsMap : statisticsMap.values())
+			result += requirementStatisticsMap.getEvictionCount();
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Merges observations {@link StatisticsDelta aggregated} on an application
+	 * thread into the statistics of the given requirement. Must only be
+	 * invoked on the processing thread, i.e. from {@link PeriodicTask periodic
+	 * tasks} or queue processing.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link LatencyRequirement requirement} to which the
+	 *            observations relate.
+	 * @param deltas
+	 *            The aggregated observations, keyed by statistics key.
+	 */
+	void mergeStatisticsDeltas(final LatencyRequirement requirement, final Map<String, StatisticsDelta> deltas) {
+		RequirementStatisticsMap requirementStatisticsMap = getOrCreateStatisticsMap(requirement);
+		for (Map.Entry<String, StatisticsDelta> entry : deltas.entrySet())
+			requirementStatisticsMap.getOrCreateStatistics(entry.getKey()).merge(entry.getValue());
+	}
+
+	/**
+	 * <p>
+	 * Starts building the {@link RequirementStatisticsMap statistics} of the
+	 * given requirement, including the replay of its history, on the given
+	 * executor rather than lazily on the processing thread. Until they are
+	 * ready, entries for the requirement's category are deferred, up to
+	 * {@link #MAX_DEFERRED_ENTRIES}, so that the processing of other
+	 * categories is not held up. Has no effect if the category's statistics
+	 * already exist or are being warmed up.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link LatencyRequirement requirement} whose statistics
+	 *            are to be built.
+	 * @param executor
+	 *            The executor on which to build them.
+	 */
+	void warmUp(final LatencyRequirement requirement, final Executor executor) {
+		String workCategory = requirement.getWorkCategory();
+		if (statisticsMap.containsKey(workCategory)) return;
+
+		WarmUpTask task = new WarmUpTask(requirement, maxStatisticsKeys);
+		if (warmUps.putIfAbsent(workCategory, task) == null) {
+			try {
+				executor.execute(task);
+			} catch (RejectedExecutionException exce) {
+				logger.warn("Unable to warm up statistics for latency-requirement: " + workCategory + ".", exce);
+				task.cancel(false);
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Indicates if the statistics of any requirement are still
+	 * {@link #warmUp(LatencyRequirement, Executor) warming up}.
+	 * </p>
+	 * 
+	 * @return <code>True</code> if any statistics have yet to be installed.
+	 */
+	public boolean isWarmingUp() {
+		return !warmUps.isEmpty();
+	}
+
+	/**
+	 * <p>
+	 * Installs the statistics which have finished warming up, merges in the
+	 * {@link #pendingStatistics statistics} of entries which could not be
+	 * deferred, and processes the entries deferred for their categories.
+	 * Where a warm-up failed, the category starts with empty statistics.
+	 * </p>
+	 */
+	private void installCompletedWarmUps() {
+		if (warmUps.isEmpty()) return;
+
+		for (Iterator<Map.Entry<String, WarmUpTask>> iterator = warmUps.entrySet().iterator(); iterator.hasNext();) {
+			Map.Entry<String, WarmUpTask> entry = iterator.next();
+			WarmUpTask task = entry.getValue();
+			if (!task.isDone()) continue;
+
+			RequirementStatisticsMap requirementStatisticsMap = null;
+			try {
+				requirementStatisticsMap = task.get();
+			} catch (ExecutionException exce) {
+				logger.warn("Error warming up statistics for latency-requirement: " + entry.getKey() + ".",
+						exce.getCause());
+			} catch (CancellationException exce) {
+				// warm-up was not started
+			} catch (InterruptedException exce) {
+				// cannot occur as the task is done
+				Thread.currentThread().interrupt();
+			}
+
+			if (!statisticsMap.containsKey(entry.getKey())) {
+				if (requirementStatisticsMap == null) requirementStatisticsMap = new RequirementStatisticsMap(
+						task.getRequirement(), false, maxStatisticsKeys);
+				installStatisticsMap(entry.getKey(), requirementStatisticsMap);
+			}
+
+			RequirementStatisticsMap pending = pendingStatistics.remove(entry.getKey());
+			if (pending != null) statisticsMap.get(entry.getKey()).mergeAll(pending);
+
+			List<ProcessingQueueEntry> deferred = deferredEntries.remove(entry.getKey());
+			if (deferred != null) {
+				drainedEntries.addAll(deferred);
+				processDrainedEntries();
+			}
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Indicates if entries for the requirement's category must be deferred,
+	 * i.e. if its statistics are warming up and have yet to be installed.
+	 * </p>
+	 */
+	private boolean isDeferred(final LatencyRequirement latencyRequirement) {
+		String workCategory = latencyRequirement.getWorkCategory();
+		return !warmUps.isEmpty() && warmUps.containsKey(workCategory) && !statisticsMap.containsKey(workCategory);
+	}
+
+	/**
+	 * <p>
+	 * Holds back an entry whose category's statistics are warming up. Once
+	 * {@link #MAX_DEFERRED_ENTRIES} are held, further entries are processed
+	 * without a baseline check: failures are still notified and durations
+	 * persisted, while their observations are folded into the category's
+	 * {@link #pendingStatistics pending statistics}.
+	 * </p>
+	 */
+	private void defer(final ProcessingQueueEntry processingQueueEntry) {
+		LatencyRequirement latencyRequirement = processingQueueEntry.getRequirement();
+		String workCategory = latencyRequirement.getWorkCategory();
+
+		List<ProcessingQueueEntry> deferred = deferredEntries.get(workCategory);
+		if (deferred == null) {
+			deferred = new ArrayList<ProcessingQueueEntry>();
+			deferredEntries.put(workCategory, deferred);
+		}
+
+		if (deferred.size() < MAX_DEFERRED_ENTRIES) {
+			deferred.add(processingQueueEntry);
+			if (deferred.size() == MAX_DEFERRED_ENTRIES)
+				logger.warn("Statistics for latency-requirement '{}' are still warming up. Skipping baseline checks.",
+						workCategory);
+		} else {
+			RequirementStatisticsMap pending = pendingStatistics.get(workCategory);
+			if (pending == null) {
+				pending = new RequirementStatisticsMap(latencyRequirement, false, maxStatisticsKeys);
+				pendingStatistics.put(workCategory, pending);
+			}
+
+			if (processingQueueEntry.getDeltas() != null) {
+				for (Map.Entry<String, StatisticsDelta> entry : processingQueueEntry.getDeltas().entrySet())
+					pending.getOrCreateStatistics(entry.getKey()).merge(entry.getValue());
+			} else {
+				WorkDuration duration = processingQueueEntry.getDuration();
+				long weight = processingQueueEntry.getWeight();
+				boolean persist = latencyRequirement.getPersistenceManager() != null;
+
+				// durations of weight 0 are already accounted for in aggregates
+				if (weight > 0) {
+					WorkStatistics statistics = pending.getOrCreateStatistics(duration);
+					if (!duration.isErrored()) statistics.update(duration.getElapsedTime(), weight);
+					else {
+						statistics.recordError();
+						if (!latencyRequirement.isIgnoreErrors()) {
+							persist = false;
+							NotificationsIssuer.issueWorkCategoryFailureNotification(latencyRequirement, duration);
+						}
+					}
+				}
+
+				if (persist) {
+					if (weight > 1) duration.setWeight(weight);
+					queueForPersistence(latencyRequirement.getPersistenceManager(), duration);
+				}
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Runs the {@link #registerPeriodicTask(PeriodicTask) periodic tasks} if
+	 * they are due.
+	 * </p>
+	 */
+	private void runPeriodicTasksIfDue() {
+		long now = System.currentTimeMillis();
+		if (now >= nextTick) {
+			nextTick = now + TICK_INTERVAL_MILLIS;
+			for (PeriodicTask task : periodicTasks) {
+				try {
+					task.tick(now);
+				} catch (Throwable t) {
+					logger.warn("Unexpected error running periodic task " + task + ".", t);
+				}
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Processes the {@link #drainedEntries drained entries}, then persists the
+	 * durations they yielded. An entry which fails to process does not
+	 * prevent the remainder of the batch from being processed.
+	 * </p>
+	 */
+	private void processDrainedEntries() {
+		try {
+			for (ProcessingQueueEntry processingQueueEntry : drainedEntries) {
+				try {
+					process(processingQueueEntry);
+				} catch (RuntimeException exce) {
+					logger.warn("Unexpected error in asynchronous processing thread. Skipping WorkDuration instance.",
+							exce);
+				}
+			}
+		}
+		finally {
+			drainedEntries.clear();
+			persistPendingDurations();
+			discardUnusedPersistenceManagers();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Adds a {@link WorkDuration duration} to those to be persisted at the end
+	 * of the current batch.
+	 * </p>
+	 */
+	private void queueForPersistence(final WorkDurationPersistenceManager persistenceManager,
+			final WorkDuration duration) {
+		List<WorkDuration> durations = pendingPersistence.get(persistenceManager);
+		if (durations == null) {
+			durations = new ArrayList<WorkDuration>();
+			pendingPersistence.put(persistenceManager, durations);
+		}
+		durations.add(duration);
+	}
+
+	/**
+	 * <p>
+	 * Hands the {@link WorkDuration durations} of the current batch to their
+	 * {@link WorkDurationPersistenceManager persistence managers}, with one
+	 * {@link BatchWorkDurationPersistenceManager#save(java.util.Collection)
+	 * batch save} per manager. Managers which do not support batches are
+	 * {@link SingleRecordPersistenceAdapter adapted}.
+	 * </p>
+	 */
+	private void persistPendingDurations() {
+		if (pendingPersistence.isEmpty()) return;
+
+		for (Map.Entry<WorkDurationPersistenceManager, List<WorkDuration>> entry : pendingPersistence.entrySet()) {
+			try {
+				BatchWorkDurationPersistenceManager persistenceManager = persistenceManagers.get(entry.getKey());
+				if (persistenceManager == null) {
+					persistenceManager = SingleRecordPersistenceAdapter.adapt(entry.getKey());
+					persistenceManagers.put(entry.getKey(), persistenceManager);
+				}
+				persistenceManager.save(entry.getValue());
+			} catch (RuntimeException exce) {
+				logger.warn("Error persisting " + entry.getValue().size() + " task-durations.", exce);
+			}
+		}
+		pendingPersistence.clear();
+	}
+
+	/**
+	 * <p>
+	 * {@link BatchWorkDurationPersistenceManager#flush() Flushes} and forgets
+	 * the {@link #unusedPersistenceManagers persistence managers} which no
+	 * category with published statistics uses any longer. A manager is
+	 * adapted afresh if durations are later handed to it.
+	 * </p>
+	 */
+	private void discardUnusedPersistenceManagers() {
+		if (unusedPersistenceManagers.isEmpty()) return;
+
+		for (WorkDurationPersistenceManager unused : unusedPersistenceManagers) {
+			BatchWorkDurationPersistenceManager persistenceManager = persistenceManagerUsage.containsKey(unused) ? null
+					: persistenceManagers.remove(unused);
+			if (persistenceManager != null) {
+				try {
+					persistenceManager.flush();
+				} catch (RuntimeException exce) {
+					logger.warn("Error flushing persistence manager.", exce);
+				}
+			}
+		}
+		unusedPersistenceManagers.clear();
+	}
+
+	/**
+	 * <p>
+	 * {@link BatchWorkDurationPersistenceManager#flush() Flushes} every
+	 * {@link WorkDurationPersistenceManager persistence manager} to which
+	 * durations have been handed.
+	 * </p>
+	 */
+	private void flushPersistenceManagers() {
+		for (BatchWorkDurationPersistenceManager persistenceManager : persistenceManagers.values()) {
+			try {
+				persistenceManager.flush();
+			} catch (RuntimeException exce) {
+				logger.warn("Error flushing persistence manager.", exce);
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Compares the supplied {@link ProcessingQueueEntry#getDuration() duration}
+	 * to the {@link ProcessingQueueEntry#getRequirement() requirement}, and the
+	 * {@link WorkStatistics statistics} collated to date, in order to determine
+	 * if an {@link AlertHandler alert} should be issued, and triggers
+	 * the issuing of such alerts.
+	 * </p>
+	 * 
+	 * @param processingQueueEntry
+	 *            The {@link ProcessingQueueEntry Queue entry} encompassing both
+	 *            the {@link WorkDuration duration} to process, and the
+	 *            {@link LatencyRequirement requirement} to which it relates.
+	 *            Entries carrying {@link ProcessingQueueEntry#getDeltas()
+	 *            aggregated observations} are merged into the statistics, and
+	 *            entries with a weight of <code>0</code> (durations already
+	 *            accounted for in such aggregates) are only persisted.
+	 *            Entries for categories whose statistics are still
+	 *            {@link #warmUp(LatencyRequirement, Executor) warming up} are
+	 *            {@link #defer(ProcessingQueueEntry) deferred}.
+	 */
+	private void process(final ProcessingQueueEntry processingQueueEntry) {
+		WorkDuration duration = processingQueueEntry.getDuration();
+		LatencyRequirement latencyRequirement = processingQueueEntry.getRequirement();
+		long weight = processingQueueEntry.getWeight();
+
+		if (isDeferred(latencyRequirement)) defer(processingQueueEntry);
+		else if (processingQueueEntry.getDeltas() != null)
+			mergeStatisticsDeltas(latencyRequirement, processingQueueEntry.getDeltas());
+		else if (weight == 0) {
+			if (latencyRequirement.getPersistenceManager() != null)
+				queueForPersistence(latencyRequirement.getPersistenceManager(), duration);
+		} else processDuration(duration, latencyRequirement, weight);
+	}
+
+	/**
+	 * <p>
+	 * Processes a single {@link WorkDuration duration}, issuing any relevant
+	 * {@link AlertHandler alerts} and persisting it.
+	 * </p>
+	 * 
+	 * @param duration
+	 *            The {@link WorkDuration duration} to process.
+	 * @param latencyRequirement
+	 *            The {@link LatencyRequirement requirement} to which it
+	 *            relates.
+	 * @param weight
+	 *            The number of executions which the duration stands for.
+	 */
+	private void processDuration(final WorkDuration duration, final LatencyRequirement latencyRequirement,
+			final long weight) {
+		double elapsedTime = duration.getElapsedTime();
+		boolean persist = latencyRequirement.getPersistenceManager() != null;
+
+		RequirementStatisticsMap requirementStatisticsMap = getOrCreateStatisticsMap(latencyRequirement);
+		WorkStatistics statistics = requirementStatisticsMap.getOrCreateStatistics(duration);
+		if (slowCallReservoirSize > 0) requirementStatisticsMap
+				.getOrCreateSlowCallReservoir(slowCallReservoirSize, slowCallWindowMillis).offer(duration);
+
+		if (duration.isRoot() && latencyRequirement instanceof ErrorRateLatencyRequirement)
+			processAccordingToErrorRateRequirement(duration, (ErrorRateLatencyRequirement) latencyRequirement,
+					requirementStatisticsMap, weight);
+		else if (duration.isRoot() && latencyRequirement instanceof SloLatencyRequirement)
+			getOrCreateErrorBudgetTracker((SloLatencyRequirement) latencyRequirement).record(duration, weight);
+
+		// then process requirement
+		if (duration.isErrored()) {
+			statistics.recordError();
+			if (!latencyRequirement.isIgnoreErrors()) {
+				persist = false;
+				NotificationsIssuer.issueWorkCategoryFailureNotification(latencyRequirement, duration);
+			}
+		} else {
+			requirementStatisticsMap.getOrCreateCallTree().record(duration, weight);
+			if (latencyRequirement instanceof StatisticalLatencyRequirement) {
+				processAccordingToStatisticalRequirement(duration, (StatisticalLatencyRequirement) latencyRequirement,
+						requirementStatisticsMap, statistics, weight);
+			} else if (latencyRequirement instanceof CappedLatencyRequirement) {
+				CappedLatencyRequirement cappedRequirement = (CappedLatencyRequirement) latencyRequirement;
+
+				statistics.update(duration.getElapsedTime(), weight);
+				Long methodLatency = cappedRequirement.getMethodLatency(duration.getMethodName());
+				if (methodLatency != null) {
+					if (elapsedTime > methodLatency) {
+						statistics.recordBreach();
+						NotificationsIssuer.issueTargetMissedNotification(cappedRequirement, duration);
+					}
+				} else if (duration.isRoot()) {
+					long warningLatency = cappedRequirement.getWarningLatency();
+					if (elapsedTime > cappedRequirement.getExpectedLatency()) {
+						statistics.recordBreach();
+						NotificationsIssuer.issueTargetMissedNotification(cappedRequirement, duration);
+					} else if (warningLatency > 0 && elapsedTime > warningLatency) {
+						statistics.recordWarning();
+						NotificationsIssuer.issueWarningExceededNotification(cappedRequirement, duration);
+					}
+				}
+			} else statistics.update(duration.getElapsedTime(), weight);
+		}
+
+		if (persist) {
+			// sampled durations are persisted with their weight, so that history is replayed unbiased
+			duration.setWeight(weight);
+			queueForPersistence(latencyRequirement.getPersistenceManager(), duration);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link LatencyRequirement#getWorkCategory() categories} for
+	 * which the processor has collated statistics to date.
+	 * </p>
+	 * 
+	 * @return An unmodifiable view of the monitored categories.
+	 */
+	public Set<String> getMonitoredCategories() {
+		return Collections.unmodifiableSet(statisticsMap.keySet());
+	}
+
+	/**
+	 * <p>
+	 * Returns the keys under which statistics have been collated for the given
+	 * {@link LatencyRequirement#getWorkCategory() category}.
+	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}
+	 *            whose statistics keys are required.
+	 * @return An unmodifiable view of the {@link WorkDuration#getMethodName()
+	 *         method names} observed for the category, including
+	 *         {@link #ROOT_CALL_STATISTICS_KEY} where root calls have been
+	 *         observed.
+	 */
+	public Set<String> getStatisticsKeys(final String workCategory) {
+		Set<String> result;
+		RequirementStatisticsMap requirementStatisticsMap = statisticsMap.get(workCategory);
+
+		if (requirementStatisticsMap != null) result = Collections.unmodifiableSet(requirementStatisticsMap.keySet());
+		else result = Collections.emptySet();
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Returns {@link WorkStatisticsSnapshot snapshots} of all statistics
+	 * collated to date for the given {@link LatencyRequirement#getWorkCategory()
+	 * category}. This method can be invoked from any thread, and never blocks
+	 * the processing thread.
+	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}
+	 *            whose statistics are required.
+	 * @return The {@link WorkStatisticsSnapshot snapshots} for the category
+	 *         keyed by {@link WorkDuration#getMethodName() method name}, with
+	 *         root calls keyed by {@link #ROOT_CALL_STATISTICS_KEY}. An empty
+	 *         map is returned if the category has not been observed.
+	 */
+	public Map<String, WorkStatisticsSnapshot> getStatisticsSnapshots(final String workCategory) {
+		Map<String, WorkStatisticsSnapshot> result = new HashMap<String, WorkStatisticsSnapshot>();
+		RequirementStatisticsMap requirementStatisticsMap = statisticsMap.get(workCategory);
+
+		if (requirementStatisticsMap != null) {
+			for (Map.Entry<String, WorkStatistics> entry : requirementStatisticsMap.entrySet())
+				result.put(entry.getKey(), entry.getValue().snapshot());
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Returns a {@link WorkStatisticsSnapshot snapshot} of the statistics
+	 * collated to date for the given {@link LatencyRequirement#getWorkCategory()
+	 * category} and method. This method can be invoked from any thread, and
+	 * never blocks the processing thread.
 	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}
+	 *            whose statistics are required.
+	 * @param statisticsKey
+	 *            The {@link WorkDuration#getMethodName() method name}, or
+	 *            {@link #ROOT_CALL_STATISTICS_KEY} for root calls.
+	 * @return A {@link WorkStatisticsSnapshot snapshot} of the statistics, or
+	 *         <code>null</code> if none have been collated.
 	 */
-	private final Map<String, RequirementStatisticsMap> statisticsMap;
+	public WorkStatisticsSnapshot getStatisticsSnapshot(final String workCategory, final String statisticsKey) {
+		WorkStatisticsSnapshot result = null;
+		RequirementStatisticsMap requirementStatisticsMap = statisticsMap.get(workCategory);
+
+		if (requirementStatisticsMap != null) {
+			WorkStatistics statistics = requirementStatisticsMap.get(statisticsKey);
+			if (statistics != null) result = statistics.snapshot();
+		}
+		return result;
+	}
 
 	/**
 	 * <p>
-	 * Provides a staging queue for {@link WorkDuration durations} waiting to be
-	 * processed.
+	 * Returns a {@link CallTreeSnapshot snapshot} of the call tree built to
+	 * date for the given {@link LatencyRequirement#getWorkCategory()
+	 * category}. The tree aggregates non-errored calls by call path, with
+	 * their total and self times; calls which are
+	 * {@link StatisticalLatencyRequirement#getAggregationInterval() aggregated}
+	 * or {@link CappedLatencyRequirement#isCallerThreadEvaluation() evaluated}
+	 * on the calling thread, rather than queued, are not included. This method
+	 * can be invoked from any thread.
 	 * </p>
 	 * 
-	 * @see ProcessingQueueEntry
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}
+	 *            whose call tree is required.
+	 * @return A snapshot of the call tree, or <code>null</code> if no call has
+	 *         been recorded for the category.
 	 */
-	private final BlockingDeque<ProcessingQueueEntry> processingQueue;
+	public CallTreeSnapshot getCallTreeSnapshot(final String workCategory) {
+		RequirementStatisticsMap requirementStatisticsMap = statisticsMap.get(workCategory);
+		CallTree callTree = requirementStatisticsMap == null ? null : requirementStatisticsMap.getCallTree();
+		return callTree == null ? null : callTree.snapshot();
+	}
 
 	/**
 	 * <p>
-	 * Constructor.
+	 * Returns the error rate of the current window of the given
+	 * {@link ErrorRateLatencyRequirement error-rate requirement}'s category.
+	 * This method can be invoked from any thread.
 	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}.
+	 * @return The error rate, as a fraction between <code>0</code> and
+	 *         <code>1</code>, or {@link Double#NaN} if the category is not
+	 *         governed by an error-rate requirement, or its current window
+	 *         does not yet hold the
+	 *         {@link ErrorRateLatencyRequirement#getMinimumCalls() minimum
+	 *         number of calls}.
 	 */
-	public LatencyProcessor() {
-		this.processingQueue = new LinkedBlockingDeque<ProcessingQueueEntry>();
-		this.statisticsMap = new HashMap<String, RequirementStatisticsMap>();
-		setDaemon(true);
+	public double getErrorRate(final String workCategory) {
+		ErrorRateWindow errorRateWindow = getErrorRateWindow(workCategory);
+		return errorRateWindow == null ? Double.NaN : errorRateWindow.getCurrentErrorRate();
 	}
 
 	/**
 	 * <p>
-	 * Asynchronous {@link WorkDuration duration} processing logic. This method
-	 * dequeues {@link ProcessingQueueEntry#getDuration() durations} from the
-	 * {@link #processingQueue inbound queue}, processes them and triggers any
-	 * relevant {@link AlertHandler alerts}. After processing it persists
-	 * the {@link WorkDuration durations} to storage using the
-	 * {@link WorkDurationPersistenceManager persistence manager} specified for
-	 * the {@link ProcessingQueueEntry#getRequirement() requirement} to which
-	 * the {@link ProcessingQueueEntry#getDuration() duration} relates.
+	 * Returns the baseline error rate, i.e. the smoothed error rate of the
+	 * completed windows, of the given {@link ErrorRateLatencyRequirement
+	 * error-rate requirement}'s category. This method can be invoked from any
+	 * thread.
 	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}.
+	 * @return The baseline error rate, or {@link Double#NaN} if none has been
+	 *         established.
 	 */
-	@Override
-	public void run() {
-		ProcessingQueueEntry processingQueueEntry;
-		while (true) {
-			try {
-				processingQueueEntry = processingQueue.take();
-				process(processingQueueEntry);
-			} catch (InterruptedException intExce) {
-				logger.warn("Asynchronous processing thread interrupted." + "Terminating Epsilon processor.");
-				break;
-			} catch (Throwable t) {
-				logger.warn("Unexpected error in asynchronous processing " + "thread. Skipping WorkDuration instance.",
-						t);
+	public double getBaselineErrorRate(final String workCategory) {
+		ErrorRateWindow errorRateWindow = getErrorRateWindow(workCategory);
+		return errorRateWindow == null ? Double.NaN : errorRateWindow.getBaselineErrorRate();
+	}
+
+	/**
+	 * <p>
+	 * Returns the latency level against which the change-point detector of the
+	 * given {@link StatisticalLatencyRequirement statistical requirement}'s
+	 * category currently judges root calls: the running average at
+	 * calibration, or the level of the last shift detected. This method can be
+	 * invoked from any thread.
+	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}.
+	 * @return The latency level in milliseconds, or {@link Double#NaN} if the
+	 *         category does not use
+	 *         {@link StatisticalLatencyRequirement#isChangePointDetection()
+	 *         change-point detection}, or has not yet been calibrated.
+	 */
+	public double getLatencyLevel(final String workCategory) {
+		RequirementStatisticsMap requirementStatisticsMap = statisticsMap.get(workCategory);
+		ChangePointDetector detector = requirementStatisticsMap == null ? null
+				: requirementStatisticsMap.getChangePointDetector();
+		return detector == null ? Double.NaN : detector.getReferenceLatency();
+	}
+
+	private ErrorRateWindow getErrorRateWindow(final String workCategory) {
+		RequirementStatisticsMap requirementStatisticsMap = statisticsMap.get(workCategory);
+		return requirementStatisticsMap == null ? null : requirementStatisticsMap.getErrorRateWindow();
+	}
+
+	/**
+	 * <p>
+	 * Returns the slowest calls processed for the given
+	 * {@link LatencyRequirement#getWorkCategory() category} over the retained
+	 * time windows, including errored calls. Calls which are not queued for
+	 * processing, as described for {@link #getCallTreeSnapshot(String)}, are
+	 * not included. This method can be invoked from any thread.
+	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}.
+	 * @return Up to {@link #getSlowCallReservoirSize()} calls, slowest first.
+	 */
+	public List<SlowCallExemplar> getSlowestCalls(final String workCategory) {
+		RequirementStatisticsMap requirementStatisticsMap = statisticsMap.get(workCategory);
+		SlowCallReservoir reservoir = requirementStatisticsMap == null ? null
+				: requirementStatisticsMap.getSlowCallReservoir();
+		List<SlowCallExemplar> result;
+		if (reservoir == null) result = Collections.emptyList();
+		else result = reservoir.getSlowest(System.currentTimeMillis());
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link #getSlowestCalls(String) slowest calls} for the given
+	 * category, per retained time window.
+	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}.
+	 * @return The calls of each window, slowest first, keyed by the start time
+	 *         of the window.
+	 */
+	public SortedMap<Long, List<SlowCallExemplar>> getSlowestCallsByWindow(final String workCategory) {
+		RequirementStatisticsMap requirementStatisticsMap = statisticsMap.get(workCategory);
+		SlowCallReservoir reservoir = requirementStatisticsMap == null ? null
+				: requirementStatisticsMap.getSlowCallReservoir();
+		SortedMap<Long, List<SlowCallExemplar>> result;
+		if (reservoir == null) result = new TreeMap<Long, List<SlowCallExemplar>>();
+		else result = reservoir.getSlowestByWindow(System.currentTimeMillis());
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of {@link WorkDuration durations} which were found,
+	 * on the calling thread, to be within the cap of a
+	 * {@link CappedLatencyRequirement#isCallerThreadEvaluation() caller thread
+	 * evaluated} requirement. Such durations are not queued, and are therefore
+	 * not reflected in the {@link #getStatisticsSnapshots(String) statistics}.
+	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}.
+	 * @return The number of durations counted on the calling thread.
+	 */
+	public long getWithinCapCount(final String workCategory) {
+		StripedCounter counter = withinCapCounters.get(workCategory);
+		return counter == null ? 0 : counter.sum();
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link LatencyRequirement#getWorkCategory() categories} for
+	 * which {@link #getWithinCapCount(String) within-cap counts} are kept.
+	 * </p>
+	 * 
+	 * @return An unmodifiable view of the categories.
+	 */
+	public Set<String> getWithinCapCategories() {
+		return Collections.unmodifiableSet(withinCapCounters.keySet());
+	}
+
+	/**
+	 * <p>
+	 * Returns the counter into which {@link AsynchronousLatencyMonitor
+	 * monitors} add {@link WorkDuration durations} found to be within the cap
+	 * of a {@link CappedLatencyRequirement#isCallerThreadEvaluation() caller
+	 * thread evaluated} requirement, creating it if necessary.
+	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}.
+	 * @return The counter for the category.
+	 */
+	StripedCounter getOrCreateWithinCapCounter(final String workCategory) {
+		StripedCounter result = withinCapCounters.get(workCategory);
+		if (result == null) {
+			StripedCounter candidate = new StripedCounter();
+			result = withinCapCounters.putIfAbsent(workCategory, candidate);
+			if (result == null) result = candidate;
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Records that a {@link AsynchronousLatencyMonitor monitor} of the given
+	 * category is about to obtain its counter and {@link ThroughputTracker
+	 * tracker} from the processor, so that they are not discarded while it
+	 * uses them.
+	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}.
+	 */
+	void retainMonitorResources(final String workCategory) {
+		synchronized (monitorReferences) {
+			Integer references = monitorReferences.get(workCategory);
+			monitorReferences.put(workCategory, references == null ? 1 : references + 1);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Discards the counter and {@link ThroughputTracker tracker} which a
+	 * {@link AsynchronousLatencyMonitor monitor} obtained from the processor,
+	 * once the monitor has been evicted by its
+	 * {@link AsynchronousLatencyMonitorFactory factory} and is no longer
+	 * reachable. Either may be <code>null</code>. They are only discarded when
+	 * no other monitor of the category {@link #retainMonitorResources(String)
+	 * retains} them, and are then created afresh for a later monitor of the
+	 * category.
+	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}.
+	 * @param withinCapCounter
+	 *            The monitor's within-cap counter.
+	 * @param throughputTracker
+	 *            The monitor's throughput tracker.
+	 */
+	void releaseMonitorResources(final String workCategory, final StripedCounter withinCapCounter,
+			final ThroughputTracker throughputTracker) {
+		synchronized (monitorReferences) {
+			Integer references = monitorReferences.get(workCategory);
+			if (references != null && references > 1) {
+				monitorReferences.put(workCategory, references - 1);
+				return;
 			}
+			monitorReferences.remove(workCategory);
+
+			if (withinCapCounter != null) withinCapCounters.remove(workCategory, withinCapCounter);
+			if (throughputTracker != null && throughputTrackers.remove(workCategory, throughputTracker))
+				unregisterPeriodicTask(throughputTracker);
 		}
 	}
 
 	/**
 	 * <p>
-	 * Queues the {@link WorkDuration duration} for a completed
-	 * {@link LatencyRequirement#getWorkCategory() operation} so that it can be
-	 * processed asynchronously.
+	 * Returns the rate at which root calls of a
+	 * {@link ThroughputLatencyRequirement throughput requirement}'s category
+	 * completed over its last
+	 * {@link ThroughputLatencyRequirement#getEvaluationInterval() evaluation
+	 * interval}.
 	 * </p>
 	 * 
-	 * @param requirement
-	 *            The {@link LatencyRequirement requirement} to which the
-	 *            {@link WorkDuration duration} relates.
-	 * @param duration
-	 *            The {@link WorkDuration duration} to be processed.
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}.
+	 * @return The calls per second, or {@link Double#NaN} if the category is
+	 *         not tracked or no interval has completed.
 	 */
-	protected void processTaskCompletion(final LatencyRequirement requirement, final WorkDuration duration) {
-		/*
-		 * We do not synchronize this method, because we want to ensure that
-		 * monitors can enqueue durations at all times!
-		 */
-		ProcessingQueueEntry processingQueueEntry = new ProcessingQueueEntry(duration, requirement);
-		processingQueue.add(processingQueueEntry);
+	public double getCallsPerSecond(final String workCategory) {
+		ThroughputTracker tracker = throughputTrackers.get(workCategory);
+		return tracker == null ? Double.NaN : tracker.getCallsPerSecond();
 	}
 
 	/**
 	 * <p>
-	 * Compares the supplied {@link ProcessingQueueEntry#getDuration() duration}
-	 * to the {@link ProcessingQueueEntry#getRequirement() requirement}, and the
-	 * {@link WorkStatistics statistics} collated to date, in order to determine
-	 * if an {@link AlertHandler alert} should be issued, and triggers
-	 * the issuing of such alerts.
+	 * Returns the number of root calls of a {@link ThroughputLatencyRequirement
+	 * throughput requirement}'s category currently in progress.
 	 * </p>
 	 * 
-	 * @param processingQueueEntry
-	 *            The {@link ProcessingQueueEntry Queue entry} encompassing both
-	 *            the {@link WorkDuration duration} to process, and the
-	 *            {@link LatencyRequirement requirement} to which it relates.
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}.
+	 * @return The number of calls in progress, or <code>0</code> if the
+	 *         category is not tracked.
 	 */
-	private void process(final ProcessingQueueEntry processingQueueEntry) {
-		WorkDuration duration = processingQueueEntry.getDuration();
-		LatencyRequirement latencyRequirement = processingQueueEntry.getRequirement();
+	public long getConcurrency(final String workCategory) {
+		ThroughputTracker tracker = throughputTrackers.get(workCategory);
+		return tracker == null ? 0 : tracker.getConcurrency();
+	}
 
-		double elapsedTime = duration.getElapsedTime();
-		boolean persist = latencyRequirement.getPersistenceManager() != null;
+	/**
+	 * <p>
+	 * Returns the rates at which the error budget of an
+	 * {@link SloLatencyRequirement SLO requirement}'s category is being
+	 * consumed over each of its {@link SloLatencyRequirement#getBurnRateWindows()
+	 * windows}, as of the last {@link #TICK_INTERVAL_MILLIS tick}.
+	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}.
+	 * @return The burn rates keyed by window length in minutes, shortest
+	 *         first, with {@link Double#NaN} for windows without calls. Empty
+	 *         if no call of the category has been tracked.
+	 */
+	public Map<Integer, Double> getBurnRates(final String workCategory) {
+		Map<Integer, Double> result = new LinkedHashMap<Integer, Double>();
+		ErrorBudgetTracker tracker = errorBudgetTrackers.get(workCategory);
+		if (tracker != null) {
+			int[] windows = tracker.getWindows();
+			double[] burnRates = tracker.getBurnRates();
+			for (int i = 0; i < windows.length; i++)
+				result.put(windows[i], burnRates[i]);
+		}
+		return result;
+	}
 
-		// then process requirement
-		if (duration.isErrored()) {
-			if (!latencyRequirement.isIgnoreErrors()) {
-				persist = false;
-				NotificationsIssuer.issueWorkCategoryFailureNotification(latencyRequirement, duration);
-			}
-		} else {
-			if (latencyRequirement instanceof StatisticalLatencyRequirement) {
-				processAccordingToStatisticalRequirement(duration, (StatisticalLatencyRequirement) latencyRequirement);
-			} else {
-				CappedLatencyRequirement cappedRequirement = (CappedLatencyRequirement) latencyRequirement;
+	/**
+	 * <p>
+	 * Returns the {@link ErrorBudgetTracker tracker} of the given
+	 * {@link SloLatencyRequirement SLO requirement}'s category, creating it and
+	 * registering it as a {@link #registerPeriodicTask(PeriodicTask) periodic
+	 * task} if necessary. Must only be invoked on the processing thread.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The requirement.
+	 * @return The tracker for the requirement's category.
+	 */
+	private ErrorBudgetTracker getOrCreateErrorBudgetTracker(final SloLatencyRequirement requirement) {
+		ErrorBudgetTracker result = errorBudgetTrackers.get(requirement.getWorkCategory());
+		if (result == null) {
+			result = new ErrorBudgetTracker(requirement);
+			errorBudgetTrackers.put(requirement.getWorkCategory(), result);
+			registerPeriodicTask(result);
+		}
+		return result;
+	}
 
-				if (duration.isRoot() && elapsedTime > cappedRequirement.getExpectedLatency())
-					NotificationsIssuer.issueTargetMissedNotification(cappedRequirement, duration);
+	/**
+	 * <p>
+	 * Returns the {@link ThroughputTracker tracker} which
+	 * {@link AsynchronousLatencyMonitor monitors} of the given
+	 * {@link ThroughputLatencyRequirement throughput requirement} notify of
+	 * starting and completing calls, creating it and registering it as a
+	 * {@link #registerPeriodicTask(PeriodicTask) periodic task} if necessary.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The requirement.
+	 * @return The tracker for the requirement's category.
+	 */
+	ThroughputTracker getOrCreateThroughputTracker(final ThroughputLatencyRequirement requirement) {
+		ThroughputTracker result = throughputTrackers.get(requirement.getWorkCategory());
+		if (result == null) {
+			ThroughputTracker candidate = new ThroughputTracker(requirement);
+			result = throughputTrackers.putIfAbsent(requirement.getWorkCategory(), candidate);
+			if (result == null) {
+				result = candidate;
+				registerPeriodicTask(candidate);
 			}
 		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Returns the live {@link WorkStatistics statistics} for the given
+	 * category and key, for reading from other threads.
+	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}.
+	 * @param statisticsKey
+	 *            The {@link WorkDuration#getMethodName() method name}, or
+	 *            {@link #ROOT_CALL_STATISTICS_KEY} for root calls.
+	 * @return The statistics, or <code>null</code> if none have been
+	 *         collated.
+	 */
+	WorkStatistics getStatistics(final String workCategory, final String statisticsKey) {
+		RequirementStatisticsMap requirementStatisticsMap = statisticsMap.get(workCategory);
+		return requirementStatisticsMap == null ? null : requirementStatisticsMap.get(statisticsKey);
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link SeasonalBaseline seasonal baseline} of the given
+	 * category, for reading from other threads.
+	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}.
+	 * @return The seasonal baseline, or <code>null</code> if the category does
+	 *         not have one.
+	 */
+	SeasonalBaseline getSeasonalBaseline(final String workCategory) {
+		RequirementStatisticsMap requirementStatisticsMap = statisticsMap.get(workCategory);
+		return requirementStatisticsMap == null ? null : requirementStatisticsMap.getSeasonalBaseline();
+	}
+
+	/**
+	 * <p>
+	 * Counts a root {@link WorkDuration duration} in the
+	 * {@link ErrorRateWindow error-rate window} of its category, and issues an
+	 * {@link AlertHandler#errorRateExceeded(ErrorRateLatencyRequirement, WorkDuration, double, double)
+	 * alert} if the window has come to breach the requirement.
+	 * </p>
+	 * 
+	 * @param duration
+	 *            The root {@link WorkDuration duration} to count.
+	 * @param latencyRequirement
+	 *            The {@link ErrorRateLatencyRequirement requirement} to which
+	 *            the duration relates.
+	 * @param requirementStatisticsMap
+	 *            The statistics of the requirement's category.
+	 * @param weight
+	 *            The number of executions which the duration stands for.
+	 */
+	private void processAccordingToErrorRateRequirement(final WorkDuration duration,
+			final ErrorRateLatencyRequirement latencyRequirement,
+			final RequirementStatisticsMap requirementStatisticsMap, final long weight) {
+		ErrorRateWindow errorRateWindow = requirementStatisticsMap.getOrCreateErrorRateWindow(latencyRequirement);
+		errorRateWindow.record(duration, weight);
 
-		if (persist) latencyRequirement.getPersistenceManager().save(duration);
+		if (errorRateWindow.isBreached(latencyRequirement)) {
+			errorRateWindow.markAlerted();
+			NotificationsIssuer.issueErrorRateExceededNotification(latencyRequirement, duration,
+					errorRateWindow.getCurrentErrorRate(), errorRateWindow.getBaselineErrorRate());
+		}
 	}
 
 	/**
@@ -172,7 +1647,13 @@ public class LatencyProcessor extends Thread {
 	 * if the
 	 * {@link StatisticalLatencyRequirement#getObservationsSignificanceBarrier()
 	 * significance barrier} is breached by the given
-	 * {@link ProcessingQueueEntry#getDuration() duration}.
+	 * {@link ProcessingQueueEntry#getDuration() duration}. Once it is, root
+	 * calls are also fed to the category's {@link ChangePointDetector
+	 * change-point detector} if
+	 * {@link StatisticalLatencyRequirement#isChangePointDetection() enabled},
+	 * which is calibrated with the baseline at that point. Root calls
+	 * are folded into the category's {@link SeasonalBaseline seasonal
+	 * baseline}, if it has one, and judged against it.
 	 * </p>
 	 * 
 	 * @param duration
@@ -180,27 +1661,82 @@ public class LatencyProcessor extends Thread {
 	 * @param latencyRequirement
 	 *            The {@link LatencyRequirement requirement} to which the
 	 *            {@link WorkDuration duration} relates.
+	 * @param requirementStatisticsMap
+	 *            The statistics of the requirement's category.
+	 * @param statistics
+	 *            The {@link WorkStatistics statistics} collated to date for
+	 *            the {@link WorkDuration#getMethodName() method} to which the
+	 *            {@link WorkDuration duration} relates.
+	 * @param weight
+	 *            The number of executions which the duration stands for.
 	 */
 	private void processAccordingToStatisticalRequirement(final WorkDuration duration,
-			final StatisticalLatencyRequirement latencyRequirement) {
-		RequirementStatisticsMap requirementStatisticsMap = getOrCreateStatisticsMap(latencyRequirement);
-
-		WorkStatistics statistics = requirementStatisticsMap.getOrCreateStatistics(duration);
-
-		if (!statistics.isSignificanceBarrierBreached()) statistics.update(duration.getElapsedTime());
+			final StatisticalLatencyRequirement latencyRequirement,
+			final RequirementStatisticsMap requirementStatisticsMap, final WorkStatistics statistics,
+			final long weight) {
+		if (!statistics.isSignificanceBarrierBreached()) statistics.update(duration.getElapsedTime(), weight);
 		else {
 
 			long elapsedTime = duration.getElapsedTime();
-			double deviationFromMean = elapsedTime - statistics.getRunningAverage();
-			double allowedDeviation = statistics.getRunningAverage() * latencyRequirement.getToleranceLevel();
+			statistics.refreshBaseline(latencyRequirement.getBaselineStrategy(),
+					latencyRequirement.getBaselineTrim());
+			double baseline = getBaseline(duration, latencyRequirement,
+					requirementStatisticsMap.getSeasonalBaseline(), statistics);
+			double deviationFromMean = elapsedTime - baseline;
+			double allowedDeviation = baseline * latencyRequirement.getToleranceLevel();
 
-			if (deviationFromMean > allowedDeviation)
+			if (latencyRequirement.isDeviationDetection() && deviationFromMean > allowedDeviation) {
+				statistics.recordBreach();
 				NotificationsIssuer.issueToleranceExceededNotification(latencyRequirement, duration, deviationFromMean,
-						statistics.getRunningAverage());
+						baseline);
+			}
+
+			if (duration.isRoot() && latencyRequirement.isChangePointDetection()) {
+				ChangePointDetector detector = requirementStatisticsMap.getOrCreateChangePointDetector();
+				if (!detector.isCalibrated()) detector.calibrate(statistics.getBaseline());
+				if (detector.update(elapsedTime, latencyRequirement.getChangePointDrift(),
+						latencyRequirement.getChangePointThreshold()))
+					NotificationsIssuer.issueLevelShiftNotification(latencyRequirement, detector.getPreviousLatency(),
+							detector.getReferenceLatency());
+			}
 			// continue to collect statistics
-			statistics.update(elapsedTime);
+			statistics.update(elapsedTime, weight);
 		}
 
+		SeasonalBaseline seasonalBaseline = requirementStatisticsMap.getSeasonalBaseline();
+		if (seasonalBaseline != null && duration.isRoot()) seasonalBaseline.record(duration, weight);
+	}
+
+	/**
+	 * <p>
+	 * Returns the average latency against which a {@link WorkDuration
+	 * duration} is judged: for root calls of a
+	 * {@link StatisticalLatencyRequirement#isSeasonalBaseline() seasonal
+	 * requirement}, the average of the hour of the week in which the call
+	 * ended, once that hour has reached the significance barrier; otherwise,
+	 * the {@link WorkStatistics#getBaseline() baseline} of the given
+	 * statistics, as per the requirement's
+	 * {@link StatisticalLatencyRequirement#getBaselineStrategy() baseline
+	 * strategy}.
+	 * </p>
+	 * 
+	 * @param duration
+	 *            The {@link WorkDuration duration} to judge.
+	 * @param latencyRequirement
+	 *            The requirement to which the duration relates.
+	 * @param seasonalBaseline
+	 *            The seasonal baseline of the category, or <code>null</code>.
+	 * @param statistics
+	 *            The statistics of the duration's method.
+	 * @return The average latency in milliseconds.
+	 */
+	static double getBaseline(final WorkDuration duration, final StatisticalLatencyRequirement latencyRequirement,
+			final SeasonalBaseline seasonalBaseline, final WorkStatistics statistics) {
+		double result = Double.NaN;
+		if (seasonalBaseline != null && duration.isRoot()) result = seasonalBaseline
+				.getAverage(duration.getEndTime(), latencyRequirement.getObservationsSignificanceBarrier());
+		if (Double.isNaN(result)) result = statistics.getBaseline();
+		return result;
 	}
 
 	/**
@@ -218,13 +1754,143 @@ public class LatencyProcessor extends Thread {
 	 * @return The {@link RequirementStatisticsMap statistics} collated to date
 	 *         for the given {@link LatencyRequirement requirement}.
 	 */
-	private RequirementStatisticsMap getOrCreateStatisticsMap(final StatisticalLatencyRequirement latencyRequirement) {
-		RequirementStatisticsMap result = statisticsMap.get(latencyRequirement.getWorkCategory());
+	private RequirementStatisticsMap getOrCreateStatisticsMap(final LatencyRequirement latencyRequirement) {
+		String workCategory = latencyRequirement.getWorkCategory();
+		RequirementStatisticsMap result = categoryRecency.get(workCategory); // marks as recently updated
 
 		if (result == null) {
-			result = new RequirementStatisticsMap(latencyRequirement);
-			statisticsMap.put(latencyRequirement.getWorkCategory(), result);
+			result = new RequirementStatisticsMap(latencyRequirement, true, maxStatisticsKeys);
+			installStatisticsMap(workCategory, result);
 		}
 		return result;
 	}
+
+	/**
+	 * <p>
+	 * Publishes the statistics of a category, relaying their method evictions
+	 * to the {@link #keyEvictionListeners listeners}, then evicts the least
+	 * recently updated categories while the {@link #maxCategories cap} is
+	 * exceeded.
+	 * </p>
+	 * 
+	 * @param workCategory
+	 *            The {@link LatencyRequirement#getWorkCategory() category}.
+	 * @param requirementStatisticsMap
+	 *            Its statistics.
+	 */
+	private void installStatisticsMap(final String workCategory,
+			final RequirementStatisticsMap requirementStatisticsMap) {
+		requirementStatisticsMap.setKeyEvictionListener(keyEvictionRelay);
+		statisticsMap.put(workCategory, requirementStatisticsMap);
+		categoryRecency.put(workCategory, requirementStatisticsMap);
+
+		WorkDurationPersistenceManager persistenceManager = getPersistenceManager(requirementStatisticsMap);
+		if (persistenceManager != null) {
+			Integer usage = persistenceManagerUsage.get(persistenceManager);
+			persistenceManagerUsage.put(persistenceManager, usage == null ? 1 : usage + 1);
+		}
+
+		int cap = maxCategories;
+		if (cap > 0 && categoryRecency.size() > cap) {
+			Iterator<Map.Entry<String, RequirementStatisticsMap>> iterator = categoryRecency.entrySet().iterator();
+			while (categoryRecency.size() > cap) {
+				Map.Entry<String, RequirementStatisticsMap> eldest = iterator.next();
+				iterator.remove();
+				evictStatisticsMap(eldest.getKey(), eldest.getValue());
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Removes the statistics of a category, folding them into those of
+	 * {@link #OVERFLOW_CATEGORY}. The category's error budget tracker is
+	 * discarded with them, as is the adapter of its persistence manager once
+	 * no other category uses it. Its persistence manager and the
+	 * {@link #evictionListeners listeners} are notified, so that state kept
+	 * per category does not outlive the cap.
+	 * </p>
+	 */
+	private void evictStatisticsMap(final String workCategory, final RequirementStatisticsMap evicted) {
+		statisticsMap.remove(workCategory);
+
+		ErrorBudgetTracker errorBudgetTracker = errorBudgetTrackers.remove(workCategory);
+		if (errorBudgetTracker != null) unregisterPeriodicTask(errorBudgetTracker);
+
+		RequirementStatisticsMap overflow = statisticsMap.get(OVERFLOW_CATEGORY);
+		if (overflow == null) {
+			overflow = new RequirementStatisticsMap(null, false, maxStatisticsKeys);
+			statisticsMap.put(OVERFLOW_CATEGORY, overflow);
+		}
+		overflow.mergeAll(evicted);
+
+		retiredKeyEvictionCount += evicted.getEvictionCount();
+		evictedCategoryCount++;
+		if (logger.isDebugEnabled()) logger.debug("Evicted statistics of category '{}'.", workCategory);
+
+		WorkDurationPersistenceManager persistenceManager = getPersistenceManager(evicted);
+		Integer usage = persistenceManager == null ? null : persistenceManagerUsage.get(persistenceManager);
+		if (usage != null) {
+			if (usage > 1) persistenceManagerUsage.put(persistenceManager, usage - 1);
+			else {
+				persistenceManagerUsage.remove(persistenceManager);
+				unusedPersistenceManagers.add(persistenceManager);
+			}
+		}
+
+		if (persistenceManager instanceof CategoryEvictionListener)
+			notifyEvictionListener((CategoryEvictionListener) persistenceManager, workCategory);
+		for (CategoryEvictionListener listener : evictionListeners)
+			notifyEvictionListener(listener, workCategory);
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link WorkDurationPersistenceManager persistence manager}
+	 * of the requirement to which published statistics relate, if any.
+	 * </p>
+	 */
+	private static WorkDurationPersistenceManager getPersistenceManager(
+			final RequirementStatisticsMap requirementStatisticsMap) {
+		LatencyRequirement requirement = requirementStatisticsMap.getRequirement();
+		return requirement == null ? null : requirement.getPersistenceManager();
+	}
+
+	/**
+	 * <p>
+	 * Notifies a {@link CategoryEvictionListener listener} of an evicted
+	 * category. A failing listener is logged, so as not to disrupt processing.
+	 * </p>
+	 */
+	private void notifyEvictionListener(final CategoryEvictionListener listener, final String workCategory) {
+		try {
+			listener.categoryEvicted(workCategory);
+		} catch (Throwable t) {
+			logger.warn("Unexpected error notifying eviction listener " + listener + ".", t);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Builds the {@link RequirementStatisticsMap statistics} of a requirement
+	 * on a warm-up thread.
+	 * </p>
+	 */
+	private static class WarmUpTask extends FutureTask<RequirementStatisticsMap> {
+		private final LatencyRequirement requirement;
+
+		WarmUpTask(final LatencyRequirement requirement, final int maxStatisticsKeys) {
+			super(new Callable<RequirementStatisticsMap>() {
+				@Override
+				public RequirementStatisticsMap call() {
+					return new RequirementStatisticsMap(requirement, true, maxStatisticsKeys);
+				}
+			});
+			this.requirement = requirement;
+		}
+
+		LatencyRequirement getRequirement() {
+			return requirement;
+		}
+	}
 }// end class def
@@ -0,0 +1,114 @@
+package org.latency4j.processing;
+
+/**
+ * <p>
+ * The default {@link QuantileSketch sketch}, backed by a log-linear
+ * {@link LatencyHistogram histogram}. Reported quantiles are accurate to
+ * within roughly 6%, and since the histogram is lock-free,
+ * {@link #copy() copies} never block the recording thread.
+ * </p>
+ */
+class LogBucketSketch implements QuantileSketch {
+	private static final long serialVersionUID = 6105298377345530157L;
+
+	/**
+	 * <p>
+	 * The live histogram, or <code>null</code> for a {@link #copy() copy}.
+	 * </p>
+	 */
+	private final transient LatencyHistogram histogram;
+
+	/**
+	 * <p>
+	 * The bucket counts of a {@link #copy() copy}, or <code>null</code> for a
+	 * live sketch.
+	 * </p>
+	 */
+	private final long[] bucketCounts;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 */
+	LogBucketSketch() {
+		this.histogram = new LatencyHistogram();
+		this.bucketCounts = null;
+	}
+
+	/**
+	 * <p>
+	 * Constructor for copies.
+	 * </p>
+	 *
+	 * @param bucketCounts
+	 *            The bucket counts of the copy. The array is not copied.
+	 */
+	private LogBucketSketch(final long[] bucketCounts) {
+		this.histogram = null;
+		this.bucketCounts = bucketCounts;
+	}
+
+	@Override
+	public void record(final long value, final long count) {
+		histogram.record(value, count);
+	}
+
+	@Override
+	public void merge(final QuantileSketch other) {
+		if (!(other instanceof LogBucketSketch)) throw new IllegalArgumentException(
+				"Cannot merge a " + other.getClass().getName() + " into a log-bucket sketch.");
+		mergeCounts(((LogBucketSketch) other).copyCounts());
+	}
+
+	/**
+	 * <p>
+	 * Adds the given bucket counts to those of the sketch.
+	 * </p>
+	 *
+	 * @param counts
+	 *            Counts indexed as per {@link LatencyHistogram#bucketIndex(long)}.
+	 */
+	void mergeCounts(final long[] counts) {
+		histogram.merge(counts);
+	}
+
+	/**
+	 * @return A copy of the bucket counts, indexed as per
+	 *         {@link LatencyHistogram#bucketIndex(long)}.
+	 */
+	long[] copyCounts() {
+		return histogram == null ? bucketCounts.clone() : histogram.copyCounts();
+	}
+
+	@Override
+	public long getCount() {
+		long result = 0;
+		for (long count : countsForReading())
+			result += count;
+		return result;
+	}
+
+	@Override
+	public double getQuantile(final double quantile) {
+		return LatencyHistogram.valueAtQuantile(countsForReading(), quantile);
+	}
+
+	@Override
+	public long getCountAtOrBelow(final long value) {
+		long[] counts = countsForReading();
+		long result = 0;
+		for (int i = 0; i < counts.length && LatencyHistogram.bucketUpperBound(i) - 1 <= value; i++)
+			result += counts[i];
+		return result;
+	}
+
+	@Override
+	public QuantileSketch copy() {
+		return new LogBucketSketch(copyCounts());
+	}
+
+	private long[] countsForReading() {
+		return histogram == null ? bucketCounts : histogram.copyCounts();
+	}
+}// end class def
@@ -4,8 +4,11 @@ import java.util.List;
 
 import org.latency4j.CappedLatencyRequirement;
 import org.latency4j.AlertHandler;
+import org.latency4j.ErrorRateLatencyRequirement;
 import org.latency4j.LatencyRequirement;
+import org.latency4j.SloLatencyRequirement;
 import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.ThroughputLatencyRequirement;
 import org.latency4j.WorkDuration;
 
 /**
@@ -76,6 +79,166 @@ class NotificationsIssuer {
 		}
 	}
 
+	/**
+	 * <p>
+	 * Issues a notification/alert that a {@link WorkDuration duration} has
+	 * breached the {@link CappedLatencyRequirement#getWarningLatency() warning
+	 * tier} of its requirement, by invoking the method
+	 * {@link AlertHandler#latencyExceededWarningThreshold(CappedLatencyRequirement, WorkDuration)}
+	 * on the requirement's
+	 * {@link CappedLatencyRequirement#getWarningAlertHandlers() warning
+	 * handlers}.
+	 * </p>
+	 * 
+	 * @param latencyRequirement
+	 *            The {@link LatencyRequirement requirement} to which the
+	 *            notification relates.
+	 * @param duration
+	 *            The {@link WorkDuration duration} of the
+	 *            {@link LatencyRequirement#getWorkCategory() task} which
+	 *            triggered the alert.
+	 */
+	static void issueWarningExceededNotification(final CappedLatencyRequirement latencyRequirement,
+			final WorkDuration duration) {
+		List<AlertHandler> handlers = latencyRequirement.getWarningAlertHandlers();
+		if (handlers != null) {
+			for (AlertHandler warningHandler : handlers)
+				warningHandler.latencyExceededWarningThreshold(latencyRequirement, duration);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Issues a notification/alert that an {@link ErrorRateLatencyRequirement
+	 * error-rate requirement} has been breached, by invoking the method
+	 * {@link AlertHandler#errorRateExceeded(ErrorRateLatencyRequirement, WorkDuration, double, double)}
+	 * on all {@link AlertHandler alert handlers} registered for the
+	 * requirement.
+	 * </p>
+	 * 
+	 * @param latencyRequirement
+	 *            The {@link LatencyRequirement requirement} to which the
+	 *            notification relates.
+	 * @param duration
+	 *            The {@link WorkDuration duration} with which the breach was
+	 *            detected.
+	 * @param errorRate
+	 *            The error rate of the current window.
+	 * @param baselineErrorRate
+	 *            The baseline error rate, or {@link Double#NaN} if none has
+	 *            been established.
+	 */
+	static void issueErrorRateExceededNotification(final ErrorRateLatencyRequirement latencyRequirement,
+			final WorkDuration duration, final double errorRate, final double baselineErrorRate) {
+		List<AlertHandler> handlers = latencyRequirement.getAlertHandlers();
+		if (handlers != null) {
+			for (AlertHandler missedTargetHandler : handlers)
+				missedTargetHandler.errorRateExceeded(latencyRequirement, duration, errorRate, baselineErrorRate);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Issues a notification/alert that the completion rate of a
+	 * {@link ThroughputLatencyRequirement throughput requirement}'s category
+	 * has fallen below the minimum, by invoking the method
+	 * {@link AlertHandler#callRateBelowMinimum(ThroughputLatencyRequirement, double)}
+	 * on all {@link AlertHandler alert handlers} registered for the
+	 * requirement.
+	 * </p>
+	 * 
+	 * @param latencyRequirement
+	 *            The {@link LatencyRequirement requirement} to which the
+	 *            notification relates.
+	 * @param callsPerSecond
+	 *            The completion rate over the last evaluation interval.
+	 */
+	static void issueCallRateBelowMinimumNotification(final ThroughputLatencyRequirement latencyRequirement,
+			final double callsPerSecond) {
+		List<AlertHandler> handlers = latencyRequirement.getAlertHandlers();
+		if (handlers != null) {
+			for (AlertHandler missedTargetHandler : handlers)
+				missedTargetHandler.callRateBelowMinimum(latencyRequirement, callsPerSecond);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Issues a notification/alert that the concurrency of a
+	 * {@link ThroughputLatencyRequirement throughput requirement}'s category
+	 * has exceeded the maximum, by invoking the method
+	 * {@link AlertHandler#concurrencyExceededMaximum(ThroughputLatencyRequirement, long)}
+	 * on all {@link AlertHandler alert handlers} registered for the
+	 * requirement.
+	 * </p>
+	 * 
+	 * @param latencyRequirement
+	 *            The {@link LatencyRequirement requirement} to which the
+	 *            notification relates.
+	 * @param concurrency
+	 *            The peak concurrency over the last evaluation interval.
+	 */
+	static void issueConcurrencyExceededNotification(final ThroughputLatencyRequirement latencyRequirement,
+			final long concurrency) {
+		List<AlertHandler> handlers = latencyRequirement.getAlertHandlers();
+		if (handlers != null) {
+			for (AlertHandler missedTargetHandler : handlers)
+				missedTargetHandler.concurrencyExceededMaximum(latencyRequirement, concurrency);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Issues a notification/alert that an {@link SloLatencyRequirement SLO
+	 * requirement}'s error budget is being consumed too fast, by invoking the
+	 * method
+	 * {@link AlertHandler#errorBudgetBurnRateExceeded(SloLatencyRequirement, double)}
+	 * on all {@link AlertHandler alert handlers} registered for the
+	 * requirement.
+	 * </p>
+	 * 
+	 * @param latencyRequirement
+	 *            The {@link LatencyRequirement requirement} to which the
+	 *            notification relates.
+	 * @param burnRate
+	 *            The lowest burn rate across the requirement's windows.
+	 */
+	static void issueErrorBudgetBurnRateExceededNotification(final SloLatencyRequirement latencyRequirement,
+			final double burnRate) {
+		List<AlertHandler> handlers = latencyRequirement.getAlertHandlers();
+		if (handlers != null) {
+			for (AlertHandler missedTargetHandler : handlers)
+				missedTargetHandler.errorBudgetBurnRateExceeded(latencyRequirement, burnRate);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Issues a notification/alert that the latency of a
+	 * {@link StatisticalLatencyRequirement statistical requirement}'s category
+	 * has shifted to a new level, by invoking the method
+	 * {@link AlertHandler#latencyLevelShiftDetected(StatisticalLatencyRequirement, double, double)}
+	 * on all {@link AlertHandler alert handlers} registered for the
+	 * requirement.
+	 * </p>
+	 * 
+	 * @param latencyRequirement
+	 *            The {@link LatencyRequirement requirement} to which the
+	 *            notification relates.
+	 * @param previousLatency
+	 *            The average latency before the shift.
+	 * @param shiftedLatency
+	 *            The average latency after the shift.
+	 */
+	static void issueLevelShiftNotification(final StatisticalLatencyRequirement latencyRequirement,
+			final double previousLatency, final double shiftedLatency) {
+		List<AlertHandler> handlers = latencyRequirement.getAlertHandlers();
+		if (handlers != null) {
+			for (AlertHandler missedTargetHandler : handlers)
+				missedTargetHandler.latencyLevelShiftDetected(latencyRequirement, previousLatency, shiftedLatency);
+		}
+	}
+
 	/**
 	 * <p>
 	 * Issues a notification/alert that a monitored
@@ -0,0 +1,24 @@
+package org.latency4j.processing;
+
+/**
+ * <p>
+ * A task which the {@link LatencyProcessor latency processor} runs
+ * periodically on its own thread, between the processing of
+ * {@link ProcessingQueueEntry queued entries}. Since it runs on the
+ * processing thread, a task may update statistics directly.
+ * </p>
+ *
+ * @see LatencyProcessor#registerPeriodicTask(PeriodicTask)
+ */
+interface PeriodicTask {
+	/**
+	 * <p>
+	 * Runs the task. Invoked roughly every
+	 * {@link LatencyProcessor#TICK_INTERVAL_MILLIS} milliseconds.
+	 * </p>
+	 *
+	 * @param now
+	 *            The current time in milliseconds.
+	 */
+	void tick(long now);
+}
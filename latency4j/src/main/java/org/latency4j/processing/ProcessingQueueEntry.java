@@ -1,5 +1,7 @@
 package org.latency4j.processing;
 
+import java.util.Map;
+
 import org.latency4j.LatencyRequirement;
 import org.latency4j.WorkDuration;
 
@@ -27,6 +29,24 @@ class ProcessingQueueEntry {
 	 */
 	private final LatencyRequirement requirement;
 
+	/**
+	 * <p>
+	 * The number of executions which the {@link WorkDuration duration} stands
+	 * for. This is greater than <code>1</code> for
+	 * {@link LatencyRequirement#getSamplingRate() sampled} durations.
+	 * </p>
+	 */
+	private final long weight;
+
+	/**
+	 * <p>
+	 * {@link StatisticsDelta Observations} aggregated on an application
+	 * thread, keyed by statistics key. Set instead of the {@link #duration}
+	 * for entries which carry aggregates.
+	 * </p>
+	 */
+	private final Map<String, StatisticsDelta> deltas;
+
 	/**
 	 * <p>
 	 * Constructor
@@ -40,8 +60,46 @@ class ProcessingQueueEntry {
 	 * 
 	 */
 	ProcessingQueueEntry(final WorkDuration duration, final LatencyRequirement requirement) {
+		this(duration, requirement, 1);
+	}
+
+	/**
+	 * <p>
+	 * Constructor
+	 * </p>
+	 * 
+	 * @param duration
+	 *            The {@link WorkDuration duration} to be processed.
+	 * @param requirement
+	 *            The {@link LatencyRequirement requirement} to which the
+	 *            {@link WorkDuration duration} relates.
+	 * @param weight
+	 *            The number of executions which the duration stands for.
+	 */
+	ProcessingQueueEntry(final WorkDuration duration, final LatencyRequirement requirement, final long weight) {
 		this.duration = duration;
 		this.requirement = requirement;
+		this.weight = weight;
+		this.deltas = null;
+	}
+
+	/**
+	 * <p>
+	 * Constructor for entries which carry observations aggregated on an
+	 * application thread.
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link LatencyRequirement requirement} to which the
+	 *            observations relate.
+	 * @param deltas
+	 *            The aggregated observations, keyed by statistics key.
+	 */
+	ProcessingQueueEntry(final LatencyRequirement requirement, final Map<String, StatisticsDelta> deltas) {
+		this.duration = null;
+		this.requirement = requirement;
+		this.weight = 0;
+		this.deltas = deltas;
 	}
 
 	/**
@@ -67,4 +125,29 @@ class ProcessingQueueEntry {
 	LatencyRequirement getRequirement() {
 		return requirement;
 	}
+
+	/**
+	 * <p>
+	 * Returns the number of executions which the {@link #getDuration()
+	 * duration} stands for.
+	 * </p>
+	 * 
+	 * @return The weight of the entry.
+	 */
+	long getWeight() {
+		return weight;
+	}
+
+	/**
+	 * <p>
+	 * Returns the aggregated observations carried by the entry, if any.
+	 * </p>
+	 * 
+	 * @return The aggregated observations keyed by statistics key, or
+	 *         <code>null</code> if the entry carries a {@link #getDuration()
+	 *         duration}.
+	 */
+	Map<String, StatisticsDelta> getDeltas() {
+		return deltas;
+	}
 }
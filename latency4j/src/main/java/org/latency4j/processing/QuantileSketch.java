@@ -0,0 +1,93 @@
+package org.latency4j.processing;
+
+import java.io.Serializable;
+
+import org.latency4j.LatencyRequirement;
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * Service-provider interface for the summaries from which the
+ * {@link LatencyProcessor latency processor} derives percentiles of
+ * {@link WorkDuration#getElapsedTime() elapsed times}. A sketch is selected
+ * per {@link LatencyRequirement#getQuantileSketch() requirement}, either by
+ * the name of one of the {@link QuantileSketches built-in engines} or by the
+ * name of a class implementing this interface, which must have a public
+ * default constructor.
+ * </p>
+ * <p>
+ * {@link #record(long, long) Recording} and {@link #merge(QuantileSketch)
+ * merging} are only ever invoked from a single thread, the processor's.
+ * {@link #copy() Copies} may however be requested from any thread, to take
+ * {@link WorkStatisticsSnapshot snapshots}, and must not share mutable state
+ * with the sketch from which they were taken. Since snapshots are
+ * {@link Serializable serializable}, so must sketches be.
+ * </p>
+ */
+public interface QuantileSketch extends Serializable {
+	/**
+	 * <p>
+	 * Records the given number of occurrences of the specified value.
+	 * </p>
+	 *
+	 * @param value
+	 *            The observed elapsed time in milliseconds.
+	 * @param count
+	 *            The number of times the value was observed.
+	 */
+	void record(long value, long count);
+
+	/**
+	 * <p>
+	 * Adds the observations summarised by another sketch to this one, as is
+	 * done when statistics are folded into an overflow entry.
+	 * </p>
+	 *
+	 * @param other
+	 *            A sketch of the same class as this one.
+	 * @throws IllegalArgumentException
+	 *             If the sketch is of another class. Sketches of different
+	 *             classes are merged through
+	 *             {@link QuantileSketches#merge(QuantileSketch, QuantileSketch)}.
+	 */
+	void merge(QuantileSketch other);
+
+	/**
+	 * @return The number of observations recorded to date.
+	 */
+	long getCount();
+
+	/**
+	 * <p>
+	 * Returns an estimate of the value at the given quantile.
+	 * </p>
+	 *
+	 * @param quantile
+	 *            The quantile, between <code>0</code> and <code>1</code>.
+	 * @return The estimated value in milliseconds, or <code>0</code> if
+	 *         nothing has been recorded.
+	 */
+	double getQuantile(double quantile);
+
+	/**
+	 * <p>
+	 * Returns an estimate of the number of observations which did not exceed
+	 * the given value.
+	 * </p>
+	 *
+	 * @param value
+	 *            The upper bound in milliseconds (inclusive).
+	 * @return The estimated number of observations at or below the value.
+	 */
+	long getCountAtOrBelow(long value);
+
+	/**
+	 * <p>
+	 * Returns an independent copy of the sketch. This method may be invoked
+	 * from any thread. Copies are only ever read, never recorded into.
+	 * </p>
+	 *
+	 * @return The copy.
+	 */
+	QuantileSketch copy();
+}
@@ -0,0 +1,148 @@
+package org.latency4j.processing;
+
+import org.latency4j.Latency4JException;
+import org.latency4j.LatencyRequirement;
+
+/**
+ * <p>
+ * Creates the {@link QuantileSketch sketches} selected by
+ * {@link LatencyRequirement#getQuantileSketch() requirements}, and provides
+ * the operations which work across sketches of any class. The built-in
+ * engines are:
+ * <ul>
+ * <li>{@value #LOG_BUCKET} (the default): a log-linear histogram, accurate
+ * to within roughly 6%, whose snapshots never block the processor.</li>
+ * <li>{@value #T_DIGEST}: a merging t-digest, which is most accurate in the
+ * tails and whose size does not depend on the range of values.</li>
+ * <li>{@value #DDSKETCH}: a sketch with a guaranteed relative accuracy of
+ * 1%.</li>
+ * </ul>
+ * Any other name is taken to be that of a class implementing
+ * {@link QuantileSketch}.
+ * </p>
+ */
+public final class QuantileSketches {
+	/**
+	 * <p>
+	 * The name of the default, {@link LogBucketSketch log-bucket histogram}
+	 * engine.
+	 * </p>
+	 */
+	public static final String LOG_BUCKET = "histogram";
+
+	/**
+	 * <p>
+	 * The name of the {@link TDigestSketch t-digest} engine.
+	 * </p>
+	 */
+	public static final String T_DIGEST = "t-digest";
+
+	/**
+	 * <p>
+	 * The name of the {@link DDSketch DDSketch} engine.
+	 * </p>
+	 */
+	public static final String DDSKETCH = "ddsketch";
+
+	/**
+	 * <p>
+	 * The number of points at which a sketch is sampled when it is merged into
+	 * one of another class, or when a trimmed mean is estimated from it.
+	 * </p>
+	 */
+	private static final int SAMPLE_POINTS = 256;
+
+	private QuantileSketches() {}
+
+	/**
+	 * <p>
+	 * Creates an empty sketch of the given engine.
+	 * </p>
+	 *
+	 * @param engine
+	 *            The name of a built-in engine, or of a class implementing
+	 *            {@link QuantileSketch} with a public default constructor.
+	 *            <code>null</code> or an empty name selects the
+	 *            {@link #LOG_BUCKET default}.
+	 * @return The new sketch.
+	 * @throws Latency4JException
+	 *             If the engine is neither built in nor a loadable
+	 *             {@link QuantileSketch} class.
+	 */
+	public static QuantileSketch create(final String engine) {
+		QuantileSketch result;
+		if (engine == null || engine.length() == 0 || LOG_BUCKET.equalsIgnoreCase(engine))
+			result = new LogBucketSketch();
+		else if (T_DIGEST.equalsIgnoreCase(engine)) result = new TDigestSketch();
+		else if (DDSKETCH.equalsIgnoreCase(engine)) result = new DDSketch();
+		else {
+			Object instance;
+			try {
+				instance = Class.forName(engine).newInstance();
+			} catch (Exception exce) {
+				throw new Latency4JException("Unknown quantile sketch '" + engine + "'.", exce);
+			}
+			if (!(instance instanceof QuantileSketch)) throw new Latency4JException(
+					"Quantile sketch '" + engine + "' does not implement " + QuantileSketch.class.getName() + ".");
+			result = (QuantileSketch) instance;
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Adds the observations of one sketch to another. Sketches of the same
+	 * class are {@link QuantileSketch#merge(QuantileSketch) merged} directly;
+	 * otherwise the source is sampled at {@value #SAMPLE_POINTS} evenly
+	 * spaced quantiles, each standing for an equal share of its observations.
+	 * </p>
+	 *
+	 * @param target
+	 *            The sketch to add to.
+	 * @param source
+	 *            The sketch whose observations are added.
+	 */
+	public static void merge(final QuantileSketch target, final QuantileSketch source) {
+		if (target.getClass() == source.getClass()) target.merge(source);
+		else {
+			QuantileSketch sample = source.copy();
+			long count = sample.getCount();
+			int points = (int) Math.min(count, SAMPLE_POINTS);
+			for (int i = 0; i < points; i++) {
+				long share = count * (i + 1) / points - count * i / points;
+				target.record(Math.round(sample.getQuantile((i + 0.5d) / points)), share);
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Estimates the mean of the observations summarised by a sketch, once the
+	 * given fraction has been discarded from each end, by averaging the
+	 * quantiles at the midpoints of evenly sized slices of the remainder.
+	 * </p>
+	 *
+	 * @param sketch
+	 *            The sketch.
+	 * @param trim
+	 *            The fraction to discard from each end, between <code>0</code>
+	 *            and <code>0.5</code>.
+	 * @return The estimated trimmed mean, or <code>0</code> if the sketch is
+	 *         empty.
+	 */
+	public static double trimmedMean(final QuantileSketch sketch, final double trim) {
+		double clampedTrim = Math.min(0.5d, Math.max(0.0d, trim));
+		double result;
+		if (sketch instanceof LogBucketSketch)
+			result = LatencyHistogram.trimmedMean(((LogBucketSketch) sketch).copyCounts(), clampedTrim);
+		else if (clampedTrim == 0.5d) result = sketch.getQuantile(0.5d);
+		else {
+			double sum = 0;
+			double width = (1 - 2 * clampedTrim) / SAMPLE_POINTS;
+			for (int i = 0; i < SAMPLE_POINTS; i++)
+				sum += sketch.getQuantile(clampedTrim + (i + 0.5d) * width);
+			result = sum / SAMPLE_POINTS;
+		}
+		return result;
+	}
+}// end class def
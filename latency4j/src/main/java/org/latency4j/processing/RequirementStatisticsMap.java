@@ -1,8 +1,12 @@
 package org.latency4j.processing;
 
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.latency4j.ErrorRateLatencyRequirement;
 import org.latency4j.LatencyRequirement;
 import org.latency4j.StatisticalLatencyRequirement;
 import org.latency4j.WorkDuration;
@@ -13,8 +17,22 @@ import org.latency4j.WorkDuration;
  * {@link WorkDuration durations} resulting from a specific {@link #requirement
  * latency requirement}.
  * </p>
+ * <p>
+ * Once constructed, which may happen on a warm-up thread (see
+ * {@link LatencyProcessor#warmUp(LatencyRequirement, java.util.concurrent.Executor)}),
+ * the map is only modified by the {@link LatencyProcessor latency processor},
+ * but can be read concurrently by other threads, e.g. to take
+ * {@link WorkStatisticsSnapshot snapshots} of its contents.
+ * </p>
+ * <p>
+ * Where a {@link #getMaxStatisticsKeys() cap} is set, the map holds at most
+ * that many method entries besides those for {@link #ROOT_METHOD_MARKER root
+ * calls} and {@link #OVERFLOW_KEY overflow}. Beyond it, the least recently
+ * updated method entry is evicted and folded into the overflow entry, so
+ * that dynamically named methods cannot grow the map without limit.
+ * </p>
  */
-class RequirementStatisticsMap extends HashMap<String, WorkStatistics> {
+class RequirementStatisticsMap extends ConcurrentHashMap<String, WorkStatistics> {
 	private static final long serialVersionUID = -4508963052524857774L;
 
 	/**
@@ -24,15 +42,139 @@ class RequirementStatisticsMap extends HashMap<String, WorkStatistics> {
 	 * {@link LatencyRequirement#getWorkCategory() category}.
 	 * </p>
 	 */
-	private static final String ROOT_METHOD_MARKER = "<CALL.ROOT>";
+	static final String ROOT_METHOD_MARKER = "<CALL.ROOT>";
 
 	/**
 	 * <p>
-	 * The {@link StatisticalLatencyRequirement requirement} to which the
-	 * statistics relate.
+	 * Key of the entry into which the {@link WorkStatistics statistics} of
+	 * evicted methods are folded.
+	 * </p>
+	 */
+	static final String OVERFLOW_KEY = "<OVERFLOW>";
+
+	/**
+	 * <p>
+	 * The {@link LatencyRequirement requirement} to which the statistics
+	 * relate.
+	 * </p>
+	 */
+	private final LatencyRequirement requirement;
+
+	/**
+	 * <p>
+	 * The maximum number of method entries, or <code>0</code> if unbounded.
+	 * </p>
+	 */
+	private final int maxStatisticsKeys;
+
+	/**
+	 * <p>
+	 * The {@link LatencyRequirement#getQuantileSketch() sketch engine} of the
+	 * requirement when the map was created, so that all entries use the same
+	 * engine; the default engine is used where there is no requirement.
+	 * </p>
+	 */
+	private final String quantileSketch;
+
+	/**
+	 * <p>
+	 * The method entries in order of last update, least recent first; or
+	 * <code>null</code> if the map is unbounded. Only accessed by the thread
+	 * which owns the map.
+	 * </p>
+	 */
+	private final LinkedHashMap<String, WorkStatistics> recency;
+
+	/**
+	 * <p>
+	 * The number of method entries evicted to date.
+	 * </p>
+	 */
+	private volatile long evictionCount;
+
+	/**
+	 * <p>
+	 * Notified of the method entries evicted, once the map is published by
+	 * the {@link LatencyProcessor processor}; <code>null</code> until then.
+	 * </p>
+	 */
+	private volatile StatisticsKeyEvictionListener keyEvictionListener;
+
+	/**
+	 * <p>
+	 * The {@link CallTree call tree} of the category, created on first use.
+	 * </p>
+	 */
+	private volatile CallTree callTree;
+
+	/**
+	 * <p>
+	 * The {@link SlowCallReservoir slow-call reservoir} of the category,
+	 * created on first use.
+	 * </p>
+	 */
+	private volatile SlowCallReservoir slowCallReservoir;
+
+	/**
+	 * <p>
+	 * The {@link ErrorRateWindow error-rate window} of the category, created
+	 * on first use if the requirement is an {@link ErrorRateLatencyRequirement
+	 * error-rate requirement}.
+	 * </p>
+	 */
+	private volatile ErrorRateWindow errorRateWindow;
+
+	/**
+	 * <p>
+	 * The {@link ChangePointDetector change-point detector} of the category,
+	 * created on first use if the requirement is a
+	 * {@link StatisticalLatencyRequirement#isChangePointDetection() statistical
+	 * requirement with change-point detection}.
+	 * </p>
+	 */
+	private volatile ChangePointDetector changePointDetector;
+
+	/**
+	 * <p>
+	 * The {@link SeasonalBaseline seasonal baseline} of the category, if the
+	 * requirement is a {@link StatisticalLatencyRequirement#isSeasonalBaseline()
+	 * seasonal requirement}.
+	 * </p>
+	 */
+	private final SeasonalBaseline seasonalBaseline;
+
+	/**
+	 * <p>
+	 * Constructor
+	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link LatencyRequirement requirement} to which the
+	 *            instance relates. Historical {@link WorkDuration durations}
+	 *            are only replayed for {@link StatisticalLatencyRequirement
+	 *            statistical requirements}, as these are the only ones which
+	 *            depend on a baseline.
+	 */
+	RequirementStatisticsMap(final LatencyRequirement requirement) {
+		this(requirement, true);
+	}
+
+	/**
+	 * <p>
+	 * Constructor
 	 * </p>
+	 * 
+	 * @param requirement
+	 *            The {@link LatencyRequirement requirement} to which the
+	 *            instance relates.
+	 * @param replayHistory
+	 *            Whether historical {@link WorkDuration durations} of a
+	 *            {@link StatisticalLatencyRequirement statistical requirement}
+	 *            should be replayed.
 	 */
-	private final StatisticalLatencyRequirement requirement;
+	RequirementStatisticsMap(final LatencyRequirement requirement, final boolean replayHistory) {
+		this(requirement, replayHistory, 0);
+	}
 
 	/**
 	 * <p>
@@ -42,10 +184,169 @@ class RequirementStatisticsMap extends HashMap<String, WorkStatistics> {
 	 * @param requirement
 	 *            The {@link LatencyRequirement requirement} to which the
 	 *            instance relates.
+	 * @param replayHistory
+	 *            Whether historical {@link WorkDuration durations} of a
+	 *            {@link StatisticalLatencyRequirement statistical requirement}
+	 *            should be replayed.
+	 * @param maxStatisticsKeys
+	 *            The maximum number of method entries, or <code>0</code> for
+	 *            no limit.
 	 */
-	RequirementStatisticsMap(final StatisticalLatencyRequirement requirement) {
+	RequirementStatisticsMap(final LatencyRequirement requirement, final boolean replayHistory,
+			final int maxStatisticsKeys) {
 		this.requirement = requirement;
-		calculateStatsFromHistory();
+		this.maxStatisticsKeys = maxStatisticsKeys;
+		this.quantileSketch = requirement == null ? null : requirement.getQuantileSketch();
+		this.recency = maxStatisticsKeys > 0 ? new LinkedHashMap<String, WorkStatistics>(16, 0.75f, true) : null;
+		this.seasonalBaseline = requirement instanceof StatisticalLatencyRequirement
+				&& ((StatisticalLatencyRequirement) requirement).isSeasonalBaseline()
+						? new SeasonalBaseline(
+								((StatisticalLatencyRequirement) requirement).getSeasonalTimeZoneOrDefault())
+						: null;
+		if (replayHistory && requirement instanceof StatisticalLatencyRequirement) calculateStatsFromHistory();
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link LatencyRequirement requirement} to which the
+	 * statistics relate.
+	 * </p>
+	 * 
+	 * @return The {@link LatencyRequirement requirement} to which the instance
+	 *         relates.
+	 */
+	LatencyRequirement getRequirement() {
+		return requirement;
+	}
+
+	/**
+	 * <p>
+	 * Sets the {@link StatisticsKeyEvictionListener listener} notified of the
+	 * method entries evicted to respect the {@link #getMaxStatisticsKeys()
+	 * cap}.
+	 * </p>
+	 * 
+	 * @param keyEvictionListener
+	 *            The listener, or <code>null</code> for none.
+	 */
+	void setKeyEvictionListener(final StatisticsKeyEvictionListener keyEvictionListener) {
+		this.keyEvictionListener = keyEvictionListener;
+	}
+
+	/**
+	 * @return The maximum number of method entries, or <code>0</code> if the
+	 *         map is unbounded.
+	 */
+	int getMaxStatisticsKeys() {
+		return maxStatisticsKeys;
+	}
+
+	/**
+	 * @return The {@link CallTree call tree} of the category, or
+	 *         <code>null</code> if no call has been recorded.
+	 */
+	CallTree getCallTree() {
+		return callTree;
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link CallTree call tree} of the category, creating it if
+	 * necessary. Must only be invoked by the thread which owns the map.
+	 * </p>
+	 * 
+	 * @return The call tree.
+	 */
+	CallTree getOrCreateCallTree() {
+		if (callTree == null) callTree = new CallTree(CallTree.DEFAULT_MAX_NODES);
+		return callTree;
+	}
+
+	/**
+	 * @return The {@link SlowCallReservoir slow-call reservoir} of the
+	 *         category, or <code>null</code> if no call has been offered.
+	 */
+	SlowCallReservoir getSlowCallReservoir() {
+		return slowCallReservoir;
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link SlowCallReservoir slow-call reservoir} of the
+	 * category, creating it with the given settings if necessary. Must only be
+	 * invoked by the thread which owns the map.
+	 * </p>
+	 * 
+	 * @param capacity
+	 *            The maximum number of exemplars held per window.
+	 * @param windowMillis
+	 *            The length of a window, in milliseconds.
+	 * @return The reservoir.
+	 */
+	SlowCallReservoir getOrCreateSlowCallReservoir(final int capacity, final long windowMillis) {
+		if (slowCallReservoir == null) slowCallReservoir = new SlowCallReservoir(capacity, windowMillis);
+		return slowCallReservoir;
+	}
+
+	/**
+	 * @return The {@link ErrorRateWindow error-rate window} of the category,
+	 *         or <code>null</code> if no call has been recorded in one.
+	 */
+	ErrorRateWindow getErrorRateWindow() {
+		return errorRateWindow;
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link ErrorRateWindow error-rate window} of the category,
+	 * creating it from the given requirement if necessary. Must only be
+	 * invoked by the thread which owns the map.
+	 * </p>
+	 * 
+	 * @param errorRateRequirement
+	 *            The requirement whose settings govern the window.
+	 * @return The error-rate window.
+	 */
+	ErrorRateWindow getOrCreateErrorRateWindow(final ErrorRateLatencyRequirement errorRateRequirement) {
+		if (errorRateWindow == null) errorRateWindow = new ErrorRateWindow(errorRateRequirement);
+		return errorRateWindow;
+	}
+
+	/**
+	 * @return The {@link ChangePointDetector change-point detector} of the
+	 *         category, or <code>null</code> if no call has been fed to one.
+	 */
+	ChangePointDetector getChangePointDetector() {
+		return changePointDetector;
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link ChangePointDetector change-point detector} of the
+	 * category, creating it if necessary. Must only be invoked by the thread
+	 * which owns the map.
+	 * </p>
+	 * 
+	 * @return The change-point detector.
+	 */
+	ChangePointDetector getOrCreateChangePointDetector() {
+		if (changePointDetector == null) changePointDetector = new ChangePointDetector();
+		return changePointDetector;
+	}
+
+	/**
+	 * @return The {@link SeasonalBaseline seasonal baseline} of the category,
+	 *         or <code>null</code> if the requirement does not use one.
+	 */
+	SeasonalBaseline getSeasonalBaseline() {
+		return seasonalBaseline;
+	}
+
+	/**
+	 * @return The number of method entries evicted to date.
+	 */
+	long getEvictionCount() {
+		return evictionCount;
 	}
 
 	/**
@@ -64,14 +365,99 @@ class RequirementStatisticsMap extends HashMap<String, WorkStatistics> {
 	 *         the specified {@link WorkDuration duration}.
 	 */
 	WorkStatistics getOrCreateStatistics(final WorkDuration duration) {
+		return getOrCreateStatistics(getStatisticsMapKey(duration));
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link WorkStatistics statistics} held under the given key,
+	 * creating them if necessary.
+	 * </p>
+	 * 
+	 * @param statisticsMapKey
+	 *            The key, as returned by
+	 *            {@link #getStatisticsMapKey(WorkDuration)}.
+	 * 
+	 * @return The {@link WorkStatistics statistics} for the key.
+	 */
+	WorkStatistics getOrCreateStatistics(final String statisticsMapKey) {
 		WorkStatistics result;
-		String statisticsMapKey = getStatisticsMapKey(duration);
+		long significanceBarrier = getSignificanceBarrier();
 
 		result = get(statisticsMapKey);
 		if (result == null) {
-			result = new WorkStatistics(requirement.getObservationsSignificanceBarrier());
+			result = new WorkStatistics(significanceBarrier, QuantileSketches.create(quantileSketch));
 			put(statisticsMapKey, result);
+			if (isEvictable(statisticsMapKey)) {
+				recency.put(statisticsMapKey, result);
+				evictLeastRecentlyUpdated();
+			}
+		} else {
+			if (isEvictable(statisticsMapKey)) recency.get(statisticsMapKey); // mark as recently updated
+			if (result.getSignificanceBarrier() != significanceBarrier) {
+				// the barrier has been adjusted at runtime
+				result.setSignificanceBarrier(significanceBarrier);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Folds all the {@link WorkStatistics statistics} of another map into the
+	 * entries of this one, as is done when the statistics of a whole category
+	 * are evicted.
+	 * </p>
+	 * 
+	 * @param other
+	 *            The map whose statistics are to be folded in.
+	 */
+	void mergeAll(final RequirementStatisticsMap other) {
+		for (Map.Entry<String, WorkStatistics> entry : other.entrySet())
+			getOrCreateStatistics(entry.getKey()).merge(entry.getValue());
+	}
+
+	private boolean isEvictable(final String statisticsMapKey) {
+		return recency != null && !ROOT_METHOD_MARKER.equals(statisticsMapKey)
+				&& !OVERFLOW_KEY.equals(statisticsMapKey);
+	}
+
+	/**
+	 * <p>
+	 * Evicts the least recently updated method entries until the
+	 * {@link #maxStatisticsKeys cap} is respected, folding them into the
+	 * {@link #OVERFLOW_KEY overflow entry}, and notifies the
+	 * {@link #keyEvictionListener listener} if any.
+	 * </p>
+	 */
+	private void evictLeastRecentlyUpdated() {
+		StatisticsKeyEvictionListener listener = keyEvictionListener;
+		Iterator<Map.Entry<String, WorkStatistics>> iterator = recency.entrySet().iterator();
+		while (recency.size() > maxStatisticsKeys) {
+			Map.Entry<String, WorkStatistics> eldest = iterator.next();
+			iterator.remove();
+			remove(eldest.getKey());
+			getOrCreateStatistics(OVERFLOW_KEY).merge(eldest.getValue());
+			evictionCount++;
+			if (listener != null) listener.statisticsKeyEvicted(requirement.getWorkCategory(), eldest.getKey());
 		}
+	}
+
+	/**
+	 * <p>
+	 * Returns the {@link StatisticalLatencyRequirement#getObservationsSignificanceBarrier()
+	 * significance barrier} of the {@link #requirement requirement}, or
+	 * <code>0</code> if it is not a {@link StatisticalLatencyRequirement
+	 * statistical requirement}.
+	 * </p>
+	 * 
+	 * @return The significance barrier for {@link WorkStatistics statistics}
+	 *         held in this map.
+	 */
+	private long getSignificanceBarrier() {
+		long result = 0;
+		if (requirement instanceof StatisticalLatencyRequirement)
+			result = ((StatisticalLatencyRequirement) requirement).getObservationsSignificanceBarrier();
 		return result;
 	}
 
@@ -79,7 +465,8 @@ class RequirementStatisticsMap extends HashMap<String, WorkStatistics> {
 	 * <p>
 	 * Build {@link WorkStatistics statistics} from historical/saved
 	 * {@link WorkDuration durations} pertaining to the {@link #requirement
-	 * requirement} for this instance.
+	 * requirement} for this instance, seeding the {@link #seasonalBaseline
+	 * seasonal baseline} as well where there is one.
 	 * </p>
 	 */
 	private void calculateStatsFromHistory() {
@@ -102,12 +489,14 @@ class RequirementStatisticsMap extends HashMap<String, WorkStatistics> {
 	 *            The {@link WorkDuration duration} with which to adjust the
 	 *            observed {@link WorkStatistics statistics}.
 	 * 
-	 * @see WorkStatistics#update(long)
+	 * @see WorkStatistics#update(long, long)
 	 */
 	private void adjustStatisticsToHistoricalDuration(final WorkDuration duration) {
 		if (!duration.isErrored()) {
 			WorkStatistics statistics = getOrCreateStatistics(duration);
-			statistics.update(duration.getElapsedTime());
+			statistics.update(duration.getElapsedTime(), duration.getWeight());
+			if (seasonalBaseline != null && duration.isRoot())
+				seasonalBaseline.record(duration, duration.getWeight());
 		}
 	}
 
@@ -127,7 +516,7 @@ class RequirementStatisticsMap extends HashMap<String, WorkStatistics> {
 	 *         {@link WorkDuration#getMethodName() name of the method from which
 	 *         the duration originates} otherwise.
 	 */
-	private String getStatisticsMapKey(final WorkDuration duration) {
+	static String getStatisticsMapKey(final WorkDuration duration) {
 		String result;
 		if (duration.isRoot()) result = ROOT_METHOD_MARKER;
 		else result = duration.getMethodName();
@@ -0,0 +1,125 @@
+package org.latency4j.processing;
+
+import java.util.TimeZone;
+
+import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * Keeps a running average latency for each hour of the week, so that the
+ * root calls of a {@link StatisticalLatencyRequirement#isSeasonalBaseline()
+ * seasonal requirement} can be judged against the average of the matching
+ * hour rather than against a single average across all hours. Nightly batch
+ * windows then no longer read as regressions, and daytime regressions are no
+ * longer hidden by them.
+ * </p>
+ * <p>
+ * The state is fixed at {@value #BUCKET_COUNT} counts and averages per
+ * category. Instances are only updated by the {@link LatencyProcessor
+ * latency processor} thread. Other threads may read the averages; the
+ * volatile {@link #getObservationCount() observation count}, written after
+ * each update, makes them visible.
+ * </p>
+ */
+class SeasonalBaseline {
+	/**
+	 * <p>
+	 * The number of hour-of-week buckets.
+	 * </p>
+	 */
+	static final int BUCKET_COUNT = 7 * 24;
+
+	private static final long HOUR_MILLIS = 60 * 60 * 1000;
+
+	/**
+	 * <p>
+	 * The hour of the week, counted from Monday midnight, at which the epoch
+	 * falls: 1 January 1970 was a Thursday.
+	 * </p>
+	 */
+	private static final int EPOCH_HOUR_OF_WEEK = 3 * 24;
+
+	private final TimeZone timeZone;
+	private final long[] counts;
+	private final double[] averages;
+
+	private volatile long observationCount;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 * 
+	 * @param timeZone
+	 *            The time zone in which hours of the week are reckoned.
+	 */
+	SeasonalBaseline(final TimeZone timeZone) {
+		this.timeZone = timeZone;
+		this.counts = new long[BUCKET_COUNT];
+		this.averages = new double[BUCKET_COUNT];
+	}
+
+	/**
+	 * <p>
+	 * Returns the hour-of-week bucket into which the given time falls, from
+	 * <code>0</code> for Monday 00:00 to {@value #BUCKET_COUNT}
+	 * <code>- 1</code> for Sunday 23:00.
+	 * </p>
+	 * 
+	 * @param time
+	 *            The time in milliseconds since the epoch.
+	 * @return The bucket index.
+	 */
+	int getBucket(final long time) {
+		long hour = (time + timeZone.getOffset(time)) / HOUR_MILLIS + EPOCH_HOUR_OF_WEEK;
+		return (int) (((hour % BUCKET_COUNT) + BUCKET_COUNT) % BUCKET_COUNT);
+	}
+
+	/**
+	 * <p>
+	 * Folds a {@link WorkDuration#markFinished() finished} call into the
+	 * average of the hour in which it ended.
+	 * </p>
+	 * 
+	 * @param duration
+	 *            The duration of the call.
+	 * @param weight
+	 *            The number of calls the duration stands for.
+	 */
+	void record(final WorkDuration duration, final long weight) {
+		int bucket = getBucket(duration.getEndTime());
+		counts[bucket] += weight;
+		averages[bucket] += (duration.getElapsedTime() - averages[bucket]) * weight / counts[bucket];
+		observationCount += weight;
+	}
+
+	/**
+	 * <p>
+	 * Returns the average latency of the hour in which the given time falls,
+	 * if the hour has seen enough calls for the average to be relied upon.
+	 * </p>
+	 * 
+	 * @param time
+	 *            The time in milliseconds since the epoch.
+	 * @param significanceBarrier
+	 *            The number of calls the hour must have seen.
+	 * @return The average in milliseconds, or {@link Double#NaN} if the hour
+	 *         has seen fewer calls.
+	 */
+	double getAverage(final long time, final long significanceBarrier) {
+		double result = Double.NaN;
+		if (observationCount > 0) {
+			int bucket = getBucket(time);
+			if (counts[bucket] >= significanceBarrier) result = averages[bucket];
+		}
+		return result;
+	}
+
+	/**
+	 * @return The number of calls folded in to date, across all hours.
+	 */
+	long getObservationCount() {
+		return observationCount;
+	}
+}// end class def
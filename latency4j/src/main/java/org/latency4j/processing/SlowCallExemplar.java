@@ -0,0 +1,142 @@
+package org.latency4j.processing;
+
+import java.io.Serializable;
+
+import org.latency4j.LatencyRequirement;
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * An immutable record of one of the slowest calls observed for a
+ * {@link LatencyRequirement#getWorkCategory() category}, as kept by the
+ * {@link LatencyProcessor latency processor}'s slow-call reservoirs. Besides
+ * the timings of the {@link WorkDuration duration}, it records the thread and
+ * call path on which the call was made, and a summary of the error with which
+ * it failed, if any.
+ * </p>
+ */
+public class SlowCallExemplar implements Serializable {
+	private static final long serialVersionUID = 2861174938624009178L;
+
+	/**
+	 * <p>
+	 * Separator between the methods of a {@link #getCallPath() call path}.
+	 * </p>
+	 */
+	public static final String CALL_PATH_SEPARATOR = " > ";
+
+	private final String workCategory;
+	private final String threadId;
+	private final String methodName;
+	private final String callPath;
+	private final boolean root;
+	private final long startTime;
+	private final long endTime;
+	private final long elapsedTime;
+	private final long selfTime;
+	private final String errorSummary;
+
+	/**
+	 * <p>
+	 * Constructor which captures the given {@link WorkDuration duration}.
+	 * </p>
+	 *
+	 * @param duration
+	 *            A {@link WorkDuration#markFinished() finished} duration.
+	 */
+	public SlowCallExemplar(final WorkDuration duration) {
+		this.workCategory = duration.getIdentifier().getWorkCategory();
+		this.threadId = duration.getIdentifier().getThreadId();
+		this.methodName = duration.getMethodName();
+		this.callPath = createCallPath(duration);
+		this.root = duration.isRoot();
+		this.startTime = duration.getStartTime();
+		this.endTime = duration.getEndTime();
+		this.elapsedTime = duration.getElapsedTime();
+		this.selfTime = duration.getSelfTime();
+		this.errorSummary = createErrorSummary(duration);
+	}
+
+	public String getWorkCategory() {
+		return workCategory;
+	}
+
+	public String getThreadId() {
+		return threadId;
+	}
+
+	public String getMethodName() {
+		return methodName;
+	}
+
+	/**
+	 * @return The methods from the root call down to this one, separated by
+	 *         {@value #CALL_PATH_SEPARATOR}.
+	 */
+	public String getCallPath() {
+		return callPath;
+	}
+
+	public boolean isRoot() {
+		return root;
+	}
+
+	public long getStartTime() {
+		return startTime;
+	}
+
+	public long getEndTime() {
+		return endTime;
+	}
+
+	public long getElapsedTime() {
+		return elapsedTime;
+	}
+
+	/**
+	 * @return The part of the {@link #getElapsedTime() elapsed time} not spent
+	 *         in monitored child calls.
+	 */
+	public long getSelfTime() {
+		return selfTime;
+	}
+
+	public boolean isErrored() {
+		return errorSummary != null;
+	}
+
+	/**
+	 * @return The class and message of the error with which the call failed,
+	 *         or <code>null</code> if it did not fail.
+	 */
+	public String getErrorSummary() {
+		return errorSummary;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		result.append(elapsedTime).append("ms (self ").append(selfTime).append("ms) ").append(callPath);
+		result.append(" on ").append(threadId).append(" ending ").append(endTime);
+		if (errorSummary != null) result.append(" failed: ").append(errorSummary);
+		return result.toString();
+	}
+
+	private static String createCallPath(final WorkDuration duration) {
+		StringBuilder result = new StringBuilder(duration.getMethodName());
+		for (WorkDuration parent = duration.getParent(); parent != null; parent = parent.getParent())
+			result.insert(0, CALL_PATH_SEPARATOR).insert(0, parent.getMethodName());
+		return result.toString();
+	}
+
+	private static String createErrorSummary(final WorkDuration duration) {
+		String result = null;
+		if (duration.isErrored()) {
+			Throwable error = duration.getError();
+			if (error == null) result = "unknown error";
+			else if (error.getMessage() == null) result = error.getClass().getName();
+			else result = error.getClass().getName() + ": " + error.getMessage();
+		}
+		return result;
+	}
+}// end class def
@@ -0,0 +1,218 @@
+package org.latency4j.processing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.latency4j.LatencyRequirement;
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * Keeps the slowest {@link WorkDuration durations} of a
+ * {@link LatencyRequirement#getWorkCategory() category}, as
+ * {@link SlowCallExemplar exemplars}, for each of the most recent
+ * {@value #RETAINED_WINDOWS} time windows. Each window holds at most
+ * {@link #getCapacity() K} exemplars in a min-heap keyed by elapsed time, so a
+ * duration slower than the fastest exemplar held replaces it in
+ * <code>O(log K)</code>; durations no slower are rejected without locking or
+ * allocating.
+ * </p>
+ * <p>
+ * Durations are only {@link #offer(WorkDuration) offered} by the
+ * {@link LatencyProcessor latency processor} thread, but the reservoir can be
+ * read by any thread.
+ * </p>
+ */
+class SlowCallReservoir {
+	/**
+	 * <p>
+	 * The number of windows retained, including the current one.
+	 * </p>
+	 */
+	static final int RETAINED_WINDOWS = 5;
+
+	/**
+	 * <p>
+	 * Orders exemplars by ascending elapsed time, so that the head of a heap
+	 * is the fastest exemplar held.
+	 * </p>
+	 */
+	private static final Comparator<SlowCallExemplar> BY_ELAPSED_TIME = new Comparator<SlowCallExemplar>() {
+		@Override
+		public int compare(final SlowCallExemplar first, final SlowCallExemplar second) {
+			return first.getElapsedTime() < second.getElapsedTime() ? -1
+					: first.getElapsedTime() > second.getElapsedTime() ? 1 : 0;
+		}
+	};
+
+	/**
+	 * <p>
+	 * The maximum number of exemplars held per window.
+	 * </p>
+	 */
+	private final int capacity;
+
+	/**
+	 * <p>
+	 * The length of a window, in milliseconds.
+	 * </p>
+	 */
+	private final long windowMillis;
+
+	/**
+	 * <p>
+	 * The retained windows, indexed by window number modulo
+	 * {@value #RETAINED_WINDOWS}.
+	 * </p>
+	 */
+	private final Window[] windows;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param capacity
+	 *            The maximum number of exemplars held per window.
+	 * @param windowMillis
+	 *            The length of a window, in milliseconds.
+	 */
+	SlowCallReservoir(final int capacity, final long windowMillis) {
+		this.capacity = capacity;
+		this.windowMillis = windowMillis;
+		this.windows = new Window[RETAINED_WINDOWS];
+		for (int i = 0; i < windows.length; i++)
+			windows[i] = new Window(capacity);
+	}
+
+	int getCapacity() {
+		return capacity;
+	}
+
+	long getWindowMillis() {
+		return windowMillis;
+	}
+
+	/**
+	 * <p>
+	 * Offers a {@link WorkDuration#markFinished() finished} duration to the
+	 * window in which it ended.
+	 * </p>
+	 *
+	 * @param duration
+	 *            The duration to offer.
+	 * @return <code>True</code> if the duration is held as an exemplar.
+	 */
+	boolean offer(final WorkDuration duration) {
+		long windowNumber = duration.getEndTime() / windowMillis;
+		Window window = windows[(int) (windowNumber % RETAINED_WINDOWS)];
+
+		long number = window.number;
+		if (windowNumber < number) return false; // older than the retained windows
+		if (windowNumber == number && window.isFull() && duration.getElapsedTime() <= window.threshold) return false;
+		return window.offer(windowNumber, duration);
+	}
+
+	/**
+	 * <p>
+	 * Returns the slowest exemplars across the retained windows.
+	 * </p>
+	 *
+	 * @param now
+	 *            The current time, which determines the windows retained.
+	 * @return At most {@link #getCapacity() K} exemplars, slowest first.
+	 */
+	List<SlowCallExemplar> getSlowest(final long now) {
+		List<SlowCallExemplar> result = new ArrayList<SlowCallExemplar>();
+		for (List<SlowCallExemplar> exemplars : getSlowestByWindow(now).values())
+			result.addAll(exemplars);
+		Collections.sort(result, Collections.reverseOrder(BY_ELAPSED_TIME));
+		return result.size() > capacity ? new ArrayList<SlowCallExemplar>(result.subList(0, capacity)) : result;
+	}
+
+	/**
+	 * <p>
+	 * Returns the exemplars of each retained window.
+	 * </p>
+	 *
+	 * @param now
+	 *            The current time, which determines the windows retained.
+	 * @return The exemplars, slowest first, keyed by the start time of their
+	 *         window. Windows without exemplars are omitted.
+	 */
+	SortedMap<Long, List<SlowCallExemplar>> getSlowestByWindow(final long now) {
+		long oldest = now / windowMillis - RETAINED_WINDOWS + 1;
+		SortedMap<Long, List<SlowCallExemplar>> result = new TreeMap<Long, List<SlowCallExemplar>>();
+		for (Window window : windows) {
+			synchronized (window) {
+				if (window.number >= oldest && !window.heap.isEmpty()) {
+					List<SlowCallExemplar> exemplars = new ArrayList<SlowCallExemplar>(window.heap);
+					Collections.sort(exemplars, Collections.reverseOrder(BY_ELAPSED_TIME));
+					result.put(window.number * windowMillis, exemplars);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * The exemplars of a single window.
+	 * </p>
+	 */
+	private static class Window {
+		private final int capacity;
+		private final PriorityQueue<SlowCallExemplar> heap;
+
+		/**
+		 * <p>
+		 * The number of the window, i.e. its start time divided by the window
+		 * length; <code>-1</code> before first use.
+		 * </p>
+		 */
+		private volatile long number;
+
+		/**
+		 * <p>
+		 * The elapsed time of the fastest exemplar held, which a duration must
+		 * exceed to be admitted to a full window.
+		 * </p>
+		 */
+		private volatile long threshold;
+
+		private volatile int size;
+
+		Window(final int capacity) {
+			this.capacity = capacity;
+			this.heap = new PriorityQueue<SlowCallExemplar>(capacity, BY_ELAPSED_TIME);
+			this.number = -1;
+		}
+
+		boolean isFull() {
+			return size >= capacity;
+		}
+
+		synchronized boolean offer(final long windowNumber, final WorkDuration duration) {
+			if (windowNumber != number) {
+				heap.clear();
+				number = windowNumber;
+			}
+
+			boolean result = true;
+			if (heap.size() < capacity) heap.add(new SlowCallExemplar(duration));
+			else if (duration.getElapsedTime() > heap.peek().getElapsedTime()) {
+				heap.poll();
+				heap.add(new SlowCallExemplar(duration));
+			} else result = false;
+
+			size = heap.size();
+			threshold = heap.peek().getElapsedTime();
+			return result;
+		}
+	}
+}// end class def
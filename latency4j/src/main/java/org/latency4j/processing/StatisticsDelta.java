@@ -0,0 +1,95 @@
+package org.latency4j.processing;
+
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * Observations of a single method which have been aggregated on an
+ * application thread, and which are yet to be
+ * {@link WorkStatistics#merge(StatisticsDelta) merged} into the processor's
+ * {@link WorkStatistics statistics}. Instances are confined to one thread at a
+ * time: the aggregating thread until they are handed over, and the processing
+ * thread thereafter.
+ * </p>
+ */
+class StatisticsDelta {
+	/**
+	 * <p>
+	 * The number of observations.
+	 * </p>
+	 */
+	private long numberOfObservations;
+
+	/**
+	 * <p>
+	 * The total time, in milliseconds, of all observations.
+	 * </p>
+	 */
+	private long totalTime;
+
+	/**
+	 * <p>
+	 * The longest observed time in milliseconds.
+	 * </p>
+	 */
+	private long maxTime;
+
+	/**
+	 * <p>
+	 * {@link LatencyHistogram Histogram} bucket counts, grown as required.
+	 * </p>
+	 */
+	private long[] bucketCounts;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 */
+	StatisticsDelta() {
+		this.bucketCounts = new long[LatencyHistogram.SUB_BUCKET_COUNT * 4];
+	}
+
+	/**
+	 * <p>
+	 * Adds an observation.
+	 * </p>
+	 *
+	 * @param elapsedTime
+	 *            The {@link WorkDuration#getElapsedTime() elapsed time} in
+	 *            milliseconds.
+	 */
+	void add(final long elapsedTime) {
+		numberOfObservations++;
+		totalTime += elapsedTime;
+		if (elapsedTime > maxTime) maxTime = elapsedTime;
+
+		int index = LatencyHistogram.bucketIndex(elapsedTime);
+		if (index >= bucketCounts.length) {
+			long[] grown = new long[Math.min(LatencyHistogram.MAX_BUCKET_COUNT,
+					Math.max(index + 1, bucketCounts.length * 2))];
+			System.arraycopy(bucketCounts, 0, grown, 0, bucketCounts.length);
+			bucketCounts = grown;
+		}
+		bucketCounts[index]++;
+	}
+
+	long getNumberOfObservations() {
+		return numberOfObservations;
+	}
+
+	long getTotalTime() {
+		return totalTime;
+	}
+
+	long getMaxTime() {
+		return maxTime;
+	}
+
+	/**
+	 * @return The histogram bucket counts. The array is not copied.
+	 */
+	long[] getBucketCounts() {
+		return bucketCounts;
+	}
+}// end class def
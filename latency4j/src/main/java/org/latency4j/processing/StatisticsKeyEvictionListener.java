@@ -0,0 +1,34 @@
+package org.latency4j.processing;
+
+/**
+ * <p>
+ * Notified by the {@link LatencyProcessor latency processor} when the
+ * statistics of a method are folded into the
+ * {@link LatencyProcessor#OVERFLOW_STATISTICS_KEY overflow entry} of their
+ * category to respect its {@link LatencyProcessor#setMaxStatisticsKeys(int)
+ * cap}, so that state kept per method elsewhere, e.g. registered MBeans, can
+ * be released along with them.
+ * </p>
+ * <p>
+ * Listeners are invoked on the processing thread, and should therefore
+ * return promptly.
+ * </p>
+ *
+ * @see LatencyProcessor#addStatisticsKeyEvictionListener(StatisticsKeyEvictionListener)
+ */
+public interface StatisticsKeyEvictionListener {
+	/**
+	 * <p>
+	 * Invoked once the statistics of the given method have been evicted. The
+	 * method starts afresh if it is observed again.
+	 * </p>
+	 *
+	 * @param workCategory
+	 *            The {@link org.latency4j.LatencyRequirement#getWorkCategory()
+	 *            category} of the method.
+	 * @param statisticsKey
+	 *            The {@link LatencyProcessor#getStatisticsKeys(String) key}
+	 *            under which the method's statistics were held.
+	 */
+	void statisticsKeyEvicted(String workCategory, String statisticsKey);
+}
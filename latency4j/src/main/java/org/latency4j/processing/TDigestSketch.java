@@ -0,0 +1,339 @@
+package org.latency4j.processing;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A {@link QuantileSketch sketch} after the merging t-digest of Dunning and
+ * Ertl. Observations are summarised by weighted centroids, which are kept
+ * small near either end of the distribution, so that tail percentiles are
+ * far more accurate than the median. Memory is bounded by the
+ * {@link #DEFAULT_COMPRESSION compression}, regardless of the range of
+ * observed values.
+ * </p>
+ * <p>
+ * Observations are buffered and folded into the centroids once the buffer
+ * fills, or before the digest is read. Access is synchronised, so a
+ * {@link #copy() copy} taken on another thread briefly holds up the
+ * recording thread.
+ * </p>
+ */
+class TDigestSketch implements QuantileSketch {
+	private static final long serialVersionUID = 2893471705926658418L;
+
+	/**
+	 * <p>
+	 * The default ({@value #DEFAULT_COMPRESSION}) compression, which bounds
+	 * the number of centroids.
+	 * </p>
+	 */
+	static final double DEFAULT_COMPRESSION = 100;
+
+	private final double compression;
+
+	// centroids, ordered by mean
+	private double[] means;
+	private double[] weights;
+	private int centroidCount;
+
+	// scratch space into which centroids are merged, swapped with the above
+	private double[] mergedMeans;
+	private double[] mergedWeights;
+
+	// observations yet to be folded into the centroids
+	private final double[] bufferedValues;
+	private final double[] bufferedWeights;
+	private int bufferedCount;
+
+	private long count;
+	private double min;
+	private double max;
+
+	/**
+	 * <p>
+	 * Constructor, using the {@link #DEFAULT_COMPRESSION default compression}.
+	 * </p>
+	 */
+	TDigestSketch() {
+		this(DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param compression
+	 *            The compression; higher values give more accurate
+	 *            quantiles at the cost of more centroids. Must be at least
+	 *            <code>10</code>.
+	 */
+	TDigestSketch(final double compression) {
+		if (!(compression >= 10)) throw new IllegalArgumentException("Compression must be at least 10.");
+		this.compression = compression;
+		this.means = new double[0];
+		this.weights = new double[0];
+		this.mergedMeans = new double[0];
+		this.mergedWeights = new double[0];
+		this.bufferedValues = new double[(int) (5 * compression)];
+		this.bufferedWeights = new double[bufferedValues.length];
+		this.min = Double.POSITIVE_INFINITY;
+		this.max = Double.NEGATIVE_INFINITY;
+	}
+
+	/**
+	 * <p>
+	 * Copy constructor.
+	 * </p>
+	 *
+	 * @param source
+	 *            The sketch to copy, whose lock is held by the caller and
+	 *            whose buffer is empty. Since copies are only read, the copy
+	 *            has no buffer of its own.
+	 */
+	private TDigestSketch(final TDigestSketch source) {
+		this.compression = source.compression;
+		this.means = Arrays.copyOf(source.means, source.centroidCount);
+		this.weights = Arrays.copyOf(source.weights, source.centroidCount);
+		this.centroidCount = source.centroidCount;
+		this.mergedMeans = new double[0];
+		this.mergedWeights = new double[0];
+		this.bufferedValues = new double[0];
+		this.bufferedWeights = new double[0];
+		this.count = source.count;
+		this.min = source.min;
+		this.max = source.max;
+	}
+
+	@Override
+	public synchronized void record(final long value, final long count) {
+		if (count > 0) add(value, count);
+	}
+
+	@Override
+	public void merge(final QuantileSketch other) {
+		if (!(other instanceof TDigestSketch))
+			throw new IllegalArgumentException("Cannot merge a " + other.getClass().getName() + " into a t-digest.");
+		TDigestSketch source = (TDigestSketch) other.copy();
+		synchronized (this) {
+			for (int i = 0; i < source.centroidCount; i++)
+				add(source.means[i], source.weights[i]);
+			min = Math.min(min, source.min);
+			max = Math.max(max, source.max);
+		}
+	}
+
+	@Override
+	public synchronized long getCount() {
+		return count;
+	}
+
+	@Override
+	public synchronized double getQuantile(final double quantile) {
+		compress();
+		double result = 0;
+		if (centroidCount == 1) result = means[0];
+		else if (centroidCount > 1) {
+			double clampedQuantile = Math.min(1.0d, Math.max(0.0d, quantile));
+			double rank = clampedQuantile * count;
+
+			// each centroid is taken to be centred on its mean, and values are
+			// interpolated between adjacent centres
+			double seen = weights[0] / 2;
+			if (rank < seen) result = interpolate(min, means[0], rank / seen);
+			else {
+				int i = 0;
+				while (i < centroidCount - 1 && seen + (weights[i] + weights[i + 1]) / 2 <= rank) {
+					seen += (weights[i] + weights[i + 1]) / 2;
+					i++;
+				}
+				if (i == centroidCount - 1) {
+					double tail = weights[i] / 2;
+					result = interpolate(means[i], max, Math.min(1, (rank - seen) / tail));
+				} else result = interpolate(means[i], means[i + 1],
+						(rank - seen) / ((weights[i] + weights[i + 1]) / 2));
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public synchronized long getCountAtOrBelow(final long value) {
+		compress();
+		double result = 0;
+		if (centroidCount > 0 && value >= min) {
+			if (value >= max) result = count;
+			else if (value < means[0]) result = weights[0] / 2 * fraction(min, means[0], value);
+			else {
+				result = weights[0] / 2;
+				int i = 0;
+				while (i < centroidCount - 1 && means[i + 1] <= value) {
+					result += (weights[i] + weights[i + 1]) / 2;
+					i++;
+				}
+				if (i == centroidCount - 1) result += weights[i] / 2 * fraction(means[i], max, value);
+				else result += (weights[i] + weights[i + 1]) / 2 * fraction(means[i], means[i + 1], value);
+			}
+		}
+		return Math.round(result);
+	}
+
+	@Override
+	public synchronized QuantileSketch copy() {
+		compress();
+		return new TDigestSketch(this);
+	}
+
+	/**
+	 * <p>
+	 * Buffers a weighted value, compressing the buffer when full.
+	 * </p>
+	 */
+	private void add(final double value, final double weight) {
+		if (bufferedCount == bufferedValues.length) compress();
+		bufferedValues[bufferedCount] = value;
+		bufferedWeights[bufferedCount] = weight;
+		bufferedCount++;
+		count += weight;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * <p>
+	 * Folds the buffered values into the centroids. The buffer is sorted in
+	 * place and merged in order of mean with the centroids, which are already
+	 * ordered, each centroid absorbing its successor as long as its weight
+	 * stays within the limit the scale function sets at its position in the
+	 * distribution.
+	 * </p>
+	 */
+	private void compress() {
+		if (bufferedCount > 0) {
+			sort(bufferedValues, bufferedWeights, 0, bufferedCount - 1);
+
+			int total = centroidCount + bufferedCount;
+			if (mergedMeans.length < total) {
+				mergedMeans = new double[total];
+				mergedWeights = new double[total];
+			}
+			double totalWeight = sum(weights, centroidCount) + sum(bufferedWeights, bufferedCount);
+			int merged = -1;
+			double seen = 0;
+			double limit = 0;
+			int nextCentroid = 0;
+			int nextBuffered = 0;
+			while (nextCentroid < centroidCount || nextBuffered < bufferedCount) {
+				double mean;
+				double weight;
+				if (nextBuffered == bufferedCount
+						|| (nextCentroid < centroidCount && means[nextCentroid] <= bufferedValues[nextBuffered])) {
+					mean = means[nextCentroid];
+					weight = weights[nextCentroid++];
+				} else {
+					mean = bufferedValues[nextBuffered];
+					weight = bufferedWeights[nextBuffered++];
+				}
+
+				if (merged >= 0 && seen + mergedWeights[merged] + weight <= limit) {
+					double combinedWeight = mergedWeights[merged] + weight;
+					mergedMeans[merged] += (mean - mergedMeans[merged]) * weight / combinedWeight;
+					mergedWeights[merged] = combinedWeight;
+				} else {
+					if (merged >= 0) seen += mergedWeights[merged];
+					limit = totalWeight * quantileOfScale(scaleOfQuantile(seen / totalWeight) + 1);
+					merged++;
+					mergedMeans[merged] = mean;
+					mergedWeights[merged] = weight;
+				}
+			}
+
+			// the previous centroids become the scratch space for the next merge
+			double[] previousMeans = means;
+			double[] previousWeights = weights;
+			means = mergedMeans;
+			weights = mergedWeights;
+			mergedMeans = previousMeans;
+			mergedWeights = previousWeights;
+			centroidCount = merged + 1;
+			bufferedCount = 0;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Sorts the values between the given indices (inclusive) in place,
+	 * keeping each weight with its value.
+	 * </p>
+	 */
+	private static void sort(final double[] values, final double[] weights, final int from, final int to) {
+		int low = from;
+		int high = to;
+		while (high - low > 16) {
+			double pivot = values[(low + high) >>> 1];
+			int left = low;
+			int right = high;
+			while (left <= right) {
+				while (values[left] < pivot)
+					left++;
+				while (values[right] > pivot)
+					right--;
+				if (left <= right) swap(values, weights, left++, right--);
+			}
+			// recurse into the smaller partition, so the depth stays logarithmic
+			if (right - low < high - left) {
+				sort(values, weights, low, right);
+				low = left;
+			} else {
+				sort(values, weights, left, high);
+				high = right;
+			}
+		}
+		for (int i = low + 1; i <= high; i++)
+			for (int j = i; j > low && values[j - 1] > values[j]; j--)
+				swap(values, weights, j - 1, j);
+	}
+
+	private static void swap(final double[] values, final double[] weights, final int first, final int second) {
+		double value = values[first];
+		values[first] = values[second];
+		values[second] = value;
+		double weight = weights[first];
+		weights[first] = weights[second];
+		weights[second] = weight;
+	}
+
+	/**
+	 * <p>
+	 * The scale function <code>k(q) = compression / 2&pi; * asin(2q - 1)</code>.
+	 * </p>
+	 */
+	private double scaleOfQuantile(final double quantile) {
+		return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1, Math.max(0, quantile)) - 1);
+	}
+
+	/**
+	 * <p>
+	 * The inverse of {@link #scaleOfQuantile(double)}.
+	 * </p>
+	 */
+	private double quantileOfScale(final double scale) {
+		double clampedScale = Math.min(compression / 4, Math.max(-compression / 4, scale));
+		return (Math.sin(clampedScale * 2 * Math.PI / compression) + 1) / 2;
+	}
+
+	private static double interpolate(final double from, final double to, final double fraction) {
+		return from + (to - from) * fraction;
+	}
+
+	private static double fraction(final double from, final double to, final double value) {
+		return to > from ? Math.min(1, Math.max(0, (value - from) / (to - from))) : 1;
+	}
+
+	private static double sum(final double[] values, final int length) {
+		double result = 0;
+		for (int i = 0; i < length; i++)
+			result += values[i];
+		return result;
+	}
+}// end class def
@@ -0,0 +1,253 @@
+package org.latency4j.processing;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * Aggregates non-breaching {@link WorkDuration durations} of a
+ * {@link StatisticalLatencyRequirement statistical requirement} on the threads
+ * which generate them, when {@link StatisticalLatencyRequirement#getAggregationInterval()
+ * thread-local aggregation} is enabled. Each thread accumulates counts, totals
+ * and histogram buckets per method. The aggregates are handed to the
+ * {@link LatencyProcessor processor} once a thread reaches the
+ * {@link StatisticalLatencyRequirement#getAggregationThreshold() aggregation
+ * threshold}, and are collected by the processor from all threads at every
+ * {@link StatisticalLatencyRequirement#getAggregationInterval() interval}.
+ * </p>
+ * <p>
+ * Each thread's aggregates are guarded by their own lock, which is only
+ * contended when the processor collects them.
+ * </p>
+ */
+class ThreadLocalAggregator implements PeriodicTask {
+	/**
+	 * <p>
+	 * The {@link StatisticalLatencyRequirement requirement} whose durations
+	 * are aggregated.
+	 * </p>
+	 */
+	private final StatisticalLatencyRequirement requirement;
+
+	/**
+	 * <p>
+	 * The processor into whose statistics the aggregates are merged.
+	 * </p>
+	 */
+	private final LatencyProcessor processor;
+
+	/**
+	 * <p>
+	 * The aggregates of the current thread.
+	 * </p>
+	 */
+	private final ThreadLocal<ThreadAggregate> localAggregate;
+
+	/**
+	 * <p>
+	 * The aggregates of all threads which have aggregated durations.
+	 * </p>
+	 */
+	private final Queue<ThreadAggregate> threadAggregates;
+
+	/**
+	 * <p>
+	 * The time at which aggregates were last collected. Only accessed by the
+	 * processing thread.
+	 * </p>
+	 */
+	private long lastCollection;
+
+	/**
+	 * <p>
+	 * Set once the instance has been {@link #release() released}.
+	 * </p>
+	 */
+	private volatile boolean released;
+
+	/**
+	 * <p>
+	 * Constructor. The instance registers itself with the processor as a
+	 * {@link PeriodicTask periodic task}.
+	 * </p>
+	 *
+	 * @param requirement
+	 *            The {@link StatisticalLatencyRequirement requirement} whose
+	 *            durations are aggregated.
+	 * @param processor
+	 *            The {@link LatencyProcessor processor} into whose statistics
+	 *            the aggregates are merged.
+	 */
+	ThreadLocalAggregator(final StatisticalLatencyRequirement requirement, final LatencyProcessor processor) {
+		this.requirement = requirement;
+		this.processor = processor;
+		this.threadAggregates = new ConcurrentLinkedQueue<ThreadAggregate>();
+		this.localAggregate = new ThreadLocal<ThreadAggregate>() {
+			@Override
+			protected ThreadAggregate initialValue() {
+				ThreadAggregate result = new ThreadAggregate(Thread.currentThread());
+				threadAggregates.add(result);
+				return result;
+			}
+		};
+		this.lastCollection = System.currentTimeMillis();
+		processor.registerPeriodicTask(this);
+	}
+
+	/**
+	 * <p>
+	 * Indicates if thread-local aggregation is currently enabled for the
+	 * requirement.
+	 * </p>
+	 *
+	 * @return <code>True</code> if durations should be aggregated.
+	 */
+	boolean isEnabled() {
+		return !released && requirement.getAggregationInterval() > 0;
+	}
+
+	/**
+	 * <p>
+	 * Unregisters the instance from the processor and hands it the pending
+	 * aggregates of all threads. Aggregation is disabled from then on. Used
+	 * when the owning {@link AsynchronousLatencyMonitor monitor} is evicted.
+	 * </p>
+	 */
+	void release() {
+		released = true;
+		processor.unregisterPeriodicTask(this);
+
+		for (ThreadAggregate threadAggregate : threadAggregates) {
+			Map<String, StatisticsDelta> deltas = threadAggregate.drain();
+			if (deltas != null) processor.processStatisticsDeltas(requirement, deltas);
+		}
+		threadAggregates.clear();
+	}
+
+	/**
+	 * <p>
+	 * Adds the given {@link WorkDuration duration} to the current thread's
+	 * aggregates, handing them to the processor if the
+	 * {@link StatisticalLatencyRequirement#getAggregationThreshold() threshold}
+	 * is reached.
+	 * </p>
+	 *
+	 * @param duration
+	 *            A non-breaching, non-errored {@link WorkDuration duration}.
+	 */
+	void aggregate(final WorkDuration duration) {
+		Map<String, StatisticsDelta> deltas = localAggregate.get().add(
+				RequirementStatisticsMap.getStatisticsMapKey(duration), duration.getElapsedTime(),
+				requirement.getAggregationThreshold());
+		if (deltas != null) processor.processStatisticsDeltas(requirement, deltas);
+	}
+
+	/**
+	 * <p>
+	 * Collects the aggregates of all threads, and merges them into the
+	 * processor's statistics, if the
+	 * {@link StatisticalLatencyRequirement#getAggregationInterval() interval}
+	 * has elapsed. Aggregates of threads which have terminated are discarded
+	 * once collected.
+	 * </p>
+	 */
+	@Override
+	public void tick(final long now) {
+		long interval = requirement.getAggregationInterval();
+		if (!threadAggregates.isEmpty() && now - lastCollection >= Math.max(interval, 0)) {
+			lastCollection = now;
+
+			Iterator<ThreadAggregate> iterator = threadAggregates.iterator();
+			while (iterator.hasNext()) {
+				ThreadAggregate threadAggregate = iterator.next();
+				boolean ownerAlive = threadAggregate.isOwnerAlive();
+
+				Map<String, StatisticsDelta> deltas = threadAggregate.drain();
+				if (deltas != null) processor.mergeStatisticsDeltas(requirement, deltas);
+				if (!ownerAlive) iterator.remove();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ThreadLocalAggregator[" + requirement.getWorkCategory() + "]";
+	}
+
+	/**
+	 * <p>
+	 * The aggregates of a single thread.
+	 * </p>
+	 */
+	private static class ThreadAggregate {
+		private final Thread owner;
+
+		private final Lock lock;
+
+		private Map<String, StatisticsDelta> deltas;
+
+		private int numberOfObservations;
+
+		ThreadAggregate(final Thread owner) {
+			this.owner = owner;
+			this.lock = new ReentrantLock();
+			this.deltas = new HashMap<String, StatisticsDelta>();
+		}
+
+		/**
+		 * @return The aggregates if the threshold was reached, in which case
+		 *         they are reset; <code>null</code> otherwise.
+		 */
+		Map<String, StatisticsDelta> add(final String statisticsKey, final long elapsedTime, final int threshold) {
+			Map<String, StatisticsDelta> result = null;
+			lock.lock();
+			try {
+				StatisticsDelta delta = deltas.get(statisticsKey);
+				if (delta == null) {
+					delta = new StatisticsDelta();
+					deltas.put(statisticsKey, delta);
+				}
+				delta.add(elapsedTime);
+
+				if (++numberOfObservations >= threshold) result = swap();
+			} finally {
+				lock.unlock();
+			}
+			return result;
+		}
+
+		/**
+		 * @return The aggregates, which are reset, or <code>null</code> if
+		 *         there are none.
+		 */
+		Map<String, StatisticsDelta> drain() {
+			Map<String, StatisticsDelta> result = null;
+			lock.lock();
+			try {
+				if (numberOfObservations > 0) result = swap();
+			} finally {
+				lock.unlock();
+			}
+			return result;
+		}
+
+		boolean isOwnerAlive() {
+			return owner.isAlive();
+		}
+
+		private Map<String, StatisticsDelta> swap() {
+			Map<String, StatisticsDelta> result = deltas;
+			deltas = new HashMap<String, StatisticsDelta>();
+			numberOfObservations = 0;
+			return result;
+		}
+	}
+}// end class def
@@ -0,0 +1,160 @@
+package org.latency4j.processing;
+
+import org.latency4j.ThroughputLatencyRequirement;
+import org.latency4j.util.StripedCounter;
+
+/**
+ * <p>
+ * Tracks the completion rate and concurrency of a
+ * {@link ThroughputLatencyRequirement throughput requirement}'s category.
+ * {@link AsynchronousLatencyMonitor Monitors} only increment
+ * {@link StripedCounter striped counters} as root calls start and complete,
+ * so that the cost on calling threads is independent of the evaluation.
+ * The tracker samples the counters on every {@link #tick(long) tick} of the
+ * {@link LatencyProcessor processor}, keeping the peak concurrency, and
+ * evaluates the requirement once per
+ * {@link ThroughputLatencyRequirement#getEvaluationInterval() interval}.
+ * </p>
+ */
+class ThroughputTracker implements PeriodicTask {
+	/**
+	 * <p>
+	 * The requirement whose category is tracked.
+	 * </p>
+	 */
+	private final ThroughputLatencyRequirement requirement;
+
+	private final StripedCounter startedCounter;
+	private final StripedCounter completedCounter;
+
+	// state which is only accessed by the processing thread
+	private long intervalStart;
+	private long intervalStartCompleted;
+	private long intervalPeakConcurrency;
+	private boolean rateAlerted;
+	private boolean concurrencyAlerted;
+
+	private volatile double callsPerSecond;
+	private volatile long peakConcurrency;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param requirement
+	 *            The requirement whose category is tracked.
+	 */
+	ThroughputTracker(final ThroughputLatencyRequirement requirement) {
+		this.requirement = requirement;
+		this.startedCounter = new StripedCounter();
+		this.completedCounter = new StripedCounter();
+		this.callsPerSecond = Double.NaN;
+		this.intervalStart = -1;
+	}
+
+	ThroughputLatencyRequirement getRequirement() {
+		return requirement;
+	}
+
+	/**
+	 * <p>
+	 * Records that a root call has started. Invoked on the calling thread.
+	 * </p>
+	 */
+	void callStarted() {
+		startedCounter.increment();
+	}
+
+	/**
+	 * <p>
+	 * Records that a root call has completed, successfully or otherwise.
+	 * Invoked on the calling thread.
+	 * </p>
+	 */
+	void callCompleted() {
+		completedCounter.increment();
+	}
+
+	/**
+	 * @return The number of root calls currently in progress.
+	 */
+	long getConcurrency() {
+		// read completions first, so that a call completing in between is not
+		// counted as a negative
+		long completed = completedCounter.sum();
+		return Math.max(0, startedCounter.sum() - completed);
+	}
+
+	/**
+	 * @return The number of root calls completed to date.
+	 */
+	long getCompletedCount() {
+		return completedCounter.sum();
+	}
+
+	/**
+	 * @return The completion rate over the last completed interval, or
+	 *         {@link Double#NaN} if no interval has completed.
+	 */
+	double getCallsPerSecond() {
+		return callsPerSecond;
+	}
+
+	/**
+	 * @return The peak concurrency sampled during the last completed
+	 *         interval.
+	 */
+	long getPeakConcurrency() {
+		return peakConcurrency;
+	}
+
+	@Override
+	public void tick(final long now) {
+		long completed = completedCounter.sum();
+		intervalPeakConcurrency = Math.max(intervalPeakConcurrency, Math.max(0, startedCounter.sum() - completed));
+
+		if (intervalStart < 0) {
+			intervalStart = now;
+			intervalStartCompleted = completed;
+		} else if (now - intervalStart >= requirement.getEvaluationInterval()) {
+			callsPerSecond = (completed - intervalStartCompleted) * 1000.0d / (now - intervalStart);
+			peakConcurrency = intervalPeakConcurrency;
+			evaluate(completed > 0);
+
+			intervalStart = now;
+			intervalStartCompleted = completed;
+			intervalPeakConcurrency = 0;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Evaluates the requirement against the interval just completed, and
+	 * issues alerts for conditions which have arisen since the previous
+	 * evaluation.
+	 * </p>
+	 *
+	 * @param trafficSeen
+	 *            <code>True</code> if any call has completed to date; the rate
+	 *            is not judged before then.
+	 */
+	private void evaluate(final boolean trafficSeen) {
+		double minCallsPerSecond = requirement.getMinCallsPerSecond();
+		boolean rateBreached = minCallsPerSecond > 0 && trafficSeen && callsPerSecond < minCallsPerSecond;
+		if (rateBreached && !rateAlerted)
+			NotificationsIssuer.issueCallRateBelowMinimumNotification(requirement, callsPerSecond);
+		rateAlerted = rateBreached;
+
+		long maxConcurrency = requirement.getMaxConcurrency();
+		boolean concurrencyBreached = maxConcurrency > 0 && peakConcurrency > maxConcurrency;
+		if (concurrencyBreached && !concurrencyAlerted)
+			NotificationsIssuer.issueConcurrencyExceededNotification(requirement, peakConcurrency);
+		concurrencyAlerted = concurrencyBreached;
+	}
+
+	@Override
+	public String toString() {
+		return "ThroughputTracker[" + requirement.getWorkCategory() + "]";
+	}
+}// end class def
@@ -1,5 +1,7 @@
 package org.latency4j.processing;
 
+import org.latency4j.BaselineStrategy;
+import org.latency4j.CappedLatencyRequirement;
 import org.latency4j.LatencyMonitor;
 import org.latency4j.StatisticalLatencyRequirement;
 import org.latency4j.WorkDuration;
@@ -7,10 +9,24 @@ import org.latency4j.WorkDuration;
 /**
  * <p>
  * Collates data for a {@link StatisticalLatencyRequirement statistical latency
- * requirement}. <b>Note</b> that instances of this class are not thread-safe.
+ * requirement}. <b>Note</b> that instances of this class must only be updated
+ * from a single thread i.e. the {@link LatencyProcessor latency processor}.
+ * Other threads may however take a {@link #snapshot() snapshot} of an instance
+ * at any time; with the default {@link QuantileSketch sketch}, this never
+ * blocks the updating thread.
  * </p>
  */
 class WorkStatistics {
+	/**
+	 * <p>
+	 * The largest number of observations after which a
+	 * {@link #refreshBaseline(BaselineStrategy, double) robust baseline} is
+	 * recomputed. Below this, it is recomputed whenever the number of
+	 * observations has grown by about 1.5%.
+	 * </p>
+	 */
+	private static final long MAX_BASELINE_REFRESH_INTERVAL = 1024;
+
 	/**
 	 * <p>
 	 * Total amount of time elapsed executing the
@@ -19,7 +35,7 @@ class WorkStatistics {
 	 * instance relates.
 	 * </p>
 	 */
-	private double totalTimeToDate;
+	private volatile double totalTimeToDate;
 
 	/**
 	 * <p>
@@ -28,14 +44,54 @@ class WorkStatistics {
 	 * to date.
 	 * </p>
 	 */
-	private long numberOfObservations;
+	private volatile long numberOfObservations;
 
 	/**
 	 * <p>
 	 * The current average execution time.
 	 * </p>
 	 */
-	private double runningAverage;
+	private volatile double runningAverage;
+
+	/**
+	 * <p>
+	 * The longest execution time observed to date.
+	 * </p>
+	 */
+	private volatile long maxTime;
+
+	/**
+	 * <p>
+	 * The number of executions which terminated with an error. Errored
+	 * executions are not included in the {@link #getRunningAverage() running
+	 * average}.
+	 * </p>
+	 */
+	private volatile long errorCount;
+
+	/**
+	 * <p>
+	 * The number of executions which breached the requirement to which the
+	 * instance relates.
+	 * </p>
+	 */
+	private volatile long breachCount;
+
+	/**
+	 * <p>
+	 * The number of executions which breached the warning tier, but not the
+	 * limit, of the requirement to which the instance relates.
+	 * </p>
+	 */
+	private volatile long warningCount;
+
+	/**
+	 * <p>
+	 * Summary of the distribution of the observed execution times, from which
+	 * percentiles are derived.
+	 * </p>
+	 */
+	private final QuantileSketch sketch;
 
 	/**
 	 * <p>
@@ -45,7 +101,21 @@ class WorkStatistics {
 	 * requirement} to which the instance relates.
 	 * </p>
 	 */
-	private final long significanceBarrier;
+	private volatile long significanceBarrier;
+
+	/**
+	 * <p>
+	 * The robust baseline last computed from the sketch, or
+	 * {@link Double#NaN} if the {@link BaselineStrategy#MEAN mean} is the
+	 * baseline.
+	 * </p>
+	 */
+	private volatile double baseline;
+
+	// state which is only accessed by the updating thread
+	private BaselineStrategy baselineStrategy;
+	private double baselineTrim;
+	private long baselineObservations;
 
 	/**
 	 * <p>
@@ -60,9 +130,29 @@ class WorkStatistics {
 	 *            {@link LatencyMonitor monitored}.
 	 */
 	WorkStatistics(final long significanceBarrier) {
+		this(significanceBarrier, new LogBucketSketch());
+	}
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 * 
+	 * @param significanceBarrier
+	 *            The
+	 *            {@link StatisticalLatencyRequirement#getObservationsSignificanceBarrier()
+	 *            significance barrier} of the requirement being monitored.
+	 * @param sketch
+	 *            The empty {@link QuantileSketch sketch} in which the
+	 *            distribution of execution times is to be summarised.
+	 */
+	WorkStatistics(final long significanceBarrier, final QuantileSketch sketch) {
 		totalTimeToDate = 0.0d;
 		numberOfObservations = 0;
 		runningAverage = 0.0d;
+		this.sketch = sketch;
+		baseline = Double.NaN;
+		baselineStrategy = BaselineStrategy.MEAN;
 		this.significanceBarrier = significanceBarrier;
 	}
 
@@ -120,6 +210,48 @@ class WorkStatistics {
 		return runningAverage;
 	}
 
+	/**
+	 * <p>
+	 * Returns the baseline against which executions are judged: the
+	 * {@link #getRunningAverage() running average}, or the robust estimate
+	 * last computed by {@link #refreshBaseline(BaselineStrategy, double)}.
+	 * This method can be invoked from any thread.
+	 * </p>
+	 * 
+	 * @return The baseline execution time in milliseconds.
+	 */
+	double getBaseline() {
+		double result = baseline;
+		return Double.isNaN(result) ? runningAverage : result;
+	}
+
+	/**
+	 * <p>
+	 * Brings the {@link #getBaseline() baseline} up to date for the given
+	 * strategy. Robust estimates require a pass over the sketch, so they
+	 * are only recomputed once enough observations have been added since the
+	 * last pass, or when the strategy or trim fraction has changed.
+	 * </p>
+	 * 
+	 * @param strategy
+	 *            The {@link BaselineStrategy strategy} of the requirement.
+	 * @param trim
+	 *            The fraction trimmed from each end for
+	 *            {@link BaselineStrategy#TRIMMED_MEAN}.
+	 */
+	void refreshBaseline(final BaselineStrategy strategy, final double trim) {
+		if (strategy == BaselineStrategy.MEAN) baseline = Double.NaN;
+		else if (strategy != baselineStrategy || trim != baselineTrim || Double.isNaN(baseline)
+				|| numberOfObservations - baselineObservations >= Math.min(MAX_BASELINE_REFRESH_INTERVAL,
+						Math.max(1, baselineObservations / 64))) {
+			if (strategy == BaselineStrategy.MEDIAN) baseline = sketch.getQuantile(0.5d);
+			else baseline = QuantileSketches.trimmedMean(sketch, trim);
+			baselineObservations = numberOfObservations;
+		}
+		baselineStrategy = strategy;
+		baselineTrim = trim;
+	}
+
 	/**
 	 * <p>
 	 * Updates the internal state of an instance with the observed elapsed time
@@ -145,13 +277,217 @@ class WorkStatistics {
 	 *         requirement} to which the instance relates.
 	 */
 	double update(final long elapsedTime) {
-		totalTimeToDate += elapsedTime;
-		numberOfObservations++;
+		return update(elapsedTime, 1);
+	}
+
+	/**
+	 * <p>
+	 * Updates the internal state of an instance with an observation which
+	 * stands for the given number of executions. This is used for
+	 * {@link org.latency4j.LatencyRequirement#getSamplingRate() sampled}
+	 * observations, so that the statistics remain representative of all
+	 * executions.
+	 * </p>
+	 * 
+	 * @param elapsedTime
+	 *            The observed {@link WorkDuration#getElapsedTime() elapsed
+	 *            time}.
+	 * @param weight
+	 *            The number of executions the observation stands for.
+	 * 
+	 * @return The current {@link #getRunningAverage() running average}.
+	 * 
+	 * @see #update(long)
+	 */
+	double update(final long elapsedTime, final long weight) {
+		totalTimeToDate += elapsedTime * weight;
+		numberOfObservations += weight;
 		runningAverage = totalTimeToDate / (numberOfObservations);
 
+		if (elapsedTime > maxTime) maxTime = elapsedTime;
+		sketch.record(elapsedTime, weight);
+
+		return runningAverage;
+	}
+
+	/**
+	 * <p>
+	 * Folds the observations of another instance into this one, as is done
+	 * when statistics are evicted into an overflow entry. Both instances must
+	 * be owned by the calling thread.
+	 * </p>
+	 * 
+	 * @param other
+	 *            The statistics to fold into this instance.
+	 * 
+	 * @return The current {@link #getRunningAverage() running average}.
+	 */
+	double merge(final WorkStatistics other) {
+		if (other.numberOfObservations > 0) {
+			totalTimeToDate += other.totalTimeToDate;
+			numberOfObservations += other.numberOfObservations;
+			runningAverage = totalTimeToDate / (numberOfObservations);
+
+			if (other.maxTime > maxTime) maxTime = other.maxTime;
+			QuantileSketches.merge(sketch, other.sketch);
+		}
+		errorCount += other.errorCount;
+		breachCount += other.breachCount;
+		warningCount += other.warningCount;
 		return runningAverage;
 	}
 
+	/**
+	 * <p>
+	 * Merges observations {@link StatisticsDelta aggregated} on an application
+	 * thread into the instance. Sketches other than the default are fed the
+	 * midpoint of each histogram bucket of the delta.
+	 * </p>
+	 * 
+	 * @param delta
+	 *            The aggregated observations.
+	 * 
+	 * @return The current {@link #getRunningAverage() running average}.
+	 */
+	double merge(final StatisticsDelta delta) {
+		if (delta.getNumberOfObservations() > 0) {
+			totalTimeToDate += delta.getTotalTime();
+			numberOfObservations += delta.getNumberOfObservations();
+			runningAverage = totalTimeToDate / (numberOfObservations);
+
+			if (delta.getMaxTime() > maxTime) maxTime = delta.getMaxTime();
+			long[] bucketCounts = delta.getBucketCounts();
+			if (sketch instanceof LogBucketSketch) ((LogBucketSketch) sketch).mergeCounts(bucketCounts);
+			else {
+				for (int i = 0; i < bucketCounts.length; i++) {
+					if (bucketCounts[i] != 0) sketch.record(
+							(LatencyHistogram.bucketLowerBound(i) + LatencyHistogram.bucketUpperBound(i) - 1) / 2,
+							bucketCounts[i]);
+				}
+			}
+		}
+		return runningAverage;
+	}
+
+	/**
+	 * <p>
+	 * Returns the longest execution time observed to date.
+	 * </p>
+	 * 
+	 * @return The longest observed execution time in milliseconds.
+	 */
+	long getMaxTime() {
+		return maxTime;
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of executions which terminated with an error.
+	 * </p>
+	 * 
+	 * @return The number of {@link #recordError() errored} executions.
+	 */
+	long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of executions which breached the requirement to which
+	 * the instance relates.
+	 * </p>
+	 * 
+	 * @return The number of {@link #recordBreach() breaches} to date.
+	 */
+	long getBreachCount() {
+		return breachCount;
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of executions which breached the
+	 * {@link CappedLatencyRequirement#getWarningLatency() warning tier} of the
+	 * requirement to which the instance relates, without breaching its limit.
+	 * </p>
+	 * 
+	 * @return The number of {@link #recordWarning() warnings} to date.
+	 */
+	long getWarningCount() {
+		return warningCount;
+	}
+
+	/**
+	 * <p>
+	 * Records an execution which terminated with an error.
+	 * </p>
+	 */
+	void recordError() {
+		errorCount++;
+	}
+
+	/**
+	 * <p>
+	 * Records an execution which breached the requirement to which the
+	 * instance relates.
+	 * </p>
+	 */
+	void recordBreach() {
+		breachCount++;
+	}
+
+	/**
+	 * <p>
+	 * Records an execution which breached the warning tier, but not the limit,
+	 * of the requirement to which the instance relates.
+	 * </p>
+	 */
+	void recordWarning() {
+		warningCount++;
+	}
+
+	/**
+	 * <p>
+	 * Returns the significance barrier against which
+	 * {@link #isSignificanceBarrierBreached()} is evaluated.
+	 * </p>
+	 * 
+	 * @return The significance barrier.
+	 */
+	long getSignificanceBarrier() {
+		return significanceBarrier;
+	}
+
+	/**
+	 * <p>
+	 * Changes the significance barrier. Used when the
+	 * {@link StatisticalLatencyRequirement#setObservationsSignificanceBarrier(long)
+	 * barrier of the requirement} is adjusted at runtime.
+	 * </p>
+	 * 
+	 * @param significanceBarrier
+	 *            The new significance barrier.
+	 */
+	void setSignificanceBarrier(final long significanceBarrier) {
+		this.significanceBarrier = significanceBarrier;
+	}
+
+	/**
+	 * <p>
+	 * Takes a point-in-time {@link WorkStatisticsSnapshot snapshot} of the
+	 * instance. This method may be invoked from any thread, and only blocks
+	 * the thread updating the instance while a sketch other than the default
+	 * is {@link QuantileSketch#copy() copied}. Since the fields are read one at
+	 * a time, the snapshot may straddle a concurrent update, i.e. a count may
+	 * be one observation ahead of the sketch.
+	 * </p>
+	 * 
+	 * @return A snapshot of the statistics collated to date.
+	 */
+	WorkStatisticsSnapshot snapshot() {
+		return new WorkStatisticsSnapshot(numberOfObservations, totalTimeToDate, runningAverage, maxTime, errorCount,
+				breachCount, warningCount, sketch.copy());
+	}
+
 	/**
 	 * <p>
 	 * Indicates if the if the {@link #getNumberOfObservations() total
@@ -173,6 +509,10 @@ class WorkStatistics {
 		result.append("Task-statistics: sum-" + totalTimeToDate);
 		result.append(", #observations-" + numberOfObservations);
 		result.append(", average-" + runningAverage);
+		result.append(", max-" + maxTime);
+		result.append(", #errors-" + errorCount);
+		result.append(", #breaches-" + breachCount);
+		result.append(", #warnings-" + warningCount);
 		result.append(", reachedSignificance barrier-" + isSignificanceBarrierBreached());
 		return result.toString();
 	}
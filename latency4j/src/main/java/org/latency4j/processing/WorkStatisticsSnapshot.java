@@ -0,0 +1,331 @@
+package org.latency4j.processing;
+
+import java.io.Serializable;
+
+import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.LatencyRequirement;
+import org.latency4j.WorkDuration;
+
+/**
+ * <p>
+ * An immutable, point-in-time view of the statistics which the
+ * {@link LatencyProcessor latency processor} has collated for a given
+ * {@link LatencyRequirement#getWorkCategory() category} and method. Instances
+ * are obtained via {@link LatencyProcessor#getStatisticsSnapshot(String, String)}
+ * and can be read freely from any thread.
+ * </p>
+ */
+public class WorkStatisticsSnapshot implements Serializable {
+	private static final long serialVersionUID = -2214838771652034715L;
+
+	/**
+	 * <p>
+	 * The number of non-errored executions observed.
+	 * </p>
+	 */
+	private final long numberOfObservations;
+
+	/**
+	 * <p>
+	 * The total time, in milliseconds, of all non-errored executions.
+	 * </p>
+	 */
+	private final double totalTime;
+
+	/**
+	 * <p>
+	 * The average execution time in milliseconds.
+	 * </p>
+	 */
+	private final double mean;
+
+	/**
+	 * <p>
+	 * The longest execution time in milliseconds.
+	 * </p>
+	 */
+	private final long maxTime;
+
+	/**
+	 * <p>
+	 * The number of executions which terminated with an error.
+	 * </p>
+	 */
+	private final long errorCount;
+
+	/**
+	 * <p>
+	 * The number of executions which breached the governing
+	 * {@link LatencyRequirement requirement}.
+	 * </p>
+	 */
+	private final long breachCount;
+
+	/**
+	 * <p>
+	 * The number of executions which breached the warning tier, but not the
+	 * limit, of the governing requirement.
+	 * </p>
+	 */
+	private final long warningCount;
+
+	/**
+	 * <p>
+	 * The {@link QuantileSketch sketch} from which percentiles are derived.
+	 * </p>
+	 */
+	private final QuantileSketch sketch;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param numberOfObservations
+	 *            The number of non-errored executions observed.
+	 * @param totalTime
+	 *            The total time of all non-errored executions.
+	 * @param mean
+	 *            The average execution time.
+	 * @param maxTime
+	 *            The longest execution time.
+	 * @param errorCount
+	 *            The number of errored executions.
+	 * @param breachCount
+	 *            The number of executions which breached the requirement.
+	 * @param warningCount
+	 *            The number of executions which only breached its warning
+	 *            tier.
+	 * @param sketch
+	 *            A {@link QuantileSketch#copy() copy} of the sketch of
+	 *            execution times, which is not copied again.
+	 */
+	WorkStatisticsSnapshot(final long numberOfObservations, final double totalTime, final double mean,
+			final long maxTime, final long errorCount, final long breachCount, final long warningCount,
+			final QuantileSketch sketch) {
+		this.numberOfObservations = numberOfObservations;
+		this.totalTime = totalTime;
+		this.mean = mean;
+		this.maxTime = maxTime;
+		this.errorCount = errorCount;
+		this.breachCount = breachCount;
+		this.warningCount = warningCount;
+		this.sketch = sketch;
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of non-errored executions observed.
+	 * </p>
+	 *
+	 * @return The number of non-errored executions.
+	 */
+	public long getNumberOfObservations() {
+		return numberOfObservations;
+	}
+
+	/**
+	 * <p>
+	 * Returns the total time of all non-errored executions.
+	 * </p>
+	 *
+	 * @return The total execution time in milliseconds.
+	 */
+	public double getTotalTime() {
+		return totalTime;
+	}
+
+	/**
+	 * <p>
+	 * Returns the average {@link WorkDuration#getElapsedTime() execution time}.
+	 * </p>
+	 *
+	 * @return The average execution time in milliseconds.
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * <p>
+	 * Returns the longest {@link WorkDuration#getElapsedTime() execution time}
+	 * observed.
+	 * </p>
+	 *
+	 * @return The longest execution time in milliseconds.
+	 */
+	public long getMaxTime() {
+		return maxTime;
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of executions which terminated with an error.
+	 * </p>
+	 *
+	 * @return The number of errored executions.
+	 */
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of executions which breached the governing
+	 * {@link LatencyRequirement requirement}.
+	 * </p>
+	 *
+	 * @return The number of breaches.
+	 */
+	public long getBreachCount() {
+		return breachCount;
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of executions which breached the
+	 * {@link CappedLatencyRequirement#getWarningLatency() warning tier} of the
+	 * governing requirement without breaching its limit.
+	 * </p>
+	 *
+	 * @return The number of warnings.
+	 */
+	public long getWarningCount() {
+		return warningCount;
+	}
+
+	/**
+	 * <p>
+	 * Returns the execution time at the given percentile. The accuracy of the
+	 * value depends on the {@link QuantileSketches sketch} selected by the
+	 * governing requirement (roughly 6% for the default), and the value never
+	 * exceeds the {@link #getMaxTime() longest observed execution time}.
+	 * </p>
+	 *
+	 * @param percentile
+	 *            The percentile, between <code>0</code> and <code>100</code>.
+	 * @return The execution time in milliseconds at the given percentile, or
+	 *         <code>0</code> if nothing has been observed.
+	 */
+	public long getPercentile(final double percentile) {
+		long result = Math.round(sketch.getQuantile(percentile / 100.0d));
+		return Math.min(result, maxTime);
+	}
+
+	/**
+	 * <p>
+	 * Returns a copy of the histogram bucket counts. The value at index
+	 * <code>i</code> is the number of executions whose time fell between
+	 * {@link #getBucketLowerBound(int) getBucketLowerBound(i)} (inclusive) and
+	 * {@link #getBucketUpperBound(int) getBucketUpperBound(i)} (exclusive).
+	 * Where the governing requirement selected a sketch other than the
+	 * default, the counts are estimated from it.
+	 * </p>
+	 *
+	 * @return A copy of the histogram bucket counts.
+	 */
+	public long[] getBucketCounts() {
+		long[] result;
+		if (sketch instanceof LogBucketSketch) result = ((LogBucketSketch) sketch).copyCounts();
+		else {
+			result = new long[LatencyHistogram.bucketIndex(maxTime) + 1];
+			long below = 0;
+			for (int i = 0; i < result.length; i++) {
+				long atOrBelow = i == result.length - 1 ? sketch.getCount()
+						: sketch.getCountAtOrBelow(LatencyHistogram.bucketUpperBound(i) - 1);
+				result[i] = Math.max(0, atOrBelow - below);
+				below = Math.max(below, atOrBelow);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of non-errored executions which took at most the
+	 * given time. With the default sketch, the count is exact for values below
+	 * 16 milliseconds, and otherwise includes only whole histogram buckets;
+	 * other sketches give their own estimate.
+	 * </p>
+	 *
+	 * @param elapsedTime
+	 *            The upper bound in milliseconds (inclusive).
+	 * @return The number of executions at or below the given time.
+	 */
+	public long getCountAtOrBelow(final long elapsedTime) {
+		return sketch.getCountAtOrBelow(elapsedTime);
+	}
+
+	/**
+	 * <p>
+	 * Returns the (inclusive) lower bound of the given histogram bucket.
+	 * </p>
+	 *
+	 * @param index
+	 *            The bucket index.
+	 * @return The lower bound of the bucket in milliseconds.
+	 */
+	public static long getBucketLowerBound(final int index) {
+		return LatencyHistogram.bucketLowerBound(index);
+	}
+
+	/**
+	 * <p>
+	 * Returns the (exclusive) upper bound of the given histogram bucket.
+	 * </p>
+	 *
+	 * @param index
+	 *            The bucket index.
+	 * @return The upper bound of the bucket in milliseconds.
+	 */
+	public static long getBucketUpperBound(final int index) {
+		return LatencyHistogram.bucketUpperBound(index);
+	}
+
+	/**
+	 * <p>
+	 * Returns the index of the histogram bucket into which the given time
+	 * falls. Together with {@link #getValueAtPercentile(long[], double)}, this
+	 * allows histograms compatible with those of the processor to be built
+	 * elsewhere, for instance from persisted durations.
+	 * </p>
+	 *
+	 * @param elapsedTime
+	 *            The time in milliseconds.
+	 * @return The bucket index.
+	 */
+	public static int getBucketIndex(final long elapsedTime) {
+		return LatencyHistogram.bucketIndex(elapsedTime);
+	}
+
+	/**
+	 * <p>
+	 * Returns the given percentile of the histogram with the given bucket
+	 * counts, as the midpoint of the bucket in which it falls.
+	 * </p>
+	 *
+	 * @param bucketCounts
+	 *            Bucket counts, indexed by {@link #getBucketIndex(long)}.
+	 * @param percentile
+	 *            The percentile, between 0 and 100.
+	 * @return The value at the percentile in milliseconds, or <code>0</code>
+	 *         if the histogram is empty.
+	 */
+	public static long getValueAtPercentile(final long[] bucketCounts, final double percentile) {
+		return LatencyHistogram.valueAtQuantile(bucketCounts, percentile / 100.0d);
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer result = new StringBuffer();
+		result.append("#observations-" + numberOfObservations);
+		result.append(", mean-" + mean);
+		result.append(", p50-" + getPercentile(50));
+		result.append(", p99-" + getPercentile(99));
+		result.append(", max-" + maxTime);
+		result.append(", #errors-" + errorCount);
+		result.append(", #breaches-" + breachCount);
+		result.append(", #warnings-" + warningCount);
+		return result.toString();
+	}
+}// end class def
@@ -0,0 +1,217 @@
+package org.latency4j.prometheus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.latency4j.Latency4JException;
+import org.latency4j.processing.AsynchronousLatencyMonitorFactory;
+import org.latency4j.util.IOResourceCloser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * <p>
+ * Optional embedded HTTP endpoint which exposes the statistics of an
+ * {@link AsynchronousLatencyMonitorFactory asynchronous monitor factory} for
+ * scraping by Prometheus. The endpoint is served by the JDK's built-in HTTP
+ * server on a single daemon thread, and renders its output with a
+ * {@link PrometheusTextRenderer renderer}.
+ * </p>
+ * <p>
+ * Typical usage, as a Spring bean or programmatically:
+ * </p>
+ *
+ * <pre>
+ * PrometheusExporter exporter = new PrometheusExporter();
+ * exporter.setMonitorFactory(factory);
+ * exporter.setPort(9464);
+ * exporter.init();
+ * </pre>
+ */
+public class PrometheusExporter implements HttpHandler {
+	/**
+	 * <p>
+	 * Internal logger.
+	 * </p>
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(PrometheusExporter.class);
+
+	/**
+	 * <p>
+	 * The default port on which the endpoint listens.
+	 * </p>
+	 */
+	public static final int DEFAULT_PORT = 9464;
+
+	/**
+	 * <p>
+	 * The default path at which metrics are served.
+	 * </p>
+	 */
+	public static final String DEFAULT_PATH = "/metrics";
+
+	private AsynchronousLatencyMonitorFactory monitorFactory;
+
+	private String host;
+
+	private int port;
+
+	private String path;
+
+	private long[] bucketBounds;
+
+	private HttpServer server;
+
+	private ExecutorService executor;
+
+	private PrometheusTextRenderer renderer;
+
+	/**
+	 * <p>
+	 * Default constructor.
+	 * </p>
+	 */
+	public PrometheusExporter() {
+		this.port = DEFAULT_PORT;
+		this.path = DEFAULT_PATH;
+		this.bucketBounds = PrometheusTextRenderer.DEFAULT_BUCKET_BOUNDS;
+	}
+
+	public AsynchronousLatencyMonitorFactory getMonitorFactory() {
+		return monitorFactory;
+	}
+
+	public void setMonitorFactory(final AsynchronousLatencyMonitorFactory monitorFactory) {
+		this.monitorFactory = monitorFactory;
+	}
+
+	/**
+	 * @return The address on which to listen, or <code>null</code> to listen
+	 *         on all interfaces.
+	 */
+	public String getHost() {
+		return host;
+	}
+
+	public void setHost(final String host) {
+		this.host = host;
+	}
+
+	/**
+	 * @return The port on which to listen. A value of <code>0</code> selects
+	 *         an ephemeral port, which can be read from {@link #getPort()}
+	 *         following {@link #init() initialisation}.
+	 */
+	public int getPort() {
+		return port;
+	}
+
+	public void setPort(final int port) {
+		this.port = port;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public void setPath(final String path) {
+		this.path = path;
+	}
+
+	public long[] getBucketBounds() {
+		return bucketBounds;
+	}
+
+	/**
+	 * @param bucketBounds
+	 *            The (inclusive) upper bounds, in milliseconds, of the
+	 *            exported histogram buckets.
+	 */
+	public void setBucketBounds(final long[] bucketBounds) {
+		this.bucketBounds = bucketBounds;
+	}
+
+	/**
+	 * <p>
+	 * Starts the HTTP endpoint.
+	 * </p>
+	 */
+	public synchronized void init() {
+		if (monitorFactory == null) throw new Latency4JException("No monitor factory set for Prometheus exporter.");
+		if (server != null) return;
+
+		renderer = new PrometheusTextRenderer(monitorFactory.getAsyncProcessor(), bucketBounds);
+
+		InetSocketAddress address = host == null ? new InetSocketAddress(port) : new InetSocketAddress(host, port);
+		try {
+			server = HttpServer.create(address, 0);
+		} catch (IOException exce) {
+			throw new Latency4JException("Failed to start Prometheus exporter on " + address + ".", exce);
+		}
+
+		executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable runnable) {
+				Thread result = new Thread(runnable, "latency4j-prometheus-exporter");
+				result.setDaemon(true);
+				return result;
+			}
+		});
+		server.setExecutor(executor);
+		server.createContext(path, this);
+		server.start();
+		port = server.getAddress().getPort();
+
+		logger.info("Prometheus exporter listening on {}{}.", server.getAddress(), path);
+	}
+
+	/**
+	 * <p>
+	 * Stops the HTTP endpoint.
+	 * </p>
+	 */
+	public synchronized void destroy() {
+		if (server != null) {
+			server.stop(0);
+			executor.shutdownNow();
+			server = null;
+		}
+	}
+
+	@Override
+	public void handle(final HttpExchange exchange) throws IOException {
+		OutputStream out = null;
+		try {
+			if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+
+			// all exchanges are handled on the single executor thread, so the
+			// renderer's buffer is never shared
+			int size = renderer.renderToBuffer();
+			exchange.getResponseHeaders().set("Content-Type", PrometheusTextRenderer.CONTENT_TYPE);
+
+			if ("HEAD".equals(exchange.getRequestMethod())) exchange.sendResponseHeaders(200, -1);
+			else {
+				exchange.sendResponseHeaders(200, size);
+				out = exchange.getResponseBody();
+				renderer.writeBufferTo(out);
+			}
+		} catch (RuntimeException exce) {
+			logger.warn("Failed to render Prometheus metrics.", exce);
+			exchange.sendResponseHeaders(500, -1);
+		} finally {
+			IOResourceCloser.close(out);
+			exchange.close();
+		}
+	}
+}// end class def
@@ -0,0 +1,342 @@
+package org.latency4j.prometheus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.latency4j.LatencyRequirement;
+import org.latency4j.processing.LatencyProcessor;
+import org.latency4j.processing.WorkStatisticsSnapshot;
+
+/**
+ * <p>
+ * Renders the statistics collated by a {@link LatencyProcessor latency
+ * processor} in the Prometheus text exposition format (version 0.0.4). For
+ * every {@link LatencyRequirement#getWorkCategory() category} and method the
+ * following series are rendered:
+ * </p>
+ * <ul>
+ * <li><code>latency4j_latency_milliseconds</code>: a histogram of non-errored
+ * call latencies, with the configured bucket bounds.</li>
+ * <li><code>latency4j_latency_max_milliseconds</code>: the longest latency
+ * observed.</li>
+ * <li><code>latency4j_errors_total</code>: the number of errored calls.</li>
+ * <li><code>latency4j_breaches_total</code>: the number of requirement
+ * breaches.</li>
+ * <li><code>latency4j_warnings_total</code>: the number of calls which only
+ * breached the warning tier of a capped requirement.</li>
+ * </ul>
+ * <p>
+ * In addition, <code>latency4j_within_cap_total</code> is rendered per
+ * category for capped requirements which are
+ * {@link org.latency4j.CappedLatencyRequirement#isCallerThreadEvaluation()
+ * evaluated on the calling thread}.
+ * </p>
+ * <p>
+ * Statistics are read from {@link WorkStatisticsSnapshot snapshots}, so
+ * rendering never blocks duration processing. Label sets and bucket suffixes
+ * are encoded once and cached, and output is written into a buffer which is
+ * reused across renders. Instances are therefore not thread-safe; callers
+ * must serialise access to an instance.
+ * </p>
+ */
+public class PrometheusTextRenderer {
+	/**
+	 * <p>
+	 * The content type of the rendered output.
+	 * </p>
+	 */
+	public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	/**
+	 * <p>
+	 * Default histogram bucket bounds, in milliseconds.
+	 * </p>
+	 */
+	public static final long[] DEFAULT_BUCKET_BOUNDS = { 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000,
+			10000, 30000, 60000 };
+
+	/**
+	 * <p>
+	 * The label value used for calls at the root of the monitored call stack.
+	 * </p>
+	 */
+	public static final String ROOT_METHOD_LABEL = "<root>";
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final String LATENCY = "latency4j_latency_milliseconds";
+
+	private static final String MAX_LATENCY = "latency4j_latency_max_milliseconds";
+
+	private static final String ERRORS = "latency4j_errors_total";
+
+	private static final String BREACHES = "latency4j_breaches_total";
+
+	private static final String WARNINGS = "latency4j_warnings_total";
+
+	private static final String WITHIN_CAP = "latency4j_within_cap_total";
+
+	private static final byte[] HEADER = encode("# HELP " + LATENCY + " Latency of non-errored calls.\n" + "# TYPE "
+			+ LATENCY + " histogram\n" + "# HELP " + MAX_LATENCY + " Longest latency observed.\n" + "# TYPE "
+			+ MAX_LATENCY + " gauge\n" + "# HELP " + ERRORS + " Calls which terminated with an error.\n" + "# TYPE "
+			+ ERRORS + " counter\n" + "# HELP " + BREACHES + " Calls which breached their latency requirement.\n"
+			+ "# TYPE " + BREACHES + " counter\n" + "# HELP " + WARNINGS
+			+ " Calls which breached only the warning tier of their requirement.\n" + "# TYPE " + WARNINGS
+			+ " counter\n" + "# HELP " + WITHIN_CAP
+			+ " Calls found within the cap on the calling thread.\n" + "# TYPE " + WITHIN_CAP + " counter\n");
+
+	private static final byte[] BUCKET_PREFIX = encode(LATENCY + "_bucket");
+
+	private static final byte[] SUM_PREFIX = encode(LATENCY + "_sum");
+
+	private static final byte[] COUNT_PREFIX = encode(LATENCY + "_count");
+
+	private static final byte[] MAX_PREFIX = encode(MAX_LATENCY);
+
+	private static final byte[] ERRORS_PREFIX = encode(ERRORS);
+
+	private static final byte[] BREACHES_PREFIX = encode(BREACHES);
+
+	private static final byte[] WARNINGS_PREFIX = encode(WARNINGS);
+
+	private static final byte[] WITHIN_CAP_PREFIX = encode(WITHIN_CAP);
+
+	private static final byte[] INFINITE_BUCKET_SUFFIX = encode(",le=\"+Inf\"} ");
+
+	private static final byte[] LABELS_SUFFIX = encode("} ");
+
+	/**
+	 * <p>
+	 * The processor whose statistics are rendered.
+	 * </p>
+	 */
+	private final LatencyProcessor latencyProcessor;
+
+	/**
+	 * <p>
+	 * The (inclusive) upper bounds of the histogram buckets, in milliseconds.
+	 * </p>
+	 */
+	private final long[] bucketBounds;
+
+	/**
+	 * <p>
+	 * Pre-encoded <code>le</code> label suffixes, one per bucket bound.
+	 * </p>
+	 */
+	private final byte[][] bucketSuffixes;
+
+	/**
+	 * <p>
+	 * Pre-encoded label sets (without the closing brace), keyed by category
+	 * and then by method. Entries of categories and methods which are no
+	 * longer monitored, e.g. having been evicted, are dropped when rendering.
+	 * </p>
+	 */
+	private final Map<String, Map<String, byte[]>> labelCache;
+
+	/**
+	 * <p>
+	 * Pre-encoded category-only label sets (including the closing brace),
+	 * pruned like the {@link #labelCache}.
+	 * </p>
+	 */
+	private final Map<String, byte[]> categoryLabelCache;
+
+	/**
+	 * <p>
+	 * Buffer reused across renders.
+	 * </p>
+	 */
+	private final ByteArrayOutputStream buffer;
+
+	/**
+	 * <p>
+	 * Scratch space for encoding numbers.
+	 * </p>
+	 */
+	private final byte[] digits;
+
+	/**
+	 * <p>
+	 * Constructor.
+	 * </p>
+	 *
+	 * @param latencyProcessor
+	 *            The {@link LatencyProcessor processor} whose statistics are
+	 *            rendered.
+	 * @param bucketBounds
+	 *            The (inclusive) upper bounds of the histogram buckets in
+	 *            milliseconds, in ascending order.
+	 */
+	public PrometheusTextRenderer(final LatencyProcessor latencyProcessor, final long[] bucketBounds) {
+		this.latencyProcessor = latencyProcessor;
+		this.bucketBounds = bucketBounds.clone();
+		this.bucketSuffixes = new byte[bucketBounds.length][];
+		for (int i = 0; i < bucketBounds.length; i++) {
+			if (i > 0 && bucketBounds[i] <= bucketBounds[i - 1])
+				throw new IllegalArgumentException("Bucket bounds must be in ascending order.");
+			bucketSuffixes[i] = encode(",le=\"" + bucketBounds[i] + "\"} ");
+		}
+		this.labelCache = new HashMap<String, Map<String, byte[]>>();
+		this.categoryLabelCache = new HashMap<String, byte[]>();
+		this.buffer = new ByteArrayOutputStream(8192);
+		this.digits = new byte[20];
+	}
+
+	/**
+	 * <p>
+	 * Renders all statistics into the internal buffer, replacing its previous
+	 * content.
+	 * </p>
+	 *
+	 * @return The number of bytes rendered.
+	 */
+	public int renderToBuffer() {
+		buffer.reset();
+		buffer.write(HEADER, 0, HEADER.length);
+
+		Set<String> categories = latencyProcessor.getMonitoredCategories();
+		for (String category : categories) {
+			Map<String, byte[]> categoryLabels = labelCache.get(category);
+			if (categoryLabels == null) {
+				categoryLabels = new HashMap<String, byte[]>();
+				labelCache.put(category, categoryLabels);
+			}
+
+			Map<String, WorkStatisticsSnapshot> snapshots = latencyProcessor.getStatisticsSnapshots(category);
+			for (Map.Entry<String, WorkStatisticsSnapshot> entry : snapshots.entrySet()) {
+				byte[] labels = categoryLabels.get(entry.getKey());
+				if (labels == null) {
+					labels = encodeLabels(category, entry.getKey());
+					categoryLabels.put(entry.getKey(), labels);
+				}
+				renderSeries(labels, entry.getValue());
+			}
+			if (categoryLabels.size() > snapshots.size()) categoryLabels.keySet().retainAll(snapshots.keySet());
+		}
+		if (labelCache.size() > categories.size()) labelCache.keySet().retainAll(categories);
+
+		Set<String> withinCapCategories = latencyProcessor.getWithinCapCategories();
+		for (String category : withinCapCategories) {
+			byte[] labels = categoryLabelCache.get(category);
+			if (labels == null) {
+				labels = encode("{category=\"" + escape(category) + "\"} ");
+				categoryLabelCache.put(category, labels);
+			}
+			write(WITHIN_CAP_PREFIX);
+			write(labels);
+			writeLong(latencyProcessor.getWithinCapCount(category));
+		}
+		if (categoryLabelCache.size() > withinCapCategories.size())
+			categoryLabelCache.keySet().retainAll(withinCapCategories);
+		return buffer.size();
+	}
+
+	/**
+	 * <p>
+	 * Writes the content of the internal buffer to the given stream.
+	 * </p>
+	 *
+	 * @param out
+	 *            The stream to which the buffer is written.
+	 * @throws IOException
+	 *             If the stream cannot be written.
+	 */
+	public void writeBufferTo(final OutputStream out) throws IOException {
+		buffer.writeTo(out);
+	}
+
+	private void renderSeries(final byte[] labels, final WorkStatisticsSnapshot snapshot) {
+		for (int i = 0; i < bucketBounds.length; i++) {
+			write(BUCKET_PREFIX);
+			write(labels);
+			write(bucketSuffixes[i]);
+			writeLong(snapshot.getCountAtOrBelow(bucketBounds[i]));
+		}
+		write(BUCKET_PREFIX);
+		write(labels);
+		write(INFINITE_BUCKET_SUFFIX);
+		writeLong(snapshot.getNumberOfObservations());
+
+		writeSample(SUM_PREFIX, labels);
+		write(encode(Double.toString(snapshot.getTotalTime())));
+		buffer.write('\n');
+
+		writeSample(COUNT_PREFIX, labels);
+		writeLong(snapshot.getNumberOfObservations());
+
+		writeSample(MAX_PREFIX, labels);
+		writeLong(snapshot.getMaxTime());
+
+		writeSample(ERRORS_PREFIX, labels);
+		writeLong(snapshot.getErrorCount());
+
+		writeSample(BREACHES_PREFIX, labels);
+		writeLong(snapshot.getBreachCount());
+
+		writeSample(WARNINGS_PREFIX, labels);
+		writeLong(snapshot.getWarningCount());
+	}
+
+	private void writeSample(final byte[] prefix, final byte[] labels) {
+		write(prefix);
+		write(labels);
+		write(LABELS_SUFFIX);
+	}
+
+	private void write(final byte[] bytes) {
+		buffer.write(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * <p>
+	 * Writes a non-negative value followed by a new line, without allocating.
+	 * </p>
+	 */
+	private void writeLong(final long value) {
+		long remaining = Math.max(0, value);
+		int position = digits.length;
+		do {
+			digits[--position] = (byte) ('0' + remaining % 10);
+			remaining /= 10;
+		} while (remaining > 0);
+		buffer.write(digits, position, digits.length - position);
+		buffer.write('\n');
+	}
+
+	private static byte[] encodeLabels(final String category, final String method) {
+		String methodLabel = LatencyProcessor.ROOT_CALL_STATISTICS_KEY.equals(method) ? ROOT_METHOD_LABEL : method;
+		return encode("{category=\"" + escape(category) + "\",method=\"" + escape(methodLabel) + "\"");
+	}
+
+	/**
+	 * <p>
+	 * Escapes a label value as required by the exposition format.
+	 * </p>
+	 *
+	 * @param value
+	 *            The label value.
+	 * @return The escaped value.
+	 */
+	static String escape(final String value) {
+		StringBuilder result = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\\') result.append("\\\\");
+			else if (c == '"') result.append("\\\"");
+			else if (c == '\n') result.append("\\n");
+			else result.append(c);
+		}
+		return result.toString();
+	}
+
+	private static byte[] encode(final String value) {
+		return value.getBytes(UTF8);
+	}
+}// end class def
@@ -0,0 +1,117 @@
+package org.latency4j.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * A counter which spreads updates across a number of cells, each on its own
+ * cache line, so that threads incrementing it concurrently rarely contend.
+ * Threads are mapped to cells by their identifier. The {@link #sum() total} is
+ * computed on demand by adding up the cells, and is therefore only a
+ * point-in-time estimate while updates are in progress.
+ * </p>
+ */
+public class StripedCounter {
+	/**
+	 * <p>
+	 * The number of <code>long</code> slots separating adjacent cells; enough
+	 * to place each cell on its own 64 byte cache line.
+	 * </p>
+	 */
+	private static final int CELL_SPACING = 8;
+
+	/**
+	 * <p>
+	 * The cells, of which only every {@link #CELL_SPACING}th slot is used.
+	 * </p>
+	 */
+	private final AtomicLongArray cells;
+
+	/**
+	 * <p>
+	 * Mask applied to thread hashes to select a cell.
+	 * </p>
+	 */
+	private final int mask;
+
+	/**
+	 * <p>
+	 * Creates a counter with two cells for every available processor.
+	 * </p>
+	 */
+	public StripedCounter() {
+		this(Runtime.getRuntime().availableProcessors() * 2);
+	}
+
+	/**
+	 * <p>
+	 * Creates a counter with at least the given number of cells.
+	 * </p>
+	 *
+	 * @param minimumCells
+	 *            The minimum number of cells; rounded up to a power of two.
+	 */
+	public StripedCounter(final int minimumCells) {
+		int cellCount = Integer.highestOneBit(Math.max(1, minimumCells - 1)) << 1;
+		if (minimumCells <= 1) cellCount = 1;
+		this.cells = new AtomicLongArray(cellCount * CELL_SPACING);
+		this.mask = cellCount - 1;
+	}
+
+	/**
+	 * <p>
+	 * Increments the counter by one.
+	 * </p>
+	 */
+	public void increment() {
+		add(1);
+	}
+
+	/**
+	 * <p>
+	 * Adds the given value to the counter.
+	 * </p>
+	 *
+	 * @param delta
+	 *            The value to add.
+	 */
+	public void add(final long delta) {
+		cells.getAndAdd(cellIndex(), delta);
+	}
+
+	/**
+	 * <p>
+	 * Returns the sum of all cells.
+	 * </p>
+	 *
+	 * @return The current value of the counter.
+	 */
+	public long sum() {
+		long result = 0;
+		for (int i = 0; i < cells.length(); i += CELL_SPACING)
+			result += cells.get(i);
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of cells across which updates are spread.
+	 * </p>
+	 *
+	 * @return The number of cells.
+	 */
+	public int getCellCount() {
+		return mask + 1;
+	}
+
+	@Override
+	public String toString() {
+		return String.valueOf(sum());
+	}
+
+	private int cellIndex() {
+		long id = Thread.currentThread().getId();
+		int hash = (int) (id * 0x9E3779B97F4A7C15L >>> 32);
+		return (hash & mask) * CELL_SPACING;
+	}
+}// end class def
@@ -18,6 +18,7 @@ public class CappedLatencyRequirementTest {
 		CappedLatencyRequirement target = new CappedLatencyRequirement();
 		BeanTestUtil.testInitialPropertyValue(target, CappedLatencyRequirement.DEFAULT_EXPECTED_LATENCY,
 				"expectedLatency");
+		BeanTestUtil.testInitialPropertyValue(target, false, "callerThreadEvaluation");
 	}
 
 	/*
@@ -27,6 +28,7 @@ public class CappedLatencyRequirementTest {
 	public void testMutatorsAndAccessors() throws Exception {
 		CappedLatencyRequirement target = new CappedLatencyRequirement();
 		BeanTestUtil.testMutatorsAndAccessors(target, System.currentTimeMillis(), "expectedLatency");
+		BeanTestUtil.testMutatorsAndAccessors(target, true, "callerThreadEvaluation");
 	}
 
 	/*
@@ -25,6 +25,8 @@ public class LatencyRequirementTest {
 		testInitialPropertyValue(testRequirement, null, "persistenceManager");
 		testInitialPropertyValue(testRequirement, null, "workCategory");
 		testInitialPropertyValue(testRequirement, true, "ignoreErrors");
+		testInitialPropertyValue(testRequirement, 1, "samplingRate");
+		testInitialPropertyValue(testRequirement, 0L, "maxSampledEventsPerSecond");
 	}
 
 	/*
@@ -36,6 +38,8 @@ public class LatencyRequirementTest {
 		testMutatorsAndAccessors(testRequirement, new DefaultWorkDurationPersistenceManager(), "persistenceManager");
 		testMutatorsAndAccessors(testRequirement, "TestWorkCategory", "workCategory");
 		testMutatorsAndAccessors(testRequirement, false, "ignoreErrors", false);
+		testMutatorsAndAccessors(testRequirement, 10, "samplingRate");
+		testMutatorsAndAccessors(testRequirement, 500L, "maxSampledEventsPerSecond");
 	}
 
 	/*
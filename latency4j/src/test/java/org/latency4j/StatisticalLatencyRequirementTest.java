@@ -18,6 +18,9 @@ public class StatisticalLatencyRequirementTest {
 				"toleranceLevel");
 		BeanTestUtil.testInitialPropertyValue(target, StatisticalLatencyRequirement.DEFAULT_SIGNIFICANCE_BARRIER,
 				"observationsSignificanceBarrier");
+		BeanTestUtil.testInitialPropertyValue(target, 0L, "aggregationInterval");
+		BeanTestUtil.testInitialPropertyValue(target, StatisticalLatencyRequirement.DEFAULT_AGGREGATION_THRESHOLD,
+				"aggregationThreshold");
 	}
 
 	/*
@@ -36,5 +39,9 @@ public class StatisticalLatencyRequirementTest {
 		BeanTestUtil.testMutatorsAndAccessors(target, 0L, "observationsSignificanceBarrier");
 		BeanTestUtil.testMutatorsAndAccessors(target, -1L, "observationsSignificanceBarrier");
 		BeanTestUtil.testMutatorsAndAccessors(target, 6789L, "observationsSignificanceBarrier");
+
+		// thread-local aggregation
+		BeanTestUtil.testMutatorsAndAccessors(target, 250L, "aggregationInterval");
+		BeanTestUtil.testMutatorsAndAccessors(target, 64, "aggregationThreshold");
 	}
 }// end class def
\ No newline at end of file
@@ -8,8 +8,11 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.ErrorRateLatencyRequirement;
 import org.latency4j.LatencyRequirement;
+import org.latency4j.SloLatencyRequirement;
 import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.ThroughputLatencyRequirement;
 import org.latency4j.WorkDuration;
 import org.latency4j.alert.AbstractAlertHandler;
 
@@ -25,6 +28,18 @@ public class CountingMockAlertHandler extends AbstractAlertHandler {
 
 	private static final Map<String, Integer> workFailureCountMap = new HashMap<String, Integer>();
 
+	private static final Map<String, Integer> errorRateExceededCountMap = new HashMap<String, Integer>();
+
+	private static final Map<String, Integer> callRateBelowMinimumCountMap = new HashMap<String, Integer>();
+
+	private static final Map<String, Integer> concurrencyExceededCountMap = new HashMap<String, Integer>();
+
+	private static final Map<String, Integer> burnRateExceededCountMap = new HashMap<String, Integer>();
+
+	private static final Map<String, Integer> warningExceededCountMap = new HashMap<String, Integer>();
+
+	private static final Map<String, Integer> levelShiftCountMap = new HashMap<String, Integer>();
+
 	private static final Lock modificationLock = new ReentrantLock();
 
 	public static void resetAfterTest() {
@@ -33,6 +48,12 @@ public class CountingMockAlertHandler extends AbstractAlertHandler {
 			durationExceededToleranceMap.clear();
 			latencyExceededCapCountMap.clear();
 			workFailureCountMap.clear();
+			errorRateExceededCountMap.clear();
+			callRateBelowMinimumCountMap.clear();
+			concurrencyExceededCountMap.clear();
+			burnRateExceededCountMap.clear();
+			warningExceededCountMap.clear();
+			levelShiftCountMap.clear();
 		}
 		finally {
 			unlock();
@@ -72,6 +93,37 @@ public class CountingMockAlertHandler extends AbstractAlertHandler {
 		}
 	}
 
+	public static int getErrorRateExceededCount(final String category) {
+		lock();
+		try {
+			if (errorRateExceededCountMap.containsKey(category)) return errorRateExceededCountMap.get(category);
+			else return 0;
+		}
+		finally {
+			unlock();
+		}
+	}
+
+	public static int getCallRateBelowMinimumCount(final String category) {
+		return getCount(callRateBelowMinimumCountMap, category);
+	}
+
+	public static int getConcurrencyExceededCount(final String category) {
+		return getCount(concurrencyExceededCountMap, category);
+	}
+
+	public static int getBurnRateExceededCount(final String category) {
+		return getCount(burnRateExceededCountMap, category);
+	}
+
+	public static int getWarningExceededCount(final String category) {
+		return getCount(warningExceededCountMap, category);
+	}
+
+	public static int getLevelShiftCount(final String category) {
+		return getCount(levelShiftCountMap, category);
+	}
+
 	@Override
 	public void latencyDeviationExceededTolerance(final StatisticalLatencyRequirement requirement,
 			final WorkDuration duration, final double deviationFromMean, final double mean) {
@@ -103,6 +155,50 @@ public class CountingMockAlertHandler extends AbstractAlertHandler {
 		}
 	}
 
+	@Override
+	public void errorRateExceeded(final ErrorRateLatencyRequirement requirement, final WorkDuration duration,
+			final double errorRate, final double baselineErrorRate) {
+		lock();
+		try {
+			Integer value;
+			String category = requirement.getWorkCategory();
+			if (!errorRateExceededCountMap.containsKey(category)) value = 1;
+			else value = errorRateExceededCountMap.get(category) + 1;
+			errorRateExceededCountMap.put(category, value);
+		}
+		finally {
+			unlock();
+		}
+	}
+
+	@Override
+	public void callRateBelowMinimum(final ThroughputLatencyRequirement requirement, final double callsPerSecond) {
+		increment(callRateBelowMinimumCountMap, requirement.getWorkCategory());
+	}
+
+	@Override
+	public void concurrencyExceededMaximum(final ThroughputLatencyRequirement requirement,
+			final long concurrency) {
+		increment(concurrencyExceededCountMap, requirement.getWorkCategory());
+	}
+
+	@Override
+	public void errorBudgetBurnRateExceeded(final SloLatencyRequirement requirement, final double burnRate) {
+		increment(burnRateExceededCountMap, requirement.getWorkCategory());
+	}
+
+	@Override
+	public void latencyLevelShiftDetected(final StatisticalLatencyRequirement requirement,
+			final double previousLatency, final double shiftedLatency) {
+		increment(levelShiftCountMap, requirement.getWorkCategory());
+	}
+
+	@Override
+	public void latencyExceededWarningThreshold(final CappedLatencyRequirement requirement,
+			final WorkDuration duration) {
+		increment(warningExceededCountMap, requirement.getWorkCategory());
+	}
+
 	@Override
 	public void workCategoryFailed(final LatencyRequirement requirement, final WorkDuration duration) {
 		lock();
@@ -132,6 +228,28 @@ public class CountingMockAlertHandler extends AbstractAlertHandler {
 				CountingMockAlertHandler.getDeviationExceededToleranceCount(category));
 	}
 
+	private static int getCount(final Map<String, Integer> countMap, final String category) {
+		lock();
+		try {
+			if (countMap.containsKey(category)) return countMap.get(category);
+			else return 0;
+		}
+		finally {
+			unlock();
+		}
+	}
+
+	private static void increment(final Map<String, Integer> countMap, final String category) {
+		lock();
+		try {
+			Integer value = countMap.get(category);
+			countMap.put(category, value == null ? 1 : value + 1);
+		}
+		finally {
+			unlock();
+		}
+	}
+
 	private static void lock() {
 		modificationLock.lock();
 	}
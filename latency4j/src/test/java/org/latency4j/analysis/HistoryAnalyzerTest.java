@@ -0,0 +1,125 @@
+package org.latency4j.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.latency4j.TestObjectFactory;
+import org.latency4j.WorkDuration;
+import org.latency4j.WorkDurationId;
+import org.latency4j.persistence.DefaultWorkDurationPersistenceManager;
+
+/*
+ * Test case which ensures that the history analyzer summarises
+ * every segment of every category, compressed or not.
+ */
+public class HistoryAnalyzerTest {
+	private static final long BASE_TIME = 1200000L;
+
+	private DefaultWorkDurationPersistenceManager manager;
+
+	private HistoryAnalyzer target;
+
+	@Before
+	public void setUp() throws Exception {
+		TestObjectFactory.deleteAllEpsilonFilesFromTemp();
+
+		HashMap<String, String> parameters = new HashMap<String, String>();
+		parameters.put("data.directory", System.getProperty("java.io.tmpdir"));
+		parameters.put("max.file.bytes", "20000");
+		manager = new DefaultWorkDurationPersistenceManager();
+		manager.setParameters(parameters);
+		manager.init();
+
+		// 3 minutes of fast durations and a slow method, in two categories
+		for (int i = 0; i < 3000; i++) {
+			long end = BASE_TIME + i * 60;
+			save("categoryA", "fast", end - i % 10, end, i % 100 == 0);
+			save("categoryB", "fast", end - i % 10, end, false);
+			if (i % 10 == 0) save("categoryB", "slow", end - 1000, end, false);
+		}
+		manager.destroy();
+
+		target = new HistoryAnalyzer();
+		target.setDataDirectory(manager.getOutputDirectory());
+		target.setParallelism(4);
+	}
+
+	@After
+	public void tearDown() {
+		TestObjectFactory.deleteAllEpsilonFilesFromTemp();
+	}
+
+	private void save(final String category, final String method, final long start, final long end,
+			final boolean errored) {
+		manager.save(new WorkDuration(new WorkDurationId(category, "thread"), method, start, end, true, errored));
+	}
+
+	@Test
+	public void testSummaries() {
+		HistoryReport report = target.analyze();
+		assertTrue("Several segments should have been read.", report.getSegmentCount() > 2);
+		assertEquals(6300, report.getRecordCount());
+		assertEquals(0, report.getMalformedRecordCount());
+
+		LatencySummary fastA = report.getSummary("categoryA", "fast");
+		assertEquals(2970, fastA.getNumberOfObservations());
+		assertEquals(30, fastA.getErrorCount());
+		assertEquals(9, fastA.getMaxTime());
+		assertEquals(5, fastA.getPercentile(50));
+
+		LatencySummary slow = report.getSummary("categoryB", "slow");
+		assertEquals(300, slow.getNumberOfObservations());
+		assertEquals(1000, slow.getMaxTime());
+
+		List<LatencySummary> slowest = report.getSlowestMethods(2, 99);
+		assertEquals(2, slowest.size());
+		assertEquals("slow", slowest.get(0).getMethodName());
+	}
+
+	@Test
+	public void testTimeSeries() {
+		HistoryReport report = target.analyze();
+		// 3000 durations, one every 60ms, span exactly 3 minutes
+		assertEquals(3, report.getTimeSeries("categoryA").size());
+		long total = 0;
+		for (MinuteSummary minute : report.getTimeSeries("categoryA").values())
+			total += minute.getCount();
+		assertEquals(3000, total);
+	}
+
+	@Test
+	public void testTimeRange() {
+		target.setFrom(BASE_TIME);
+		target.setTo(BASE_TIME + 60000);
+		HistoryReport report = target.analyze();
+		assertEquals(1000, report.getSummary("categoryA", "fast").getNumberOfObservations()
+				+ report.getSummary("categoryA", "fast").getErrorCount());
+	}
+
+	@Test
+	public void testPrintReport() {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		HistoryAnalyzer.printReport(target.analyze(), new PrintStream(output), 5, true);
+		String text = output.toString();
+		assertTrue(text.contains("categoryB"));
+		assertTrue(text.contains("Slowest methods"));
+		assertTrue(text.contains("Per-minute series"));
+	}
+
+	@Test
+	public void testEmptyDirectory() {
+		File directory = new File(System.getProperty("java.io.tmpdir"), "latency4j-empty-history");
+		directory.mkdirs();
+		target.setDataDirectory(directory);
+		assertEquals(0, target.analyze().getRecordCount());
+	}
+}
@@ -15,6 +15,8 @@ public class CappedRequirementConfigurationTest {
 	public void testInitialState() throws Exception {
 		CappedRequirementConfiguration target = new CappedRequirementConfiguration();
 		BeanTestUtil.testInitialPropertyValue(target, null, "expectedLatency");
+		BeanTestUtil.testInitialPropertyValue(target, null, "callerThreadEvaluation");
+		BeanTestUtil.testInitialPropertyValue(target, null, "warningLatency");
 	}
 
 	/*
@@ -24,5 +26,7 @@ public class CappedRequirementConfigurationTest {
 	public void testMutatorsAndAccessors() throws Exception {
 		CappedRequirementConfiguration target = new CappedRequirementConfiguration();
 		BeanTestUtil.testMutatorsAndAccessors(target, System.currentTimeMillis(), "expectedLatency");
+		BeanTestUtil.testMutatorsAndAccessors(target, true, "callerThreadEvaluation");
+		BeanTestUtil.testMutatorsAndAccessors(target, System.currentTimeMillis(), "warningLatency");
 	}
 }
\ No newline at end of file
@@ -48,6 +48,8 @@ public class LatencyRequirementConfigurationTest {
 		testInitialPropertyValue(target, null, "persistenceManagerClass");
 		testInitialPropertyValue(target, null, "persistenceManagerParameters");
 		testInitialPropertyValue(target, null, "workCategory");
+		testInitialPropertyValue(target, null, "samplingRate");
+		testInitialPropertyValue(target, null, "maxSampledEventsPerSecond");
 	}
 
 	/*
@@ -62,5 +64,7 @@ public class LatencyRequirementConfigurationTest {
 		testMutatorsAndAccessors(target, testPersistenceManagerParameters, "persistenceManagerParameters");
 		testMutatorsAndAccessors(target, testHandlerIds, "alertHandlerIds");
 		testMutatorsAndAccessors(target, false, "ignoreErrors", false);
+		testMutatorsAndAccessors(target, 10, "samplingRate");
+		testMutatorsAndAccessors(target, 500L, "maxSampledEventsPerSecond");
 	}
 }
\ No newline at end of file
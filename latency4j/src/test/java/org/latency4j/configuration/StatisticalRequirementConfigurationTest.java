@@ -16,6 +16,10 @@ public class StatisticalRequirementConfigurationTest {
 		StatisticalRequirementConfiguration target = new StatisticalRequirementConfiguration();
 		BeanTestUtil.testInitialPropertyValue(target, null, "observationsSignificanceBarrier");
 		BeanTestUtil.testInitialPropertyValue(target, null, "toleranceLevel");
+		BeanTestUtil.testInitialPropertyValue(target, null, "aggregationInterval");
+		BeanTestUtil.testInitialPropertyValue(target, null, "aggregationThreshold");
+		BeanTestUtil.testInitialPropertyValue(target, null, "detectionMode");
+		BeanTestUtil.testInitialPropertyValue(target, null, "changePointThreshold");
 	}
 
 	/*
@@ -26,5 +30,14 @@ public class StatisticalRequirementConfigurationTest {
 		StatisticalRequirementConfiguration target = new StatisticalRequirementConfiguration();
 		BeanTestUtil.testMutatorsAndAccessors(target, System.currentTimeMillis(), "observationsSignificanceBarrier");
 		BeanTestUtil.testMutatorsAndAccessors(target, (double) System.currentTimeMillis(), "toleranceLevel");
+		BeanTestUtil.testMutatorsAndAccessors(target, 250L, "aggregationInterval");
+		BeanTestUtil.testMutatorsAndAccessors(target, 64, "aggregationThreshold");
+		BeanTestUtil.testMutatorsAndAccessors(target, "change_point", "detectionMode");
+		BeanTestUtil.testMutatorsAndAccessors(target, 4.0d, "changePointThreshold");
+		BeanTestUtil.testMutatorsAndAccessors(target, 0.1d, "changePointDrift");
+		BeanTestUtil.testMutatorsAndAccessors(target, true, "seasonalBaseline");
+		BeanTestUtil.testMutatorsAndAccessors(target, "Europe/London", "seasonalTimeZone");
+		BeanTestUtil.testMutatorsAndAccessors(target, "median", "baselineStrategy");
+		BeanTestUtil.testMutatorsAndAccessors(target, 0.2d, "baselineTrim");
 	}
 }
\ No newline at end of file
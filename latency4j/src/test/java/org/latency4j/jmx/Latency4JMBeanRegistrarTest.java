@@ -0,0 +1,131 @@
+package org.latency4j.jmx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.LatencyMonitor;
+import org.latency4j.TestObjectFactory;
+import org.latency4j.persistence.NullPersistenceManager;
+import org.latency4j.processing.AsynchronousLatencyMonitor;
+import org.latency4j.processing.AsynchronousLatencyMonitorFactory;
+import org.latency4j.processing.LatencyProcessor;
+
+/*
+ * Unit test for class Latency4JMBeanRegistrar.
+ */
+public class Latency4JMBeanRegistrarTest {
+
+	private static final String TEST_CATEGORY = "jmxTestCategory";
+
+	private static final String CAPPED_CATEGORY = "jmxCappedCategory";
+
+	private MBeanServer mbeanServer;
+
+	private Latency4JMBeanRegistrar target;
+
+	@Before
+	public void setUp() {
+		mbeanServer = MBeanServerFactory.newMBeanServer();
+		target = new Latency4JMBeanRegistrar();
+		target.setMonitorFactory(new AsynchronousLatencyMonitorFactory());
+		target.setMbeanServer(mbeanServer);
+		target.setRefreshInterval(0);
+	}
+
+	@After
+	public void tearDown() {
+		target.destroy();
+		TestObjectFactory.deleteAllEpsilonFilesFromTemp();
+	}
+
+	@Test
+	public void testRegistrationAndAttributes() throws Exception {
+		AsynchronousLatencyMonitorFactory factory = target.getMonitorFactory();
+		LatencyMonitor monitor = factory.getMonitor(TEST_CATEGORY);
+
+		for (int i = 0; i < 5; i++) {
+			monitor.taskStarted();
+			monitor.taskCompleted();
+		}
+		waitForObservations(factory.getAsyncProcessor(), TEST_CATEGORY, 5);
+
+		target.init();
+
+		ObjectName requirementName = Latency4JMBeanRegistrar.createRequirementName(TEST_CATEGORY);
+		assertTrue(mbeanServer.isRegistered(requirementName));
+		assertEquals(5L, mbeanServer.getAttribute(requirementName, "NumberOfObservations"));
+		assertEquals("StatisticalLatencyRequirement", mbeanServer.getAttribute(requirementName, "RequirementType"));
+		assertNull(mbeanServer.getAttribute(requirementName, "ExpectedLatency"));
+		assertNotNull(mbeanServer.getAttribute(requirementName, "PersistenceBacklog"));
+
+		mbeanServer.invoke(requirementName, "updateToleranceLevel", new Object[] { 0.75d },
+				new String[] { double.class.getName() });
+		assertEquals(0.75d, mbeanServer.getAttribute(requirementName, "ToleranceLevel"));
+
+		target.destroy();
+		assertTrue(!mbeanServer.isRegistered(requirementName));
+	}
+
+	@Test
+	public void testEvictedMethodUnregistered() throws Exception {
+		AsynchronousLatencyMonitorFactory factory = target.getMonitorFactory();
+		factory.setMaxStatisticsKeys(1);
+		AsynchronousLatencyMonitor monitor = factory.getMonitor(CAPPED_CATEGORY);
+
+		callNested(monitor, "methodA");
+		waitForObservations(factory.getAsyncProcessor(), CAPPED_CATEGORY, 1);
+		target.init();
+
+		ObjectName methodAName = Latency4JMBeanRegistrar.createMethodName(CAPPED_CATEGORY, "methodA");
+		assertTrue(mbeanServer.isRegistered(methodAName));
+
+		callNested(monitor, "methodB");
+		waitForObservations(factory.getAsyncProcessor(), CAPPED_CATEGORY, 2);
+		target.refresh();
+
+		assertFalse("The MBean of an evicted method should be unregistered.", mbeanServer.isRegistered(methodAName));
+		assertTrue(mbeanServer.isRegistered(Latency4JMBeanRegistrar.createMethodName(CAPPED_CATEGORY, "methodB")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testExpectedLatencyMustExceedWarningLatency() {
+		CappedLatencyRequirement requirement = new CappedLatencyRequirement();
+		requirement.setWorkCategory(CAPPED_CATEGORY);
+		requirement.setExpectedLatency(300L);
+		requirement.setWarningLatency(60);
+		requirement.setPersistenceManager(new NullPersistenceManager());
+		requirement.init();
+
+		new LatencyRequirementStatistics(target.getMonitorFactory().getAsyncProcessor(), requirement)
+				.updateExpectedLatency(60);
+	}
+
+	private static void callNested(final AsynchronousLatencyMonitor monitor, final String methodName) {
+		monitor.createTaskEntry("root");
+		monitor.createTaskEntry(methodName);
+		monitor.taskCompleted();
+		monitor.taskCompleted();
+	}
+
+	private void waitForObservations(final LatencyProcessor processor, final String workCategory,
+			final long expected) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			if (processor.getStatisticsSnapshot(workCategory, LatencyProcessor.ROOT_CALL_STATISTICS_KEY) != null
+					&& processor.getStatisticsSnapshot(workCategory, LatencyProcessor.ROOT_CALL_STATISTICS_KEY)
+							.getNumberOfObservations() == expected)
+				break;
+			Thread.sleep(20);
+		}
+	}
+}
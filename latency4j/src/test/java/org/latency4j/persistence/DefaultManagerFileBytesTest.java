@@ -1,23 +1,31 @@
 package org.latency4j.persistence;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.latency4j.TestObjectFactory.TEST_CATEGORY_NAME;
 import static org.latency4j.TestObjectFactory.createDummyDurationRecord;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.latency4j.TestObjectFactory;
 import org.latency4j.WorkDuration;
+import org.latency4j.WorkDurationId;
 import org.latency4j.persistence.DefaultWorkDurationPersistenceManager;
 
 /*
  * Test case which ensures that 
- * default manager observes specified maximum 
- * file sizes.
+ * default manager rolls segments at the specified maximum 
+ * file size, and observes retention limits.
  */
 public class DefaultManagerFileBytesTest {
 	// test target
@@ -45,8 +53,15 @@ public class DefaultManagerFileBytesTest {
 		TestObjectFactory.deleteAllEpsilonFilesFromTemp();
 	}
 
+	@After
+	public void tearDown() {
+		target.destroy();
+		TestObjectFactory.deleteAllEpsilonFilesFromTemp();
+	}
+
 	/*
-	 * Test logic for not exceeding file size
+	 * Test that segments are rolled once they exceed the maximum file size,
+	 * and that rolling does not discard any durations.
 	 */
 	@Test
 	public void testLowMaxFileSize() {
@@ -54,9 +69,111 @@ public class DefaultManagerFileBytesTest {
 			target.save(duration);
 
 		List<WorkDuration> savedDurations = target.loadHistoricalData(TEST_CATEGORY_NAME);
+		assertEquals("All durations should be retained across segments.", testDurations.size(),
+				savedDurations.size());
+		assertEquals(testDurations.get(0), savedDurations.get(0));
+		assertEquals(testDurations.get(testDurations.size() - 1), savedDurations.get(savedDurations.size() - 1));
+
+		List<File> segments = DurationFileHandle.listSegments(target.getOutputDirectory(), TEST_CATEGORY_NAME);
+		assertEquals("Each duration should be in its own segment.", testDurations.size(), segments.size());
+		for (File segment : segments.subList(0, segments.size() - 1))
+			assertTrue("Sealed segments should be compressed.",
+					segment.getName().endsWith(DurationFileHandle.COMPRESSED_SEGMENT_EXTENSION));
+	}
+
+	/*
+	 * Test that the oldest segments are deleted once the retention limit is
+	 * exceeded, and that the most recent durations are kept.
+	 */
+	@Test
+	public void testRetentionByBytes() {
+		File directory = target.getOutputDirectory();
+		target.save(testDurations.get(0));
+		target.destroy();
+		long recordLength = new File(directory, DurationFileHandle.getDataFileName(TEST_CATEGORY_NAME)).length();
+
+		HashMap<String, String> parameters = new HashMap<String, String>();
+		parameters.put("data.directory", directory.getAbsolutePath());
+		parameters.put("max.file.bytes", "1");
+		parameters.put("compress.segments", "false");
+		parameters.put("retention.max.bytes", String.valueOf(recordLength * 5));
+
+		target = new DefaultWorkDurationPersistenceManager();
+		target.setParameters(parameters);
+		target.init();
+
+		for (WorkDuration duration : testDurations)
+			target.save(duration);
 
-		assertEquals("Only one duration record should exist " + "in historical file.", 1, savedDurations.size());
+		List<WorkDuration> savedDurations = target.loadHistoricalData(TEST_CATEGORY_NAME);
+		// five sealed segments, plus the active segment
+		assertEquals("Only the most recent durations should be retained.", 6, savedDurations.size());
+		assertEquals(testDurations.get(testDurations.size() - 1), savedDurations.get(savedDurations.size() - 1));
+	}
 
+	/*
+	 * Test that history read while the writer is rolling and compressing
+	 * segments includes every duration saved before the read.
+	 */
+	@Test
+	public void testHistoryReadWhileRolling() throws InterruptedException {
+		final AtomicInteger savedCount = new AtomicInteger();
+		Thread saver = new Thread() {
+			@Override
+			public void run() {
+				long now = System.currentTimeMillis();
+				for (int i = 0; i < 200; i++) {
+					target.save(new WorkDuration(new WorkDurationId(TEST_CATEGORY_NAME, "thread"), "method" + i, now,
+							now, true, false));
+					savedCount.incrementAndGet();
+					Thread.yield();
+				}
+			}
+		};
+		saver.start();
+		try {
+			while (saver.isAlive()) {
+				int saved = savedCount.get();
+				Set<String> loadedMethods = new HashSet<String>();
+				for (WorkDuration duration : target.loadHistoricalData(TEST_CATEGORY_NAME))
+					loadedMethods.add(duration.getMethodName());
+				for (int i = 0; i < saved; i++)
+					assertTrue("Duration " + i + " was not loaded.", loadedMethods.contains("method" + i));
+			}
+		}
+		finally {
+			saver.join();
+		}
 	}
 
+	/*
+	 * Test that the segments of a category are not mistaken for those of
+	 * another category whose name extends it with a number, e.g. 'a' and
+	 * 'a.1'.
+	 */
+	@Test
+	public void testCategoryWithNumericSuffix() {
+		String otherCategory = TEST_CATEGORY_NAME + ".1";
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < 3; i++)
+			target.save(new WorkDuration(new WorkDurationId(otherCategory, "thread"), "otherMethod", now, now + i,
+					true, false));
+		for (WorkDuration duration : testDurations)
+			target.save(duration);
+		target.destroy();
+
+		target = new DefaultWorkDurationPersistenceManager();
+		HashMap<String, String> parameters = new HashMap<String, String>();
+		parameters.put("data.directory", System.getProperty("java.io.tmpdir"));
+		parameters.put("max.file.bytes", "1");
+		target.setParameters(parameters);
+		target.init();
+
+		for (File segment : DurationFileHandle.listSegments(target.getOutputDirectory(), TEST_CATEGORY_NAME))
+			assertFalse(segment.getName(), segment.getName().startsWith(otherCategory));
+		assertEquals(testDurations.size(), target.loadHistoricalData(TEST_CATEGORY_NAME).size());
+		assertEquals(3, target.loadHistoricalData(otherCategory).size());
+		assertTrue("The other category's active segment should survive.",
+				new File(target.getOutputDirectory(), DurationFileHandle.getDataFileName(otherCategory)).isFile());
+	}
 }
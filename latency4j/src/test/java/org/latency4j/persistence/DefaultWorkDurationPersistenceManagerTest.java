@@ -1,6 +1,7 @@
 package org.latency4j.persistence;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.latency4j.TestObjectFactory.TEST_CATEGORY_NAME;
@@ -11,10 +12,12 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.latency4j.TestObjectFactory;
 import org.latency4j.WorkDuration;
+import org.latency4j.WorkDurationId;
 import org.latency4j.persistence.DefaultWorkDurationPersistenceManager;
 import org.latency4j.persistence.DurationFileHandle;
 
@@ -44,6 +47,12 @@ public class DefaultWorkDurationPersistenceManagerTest {
 		TestObjectFactory.deleteAllEpsilonFilesFromTemp();
 	}
 
+	@After
+	public void tearDown() {
+		// releases the writer, which is shared with managers of later tests
+		target.destroy();
+	}
+
 	/*
 	 * Test to ensure that manager will fail if its logic is accessed before it
 	 * has been initialised by calling the init method.
@@ -51,7 +60,7 @@ public class DefaultWorkDurationPersistenceManagerTest {
 	@Test
 	public void testPreInitFailure() {
 		try {
-			target.save(null);
+			target.save((WorkDuration) null);
 			fail("Manager allowed call despite not being initialised!");
 		} catch (RuntimeException re_exce) {
 			// passed
@@ -67,6 +76,7 @@ public class DefaultWorkDurationPersistenceManagerTest {
 
 		for (WorkDuration duration : testDurations)
 			target.save(duration);
+		target.flush();
 
 		// check that file has been created
 		String dataFileName = DurationFileHandle.getDataFileName(TEST_CATEGORY_NAME);
@@ -93,4 +103,128 @@ public class DefaultWorkDurationPersistenceManagerTest {
 		assertEquals(testDurations.get(0), loadedDurations.get(0));
 	}
 
+	/*
+	 * Test that loads do not wait on the manager's monitor, so that the
+	 * warm-ups of several categories are not serialised.
+	 */
+	@Test
+	public void testLoadsRunConcurrently() throws InterruptedException {
+		target.init();
+		for (WorkDuration duration : testDurations)
+			target.save(duration);
+
+		final List<WorkDuration> loadedDurations = new ArrayList<WorkDuration>();
+		Thread loader = new Thread() {
+			@Override
+			public void run() {
+				loadedDurations.addAll(target.loadHistoricalData("TestTask"));
+			}
+		};
+		synchronized (target) {
+			loader.start();
+			loader.join(5000);
+		}
+
+		assertFalse("A load should not wait on the manager's monitor.", loader.isAlive());
+		assertEquals(testDurations.size(), loadedDurations.size());
+	}
+
+	/*
+	 * Test that durations saved before a restart are retained, and appended
+	 * to.
+	 */
+	@Test
+	public void testHistorySurvivesRestart() {
+		target.init();
+		for (WorkDuration duration : testDurations)
+			target.save(duration);
+		target.destroy();
+
+		DefaultWorkDurationPersistenceManager restarted = new DefaultWorkDurationPersistenceManager();
+		restarted.setParameters(target.getParameters());
+		restarted.init();
+		try {
+			restarted.save(createDummyDurationRecord());
+
+			assertEquals(testDurations.size() + 1, restarted.loadHistoricalData(TEST_CATEGORY_NAME).size());
+		}
+		finally {
+			restarted.destroy();
+		}
+	}
+
+	/*
+	 * Test that writes are reported once flushed, and that an fsync policy
+	 * does not prevent them.
+	 */
+	@Test
+	public void testWriterStatistics() {
+		target.getParameters().put("fsync.policy", "records");
+		target.getParameters().put("fsync.records", "5");
+		target.init();
+
+		for (WorkDuration duration : testDurations)
+			target.save(duration);
+		target.flush();
+
+		assertEquals(0, target.getBacklog());
+		assertEquals(testDurations.size(), target.getRecordsWritten());
+		assertEquals(0, target.getRecordsDropped());
+		assertTrue(target.getBatchesWritten() > 0);
+		assertTrue(target.getAverageWriteMicros() > 0);
+
+		target.destroy();
+		File dataFile = new File(target.getOutputDirectory(), DurationFileHandle.getDataFileName(TEST_CATEGORY_NAME));
+		assertTrue("Data file should hold the durations after shutdown.", dataFile.length() > 0);
+	}
+
+	/*
+	 * Test that logs closed to keep within the limit of open logs are
+	 * reopened, and appended to, when next written.
+	 */
+	@Test
+	public void testLogsReopenedBeyondOpenLimit() {
+		target.getParameters().put(DefaultWorkDurationPersistenceManager.MAX_OPEN_LOGS_CONFIG_PARAM, "2");
+		target.init();
+
+		long now = System.currentTimeMillis();
+		for (int round = 0; round < 3; round++) {
+			for (int category = 0; category < 4; category++)
+				target.save(new WorkDuration(new WorkDurationId(TEST_CATEGORY_NAME + category, "thread"), "method",
+						now, now + round, true, false));
+			target.flush();
+		}
+
+		for (int category = 0; category < 4; category++) {
+			assertEquals(3, target.loadHistoricalData(TEST_CATEGORY_NAME + category).size());
+			assertEquals(1, target.findDurations(TEST_CATEGORY_NAME + category, null, now + 1, now + 2).size());
+		}
+		target.destroy();
+	}
+
+	/*
+	 * Test that the weights of sampled durations are persisted, so that
+	 * history is replayed and queried with the weights the live statistics
+	 * used.
+	 */
+	@Test
+	public void testSampledWeightsArePersisted() {
+		target.init();
+		long end = System.currentTimeMillis();
+		for (int i = 0; i < 10; i++) {
+			WorkDuration duration = new WorkDuration(new WorkDurationId(TEST_CATEGORY_NAME, "thread"), "sampled",
+					end - 10, end + i, true, false);
+			if (i % 2 == 0) duration.setWeight(8);
+			target.save(duration);
+		}
+
+		List<WorkDuration> loadedDurations = target.loadHistoricalData(TEST_CATEGORY_NAME);
+		assertEquals(10, loadedDurations.size());
+		assertEquals(8, loadedDurations.get(0).getWeight());
+		assertEquals(1, loadedDurations.get(1).getWeight());
+		assertEquals(end + 1, loadedDurations.get(1).getEndTime());
+
+		assertEquals(3, target.findDurations(TEST_CATEGORY_NAME, null, end + 2, end + 5).size());
+		assertEquals(5 * 8 + 5, target.aggregate(TEST_CATEGORY_NAME, null, end, end + 10).getNumberOfObservations());
+	}
 }
@@ -0,0 +1,127 @@
+package org.latency4j.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.latency4j.TestObjectFactory.TEST_CATEGORY_NAME;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.latency4j.TestObjectFactory;
+import org.latency4j.WorkDuration;
+import org.latency4j.WorkDurationId;
+
+/*
+ * Test case which ensures that time-range queries on the default
+ * manager return exactly the durations which ended within the range,
+ * using the per-segment time index.
+ */
+public class DurationQueryTest {
+	private static final long BASE_TIME = 1000000L;
+	private static final int DURATION_COUNT = 6000;
+
+	// test target
+	private DefaultWorkDurationPersistenceManager target;
+
+	private HashMap<String, String> parameters;
+
+	@Before
+	public void setUp() throws Exception {
+		TestObjectFactory.deleteAllEpsilonFilesFromTemp();
+
+		parameters = new HashMap<String, String>();
+		parameters.put("data.directory", System.getProperty("java.io.tmpdir"));
+		parameters.put("max.file.bytes", "200000");
+		target = new DefaultWorkDurationPersistenceManager();
+		target.setParameters(parameters);
+		target.init();
+
+		// one duration per millisecond, alternating between two methods
+		for (int i = 0; i < DURATION_COUNT; i++) {
+			WorkDurationId id = new WorkDurationId(TEST_CATEGORY_NAME, "thread");
+			long end = BASE_TIME + i;
+			target.save(new WorkDuration(id, i % 2 == 0 ? "even" : "odd", end - (i % 100), end, true, i % 10 == 0));
+		}
+		target.flush();
+	}
+
+	@After
+	public void tearDown() {
+		target.destroy();
+		TestObjectFactory.deleteAllEpsilonFilesFromTemp();
+	}
+
+	/*
+	 * Test that the log spans several compressed, indexed segments, each of
+	 * several blocks, so that queries exercise the index.
+	 */
+	@Test
+	public void testSegmentsAreIndexed() throws Exception {
+		List<File> segments = DurationFileHandle.listSegments(target.getOutputDirectory(), TEST_CATEGORY_NAME);
+		assertTrue("The log should have been rolled.", segments.size() > 1);
+
+		File sealedSegment = segments.get(0);
+		assertTrue(DurationFileHandle.isCompressed(sealedSegment));
+		SegmentIndex index = SegmentIndex.read(SegmentIndex.getIndexFile(sealedSegment));
+		assertNotNull("Sealed segments should be indexed.", index);
+		assertTrue("Sealed segments should hold several blocks.", index.size() > 1);
+		assertEquals(sealedSegment.length(), index.getIndexedLength());
+	}
+
+	@Test
+	public void testFindDurations() {
+		List<WorkDuration> result = target.findDurations(TEST_CATEGORY_NAME, null, BASE_TIME + 1500,
+				BASE_TIME + 4500);
+		assertEquals(3000, result.size());
+		for (int i = 0; i < result.size(); i++)
+			assertEquals(BASE_TIME + 1500 + i, result.get(i).getEndTime());
+
+		result = target.findDurations(TEST_CATEGORY_NAME, "odd", BASE_TIME + 1500, BASE_TIME + 4500);
+		assertEquals(1500, result.size());
+		for (WorkDuration duration : result)
+			assertEquals("odd", duration.getMethodName());
+
+		assertTrue(target.findDurations(TEST_CATEGORY_NAME, null, 0, BASE_TIME).isEmpty());
+		assertTrue(target.findDurations("unknown", null, 0, Long.MAX_VALUE).isEmpty());
+	}
+
+	@Test
+	public void testAggregate() {
+		DurationAggregate result = target.aggregate(TEST_CATEGORY_NAME, "even", BASE_TIME, BASE_TIME + 200);
+		// 100 even durations, of which every fifth is errored
+		assertEquals(80, result.getNumberOfObservations());
+		assertEquals(20, result.getErrorCount());
+		assertEquals(2, result.getMinTime());
+		assertEquals(98, result.getMaxTime());
+		assertEquals(50, result.getMean(), 0.001);
+		assertTrue(result.getPercentile(99) <= result.getMaxTime());
+		assertTrue(result.getPercentile(50) >= 40 && result.getPercentile(50) <= 60);
+	}
+
+	/*
+	 * Test that records written after the last complete block of the active
+	 * segment are found, including after a restart.
+	 */
+	@Test
+	public void testActiveSegmentAfterRestart() {
+		target.destroy();
+		target = new DefaultWorkDurationPersistenceManager();
+		target.setParameters(parameters);
+		target.init();
+
+		WorkDurationId id = new WorkDurationId(TEST_CATEGORY_NAME, "thread");
+		long end = BASE_TIME + DURATION_COUNT;
+		target.save(new WorkDuration(id, "even", end - 5, end, true, false));
+
+		List<WorkDuration> result = target.findDurations(TEST_CATEGORY_NAME, null, BASE_TIME + DURATION_COUNT - 10,
+				Long.MAX_VALUE);
+		assertEquals(11, result.size());
+		assertEquals(end, result.get(10).getEndTime());
+		assertEquals(DURATION_COUNT + 1, target.loadHistoricalData(TEST_CATEGORY_NAME).size());
+	}
+}
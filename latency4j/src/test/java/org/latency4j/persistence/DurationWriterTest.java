@@ -0,0 +1,111 @@
+package org.latency4j.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.latency4j.TestObjectFactory.createDummyDurationRecord;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Test;
+import org.latency4j.TestObjectFactory;
+
+/*
+ * Test that the duration writer's flushes never outlive the writer, and that
+ * a writer which blocks when full loses no durations, and that writers are
+ * shared by managers with the same directory and settings.
+ */
+public class DurationWriterTest {
+	@After
+	public void tearDown() {
+		TestObjectFactory.deleteAllEpsilonFilesFromTemp();
+	}
+
+	/*
+	 * Test that flushes racing with a stop return, rather than waiting on a
+	 * latch queued behind the stop marker.
+	 */
+	@Test
+	public void testFlushReturnsWhenWriterStops() throws InterruptedException {
+		for (int round = 0; round < 20; round++) {
+			final DurationWriter target = createWriter(16, false);
+			target.start();
+
+			Thread[] flushers = new Thread[4];
+			for (int i = 0; i < flushers.length; i++) {
+				flushers[i] = new Thread() {
+					@Override
+					public void run() {
+						for (int j = 0; j < 50; j++)
+							target.flush();
+					}
+				};
+				flushers[i].start();
+			}
+			target.stop();
+
+			for (Thread flusher : flushers) {
+				flusher.join(5000);
+				assertFalse("A flush should not hang once the writer is stopped.", flusher.isAlive());
+			}
+		}
+	}
+
+	/*
+	 * Test that durations saved faster than a tiny queue drains are all
+	 * written when the writer blocks when full.
+	 */
+	@Test
+	public void testBlockingWriterLosesNoDurations() {
+		DurationWriter target = createWriter(1, true);
+		target.start();
+		try {
+			for (int i = 0; i < 500; i++)
+				target.enqueue(createDummyDurationRecord());
+			target.flush();
+
+			assertEquals(0, target.getRecordsDropped());
+			assertEquals(500, target.getRecordsWritten());
+		}
+		finally {
+			target.stop();
+		}
+	}
+
+	/*
+	 * Test that writers with the same directory and settings are shared
+	 * until the last of them is released.
+	 */
+	@Test
+	public void testWritersSharedUntilReleased() {
+		File directory = new File(System.getProperty("java.io.tmpdir"));
+		DurationLogPolicy policy = new DurationLogPolicy(Long.MAX_VALUE, 0, false, 0, 0);
+		DurationWriter first = DurationWriter.acquire(directory, policy, 16, false, 4);
+		DurationWriter second = DurationWriter.acquire(directory, policy, 16, false, 4);
+		DurationWriter other = DurationWriter.acquire(directory, policy, 32, false, 4);
+		try {
+			assertSame(first, second);
+			assertNotSame("Writers with other settings should not be shared.", first, other);
+
+			first.release();
+			second.enqueue(createDummyDurationRecord());
+			second.flush();
+			assertEquals("A writer should run while it is shared.", 1, second.getRecordsWritten());
+			second.release();
+
+			DurationWriter third = DurationWriter.acquire(directory, policy, 16, false, 4);
+			assertNotSame("A released writer should not be reused.", first, third);
+			third.release();
+		}
+		finally {
+			other.release();
+		}
+	}
+
+	private static DurationWriter createWriter(final int queueCapacity, final boolean blockWhenFull) {
+		return new DurationWriter(new File(System.getProperty("java.io.tmpdir")),
+				new DurationLogPolicy(Long.MAX_VALUE, 0, false, 0, 0), queueCapacity, blockWhenFull, 4);
+	}
+}
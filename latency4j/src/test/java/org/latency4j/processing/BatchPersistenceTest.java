@@ -0,0 +1,186 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.WorkDuration;
+import org.latency4j.WorkDurationId;
+import org.latency4j.alert.CountingMockAlertHandler;
+import org.latency4j.persistence.BatchWorkDurationPersistenceManager;
+import org.latency4j.persistence.WorkDurationPersistenceManager;
+
+/*
+ * Test that the processor persists drained durations in batches, and still
+ * supports single-record persistence managers.
+ */
+public class BatchPersistenceTest {
+	private static final String TEST_CATEGORY = "batchPersistenceTask";
+	private static final int NUMBER_OF_DURATIONS = 100;
+
+	@Test
+	public void testBatchManagerReceivesDrainedDurations() throws InterruptedException {
+		RecordingPersistenceManager persistenceManager = new RecordingPersistenceManager();
+		processDurations(persistenceManager);
+
+		assertEquals(NUMBER_OF_DURATIONS, persistenceManager.getSaved().size());
+		assertEquals("Queued durations should be saved as one batch.", 1, persistenceManager.getBatchCount());
+	}
+
+	@Test
+	public void testSingleRecordManagerIsAdapted() throws InterruptedException {
+		RecordingPersistenceManager delegate = new RecordingPersistenceManager();
+		processDurations(new SingleRecordManager(delegate));
+
+		assertEquals(NUMBER_OF_DURATIONS, delegate.getSaved().size());
+		assertEquals(0, delegate.getBatchCount());
+	}
+
+	/*
+	 * Test that the manager of an evicted category is flushed and forgotten
+	 * once no other category uses it, rather than on termination.
+	 */
+	@Test
+	public void testUnusedManagerDiscardedOnEviction() throws InterruptedException {
+		RecordingPersistenceManager evictedManager = new RecordingPersistenceManager();
+		RecordingPersistenceManager keptManager = new RecordingPersistenceManager();
+		CappedLatencyRequirement evicted = createRequirement(TEST_CATEGORY + ".evicted", evictedManager);
+		CappedLatencyRequirement kept = createRequirement(TEST_CATEGORY + ".kept", keptManager);
+
+		LatencyProcessor processor = new LatencyProcessor();
+		processor.setMaxCategories(1);
+		processor.processTaskCompletion(evicted, new WorkDuration(new WorkDurationId(evicted.getWorkCategory(),
+				"thread"), "method", 0, 1, true, false));
+		processor.processTaskCompletion(kept, new WorkDuration(new WorkDurationId(kept.getWorkCategory(), "thread"),
+				"method", 0, 1, true, false));
+
+		processor.start();
+		for (int i = 0; i < 50 && evictedManager.getFlushCount() == 0; i++)
+			Thread.sleep(20);
+		assertEquals("The manager of an evicted category should be flushed when discarded.", 1,
+				evictedManager.getFlushCount());
+		assertEquals(0, keptManager.getFlushCount());
+
+		processor.interrupt();
+		processor.join(5000);
+		assertEquals(1, evictedManager.getSaved().size());
+		assertEquals("A discarded manager should not be flushed on termination.", 1, evictedManager.getFlushCount());
+		assertEquals(1, keptManager.getFlushCount());
+	}
+
+	/*
+	 * Queues durations before starting the processor, so that they are
+	 * drained together.
+	 */
+	private void processDurations(final WorkDurationPersistenceManager persistenceManager)
+			throws InterruptedException {
+		CappedLatencyRequirement requirement = createRequirement(TEST_CATEGORY, persistenceManager);
+
+		LatencyProcessor processor = new LatencyProcessor();
+		for (int i = 0; i < NUMBER_OF_DURATIONS; i++)
+			processor.processTaskCompletion(requirement, new WorkDuration(new WorkDurationId(TEST_CATEGORY, "thread"),
+					"method", i, i + 1, true, false));
+
+		processor.start();
+		for (int i = 0; i < 50 && processor.getQueueSize() > 0; i++)
+			Thread.sleep(20);
+		Thread.sleep(100);
+		processor.interrupt();
+	}
+
+	private static CappedLatencyRequirement createRequirement(final String workCategory,
+			final WorkDurationPersistenceManager persistenceManager) {
+		CappedLatencyRequirement result = new CappedLatencyRequirement();
+		result.setWorkCategory(workCategory);
+		result.setExpectedLatency(1000L);
+		result.setPersistenceManager(persistenceManager);
+		result.getAlertHandlers().add(new CountingMockAlertHandler());
+		result.init();
+		return result;
+	}
+
+	private static class RecordingPersistenceManager implements BatchWorkDurationPersistenceManager {
+		private final List<WorkDuration> saved = Collections.synchronizedList(new ArrayList<WorkDuration>());
+		private volatile int batchCount;
+		private volatile int flushCount;
+
+		@Override
+		public void init() {}
+
+		@Override
+		public void setParameters(final Map<String, String> parameters) {}
+
+		@Override
+		public Map<String, String> getParameters() {
+			return null;
+		}
+
+		@Override
+		public void save(final WorkDuration taskDuration) {
+			saved.add(taskDuration);
+		}
+
+		@Override
+		public void save(final Collection<WorkDuration> durations) {
+			batchCount++;
+			saved.addAll(durations);
+		}
+
+		@Override
+		public void flush() {
+			flushCount++;
+		}
+
+		@Override
+		public List<WorkDuration> loadHistoricalData(final String workCategory) {
+			return new ArrayList<WorkDuration>();
+		}
+
+		List<WorkDuration> getSaved() {
+			return saved;
+		}
+
+		int getBatchCount() {
+			return batchCount;
+		}
+
+		int getFlushCount() {
+			return flushCount;
+		}
+	}
+
+	private static class SingleRecordManager implements WorkDurationPersistenceManager {
+		private final WorkDurationPersistenceManager delegate;
+
+		SingleRecordManager(final WorkDurationPersistenceManager delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void init() {}
+
+		@Override
+		public void setParameters(final Map<String, String> parameters) {}
+
+		@Override
+		public Map<String, String> getParameters() {
+			return null;
+		}
+
+		@Override
+		public void save(final WorkDuration taskDuration) {
+			delegate.save(taskDuration);
+		}
+
+		@Override
+		public List<WorkDuration> loadHistoricalData(final String workCategory) {
+			return delegate.loadHistoricalData(workCategory);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.WorkDuration;
+import org.latency4j.WorkDurationId;
+import org.latency4j.persistence.NullPersistenceManager;
+
+/*
+ * Test that nested durations are aggregated by call path, with self time
+ * separated from total time, and that the tree is bounded.
+ */
+public class CallTreeTest {
+	@Test
+	public void testSelfAndTotalTimePerPath() {
+		CallTree target = new CallTree(CallTree.DEFAULT_MAX_NODES);
+		recordCall(target, 100, 30, 50);
+		recordCall(target, 80, 10, 60);
+
+		CallTreeSnapshot snapshot = target.snapshot();
+		CallTreeNodeSnapshot root = snapshot.getRootCall("handle");
+		assertEquals(2, root.getInvocationCount());
+		assertEquals(180, root.getTotalTime());
+		assertEquals(30, root.getSelfTime());
+
+		CallTreeNodeSnapshot query = root.getChild("query");
+		assertEquals(40, query.getTotalTime());
+		assertEquals(40, query.getSelfTime());
+		CallTreeNodeSnapshot render = root.getChild("render");
+		assertEquals(110, render.getTotalTime());
+		assertSame("Children should be ordered by total time.", render, root.getChildren().get(0));
+
+		List<CallTreeNodeSnapshot> hotPath = snapshot.findHighestSelfTimePath();
+		assertEquals(2, hotPath.size());
+		assertSame(render, hotPath.get(1));
+	}
+
+	@Test
+	public void testTreeIsBounded() {
+		CallTree target = new CallTree(2);
+		recordCall(target, 100, 30, 50);
+
+		assertEquals(2, target.getNodeCount());
+		assertEquals("The call along the third path should be dropped.", 1, target.getDroppedCount());
+		assertNull(target.snapshot().getRootCall("handle").getChild("render"));
+	}
+
+	@Test
+	public void testMonitorLinksNestedCalls() throws InterruptedException {
+		LatencyProcessor processor = new LatencyProcessor();
+		processor.start();
+		try {
+			CappedLatencyRequirement requirement = new CappedLatencyRequirement();
+			requirement.setWorkCategory("callTreeTask");
+			requirement.setExpectedLatency(1000L);
+			requirement.setPersistenceManager(new NullPersistenceManager());
+			requirement.init();
+
+			AsynchronousLatencyMonitor monitor = new AsynchronousLatencyMonitor(requirement, processor);
+			monitor.createTaskEntry("outer");
+			monitor.createTaskEntry("inner");
+			Thread.sleep(20);
+			WorkDuration inner = monitor.taskCompleted();
+			WorkDuration outer = monitor.taskCompleted();
+
+			assertSame(outer, inner.getParent());
+			assertEquals(inner.getElapsedTime(), outer.getChildTime());
+
+			CallTreeSnapshot snapshot = null;
+			for (int i = 0; i < 100 && (snapshot == null || snapshot.getRootCall("outer") == null); i++) {
+				Thread.sleep(20);
+				snapshot = processor.getCallTreeSnapshot("callTreeTask");
+			}
+			assertNotNull(snapshot);
+			CallTreeNodeSnapshot innerNode = snapshot.getRootCall("outer").getChild("inner");
+			assertNotNull(innerNode);
+			assertTrue(innerNode.getTotalTime() >= 20);
+		}
+		finally {
+			processor.interrupt();
+		}
+	}
+
+	/*
+	 * Records a call to "handle" which calls "query" and then "render".
+	 */
+	private static void recordCall(final CallTree target, final long total, final long query, final long render) {
+		WorkDuration root = createDuration("handle", total);
+		WorkDuration queryCall = createDuration("query", query);
+		WorkDuration renderCall = createDuration("render", render);
+		queryCall.setParent(root);
+		renderCall.setParent(root);
+		root.addChildTime(query);
+		root.addChildTime(render);
+
+		target.record(queryCall, 1);
+		target.record(renderCall, 1);
+		target.record(root, 1);
+	}
+
+	private static WorkDuration createDuration(final String methodName, final long elapsedTime) {
+		return new WorkDuration(new WorkDurationId("callTreeTask", "thread"), methodName, 0, elapsedTime, false,
+				false);
+	}
+}
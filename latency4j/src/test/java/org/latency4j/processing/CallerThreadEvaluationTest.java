@@ -0,0 +1,59 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.alert.CountingMockAlertHandler;
+import org.latency4j.persistence.NullPersistenceManager;
+
+/*
+ * Test that caller thread evaluation of capped requirements only queues
+ * breaches and errors.
+ */
+public class CallerThreadEvaluationTest extends AbstractLatencyRequirementMonitoringTest {
+	private static final String TEST_CATEGORY = "callerThreadEvaluationTask";
+	private static final long CONFIGURED_CAP = 50;
+
+	private LatencyProcessor processor;
+	private AsynchronousLatencyMonitor monitor;
+
+	@Before
+	public void setUp() {
+		CappedLatencyRequirement requirement = new CappedLatencyRequirement();
+		requirement.setWorkCategory(TEST_CATEGORY);
+		requirement.setExpectedLatency(CONFIGURED_CAP);
+		requirement.setCallerThreadEvaluation(true);
+		requirement.setPersistenceManager(new NullPersistenceManager());
+		requirement.getAlertHandlers().add(new CountingMockAlertHandler());
+		requirement.init();
+
+		processor = new LatencyProcessor();
+		processor.start();
+		monitor = new AsynchronousLatencyMonitor(requirement, processor);
+	}
+
+	@Test
+	public void testOnlyBreachesAreQueued() throws InterruptedException {
+		for (int i = 0; i < 20; i++) {
+			monitor.createTaskEntry("root");
+			monitor.createTaskEntry("nested");
+			monitor.taskCompleted();
+			monitor.taskCompleted();
+		}
+		assertEquals(40, processor.getWithinCapCount(TEST_CATEGORY));
+
+		monitor.createTaskEntry("root");
+		Thread.sleep(CONFIGURED_CAP * 2);
+		monitor.taskCompleted();
+
+		Thread.sleep(200);
+		assertEquals(40, processor.getWithinCapCount(TEST_CATEGORY));
+		assertEquals(1, CountingMockAlertHandler.getLatencyExceededCapCount(TEST_CATEGORY));
+		assertEquals(1, processor.getStatisticsSnapshot(TEST_CATEGORY, LatencyProcessor.ROOT_CALL_STATISTICS_KEY)
+				.getNumberOfObservations());
+		assertNull(processor.getStatisticsSnapshot(TEST_CATEGORY, "nested"));
+	}
+}
@@ -0,0 +1,208 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.LatencyRequirement;
+import org.latency4j.WorkDuration;
+import org.latency4j.WorkDurationId;
+import org.latency4j.persistence.NullPersistenceManager;
+
+/*
+ * Test that per-method statistics, per-category statistics and monitors are
+ * capped, with the least recently used entries evicted into overflow.
+ */
+public class CardinalityCapTest {
+	@Test
+	public void testLeastRecentlyUpdatedMethodFoldedIntoOverflow() {
+		RequirementStatisticsMap target = new RequirementStatisticsMap(createRequirement("cappedMethods"), false, 2);
+
+		target.getOrCreateStatistics("methodA").update(10);
+		target.getOrCreateStatistics("methodB").update(20);
+		target.getOrCreateStatistics(RequirementStatisticsMap.ROOT_METHOD_MARKER).update(30);
+		target.getOrCreateStatistics("methodA").update(10);
+		target.getOrCreateStatistics("methodC").update(40);
+
+		assertNull("The least recently updated method should be evicted.", target.get("methodB"));
+		assertNotNull(target.get("methodA"));
+		assertNotNull(target.get(RequirementStatisticsMap.ROOT_METHOD_MARKER));
+		assertEquals(1, target.getEvictionCount());
+
+		WorkStatistics overflow = target.get(RequirementStatisticsMap.OVERFLOW_KEY);
+		assertEquals(1, overflow.getNumberOfObservations());
+		assertEquals(20, overflow.getMaxTime());
+	}
+
+	@Test
+	public void testLeastRecentlyUpdatedCategoryFoldedIntoOverflow() throws InterruptedException {
+		LatencyProcessor processor = new LatencyProcessor();
+		processor.setMaxCategories(2);
+		processor.start();
+		try {
+			process(processor, "category1");
+			process(processor, "category2");
+			process(processor, "category1");
+			process(processor, "category3");
+
+			assertFalse(processor.getMonitoredCategories().contains("category2"));
+			assertTrue(processor.getMonitoredCategories().contains("category1"));
+			assertEquals(1, processor.getEvictedCategoryCount());
+
+			WorkStatisticsSnapshot overflow = processor.getStatisticsSnapshot(LatencyProcessor.OVERFLOW_CATEGORY,
+					LatencyProcessor.ROOT_CALL_STATISTICS_KEY);
+			assertEquals(1, overflow.getNumberOfObservations());
+		}
+		finally {
+			processor.interrupt();
+		}
+	}
+
+	@Test
+	public void testEvictionListenersNotified() throws InterruptedException {
+		final List<String> evicted = new CopyOnWriteArrayList<String>();
+		LatencyProcessor processor = new LatencyProcessor();
+		processor.setMaxCategories(2);
+		processor.addCategoryEvictionListener(new CategoryEvictionListener() {
+			@Override
+			public void categoryEvicted(final String workCategory) {
+				evicted.add(workCategory);
+			}
+		});
+		processor.start();
+		try {
+			process(processor, "category1");
+			process(processor, "category2");
+			process(processor, "category1");
+			process(processor, "category3");
+
+			assertEquals(Arrays.asList("category2"), evicted);
+		}
+		finally {
+			processor.interrupt();
+		}
+	}
+
+	@Test
+	public void testEvictedMonitorsReleaseCategoryState() throws InterruptedException {
+		AsynchronousLatencyMonitorFactory target = createCappedFactory();
+
+		LatencyRequirement evictedRequirement = target.getMonitor("capped.1").getLatencyRequirement();
+		target.getMonitor("capped.2");
+		target.getMonitor("capped.3");
+		assertEquals(1, target.getEvictedMonitorCount());
+
+		// the counter is released once the evicted monitor is collected
+		for (int i = 0; i < 100 && target.getAsyncProcessor().getWithinCapCategories().contains("capped.1"); i++) {
+			System.gc();
+			Thread.sleep(20);
+			target.getMonitor("capped.3");
+		}
+		assertFalse("The counter of an evicted monitor should be released.",
+				target.getAsyncProcessor().getWithinCapCategories().contains("capped.1"));
+		assertEquals(2, target.getAsyncProcessor().getWithinCapCategories().size());
+		assertNotSame("The requirement of an evicted monitor should be resolved afresh.", evictedRequirement,
+				target.getMonitor("capped.1").getLatencyRequirement());
+	}
+
+	@Test
+	public void testEvictedMonitorUsableWhileReachable() {
+		AsynchronousLatencyMonitorFactory target = createCappedFactory();
+
+		AsynchronousLatencyMonitor evicted = target.getMonitor("capped.1");
+		target.getMonitor("capped.2");
+		target.getMonitor("capped.3");
+		assertEquals(1, target.getEvictedMonitorCount());
+
+		evicted.createTaskEntry("method");
+		evicted.taskCompleted();
+		assertEquals("A monitor looked up before its eviction should keep counting.", 1,
+				target.getAsyncProcessor().getWithinCapCount("capped.1"));
+
+		target.getMonitor("capped.1").createTaskEntry("method");
+		target.getMonitor("capped.1").taskCompleted();
+		assertEquals("A new monitor of the category should share the counter.", 2,
+				target.getAsyncProcessor().getWithinCapCount("capped.1"));
+	}
+
+	@Test
+	public void testLeastRecentlyLookedUpMonitorEvicted() {
+		AsynchronousLatencyMonitorFactory target = new AsynchronousLatencyMonitorFactory();
+		target.setMaxCategories(2);
+
+		AsynchronousLatencyMonitor first = target.getMonitor("monitor1");
+		target.getMonitor("monitor2");
+		target.getMonitor("monitor1");
+		target.getMonitor("monitor3");
+
+		assertEquals(1, target.getEvictedMonitorCount());
+		assertSame("A recently looked up monitor should be kept.", first, target.getMonitor("monitor1"));
+		assertEquals(2, target.getMonitoredRequirements().size());
+	}
+
+	@Test
+	public void testIdleMonitorsEvicted() {
+		AsynchronousLatencyMonitorFactory target = new AsynchronousLatencyMonitorFactory();
+		target.setMaxCategories(2);
+
+		AsynchronousLatencyMonitor busy = target.getMonitor("monitor1");
+		busy.createTaskEntry("method");
+		target.getMonitor("monitor2");
+		target.getMonitor("monitor3");
+
+		assertEquals(1, target.getEvictedMonitorCount());
+		assertEquals(2, target.getMonitoredRequirements().size());
+		assertSame("A monitor with a call in progress should be kept.", busy, target.getMonitor("monitor1"));
+		busy.taskCompleted();
+	}
+
+	private static AsynchronousLatencyMonitorFactory createCappedFactory() {
+		AsynchronousLatencyMonitorFactory result = new AsynchronousLatencyMonitorFactory();
+		result.setMaxCategories(2);
+		CappedLatencyRequirement pattern = new CappedLatencyRequirement();
+		pattern.setWorkCategory("capped.*");
+		pattern.setExpectedLatency(1000L);
+		pattern.setCallerThreadEvaluation(true);
+		pattern.setPersistenceManager(new NullPersistenceManager());
+		result.getEpsilonResourceManager().registerLatencyRequirement(pattern);
+		return result;
+	}
+
+	private static void process(final LatencyProcessor processor, final String workCategory)
+			throws InterruptedException {
+		long end = System.currentTimeMillis();
+		WorkDuration duration = new WorkDuration(new WorkDurationId(workCategory, "thread"), "method", end - 5, end,
+				true, false);
+		long expected = processor.getStatisticsSnapshot(workCategory,
+				LatencyProcessor.ROOT_CALL_STATISTICS_KEY) == null ? 1
+						: processor.getStatisticsSnapshot(workCategory, LatencyProcessor.ROOT_CALL_STATISTICS_KEY)
+								.getNumberOfObservations() + 1;
+
+		processor.processTaskCompletion(createRequirement(workCategory), duration);
+		for (int i = 0; i < 100; i++) {
+			WorkStatisticsSnapshot snapshot = processor.getStatisticsSnapshot(workCategory,
+					LatencyProcessor.ROOT_CALL_STATISTICS_KEY);
+			if (snapshot != null && snapshot.getNumberOfObservations() == expected) break;
+			Thread.sleep(20);
+		}
+	}
+
+	private static CappedLatencyRequirement createRequirement(final String workCategory) {
+		CappedLatencyRequirement result = new CappedLatencyRequirement();
+		result.setWorkCategory(workCategory);
+		result.setExpectedLatency(1000L);
+		result.setPersistenceManager(new NullPersistenceManager());
+		result.init();
+		return result;
+	}
+}
@@ -0,0 +1,144 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.LatencyRequirement;
+import org.latency4j.Latency4JException;
+import org.latency4j.persistence.NullPersistenceManager;
+
+/*
+ * Test that category patterns resolve with the documented precedence,
+ * and that resolved requirements are derived per category and cached.
+ */
+public class CategoryPatternResolverTest {
+	@Test
+	public void testWildcardPrecedence() {
+		CategoryPatternResolver target = new CategoryPatternResolver();
+		target.addPattern(createRequirement("com.acme.*", 10));
+		target.addPattern(createRequirement("com.acme.orders.*", 20));
+		target.addPattern(createRequirement("com.acme.orders.*.save", 30));
+		target.addPattern(createRequirement("com.*.save", 40));
+
+		assertEquals(20, getExpectedLatency(target.match("com.acme.orders.place")));
+		assertEquals(30, getExpectedLatency(target.match("com.acme.orders.Order.save")));
+		assertEquals(10, getExpectedLatency(target.match("com.acme.billing.save")));
+		assertEquals(40, getExpectedLatency(target.match("com.other.save")));
+		assertNull(target.match("org.acme.orders.place"));
+	}
+
+	@Test
+	public void testRegexConsultedAfterWildcards() {
+		CategoryPatternResolver target = new CategoryPatternResolver();
+		target.addPattern(createRequirement("regex:com\\.acme\\.(orders|billing)\\..*", 10));
+		target.addPattern(createRequirement("regex:com\\.acme\\..*", 20));
+		target.addPattern(createRequirement("com.acme.billing.*", 30));
+
+		assertEquals(10, getExpectedLatency(target.match("com.acme.orders.place")));
+		assertEquals(30, getExpectedLatency(target.match("com.acme.billing.charge")));
+		assertEquals(20, getExpectedLatency(target.match("com.acme.shipping.send")));
+		assertNull(target.match("xcom.acme.orders.place"));
+	}
+
+	@Test
+	public void testResolvedRequirementsAreDerivedAndCached() {
+		CategoryPatternResolver target = new CategoryPatternResolver();
+		LatencyRequirement pattern = createRequirement("com.acme.orders.*", 20);
+		target.addPattern(pattern);
+
+		LatencyRequirement result = target.resolve("com.acme.orders.place");
+		assertTrue(result instanceof CappedLatencyRequirement);
+		assertEquals("com.acme.orders.place", result.getWorkCategory());
+		assertEquals(20, getExpectedLatency(result));
+		assertSame(pattern.getPersistenceManager(), result.getPersistenceManager());
+		assertSame(result, target.resolve("com.acme.orders.place"));
+		assertNull(target.resolve("com.acme.billing.charge"));
+	}
+
+	@Test
+	public void testConcurrentLookupsInitialiseOnce() throws Exception {
+		final CategoryPatternResolver target = new CategoryPatternResolver();
+		CountingRequirement pattern = new CountingRequirement();
+		pattern.setWorkCategory("com.acme.*");
+		pattern.setExpectedLatency(20L);
+		pattern.setPersistenceManager(new NullPersistenceManager());
+		target.addPattern(pattern);
+		CountingRequirement.initCount.set(0);
+
+		final CountDownLatch startGate = new CountDownLatch(1);
+		final LatencyRequirement[] results = new LatencyRequirement[8];
+		Thread[] threads = new Thread[results.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						startGate.await();
+						results[index] = target.resolve("com.acme.orders.place");
+					} catch (InterruptedException exce) {}
+				}
+			};
+			threads[i].start();
+		}
+		startGate.countDown();
+		for (Thread thread : threads)
+			thread.join();
+
+		assertEquals(1, CountingRequirement.initCount.get());
+		for (LatencyRequirement result : results)
+			assertSame(results[0], result);
+	}
+
+	@Test
+	public void testResourceManagerPrefersExactCategory() {
+		Latency4JResourceManager target = new Latency4JResourceManager();
+		LatencyRequirement exact = createRequirement("com.acme.orders.place", 5);
+		target.registerLatencyRequirement(createRequirement("com.acme.orders.*", 20));
+		target.registerLatencyRequirement(exact);
+
+		assertSame(exact, target.getLatencyRequirement("com.acme.orders.place"));
+		assertEquals(20, getExpectedLatency(target.getLatencyRequirement("com.acme.orders.cancel")));
+		assertTrue(target.containsRequirement("com.acme.orders.cancel"));
+		assertEquals(1, target.getLatencyRequirements().size());
+	}
+
+	@Test(expected = Latency4JException.class)
+	public void testInvalidRegexRejected() {
+		new CategoryPatternResolver().addPattern(createRequirement("regex:com.acme.(orders", 10));
+	}
+
+	public static class CountingRequirement extends CappedLatencyRequirement {
+		private static final long serialVersionUID = 1L;
+		static final AtomicInteger initCount = new AtomicInteger();
+
+		@Override
+		public void init() {
+			initCount.incrementAndGet();
+			try {
+				// widens the window in which a second initialisation could start
+				Thread.sleep(20);
+			} catch (InterruptedException exce) {}
+			super.init();
+		}
+	}
+
+	private static CappedLatencyRequirement createRequirement(final String workCategory, final long expectedLatency) {
+		CappedLatencyRequirement result = new CappedLatencyRequirement();
+		result.setWorkCategory(workCategory);
+		result.setExpectedLatency(expectedLatency);
+		result.setPersistenceManager(new NullPersistenceManager());
+		return result;
+	}
+
+	private static long getExpectedLatency(final LatencyRequirement requirement) {
+		return ((CappedLatencyRequirement) requirement).getExpectedLatency();
+	}
+}
@@ -0,0 +1,146 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.latency4j.DetectionMode;
+import org.latency4j.Latency4JException;
+import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.WorkDuration;
+import org.latency4j.WorkDurationId;
+import org.latency4j.alert.CountingMockAlertHandler;
+import org.latency4j.persistence.NullPersistenceManager;
+
+/*
+ * Test that change-point detection ignores outliers but signals sustained
+ * shifts in either direction, once per shift.
+ */
+public class ChangePointDetectorTest {
+	private static final String TEST_CATEGORY = "changePointTask";
+	private static final double DRIFT = StatisticalLatencyRequirement.DEFAULT_CHANGE_POINT_DRIFT;
+	private static final double THRESHOLD = StatisticalLatencyRequirement.DEFAULT_CHANGE_POINT_THRESHOLD;
+
+	@After
+	public void tearDown() {
+		CountingMockAlertHandler.resetAfterTest();
+	}
+
+	@Test
+	public void testOutliersAreIgnored() {
+		ChangePointDetector target = new ChangePointDetector();
+		target.calibrate(100);
+		for (int i = 0; i < 1000; i++)
+			assertFalse(target.update(i % 50 == 0 ? 5000 : 100 + (i % 7) - 3, DRIFT, THRESHOLD));
+		assertEquals(0, target.getChangePointCount());
+	}
+
+	@Test
+	public void testUpwardShift() {
+		ChangePointDetector target = new ChangePointDetector();
+		target.calibrate(100);
+		int calls = 0;
+		while (!target.update(140, DRIFT, THRESHOLD))
+			calls++;
+
+		assertEquals(14, calls);
+		assertEquals(100, target.getPreviousLatency(), 0.0001);
+		assertEquals(140, target.getReferenceLatency(), 0.0001);
+		for (int i = 0; i < 1000; i++)
+			assertFalse("A shift should only be signalled once.", target.update(140, DRIFT, THRESHOLD));
+	}
+
+	@Test
+	public void testDownwardShift() {
+		ChangePointDetector target = new ChangePointDetector();
+		target.calibrate(100);
+		boolean detected = false;
+		for (int i = 0; i < 100 && !detected; i++)
+			detected = target.update(50, DRIFT, THRESHOLD);
+
+		assertTrue(detected);
+		assertEquals(50, target.getReferenceLatency(), 0.0001);
+	}
+
+	@Test
+	public void testProcessorAlertsOnShift() throws InterruptedException {
+		StatisticalLatencyRequirement requirement = new StatisticalLatencyRequirement();
+		requirement.setWorkCategory(TEST_CATEGORY);
+		requirement.setObservationsSignificanceBarrier(10);
+		requirement.setDetectionMode(DetectionMode.CHANGE_POINT);
+		requirement.setPersistenceManager(new NullPersistenceManager());
+		requirement.getAlertHandlers().add(new CountingMockAlertHandler());
+		requirement.init();
+
+		LatencyProcessor processor = new LatencyProcessor();
+		processor.start();
+		try {
+			WorkDurationId id = new WorkDurationId(TEST_CATEGORY, "thread");
+			for (int i = 0; i < 50; i++)
+				processor.processTaskCompletion(requirement, new WorkDuration(id, "call", 0, 100, true, false));
+			for (int i = 0; i < 50; i++)
+				processor.processTaskCompletion(requirement, new WorkDuration(id, "call", 0, 200, true, false));
+
+			for (int i = 0; i < 100 && CountingMockAlertHandler.getLevelShiftCount(TEST_CATEGORY) == 0; i++)
+				Thread.sleep(20);
+			assertEquals(1, CountingMockAlertHandler.getLevelShiftCount(TEST_CATEGORY));
+			assertEquals("Individual calls should not be judged.", 0,
+					CountingMockAlertHandler.getDeviationExceededToleranceCount(TEST_CATEGORY));
+			assertEquals(200, processor.getLatencyLevel(TEST_CATEGORY), 0.0001);
+		}
+		finally {
+			processor.interrupt();
+		}
+	}
+
+	/*
+	 * Test that a sampled call standing for many calls is fed to the detector
+	 * as a single observation, rather than signalling a shift on its own.
+	 */
+	@Test
+	public void testSampledCallCountsOnce() throws InterruptedException {
+		StatisticalLatencyRequirement requirement = new StatisticalLatencyRequirement();
+		requirement.setWorkCategory(TEST_CATEGORY);
+		requirement.setObservationsSignificanceBarrier(10);
+		requirement.setDetectionMode(DetectionMode.CHANGE_POINT);
+		requirement.setPersistenceManager(new NullPersistenceManager());
+		requirement.getAlertHandlers().add(new CountingMockAlertHandler());
+		requirement.init();
+
+		LatencyProcessor processor = new LatencyProcessor();
+		processor.start();
+		try {
+			WorkDurationId id = new WorkDurationId(TEST_CATEGORY, "thread");
+			for (int i = 0; i < 50; i++)
+				processor.processTaskCompletion(requirement, new WorkDuration(id, "call", 0, 100, true, false));
+			processor.processTaskCompletion(requirement, new WorkDuration(id, "call", 0, 120, true, false), 100);
+
+			for (int i = 0; i < 100 && getNumberOfObservations(processor) < 150; i++)
+				Thread.sleep(20);
+			assertEquals(150, getNumberOfObservations(processor));
+			assertEquals("A single sampled call should not signal a shift.", 0,
+					CountingMockAlertHandler.getLevelShiftCount(TEST_CATEGORY));
+		}
+		finally {
+			processor.interrupt();
+		}
+	}
+
+	@Test(expected = Latency4JException.class)
+	public void testAggregationIsRejected() {
+		StatisticalLatencyRequirement requirement = new StatisticalLatencyRequirement();
+		requirement.setWorkCategory(TEST_CATEGORY);
+		requirement.setDetectionMode(DetectionMode.BOTH);
+		requirement.setAggregationInterval(100);
+		requirement.setPersistenceManager(new NullPersistenceManager());
+		requirement.init();
+	}
+
+	private static long getNumberOfObservations(final LatencyProcessor processor) {
+		WorkStatisticsSnapshot snapshot = processor.getStatisticsSnapshot(TEST_CATEGORY,
+				LatencyProcessor.ROOT_CALL_STATISTICS_KEY);
+		return snapshot == null ? 0 : snapshot.getNumberOfObservations();
+	}
+}
@@ -0,0 +1,107 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.WorkDuration;
+import org.latency4j.WorkDurationId;
+
+/*
+ * Unit test for class DurationSampler.
+ */
+public class DurationSamplerTest {
+
+	private static final String TEST_CATEGORY = "samplerTestCategory";
+
+	private CappedLatencyRequirement cappedRequirement;
+
+	private LatencyProcessor processor;
+
+	@Before
+	public void setUp() {
+		cappedRequirement = new CappedLatencyRequirement();
+		cappedRequirement.setWorkCategory(TEST_CATEGORY);
+		cappedRequirement.setExpectedLatency(100L);
+		processor = new LatencyProcessor();
+	}
+
+	/*
+	 * Without sampling, every duration is processed with a weight of one.
+	 */
+	@Test
+	public void testNoSampling() {
+		DurationSampler target = new DurationSampler(cappedRequirement, processor);
+		for (int i = 0; i < 100; i++)
+			assertEquals(1, target.sample(createDuration(0, 10, false)));
+	}
+
+	/*
+	 * Fixed rate sampling processes roughly 1 in N durations, each with a
+	 * weight of N, but always processes errored and breaching durations.
+	 */
+	@Test
+	public void testFixedRateSampling() {
+		cappedRequirement.setSamplingRate(10);
+		DurationSampler target = new DurationSampler(cappedRequirement, processor);
+
+		long totalWeight = 0;
+		int sampled = 0;
+		for (int i = 0; i < 10000; i++) {
+			long weight = target.sample(createDuration(0, 10, false));
+			assertTrue(weight == 0 || weight == 10);
+			if (weight > 0) sampled++;
+			totalWeight += weight;
+		}
+		assertTrue("Unexpected number sampled: " + sampled, sampled > 800 && sampled < 1200);
+		assertEquals(sampled * 10, totalWeight);
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals(1, target.sample(createDuration(0, 500, false)));
+			assertEquals(1, target.sample(createDuration(0, 10, true)));
+		}
+	}
+
+	/*
+	 * Adaptive sampling derives the rate from the previous window's volume.
+	 */
+	@Test
+	public void testAdaptiveSampling() {
+		cappedRequirement.setMaxSampledEventsPerSecond(100);
+		DurationSampler target = new DurationSampler(cappedRequirement, processor);
+
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < 5000; i++)
+			target.sample(createDuration(start, start + 10, false));
+		assertEquals(1, target.getAdaptiveRate());
+
+		// closes the window: 5001 events over ~1 second
+		long end = start + 10 + DurationSampler.ADAPTIVE_WINDOW_MILLIS;
+		target.sample(createDuration(end - 10, end, false));
+		long rate = target.getAdaptiveRate();
+		assertTrue("Unexpected adaptive rate: " + rate, rate >= 49 && rate <= 51);
+	}
+
+	/*
+	 * Statistical requirements are not sampled until a significant average
+	 * has been established.
+	 */
+	@Test
+	public void testStatisticalRequirementWithoutBaseline() {
+		StatisticalLatencyRequirement requirement = new StatisticalLatencyRequirement();
+		requirement.setWorkCategory(TEST_CATEGORY);
+		requirement.setSamplingRate(1000);
+		DurationSampler target = new DurationSampler(requirement, processor);
+
+		for (int i = 0; i < 100; i++)
+			assertEquals(1, target.sample(createDuration(0, 10, false)));
+	}
+
+	private WorkDuration createDuration(final long start, final long end, final boolean errored) {
+		return new WorkDuration(new WorkDurationId(TEST_CATEGORY, Thread.currentThread().getName()), "testMethod",
+				start, end, true, errored);
+	}
+}
@@ -0,0 +1,121 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.latency4j.Latency4JException;
+import org.latency4j.SloLatencyRequirement;
+import org.latency4j.WorkDuration;
+import org.latency4j.WorkDurationId;
+import org.latency4j.alert.CountingMockAlertHandler;
+import org.latency4j.persistence.NullPersistenceManager;
+
+/*
+ * Test that SLO requirements compute error budget burn rates over per-minute
+ * ring buffers, and only alert when every window is burning too fast.
+ */
+public class ErrorBudgetTrackerTest {
+	private static final String TEST_CATEGORY = "sloTask";
+	private static final long MINUTE = 60 * 1000;
+	private static final long EXPECTED_LATENCY = 100;
+
+	@After
+	public void tearDown() {
+		CountingMockAlertHandler.resetAfterTest();
+	}
+
+	@Test
+	public void testWindowsExpireMinuteBuckets() {
+		ErrorBudgetTracker target = new ErrorBudgetTracker(createRequirement(1, 3));
+
+		recordCalls(target, 0, 8, 1, 1);
+		target.tick(MINUTE - 1);
+		assertEquals(2.0, target.getBurnRates()[0], 0.0001);
+		assertEquals(2.0, target.getBurnRates()[1], 0.0001);
+
+		target.tick(MINUTE);
+		assertTrue("The short window should have emptied.", Double.isNaN(target.getBurnRates()[0]));
+		assertEquals(2.0, target.getBurnRates()[1], 0.0001);
+
+		recordCalls(target, 1, 10, 0, 0);
+		target.tick(MINUTE + 1);
+		assertEquals(0.0, target.getBurnRates()[0], 0.0001);
+		assertEquals(1.0, target.getBurnRates()[1], 0.0001);
+
+		target.tick(3 * MINUTE);
+		assertEquals("The first minute should have left the long window.", 0.0, target.getBurnRates()[1], 0.0001);
+
+		target.tick(100 * MINUTE);
+		assertTrue(Double.isNaN(target.getBurnRates()[1]));
+	}
+
+	@Test
+	public void testAlertsOnlyWhenAllWindowsBurn() {
+		ErrorBudgetTracker target = new ErrorBudgetTracker(createRequirement(1, 3));
+
+		recordCalls(target, 0, 100, 0, 0);
+		recordCalls(target, 1, 10, 0, 0);
+		recordCalls(target, 2, 7, 3, 0);
+		target.tick(2 * MINUTE + 1);
+		assertEquals(3.0, target.getBurnRates()[0], 0.0001);
+		assertEquals("A short burst should not alert.", 0,
+				CountingMockAlertHandler.getBurnRateExceededCount(TEST_CATEGORY));
+
+		recordCalls(target, 3, 0, 0, 40);
+		target.tick(3 * MINUTE + 1);
+		assertEquals(1, CountingMockAlertHandler.getBurnRateExceededCount(TEST_CATEGORY));
+		target.tick(3 * MINUTE + 2);
+		assertEquals("A sustained burn should only alert once.", 1,
+				CountingMockAlertHandler.getBurnRateExceededCount(TEST_CATEGORY));
+
+		recordCalls(target, 4, 50, 0, 0);
+		target.tick(4 * MINUTE + 1);
+		recordCalls(target, 5, 0, 20, 0);
+		target.tick(5 * MINUTE + 1);
+		assertEquals("A renewed burn should alert again.", 2,
+				CountingMockAlertHandler.getBurnRateExceededCount(TEST_CATEGORY));
+	}
+
+	@Test
+	public void testSlowCallsAreNeverSampledOut() {
+		SloLatencyRequirement requirement = createRequirement(1, 3);
+		DurationSampler target = new DurationSampler(requirement, new LatencyProcessor());
+		WorkDurationId id = new WorkDurationId(TEST_CATEGORY, "thread");
+
+		assertTrue(target.isBreach(new WorkDuration(id, "call", 0, EXPECTED_LATENCY + 1, true, false)));
+		assertTrue(!target.isBreach(new WorkDuration(id, "call", 0, EXPECTED_LATENCY, true, false)));
+	}
+
+	@Test(expected = Latency4JException.class)
+	public void testRequiresAnObjective() {
+		SloLatencyRequirement requirement = createRequirement(1, 3);
+		requirement.setObjective(1);
+		requirement.init();
+	}
+
+	private static SloLatencyRequirement createRequirement(final int... windows) {
+		SloLatencyRequirement result = new SloLatencyRequirement();
+		result.setWorkCategory(TEST_CATEGORY);
+		result.setExpectedLatency(EXPECTED_LATENCY);
+		result.setObjective(0.9);
+		result.setBurnRateWindows(windows);
+		result.setBurnRateThreshold(2);
+		result.setPersistenceManager(new NullPersistenceManager());
+		result.getAlertHandlers().add(new CountingMockAlertHandler());
+		return result;
+	}
+
+	private static void recordCalls(final ErrorBudgetTracker target, final long minute, final int good,
+			final int slow, final int errored) {
+		WorkDurationId id = new WorkDurationId(TEST_CATEGORY, "thread");
+		long start = minute * MINUTE;
+		for (int i = 0; i < good; i++)
+			target.record(new WorkDuration(id, "call", start, start + EXPECTED_LATENCY, true, false), 1);
+		for (int i = 0; i < slow; i++)
+			target.record(new WorkDuration(id, "call", start, start + EXPECTED_LATENCY + 1, true, false), 1);
+		for (int i = 0; i < errored; i++)
+			target.record(new WorkDuration(id, "call", start, start + 1, true, true), 1);
+	}
+}
@@ -0,0 +1,140 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.latency4j.ErrorRateLatencyRequirement;
+import org.latency4j.Latency4JException;
+import org.latency4j.WorkDuration;
+import org.latency4j.WorkDurationId;
+import org.latency4j.alert.CountingMockAlertHandler;
+import org.latency4j.persistence.NullPersistenceManager;
+
+/*
+ * Test that error-rate requirements track windowed error rates against an
+ * absolute limit and a smoothed baseline, and alert once per window.
+ */
+public class ErrorRateRequirementTest {
+	private static final String TEST_CATEGORY = "errorRateTask";
+	private static final long WINDOW = 1000;
+
+	@After
+	public void tearDown() {
+		CountingMockAlertHandler.resetAfterTest();
+	}
+
+	@Test
+	public void testAbsoluteLimit() {
+		ErrorRateLatencyRequirement requirement = createRequirement(0.05, 0);
+		ErrorRateWindow target = new ErrorRateWindow(requirement);
+
+		recordCalls(target, 0, 9, 1);
+		assertFalse("Too few calls should not be judged.", target.isBreached(requirement));
+		recordCalls(target, 0, 9, 1);
+		assertTrue(Double.isNaN(target.getBaselineErrorRate()));
+		assertEquals(0.1, target.getCurrentErrorRate(), 0.0001);
+		assertTrue(target.isBreached(requirement));
+
+		target.markAlerted();
+		recordCalls(target, 0, 0, 5);
+		assertFalse("A window should only be alerted once.", target.isBreached(requirement));
+	}
+
+	@Test
+	public void testDeviationFromBaseline() {
+		ErrorRateLatencyRequirement requirement = createRequirement(0, 1.0);
+		requirement.setBaselineWindows(2);
+		ErrorRateWindow target = new ErrorRateWindow(requirement);
+
+		recordCalls(target, 0, 95, 5);
+		assertFalse("No baseline should be applied before enough windows.", target.isBreached(requirement));
+		recordCalls(target, WINDOW, 95, 5);
+		recordCalls(target, 2 * WINDOW, 92, 8);
+		assertEquals(0.05, target.getBaselineErrorRate(), 0.0001);
+		assertFalse("An increase within tolerance should not breach.", target.isBreached(requirement));
+
+		recordCalls(target, 2 * WINDOW, 0, 5);
+		assertTrue("Doubling the baseline rate should breach.", target.isBreached(requirement));
+	}
+
+	@Test
+	public void testZeroBaselineIsFloored() {
+		ErrorRateLatencyRequirement requirement = createRequirement(0, 1.0);
+		requirement.setBaselineWindows(2);
+		ErrorRateWindow target = new ErrorRateWindow(requirement);
+
+		recordCalls(target, 0, 100, 0);
+		recordCalls(target, WINDOW, 100, 0);
+		recordCalls(target, 2 * WINDOW, 99, 1);
+		assertEquals(0, target.getBaselineErrorRate(), 0);
+		assertFalse("A single error should not breach an error-free baseline.", target.isBreached(requirement));
+
+		recordCalls(target, 2 * WINDOW, 0, 2);
+		assertEquals(3.0 / 102, target.getCurrentErrorRate(), 0.0001);
+		assertFalse("Errors within tolerance of the floor should not breach.", target.isBreached(requirement));
+
+		recordCalls(target, 2 * WINDOW, 0, 10);
+		assertTrue("Well above the floor should breach.", target.isBreached(requirement));
+	}
+
+	@Test
+	public void testProcessorAlertsOncePerWindow() throws InterruptedException {
+		ErrorRateLatencyRequirement requirement = createRequirement(0.2, 0);
+		requirement.setWindowLength(Long.MAX_VALUE);
+		requirement.getAlertHandlers().add(new CountingMockAlertHandler());
+		requirement.init();
+
+		LatencyProcessor processor = new LatencyProcessor();
+		processor.start();
+		try {
+			AsynchronousLatencyMonitor monitor = new AsynchronousLatencyMonitor(requirement, processor);
+			for (int i = 0; i < 40; i++) {
+				monitor.createTaskEntry("call");
+				if (i % 2 == 0) monitor.taskErrored(new IllegalStateException("failure"));
+				else monitor.taskCompleted();
+			}
+
+			for (int i = 0; i < 100 && processor.getStatisticsSnapshot(TEST_CATEGORY,
+					LatencyProcessor.ROOT_CALL_STATISTICS_KEY) == null; i++)
+				Thread.sleep(20);
+			Thread.sleep(200);
+
+			assertEquals(1, CountingMockAlertHandler.getErrorRateExceededCount(TEST_CATEGORY));
+			assertEquals("Individual errors are ignored by default.", 0,
+					CountingMockAlertHandler.getWorkFailureCount(TEST_CATEGORY));
+			assertEquals(0.5, processor.getErrorRate(TEST_CATEGORY), 0.0001);
+		}
+		finally {
+			processor.interrupt();
+		}
+	}
+
+	@Test(expected = Latency4JException.class)
+	public void testRequiresALimit() {
+		createRequirement(0, 0).init();
+	}
+
+	private static ErrorRateLatencyRequirement createRequirement(final double maxErrorRate,
+			final double toleranceLevel) {
+		ErrorRateLatencyRequirement result = new ErrorRateLatencyRequirement();
+		result.setWorkCategory(TEST_CATEGORY);
+		result.setWindowLength(WINDOW);
+		result.setMaxErrorRate(maxErrorRate);
+		result.setToleranceLevel(toleranceLevel);
+		result.setMinimumCalls(20);
+		result.setPersistenceManager(new NullPersistenceManager());
+		return result;
+	}
+
+	private static void recordCalls(final ErrorRateWindow target, final long windowStart, final int successes,
+			final int errors) {
+		WorkDurationId id = new WorkDurationId(TEST_CATEGORY, "thread");
+		for (int i = 0; i < successes; i++)
+			target.record(new WorkDuration(id, "call", windowStart, windowStart + 1, true, false), 1);
+		for (int i = 0; i < errors; i++)
+			target.record(new WorkDuration(id, "call", windowStart, windowStart + 1, true, true), 1);
+	}
+}
@@ -0,0 +1,65 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+
+import org.junit.Test;
+import org.latency4j.LatencyRequirement;
+import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.alert.CountingMockAlertHandler;
+import org.latency4j.persistence.NullPersistenceManager;
+
+/*
+ * Test that implicit requirements, created for unconfigured categories,
+ * share their persistence manager and alert handlers, and take their
+ * settings from the configured template.
+ */
+public class ImplicitRequirementTest {
+	@Test
+	public void testImplicitRequirementsShareResources() {
+		AsynchronousLatencyMonitorFactory target = new AsynchronousLatencyMonitorFactory();
+
+		LatencyRequirement first = target.getMonitor("implicitCategory1").getLatencyRequirement();
+		LatencyRequirement second = target.getMonitor("implicitCategory2").getLatencyRequirement();
+
+		assertTrue(first instanceof StatisticalLatencyRequirement);
+		assertSame("Implicit requirements should share a persistence manager.", first.getPersistenceManager(),
+				second.getPersistenceManager());
+		assertEquals(1, first.getAlertHandlers().size());
+		assertSame("Implicit requirements should share an alert handler.", first.getAlertHandlers().get(0),
+				second.getAlertHandlers().get(0));
+	}
+
+	@Test
+	public void testImplicitRequirementTemplate() {
+		String configuration = "<latency4j>"
+				+ "<alertHandlers><alertHandler alertHandlerId=\"counting\" "
+				+ "className=\"org.latency4j.alert.CountingMockAlertHandler\"/></alertHandlers>"
+				+ "<latencyRequirements><implicitRequirement observationsSignificanceBarrier=\"7\" "
+				+ "toleranceLevel=\"0.25\" samplingRate=\"3\" "
+				+ "persistenceManagerClass=\"org.latency4j.persistence.NullPersistenceManager\">"
+				+ "<alertHandlerId>counting</alertHandlerId></implicitRequirement></latencyRequirements>"
+				+ "</latency4j>";
+
+		AsynchronousLatencyMonitorFactory target = new AsynchronousLatencyMonitorFactory();
+		target.init(new ByteArrayInputStream(configuration.getBytes()));
+
+		StatisticalLatencyRequirement first = (StatisticalLatencyRequirement) target.getMonitor("implicitCategory1")
+				.getLatencyRequirement();
+		StatisticalLatencyRequirement second = (StatisticalLatencyRequirement) target.getMonitor("implicitCategory2")
+				.getLatencyRequirement();
+
+		assertEquals("implicitCategory1", first.getWorkCategory());
+		assertEquals(7, first.getObservationsSignificanceBarrier());
+		assertEquals(0.25, first.getToleranceLevel(), 0.0001);
+		assertEquals(3, first.getSamplingRate());
+		assertTrue(first.getPersistenceManager() instanceof NullPersistenceManager);
+		assertSame(first.getPersistenceManager(), second.getPersistenceManager());
+		assertEquals(1, first.getAlertHandlers().size());
+		assertTrue(first.getAlertHandlers().get(0) instanceof CountingMockAlertHandler);
+		assertSame(first.getAlertHandlers().get(0), second.getAlertHandlers().get(0));
+	}
+}
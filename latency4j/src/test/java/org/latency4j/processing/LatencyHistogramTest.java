@@ -0,0 +1,59 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/*
+ * Unit test for class LatencyHistogram.
+ */
+public class LatencyHistogramTest {
+
+	/*
+	 * Values below the sub-bucket count have exact buckets.
+	 */
+	@Test
+	public void testExactBucketsForSmallValues() {
+		for (int i = 0; i < LatencyHistogram.SUB_BUCKET_COUNT; i++) {
+			assertEquals(i, LatencyHistogram.bucketIndex(i));
+			assertEquals(i, LatencyHistogram.bucketLowerBound(i));
+			assertEquals(i + 1, LatencyHistogram.bucketUpperBound(i));
+		}
+	}
+
+	/*
+	 * Every value falls within the bounds of its bucket, and bucket widths
+	 * stay within the histogram's relative precision.
+	 */
+	@Test
+	public void testBucketBounds() {
+		long[] values = { 16, 17, 31, 32, 100, 1023, 1024, 65535, 1000000, 1L << 39 };
+		for (long value : values) {
+			int index = LatencyHistogram.bucketIndex(value);
+			long lower = LatencyHistogram.bucketLowerBound(index);
+			long upper = LatencyHistogram.bucketUpperBound(index);
+
+			assertTrue("Value " + value + " below bucket " + lower, value >= lower);
+			assertTrue("Value " + value + " above bucket " + upper, value < upper);
+			assertTrue("Bucket too wide for " + value, (upper - lower) <= lower / 8);
+		}
+		assertTrue(LatencyHistogram.bucketIndex(Long.MAX_VALUE) < LatencyHistogram.MAX_BUCKET_COUNT);
+	}
+
+	/*
+	 * Recording beyond the initial capacity grows the histogram.
+	 */
+	@Test
+	public void testRecordAndGrow() {
+		LatencyHistogram target = new LatencyHistogram();
+		target.record(3, 2);
+		target.record(1L << 30, 1);
+
+		long[] counts = target.copyCounts();
+		assertEquals(2, counts[3]);
+		assertEquals(1, counts[LatencyHistogram.bucketIndex(1L << 30)]);
+		assertEquals(3, LatencyHistogram.valueAtQuantile(counts, 0.5d));
+		assertEquals(0, LatencyHistogram.valueAtQuantile(new long[4], 0.5d));
+	}
+}
@@ -0,0 +1,78 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.Latency4JException;
+import org.latency4j.alert.CountingMockAlertHandler;
+import org.latency4j.persistence.NullPersistenceManager;
+
+/*
+ * Test that per-method caps are applied to nested calls, without the
+ * method needing a category of its own.
+ */
+public class MethodCapTest extends AbstractLatencyRequirementMonitoringTest {
+	private static final String TEST_CATEGORY = "methodCapTask";
+	private static final String CAPPED_METHOD = "cacheRead";
+	private static final long METHOD_CAP = 20;
+	private static final long CONFIGURED_CAP = 500;
+
+	private CappedLatencyRequirement requirement;
+
+	@Before
+	public void setUp() {
+		requirement = new CappedLatencyRequirement();
+		requirement.setWorkCategory(TEST_CATEGORY);
+		requirement.setExpectedLatency(CONFIGURED_CAP);
+		requirement.setMethodLatency(CAPPED_METHOD, METHOD_CAP);
+		requirement.setPersistenceManager(new NullPersistenceManager());
+		requirement.getAlertHandlers().add(new CountingMockAlertHandler());
+	}
+
+	@Test
+	public void testNestedCallIsCheckedAgainstMethodCap() throws InterruptedException {
+		requirement.init();
+		LatencyProcessor processor = new LatencyProcessor();
+		processor.start();
+		try {
+			AsynchronousLatencyMonitor monitor = new AsynchronousLatencyMonitor(requirement, processor);
+			monitor.createTaskEntry("request");
+			monitor.createTaskEntry(CAPPED_METHOD);
+			Thread.sleep(METHOD_CAP + 40);
+			monitor.taskCompleted();
+			monitor.createTaskEntry("uncapped");
+			Thread.sleep(METHOD_CAP + 40);
+			monitor.taskCompleted();
+			monitor.taskCompleted();
+
+			Thread.sleep(200);
+			assertEquals(1, CountingMockAlertHandler.getLatencyExceededCapCount(TEST_CATEGORY));
+			assertEquals(1, processor.getStatisticsSnapshot(TEST_CATEGORY, CAPPED_METHOD).getBreachCount());
+			assertEquals(0, processor.getStatisticsSnapshot(TEST_CATEGORY, "uncapped").getBreachCount());
+			assertEquals(0, processor.getStatisticsSnapshot(TEST_CATEGORY,
+					LatencyProcessor.ROOT_CALL_STATISTICS_KEY).getBreachCount());
+		}
+		finally {
+			processor.interrupt();
+		}
+	}
+
+	@Test
+	public void testMethodCapLookup() {
+		requirement.init();
+		assertEquals(Long.valueOf(METHOD_CAP), requirement.getMethodLatency(CAPPED_METHOD));
+		assertNull(requirement.getMethodLatency("other"));
+		assertEquals(CONFIGURED_CAP, requirement.getExpectedLatency("other"));
+
+		CappedLatencyRequirement copy = (CappedLatencyRequirement) requirement.copyForCategory("copy");
+		assertEquals(METHOD_CAP, copy.getExpectedLatency(CAPPED_METHOD));
+	}
+
+	@Test(expected = Latency4JException.class)
+	public void testMethodCapMustBePositive() {
+		requirement.setMethodLatency(CAPPED_METHOD, 0);
+	}
+}
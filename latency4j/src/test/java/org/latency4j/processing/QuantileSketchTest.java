@@ -0,0 +1,120 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.latency4j.BaselineStrategy;
+import org.latency4j.Latency4JException;
+import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.persistence.NullPersistenceManager;
+
+/*
+ * Test that each built-in quantile sketch estimates percentiles within its
+ * accuracy, and that sketches can be merged and selected per requirement.
+ */
+public class QuantileSketchTest {
+	private static final String[] ENGINES = { QuantileSketches.LOG_BUCKET, QuantileSketches.T_DIGEST,
+			QuantileSketches.DDSKETCH };
+	private static final double[] ACCURACIES = { 0.07, 0.01, 0.011 };
+
+	@Test
+	public void testPercentileAccuracy() {
+		for (int e = 0; e < ENGINES.length; e++) {
+			QuantileSketch target = QuantileSketches.create(ENGINES[e]);
+			recordRange(target, 1, 10000);
+
+			assertEquals(ENGINES[e], 10000, target.getCount());
+			assertEquals(ENGINES[e], 5000, target.getQuantile(0.5), 5000 * ACCURACIES[e]);
+			assertEquals(ENGINES[e], 9900, target.getQuantile(0.99), 9900 * ACCURACIES[e]);
+			assertEquals(ENGINES[e], 9990, target.getQuantile(0.999), 9990 * ACCURACIES[e]);
+			assertEquals(ENGINES[e], 1000, target.getCountAtOrBelow(1000), 1000 * 2 * ACCURACIES[e]);
+			assertEquals(ENGINES[e], 0, QuantileSketches.create(ENGINES[e]).getQuantile(0.5), 0);
+		}
+	}
+
+	@Test
+	public void testMerge() {
+		for (String engine : ENGINES) {
+			QuantileSketch target = QuantileSketches.create(engine);
+			QuantileSketch other = QuantileSketches.create(engine);
+			recordRange(target, 1, 5000);
+			recordRange(other, 5001, 10000);
+
+			QuantileSketch copy = target.copy();
+			target.merge(other);
+			assertEquals(engine, 10000, target.getCount());
+			assertEquals(engine, 5000, target.getQuantile(0.5), 350);
+			assertEquals("Copies should be independent.", 5000, copy.getCount());
+		}
+	}
+
+	@Test
+	public void testMergeAcrossEngines() {
+		QuantileSketch target = QuantileSketches.create(QuantileSketches.DDSKETCH);
+		QuantileSketch other = QuantileSketches.create(QuantileSketches.T_DIGEST);
+		recordRange(other, 1, 10000);
+
+		QuantileSketches.merge(target, other);
+		assertEquals(10000, target.getCount());
+		assertEquals(9900, target.getQuantile(0.99), 200);
+	}
+
+	@Test
+	public void testTDigestUnorderedInput() {
+		QuantileSketch target = QuantileSketches.create(QuantileSketches.T_DIGEST);
+		// interleaves descending runs of values, so that each buffer arrives out of order
+		for (long value = 10000; value > 5000; value--) {
+			target.record(value, 1);
+			target.record(value - 5000, 1);
+		}
+
+		assertEquals(10000, target.getCount());
+		assertEquals(5000, target.getQuantile(0.5), 150);
+		assertEquals(9900, target.getQuantile(0.99), 99);
+		assertEquals(2500, target.getCountAtOrBelow(2500), 25);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDirectMergeRequiresSameEngine() {
+		QuantileSketches.create(QuantileSketches.T_DIGEST).merge(QuantileSketches.create(QuantileSketches.LOG_BUCKET));
+	}
+
+	@Test
+	public void testStatisticsUseSelectedSketch() {
+		WorkStatistics target = new WorkStatistics(0, QuantileSketches.create(QuantileSketches.T_DIGEST));
+		for (long i = 1; i <= 1000; i++)
+			target.update(1000 + i);
+
+		WorkStatisticsSnapshot snapshot = target.snapshot();
+		assertEquals("A t-digest should be finer than the histogram's buckets.", 1990, snapshot.getPercentile(99), 5);
+		assertEquals(500, snapshot.getCountAtOrBelow(1500), 5);
+		long total = 0;
+		for (long count : snapshot.getBucketCounts())
+			total += count;
+		assertEquals(1000, total);
+
+		target.refreshBaseline(BaselineStrategy.TRIMMED_MEAN, 0.1);
+		assertEquals(1500, target.getBaseline(), 10);
+	}
+
+	@Test
+	public void testRequirementValidatesSketch() {
+		StatisticalLatencyRequirement requirement = new StatisticalLatencyRequirement();
+		requirement.setWorkCategory("sketchTask");
+		requirement.setPersistenceManager(new NullPersistenceManager());
+		requirement.setQuantileSketch(QuantileSketches.DDSKETCH);
+		requirement.init();
+
+		requirement.setQuantileSketch(String.class.getName());
+		try {
+			requirement.init();
+			assertTrue("A class which is not a sketch should be rejected.", false);
+		} catch (Latency4JException expected) {}
+	}
+
+	private static void recordRange(final QuantileSketch target, final long from, final long to) {
+		for (long value = from; value <= to; value++)
+			target.record(value, 1);
+	}
+}
@@ -0,0 +1,97 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.latency4j.BaselineStrategy;
+import org.latency4j.Latency4JException;
+import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.WorkDuration;
+import org.latency4j.WorkDurationId;
+import org.latency4j.alert.CountingMockAlertHandler;
+import org.latency4j.persistence.NullPersistenceManager;
+
+/*
+ * Test that robust baselines are unaffected by extreme outliers, so that
+ * tolerance checks stay meaningful after an incident.
+ */
+public class RobustBaselineTest {
+	private static final String TEST_CATEGORY = "robustBaselineTask";
+
+	@After
+	public void tearDown() {
+		CountingMockAlertHandler.resetAfterTest();
+	}
+
+	@Test
+	public void testTrimmedMean() {
+		long[] bucketCounts = new long[LatencyHistogram.bucketIndex(100000) + 1];
+		bucketCounts[LatencyHistogram.bucketIndex(10)] = 100;
+		bucketCounts[LatencyHistogram.bucketIndex(100000)] = 2;
+
+		assertEquals(10, LatencyHistogram.trimmedMean(bucketCounts, 0.05), 0.0001);
+		assertTrue(LatencyHistogram.trimmedMean(bucketCounts, 0) > 1000);
+		assertEquals(10, LatencyHistogram.trimmedMean(bucketCounts, 0.5), 0.0001);
+		assertEquals(0, LatencyHistogram.trimmedMean(new long[4], 0.1), 0.0001);
+	}
+
+	@Test
+	public void testStrategies() {
+		WorkStatistics target = new WorkStatistics(0);
+		target.update(10, 100);
+		target.update(60000, 5);
+
+		target.refreshBaseline(BaselineStrategy.MEAN, 0.1);
+		assertEquals(target.getRunningAverage(), target.getBaseline(), 0.0001);
+		assertTrue(target.getBaseline() > 2000);
+
+		target.refreshBaseline(BaselineStrategy.MEDIAN, 0.1);
+		assertEquals(10, target.getBaseline(), 0.0001);
+		target.refreshBaseline(BaselineStrategy.TRIMMED_MEAN, 0.1);
+		assertEquals(10, target.getBaseline(), 0.0001);
+	}
+
+	@Test
+	public void testOutliersDoNotMaskBreaches() throws InterruptedException {
+		StatisticalLatencyRequirement requirement = new StatisticalLatencyRequirement();
+		requirement.setWorkCategory(TEST_CATEGORY);
+		requirement.setObservationsSignificanceBarrier(20);
+		requirement.setToleranceLevel(0.5);
+		requirement.setBaselineStrategy(BaselineStrategy.MEDIAN);
+		requirement.setPersistenceManager(new NullPersistenceManager());
+		requirement.getAlertHandlers().add(new CountingMockAlertHandler());
+		requirement.init();
+
+		LatencyProcessor processor = new LatencyProcessor();
+		processor.start();
+		try {
+			for (int i = 0; i < 30; i++)
+				processor.processTaskCompletion(requirement, createDuration(i < 20 && i % 7 == 0 ? 30000 : 10));
+			// the mean is over 3000ms, which would let this call pass
+			processor.processTaskCompletion(requirement, createDuration(18));
+
+			for (int i = 0; i < 100 && CountingMockAlertHandler.getDeviationExceededToleranceCount(TEST_CATEGORY) == 0; i++)
+				Thread.sleep(20);
+			Thread.sleep(100);
+			assertEquals(1, CountingMockAlertHandler.getDeviationExceededToleranceCount(TEST_CATEGORY));
+		}
+		finally {
+			processor.interrupt();
+		}
+	}
+
+	@Test(expected = Latency4JException.class)
+	public void testTrimMustBeBelowHalf() {
+		StatisticalLatencyRequirement requirement = new StatisticalLatencyRequirement();
+		requirement.setWorkCategory(TEST_CATEGORY);
+		requirement.setBaselineTrim(0.5);
+		requirement.setPersistenceManager(new NullPersistenceManager());
+		requirement.init();
+	}
+
+	private static WorkDuration createDuration(final long elapsedTime) {
+		return new WorkDuration(new WorkDurationId(TEST_CATEGORY, "thread"), "call", 0, elapsedTime, true, false);
+	}
+}
@@ -0,0 +1,125 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.Test;
+import org.latency4j.Latency4JException;
+import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.WorkDuration;
+import org.latency4j.WorkDurationId;
+import org.latency4j.alert.CountingMockAlertHandler;
+import org.latency4j.persistence.NullPersistenceManager;
+
+/*
+ * Test that seasonal baselines keep an average per hour of the week, are
+ * seeded from history, and that root calls are judged against the average of
+ * their hour.
+ */
+public class SeasonalBaselineTest {
+	private static final String TEST_CATEGORY = "seasonalTask";
+	private static final long HOUR = 60 * 60 * 1000;
+	private static final long WEEK = 7 * 24 * HOUR;
+	// Monday 1 January 2024, 00:00 UTC
+	private static final long MONDAY = 1704067200000L;
+	private static final long NIGHT = MONDAY + 2 * HOUR;
+	private static final long DAY = MONDAY + 14 * HOUR;
+
+	@After
+	public void tearDown() {
+		CountingMockAlertHandler.resetAfterTest();
+	}
+
+	@Test
+	public void testBuckets() {
+		SeasonalBaseline target = new SeasonalBaseline(TimeZone.getTimeZone("UTC"));
+		assertEquals(0, target.getBucket(MONDAY));
+		assertEquals(14, target.getBucket(DAY + 30 * 60 * 1000));
+		assertEquals(SeasonalBaseline.BUCKET_COUNT - 1, target.getBucket(MONDAY - 1));
+		assertEquals(target.getBucket(NIGHT), target.getBucket(NIGHT + WEEK));
+
+		SeasonalBaseline shifted = new SeasonalBaseline(TimeZone.getTimeZone("GMT+02:00"));
+		assertEquals(2, shifted.getBucket(MONDAY));
+	}
+
+	@Test
+	public void testAveragesPerHour() {
+		SeasonalBaseline target = new SeasonalBaseline(TimeZone.getTimeZone("UTC"));
+		for (int i = 0; i < 5; i++) {
+			target.record(createDuration(NIGHT, 400 + i * 50), 1);
+			target.record(createDuration(DAY, 100), 2);
+		}
+
+		assertEquals(15, target.getObservationCount());
+		assertEquals(500, target.getAverage(NIGHT + WEEK, 5), 0.0001);
+		assertEquals(100, target.getAverage(DAY, 10), 0.0001);
+		assertTrue("Hours below the barrier should have no average.",
+				Double.isNaN(target.getAverage(NIGHT, 6)));
+		assertTrue(Double.isNaN(target.getAverage(MONDAY, 1)));
+	}
+
+	@Test
+	public void testCallsAreJudgedAgainstTheirHour() throws InterruptedException {
+		StatisticalLatencyRequirement requirement = new StatisticalLatencyRequirement();
+		requirement.setWorkCategory(TEST_CATEGORY);
+		requirement.setObservationsSignificanceBarrier(10);
+		requirement.setToleranceLevel(0.5);
+		requirement.setSeasonalBaseline(true);
+		requirement.setSeasonalTimeZone("UTC");
+		requirement.setPersistenceManager(new HistoryManager());
+		requirement.getAlertHandlers().add(new CountingMockAlertHandler());
+		requirement.init();
+
+		LatencyProcessor processor = new LatencyProcessor();
+		processor.start();
+		try {
+			// the overall average is 300ms, which would flag the night call and
+			// pass the day call
+			processor.processTaskCompletion(requirement, createDuration(NIGHT + WEEK, 520));
+			processor.processTaskCompletion(requirement, createDuration(DAY + WEEK, 300));
+
+			for (int i = 0; i < 100 && CountingMockAlertHandler.getDeviationExceededToleranceCount(TEST_CATEGORY) == 0; i++)
+				Thread.sleep(20);
+			Thread.sleep(100);
+			assertEquals(1, CountingMockAlertHandler.getDeviationExceededToleranceCount(TEST_CATEGORY));
+		}
+		finally {
+			processor.interrupt();
+		}
+	}
+
+	@Test(expected = Latency4JException.class)
+	public void testUnknownTimeZoneIsRejected() {
+		StatisticalLatencyRequirement requirement = new StatisticalLatencyRequirement();
+		requirement.setWorkCategory(TEST_CATEGORY);
+		requirement.setSeasonalBaseline(true);
+		requirement.setSeasonalTimeZone("Nowhere/Special");
+		requirement.setPersistenceManager(new NullPersistenceManager());
+		requirement.init();
+	}
+
+	private static WorkDuration createDuration(final long end, final long elapsedTime) {
+		return new WorkDuration(new WorkDurationId(TEST_CATEGORY, "thread"), "call", end - elapsedTime, end, true,
+				false);
+	}
+
+	/*
+	 * Returns a history of 500ms calls at night and 100ms calls by day.
+	 */
+	private static class HistoryManager extends NullPersistenceManager {
+		@Override
+		public synchronized List<WorkDuration> loadHistoricalData(final String workCategory) {
+			List<WorkDuration> result = new ArrayList<WorkDuration>();
+			for (int i = 0; i < 20; i++) {
+				result.add(createDuration(NIGHT, 500));
+				result.add(createDuration(DAY, 100));
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.SortedMap;
+
+import org.junit.Test;
+import org.latency4j.WorkDuration;
+import org.latency4j.WorkDurationId;
+
+/*
+ * Test that the reservoir keeps the K slowest calls per window, rolls windows
+ * over and captures the call path and error of each exemplar.
+ */
+public class SlowCallReservoirTest {
+	private static final long WINDOW = 1000;
+
+	@Test
+	public void testKeepsSlowestPerWindow() {
+		SlowCallReservoir target = new SlowCallReservoir(3, WINDOW);
+		long[] elapsedTimes = { 5, 50, 10, 40, 1, 30, 20 };
+		for (long elapsedTime : elapsedTimes)
+			target.offer(createDuration("call", 100, elapsedTime, null));
+
+		assertFalse("A call faster than all exemplars should be rejected.",
+				target.offer(createDuration("call", 100, 2, null)));
+
+		List<SlowCallExemplar> slowest = target.getSlowest(500);
+		assertEquals(3, slowest.size());
+		assertEquals(50, slowest.get(0).getElapsedTime());
+		assertEquals(40, slowest.get(1).getElapsedTime());
+		assertEquals(30, slowest.get(2).getElapsedTime());
+	}
+
+	@Test
+	public void testWindowsRollOver() {
+		SlowCallReservoir target = new SlowCallReservoir(2, WINDOW);
+		target.offer(createDuration("call", 0, 90, null));
+		target.offer(createDuration("call", 1000, 10, null));
+		target.offer(createDuration("call", 2000, 20, null));
+
+		SortedMap<Long, List<SlowCallExemplar>> byWindow = target.getSlowestByWindow(2500);
+		assertEquals(3, byWindow.size());
+		assertEquals(90, target.getSlowest(2500).get(0).getElapsedTime());
+
+		// the same slot is reused once the first window is no longer retained
+		long reused = SlowCallReservoir.RETAINED_WINDOWS * WINDOW;
+		target.offer(createDuration("call", reused, 5, null));
+		byWindow = target.getSlowestByWindow(reused);
+		assertFalse(byWindow.containsKey(0L));
+		assertEquals(5, byWindow.get(reused).get(0).getElapsedTime());
+		assertFalse("Calls older than the retained windows should be rejected.",
+				target.offer(createDuration("call", 0, 500, null)));
+	}
+
+	@Test
+	public void testExemplarCapturesPathAndError() {
+		WorkDuration parent = createDuration("handle", 0, 100, null);
+		WorkDuration child = createDuration("query", 0, 60, new IllegalStateException("timeout"));
+		child.setParent(parent);
+
+		SlowCallExemplar exemplar = new SlowCallExemplar(child);
+		assertEquals("handle" + SlowCallExemplar.CALL_PATH_SEPARATOR + "query", exemplar.getCallPath());
+		assertEquals("thread", exemplar.getThreadId());
+		assertTrue(exemplar.isErrored());
+		assertEquals(IllegalStateException.class.getName() + ": timeout", exemplar.getErrorSummary());
+		assertNull(new SlowCallExemplar(parent).getErrorSummary());
+	}
+
+	private static WorkDuration createDuration(final String methodName, final long end, final long elapsedTime,
+			final Throwable error) {
+		WorkDuration result = new WorkDuration(new WorkDurationId("slowCallTask", "thread"), methodName,
+				end - elapsedTime, end, false, error != null);
+		if (error != null) result.setError(error);
+		return result;
+	}
+}
@@ -0,0 +1,163 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.WorkDuration;
+import org.latency4j.WorkDurationId;
+import org.latency4j.alert.CountingMockAlertHandler;
+import org.latency4j.persistence.NullPersistenceManager;
+
+/*
+ * Test that statistics warmed up off the processing thread do not hold up
+ * other categories, and that durations arriving during warm-up are checked
+ * against the warmed-up baseline.
+ */
+public class StatisticsWarmUpTest {
+	private static final String WARMING_CATEGORY = "warmingTask";
+	private static final String OTHER_CATEGORY = "otherTask";
+
+	private CountDownLatch historyReleased;
+	private LatencyProcessor processor;
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		CountingMockAlertHandler.resetAfterTest();
+		historyReleased = new CountDownLatch(1);
+		processor = new LatencyProcessor();
+		processor.start();
+		executor = Executors.newSingleThreadExecutor();
+	}
+
+	@After
+	public void tearDown() {
+		historyReleased.countDown();
+		executor.shutdownNow();
+		processor.interrupt();
+		CountingMockAlertHandler.resetAfterTest();
+	}
+
+	@Test
+	public void testDurationsDeferredUntilWarmedUp() throws InterruptedException {
+		StatisticalLatencyRequirement warmingRequirement = new StatisticalLatencyRequirement();
+		warmingRequirement.setWorkCategory(WARMING_CATEGORY);
+		warmingRequirement.setObservationsSignificanceBarrier(10);
+		warmingRequirement.setToleranceLevel(0.5);
+		warmingRequirement.setPersistenceManager(new BlockingHistoryManager());
+		warmingRequirement.getAlertHandlers().add(new CountingMockAlertHandler());
+		warmingRequirement.init();
+
+		CappedLatencyRequirement otherRequirement = new CappedLatencyRequirement();
+		otherRequirement.setWorkCategory(OTHER_CATEGORY);
+		otherRequirement.setExpectedLatency(1000L);
+		otherRequirement.setPersistenceManager(new NullPersistenceManager());
+		otherRequirement.getAlertHandlers().add(new CountingMockAlertHandler());
+		otherRequirement.init();
+
+		processor.warmUp(warmingRequirement, executor);
+		assertTrue(processor.isWarmingUp());
+
+		processor.processTaskCompletion(warmingRequirement, createDuration(WARMING_CATEGORY, 100));
+		processor.processTaskCompletion(otherRequirement, createDuration(OTHER_CATEGORY, 5));
+		waitFor(OTHER_CATEGORY);
+
+		assertNotNull("Other categories should be processed during warm-up.",
+				processor.getStatisticsSnapshot(OTHER_CATEGORY, LatencyProcessor.ROOT_CALL_STATISTICS_KEY));
+		assertNull(processor.getStatisticsSnapshot(WARMING_CATEGORY, LatencyProcessor.ROOT_CALL_STATISTICS_KEY));
+
+		historyReleased.countDown();
+		for (int i = 0; i < 100 && processor.isWarmingUp(); i++)
+			Thread.sleep(20);
+		assertFalse(processor.isWarmingUp());
+		waitFor(WARMING_CATEGORY);
+
+		WorkStatisticsSnapshot snapshot = processor.getStatisticsSnapshot(WARMING_CATEGORY,
+				LatencyProcessor.ROOT_CALL_STATISTICS_KEY);
+		assertEquals("History and the deferred duration should be counted.", 21, snapshot.getNumberOfObservations());
+		assertEquals("The deferred duration should be checked against the baseline.", 1, snapshot.getBreachCount());
+		assertEquals(1, CountingMockAlertHandler.getDeviationExceededToleranceCount(WARMING_CATEGORY));
+	}
+
+	/*
+	 * Test that durations arriving once the deferral limit is reached are
+	 * still counted when the warmed-up statistics are installed.
+	 */
+	@Test
+	public void testDurationsBeyondDeferralLimitCounted() throws InterruptedException {
+		StatisticalLatencyRequirement warmingRequirement = new StatisticalLatencyRequirement();
+		warmingRequirement.setWorkCategory(WARMING_CATEGORY);
+		warmingRequirement.setObservationsSignificanceBarrier(10);
+		warmingRequirement.setPersistenceManager(new BlockingHistoryManager());
+		warmingRequirement.getAlertHandlers().add(new CountingMockAlertHandler());
+		warmingRequirement.init();
+
+		processor.warmUp(warmingRequirement, executor);
+		int durations = LatencyProcessor.MAX_DEFERRED_ENTRIES + 50;
+		for (int i = 0; i < durations; i++)
+			processor.processTaskCompletion(warmingRequirement, createDuration(WARMING_CATEGORY, 10));
+		for (int i = 0; i < 100 && processor.getQueueSize() > 0; i++)
+			Thread.sleep(20);
+
+		historyReleased.countDown();
+		for (int i = 0; i < 100 && processor.isWarmingUp(); i++)
+			Thread.sleep(20);
+		assertFalse(processor.isWarmingUp());
+		waitFor(WARMING_CATEGORY);
+
+		WorkStatisticsSnapshot snapshot = null;
+		for (int i = 0; i < 100; i++) {
+			snapshot = processor.getStatisticsSnapshot(WARMING_CATEGORY, LatencyProcessor.ROOT_CALL_STATISTICS_KEY);
+			if (snapshot.getNumberOfObservations() == 20 + durations) break;
+			Thread.sleep(20);
+		}
+		assertEquals("History and every duration should be counted.", 20 + durations,
+				snapshot.getNumberOfObservations());
+	}
+
+	private void waitFor(final String workCategory) throws InterruptedException {
+		for (int i = 0; i < 100 && processor
+				.getStatisticsSnapshot(workCategory, LatencyProcessor.ROOT_CALL_STATISTICS_KEY) == null; i++)
+			Thread.sleep(20);
+	}
+
+	private static WorkDuration createDuration(final String workCategory, final long elapsedTime) {
+		long end = System.currentTimeMillis();
+		return new WorkDuration(new WorkDurationId(workCategory, "thread"), "method", end - elapsedTime, end, true,
+				false);
+	}
+
+	/*
+	 * Returns a history of 20 10ms durations, once released by the test.
+	 */
+	private class BlockingHistoryManager extends NullPersistenceManager {
+		@Override
+		public synchronized List<WorkDuration> loadHistoricalData(final String workCategory) {
+			try {
+				historyReleased.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException exce) {
+				Thread.currentThread().interrupt();
+			}
+
+			List<WorkDuration> result = new ArrayList<WorkDuration>();
+			for (int i = 0; i < 20; i++)
+				result.add(createDuration(workCategory, 10));
+			return result;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.latency4j.StatisticalLatencyRequirement;
+import org.latency4j.WorkDuration;
+import org.latency4j.WorkDurationId;
+import org.latency4j.persistence.NullPersistenceManager;
+
+/*
+ * Unit test for class ThreadLocalAggregator. The processor is deliberately not
+ * started, so that the test thread can act as the processing thread.
+ */
+public class ThreadLocalAggregatorTest {
+	private static final String TEST_CATEGORY = "aggregatorTestCategory";
+	private static final String TEST_METHOD = "aggregatedMethod";
+
+	private StatisticalLatencyRequirement requirement;
+	private LatencyProcessor processor;
+	private ThreadLocalAggregator target;
+
+	@Before
+	public void setUp() {
+		requirement = new StatisticalLatencyRequirement();
+		requirement.setWorkCategory(TEST_CATEGORY);
+		requirement.setPersistenceManager(new NullPersistenceManager());
+		requirement.setAggregationInterval(1000);
+		requirement.setAggregationThreshold(3);
+		requirement.init();
+
+		processor = new LatencyProcessor();
+		target = new ThreadLocalAggregator(requirement, processor);
+	}
+
+	@Test
+	public void testEnabledByInterval() {
+		assertTrue(target.isEnabled());
+		requirement.setAggregationInterval(0);
+		assertFalse(target.isEnabled());
+	}
+
+	/*
+	 * Aggregates are merged when the interval elapses.
+	 */
+	@Test
+	public void testMergeOnInterval() {
+		target.aggregate(createDuration(10));
+		target.aggregate(createDuration(20));
+		assertEquals(0, processor.getQueueSize());
+
+		target.tick(System.currentTimeMillis());
+		assertNull("Interval has not elapsed.", processor.getStatisticsSnapshot(TEST_CATEGORY, TEST_METHOD));
+
+		target.tick(System.currentTimeMillis() + 2000);
+		WorkStatisticsSnapshot snapshot = processor.getStatisticsSnapshot(TEST_CATEGORY, TEST_METHOD);
+		assertEquals(2, snapshot.getNumberOfObservations());
+		assertEquals(15.0d, snapshot.getMean(), 0d);
+		assertEquals(20, snapshot.getMaxTime());
+	}
+
+	/*
+	 * A thread hands its aggregates over once the threshold is reached.
+	 */
+	@Test
+	public void testHandOverOnThreshold() {
+		for (int i = 0; i < 3; i++)
+			target.aggregate(createDuration(10));
+		assertEquals(1, processor.getQueueSize());
+	}
+
+	/*
+	 * Aggregates of terminated threads are collected.
+	 */
+	@Test
+	public void testCollectionFromTerminatedThread() throws InterruptedException {
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				target.aggregate(createDuration(30));
+			}
+		};
+		thread.start();
+		thread.join();
+
+		target.tick(System.currentTimeMillis() + 2000);
+		assertEquals(1, processor.getStatisticsSnapshot(TEST_CATEGORY, TEST_METHOD).getNumberOfObservations());
+	}
+
+	private WorkDuration createDuration(final long elapsedTime) {
+		return new WorkDuration(new WorkDurationId(TEST_CATEGORY, Thread.currentThread().getName()), TEST_METHOD, 0,
+				elapsedTime, false, false);
+	}
+}
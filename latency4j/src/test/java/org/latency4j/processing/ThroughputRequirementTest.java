@@ -0,0 +1,120 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.latency4j.Latency4JException;
+import org.latency4j.ThroughputLatencyRequirement;
+import org.latency4j.alert.CountingMockAlertHandler;
+import org.latency4j.persistence.NullPersistenceManager;
+
+/*
+ * Test that throughput requirements count calls in progress and completed,
+ * and alert once per episode when evaluated on the processor's timer.
+ */
+public class ThroughputRequirementTest {
+	private static final String TEST_CATEGORY = "throughputTask";
+	private static final long INTERVAL = 1000;
+
+	@After
+	public void tearDown() {
+		CountingMockAlertHandler.resetAfterTest();
+	}
+
+	@Test
+	public void testConcurrencySpikeAlertsOnce() {
+		ThroughputTracker target = new ThroughputTracker(createRequirement(0, 2));
+
+		target.tick(0);
+		for (int i = 0; i < 3; i++)
+			target.callStarted();
+		target.tick(500);
+		target.callCompleted();
+		target.callCompleted();
+		assertEquals(1, target.getConcurrency());
+		target.tick(INTERVAL);
+		assertEquals(3, target.getPeakConcurrency());
+		assertEquals(1, CountingMockAlertHandler.getConcurrencyExceededCount(TEST_CATEGORY));
+
+		for (int i = 0; i < 3; i++)
+			target.callStarted();
+		target.tick(2 * INTERVAL);
+		assertEquals("An ongoing breach should not be alerted again.", 1,
+				CountingMockAlertHandler.getConcurrencyExceededCount(TEST_CATEGORY));
+
+		for (int i = 0; i < 4; i++)
+			target.callCompleted();
+		target.tick(3 * INTERVAL);
+		target.tick(4 * INTERVAL);
+		assertEquals(0, target.getConcurrency());
+		assertEquals(0, target.getPeakConcurrency());
+		for (int i = 0; i < 3; i++)
+			target.callStarted();
+		target.tick(5 * INTERVAL);
+		assertEquals("A new breach should be alerted.", 2,
+				CountingMockAlertHandler.getConcurrencyExceededCount(TEST_CATEGORY));
+	}
+
+	@Test
+	public void testRateCollapse() {
+		ThroughputTracker target = new ThroughputTracker(createRequirement(5, 0));
+
+		target.tick(0);
+		target.tick(INTERVAL);
+		assertEquals("Idle categories should not be judged.", 0,
+				CountingMockAlertHandler.getCallRateBelowMinimumCount(TEST_CATEGORY));
+
+		completeCalls(target, 10);
+		target.tick(2 * INTERVAL);
+		assertEquals(10, target.getCallsPerSecond(), 0.0001);
+		assertEquals(0, CountingMockAlertHandler.getCallRateBelowMinimumCount(TEST_CATEGORY));
+
+		completeCalls(target, 2);
+		target.tick(3 * INTERVAL);
+		target.tick(4 * INTERVAL);
+		assertEquals(0, target.getCallsPerSecond(), 0.0001);
+		assertEquals(1, CountingMockAlertHandler.getCallRateBelowMinimumCount(TEST_CATEGORY));
+	}
+
+	@Test
+	public void testMonitorCountsRootCalls() {
+		ThroughputLatencyRequirement requirement = createRequirement(0, 10);
+		LatencyProcessor processor = new LatencyProcessor();
+		AsynchronousLatencyMonitor monitor = new AsynchronousLatencyMonitor(requirement, processor);
+
+		monitor.createTaskEntry("outer");
+		monitor.createTaskEntry("inner");
+		assertEquals("Nested calls should not be counted.", 1, processor.getConcurrency(TEST_CATEGORY));
+		monitor.taskCompleted();
+		assertEquals(1, processor.getConcurrency(TEST_CATEGORY));
+		monitor.taskErrored(new IllegalStateException("failure"));
+		assertEquals(0, processor.getConcurrency(TEST_CATEGORY));
+		assertTrue(Double.isNaN(processor.getCallsPerSecond(TEST_CATEGORY)));
+	}
+
+	@Test(expected = Latency4JException.class)
+	public void testRequiresALimit() {
+		createRequirement(0, 0).init();
+	}
+
+	private static ThroughputLatencyRequirement createRequirement(final double minCallsPerSecond,
+			final long maxConcurrency) {
+		ThroughputLatencyRequirement result = new ThroughputLatencyRequirement();
+		result.setWorkCategory(TEST_CATEGORY);
+		result.setEvaluationInterval(INTERVAL);
+		result.setMinCallsPerSecond(minCallsPerSecond);
+		result.setMaxConcurrency(maxConcurrency);
+		result.setPersistenceManager(new NullPersistenceManager());
+		result.getAlertHandlers().add(new CountingMockAlertHandler());
+		return result;
+	}
+
+	private static void completeCalls(final ThroughputTracker target, final int count) {
+		for (int i = 0; i < count; i++) {
+			target.callStarted();
+			target.callCompleted();
+		}
+	}
+}
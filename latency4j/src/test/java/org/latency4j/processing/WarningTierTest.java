@@ -0,0 +1,88 @@
+package org.latency4j.processing;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.latency4j.CappedLatencyRequirement;
+import org.latency4j.Latency4JException;
+import org.latency4j.alert.CountingMockAlertHandler;
+import org.latency4j.persistence.NullPersistenceManager;
+
+/*
+ * Test that capped requirements route warning and critical breaches to their
+ * own handlers, and count each breach in the highest tier only.
+ */
+public class WarningTierTest extends AbstractLatencyRequirementMonitoringTest {
+	private static final String TEST_CATEGORY = "warningTierTask";
+	private static final long WARNING_LATENCY = 60;
+	private static final long CONFIGURED_CAP = 300;
+
+	private CappedLatencyRequirement requirement;
+
+	@Before
+	public void setUp() {
+		requirement = new CappedLatencyRequirement();
+		requirement.setWorkCategory(TEST_CATEGORY);
+		requirement.setExpectedLatency(CONFIGURED_CAP);
+		requirement.setWarningLatency(WARNING_LATENCY);
+		requirement.setPersistenceManager(new NullPersistenceManager());
+		requirement.getAlertHandlers().add(new CountingMockAlertHandler());
+		requirement.getWarningAlertHandlers().add(new CountingMockAlertHandler());
+	}
+
+	@Test
+	public void testBreachesAreCountedPerTier() throws InterruptedException {
+		requirement.init();
+		LatencyProcessor processor = new LatencyProcessor();
+		processor.start();
+		try {
+			AsynchronousLatencyMonitor monitor = new AsynchronousLatencyMonitor(requirement, processor);
+			runCall(monitor, 1);
+			runCall(monitor, WARNING_LATENCY + 40);
+			runCall(monitor, CONFIGURED_CAP + 50);
+
+			Thread.sleep(200);
+			assertEquals(1, CountingMockAlertHandler.getWarningExceededCount(TEST_CATEGORY));
+			assertEquals(1, CountingMockAlertHandler.getLatencyExceededCapCount(TEST_CATEGORY));
+
+			WorkStatisticsSnapshot snapshot = processor.getStatisticsSnapshot(TEST_CATEGORY,
+					LatencyProcessor.ROOT_CALL_STATISTICS_KEY);
+			assertEquals(3, snapshot.getNumberOfObservations());
+			assertEquals(1, snapshot.getWarningCount());
+			assertEquals(1, snapshot.getBreachCount());
+		}
+		finally {
+			processor.interrupt();
+		}
+	}
+
+	@Test
+	public void testLowestTierLatency() {
+		requirement.init();
+		assertEquals(WARNING_LATENCY, requirement.getLowestTierLatency());
+		requirement.setWarningLatency(0);
+		assertEquals(CONFIGURED_CAP, requirement.getLowestTierLatency());
+	}
+
+	@Test
+	public void testLowestTierLatencyNeverAboveCap() {
+		requirement.init();
+		requirement.setExpectedLatency(WARNING_LATENCY - 10);
+		assertEquals("A cap lowered below the warning latency should still be checked.", WARNING_LATENCY - 10,
+				requirement.getLowestTierLatency());
+	}
+
+	@Test(expected = Latency4JException.class)
+	public void testWarningMustBeBelowCap() {
+		requirement.setWarningLatency(CONFIGURED_CAP);
+		requirement.init();
+	}
+
+	private static void runCall(final AsynchronousLatencyMonitor monitor, final long sleepTime)
+			throws InterruptedException {
+		monitor.createTaskEntry("call");
+		Thread.sleep(sleepTime);
+		monitor.taskCompleted();
+	}
+}
@@ -2,6 +2,7 @@ package org.latency4j.processing;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -49,4 +50,67 @@ public class WorkStatisticsTest {
 		assertEquals(loopUpperBound, target.getNumberOfObservations());
 		assertEquals(1.0, target.getRunningAverage(), 0d);
 	}
+
+	/*
+	 * Test that max, error and breach counts are tracked.
+	 */
+	@Test
+	public void testMaxErrorsAndBreaches() {
+		target.update(5);
+		target.update(50);
+		target.update(7);
+		target.recordError();
+		target.recordBreach();
+		target.recordBreach();
+
+		assertEquals(50, target.getMaxTime());
+		assertEquals(1, target.getErrorCount());
+		assertEquals(2, target.getBreachCount());
+	}
+
+	/*
+	 * Test that snapshots reflect the statistics and yield percentiles within
+	 * the histogram's precision.
+	 */
+	@Test
+	public void testSnapshot() {
+		for (int i = 1; i <= 1000; i++)
+			target.update(i);
+		target.recordError();
+
+		WorkStatisticsSnapshot snapshot = target.snapshot();
+		assertEquals(1000, snapshot.getNumberOfObservations());
+		assertEquals(500.5d, snapshot.getMean(), 0.0001d);
+		assertEquals(1000, snapshot.getMaxTime());
+		assertEquals(1, snapshot.getErrorCount());
+
+		long median = snapshot.getPercentile(50);
+		assertTrue("Median out of bounds: " + median, median >= 470 && median <= 530);
+		long p99 = snapshot.getPercentile(99);
+		assertTrue("99th percentile out of bounds: " + p99, p99 >= 930 && p99 <= 1000);
+		assertEquals(1000, snapshot.getPercentile(100));
+
+		// later updates do not affect the snapshot
+		target.update(5000);
+		assertEquals(1000, snapshot.getMaxTime());
+	}
+
+	/*
+	 * Test that merged deltas are equivalent to individual updates.
+	 */
+	@Test
+	public void testMerge() {
+		StatisticsDelta delta = new StatisticsDelta();
+		for (int i = 1; i <= 100; i++)
+			delta.add(i * 100);
+		target.update(50);
+		target.merge(delta);
+
+		WorkStatisticsSnapshot snapshot = target.snapshot();
+		assertEquals(101, snapshot.getNumberOfObservations());
+		assertEquals(10000, snapshot.getMaxTime());
+		assertEquals((50 + 505000) / 101.0d, snapshot.getMean(), 0.0001d);
+		long median = snapshot.getPercentile(50);
+		assertTrue("Median out of bounds: " + median, median >= 4700 && median <= 5300);
+	}
 }
@@ -0,0 +1,110 @@
+package org.latency4j.prometheus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.latency4j.LatencyMonitor;
+import org.latency4j.processing.AsynchronousLatencyMonitorFactory;
+import org.latency4j.processing.LatencyProcessor;
+
+/*
+ * Unit test for classes PrometheusExporter and PrometheusTextRenderer.
+ */
+public class PrometheusExporterTest {
+
+	private static final String TEST_CATEGORY = "prometheusTest";
+
+	private AsynchronousLatencyMonitorFactory factory;
+
+	private PrometheusExporter target;
+
+	@Before
+	public void setUp() throws Exception {
+		factory = new AsynchronousLatencyMonitorFactory();
+		LatencyMonitor monitor = factory.getMonitor(TEST_CATEGORY);
+		for (int i = 0; i < 3; i++) {
+			monitor.taskStarted();
+			monitor.taskCompleted();
+		}
+
+		LatencyProcessor processor = factory.getAsyncProcessor();
+		for (int i = 0; i < 100 && processor.getStatisticsSnapshot(TEST_CATEGORY,
+				LatencyProcessor.ROOT_CALL_STATISTICS_KEY) == null; i++)
+			Thread.sleep(20);
+		Thread.sleep(50);
+
+		target = new PrometheusExporter();
+		target.setMonitorFactory(factory);
+		target.setHost("127.0.0.1");
+		target.setPort(0);
+		target.setBucketBounds(new long[] { 10, 100000 });
+	}
+
+	@After
+	public void tearDown() {
+		target.destroy();
+	}
+
+	@Test
+	public void testRendering() {
+		PrometheusTextRenderer renderer = new PrometheusTextRenderer(factory.getAsyncProcessor(),
+				new long[] { 10, 100000 });
+		renderer.renderToBuffer();
+		String text = renderToString(renderer);
+
+		// second render reuses the buffer and yields the same output
+		renderer.renderToBuffer();
+		assertEquals(text, renderToString(renderer));
+
+		String labels = "{category=\"prometheusTest\",method=\"<root>\"";
+		assertTrue(text, text.contains("# TYPE latency4j_latency_milliseconds histogram\n"));
+		assertTrue(text, text.contains("latency4j_latency_milliseconds_bucket" + labels + ",le=\"100000\"} 3\n"));
+		assertTrue(text, text.contains("latency4j_latency_milliseconds_bucket" + labels + ",le=\"+Inf\"} 3\n"));
+		assertTrue(text, text.contains("latency4j_latency_milliseconds_count" + labels + "} 3\n"));
+		assertTrue(text, text.contains("latency4j_errors_total" + labels + "} 0\n"));
+		assertTrue(text, text.contains("latency4j_breaches_total" + labels + "} 0\n"));
+	}
+
+	@Test
+	public void testLabelEscaping() {
+		assertEquals("a\\\\b\\\"c\\nd", PrometheusTextRenderer.escape("a\\b\"c\nd"));
+	}
+
+	@Test
+	public void testHttpEndpoint() throws Exception {
+		target.init();
+
+		URL url = new URL("http://127.0.0.1:" + target.getPort() + PrometheusExporter.DEFAULT_PATH);
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		assertEquals(200, connection.getResponseCode());
+		assertEquals(PrometheusTextRenderer.CONTENT_TYPE, connection.getContentType());
+
+		InputStream in = connection.getInputStream();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		byte[] chunk = new byte[1024];
+		int read;
+		while ((read = in.read(chunk)) != -1)
+			body.write(chunk, 0, read);
+		in.close();
+
+		assertTrue(body.toString("UTF-8").contains("latency4j_latency_milliseconds_count"));
+	}
+
+	private static String renderToString(final PrometheusTextRenderer renderer) {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			renderer.writeBufferTo(out);
+			return out.toString("UTF-8");
+		} catch (Exception exce) {
+			throw new RuntimeException(exce);
+		}
+	}
+}
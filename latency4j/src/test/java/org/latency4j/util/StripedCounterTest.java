@@ -0,0 +1,43 @@
+package org.latency4j.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/*
+ * Unit test for class StripedCounter.
+ */
+public class StripedCounterTest {
+
+	@Test
+	public void testCellCountIsPowerOfTwo() {
+		assertEquals(1, new StripedCounter(1).getCellCount());
+		assertEquals(2, new StripedCounter(2).getCellCount());
+		assertEquals(8, new StripedCounter(5).getCellCount());
+		assertEquals(8, new StripedCounter(8).getCellCount());
+	}
+
+	@Test
+	public void testConcurrentIncrements() throws InterruptedException {
+		final StripedCounter target = new StripedCounter(4);
+		final int threadCount = 8;
+		final int incrementsPerThread = 10000;
+
+		Thread[] threads = new Thread[threadCount];
+		for (int i = 0; i < threadCount; i++) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					for (int j = 0; j < incrementsPerThread; j++)
+						target.increment();
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+
+		target.add(5);
+		assertEquals(threadCount * incrementsPerThread + 5, target.sum());
+	}
+}